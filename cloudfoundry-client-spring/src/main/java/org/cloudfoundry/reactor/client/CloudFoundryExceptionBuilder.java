@@ -16,7 +16,11 @@
 
 package org.cloudfoundry.reactor.client;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.netty.buffer.ByteBuf;
 import org.cloudfoundry.client.v2.CloudFoundryException;
 import org.springframework.web.client.HttpStatusCodeException;
 import reactor.core.publisher.Mono;
@@ -24,11 +28,16 @@ import reactor.core.util.Exceptions;
 import reactor.io.netty.http.HttpException;
 
 import java.io.IOException;
-import java.util.Map;
+import java.util.Arrays;
 
 public final class CloudFoundryExceptionBuilder {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    /**
+     * The maximum number of bytes of an error payload that will be captured.  Cloud Controller error payloads are small, so anything beyond this is discarded rather than buffered.
+     */
+    static final int MAXIMUM_PAYLOAD_SIZE = 16 * 1024;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
     private CloudFoundryExceptionBuilder() {
     }
@@ -39,42 +48,98 @@ public final class CloudFoundryExceptionBuilder {
      * @param cause the cause
      * @return a properly configured {@link CloudFoundryException}
      */
-    @SuppressWarnings("unchecked")
     public static CloudFoundryException build(HttpStatusCodeException cause) {  // TODO: Remove once Reactor migration complete
-        try {
-            Map<String, ?> response = OBJECT_MAPPER.readValue(cause.getResponseBodyAsString(), Map.class);
-            Integer code = (Integer) response.get("code");
-            String description = (String) response.get("description");
-            String errorCode = (String) response.get("error_code");
+        byte[] payload = cause.getResponseBodyAsByteArray();
 
-            return new CloudFoundryException(code, description, errorCode, cause);
+        try {
+            return build(payload, Math.min(payload.length, MAXIMUM_PAYLOAD_SIZE), cause);
         } catch (IOException e) {
             throw new IllegalArgumentException(e);
         }
     }
 
     /**
-     * Build a {@link CloudFoundryException} from an {@link HttpException}
+     * Build a {@link CloudFoundryException} from an {@link HttpException}.  At most {@value #MAXIMUM_PAYLOAD_SIZE} bytes of the error payload are captured and the payload is parsed as a stream,
+     * reading only the {@code code}, {@code description}, and {@code error_code} fields.
      *
      * @param cause the cause
      * @param <T>   The type of the {@link Mono}
      * @return a {@link Mono#error} with a properly configured {@link CloudFoundryException}
      */
-    @SuppressWarnings("unchecked")
     public static <T> Mono<T> build(HttpException cause) {
-        return cause.getChannel().receive().aggregate().toInputStream()
-            .then(in -> {
+        return cause.getChannel().receive()
+            .collect(() -> new BoundedPayload(MAXIMUM_PAYLOAD_SIZE), BoundedPayload::append)
+            .then(payload -> {
                 try {
-                    Map<String, ?> response = OBJECT_MAPPER.readValue(in, Map.class);
-                    Integer code = (Integer) response.get("code");
-                    String description = (String) response.get("description");
-                    String errorCode = (String) response.get("error_code");
-
-                    return Mono.error(new CloudFoundryException(code, description, errorCode, cause));
+                    return Mono.error(build(payload.bytes, payload.length, cause));
                 } catch (IOException e) {
                     throw Exceptions.propagate(e);
                 }
             });
     }
 
+    private static CloudFoundryException build(byte[] payload, int length, Throwable cause) throws IOException {
+        Integer code = null;
+        String description = null;
+        String errorCode = null;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(payload, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException("Error payload is not a JSON object", parser.getCurrentLocation());
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if ("code".equals(name)) {
+                    code = value == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : null;
+                } else if ("description".equals(name)) {
+                    description = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                } else if ("error_code".equals(name)) {
+                    errorCode = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            if (code == null && description == null && errorCode == null) {
+                throw e;
+            }
+        }
+
+        return new CloudFoundryException(code, description, errorCode, cause);
+    }
+
+    private static final class BoundedPayload {
+
+        private static final int INITIAL_CAPACITY = 512;
+
+        private final int capacity;
+
+        private byte[] bytes;
+
+        private int length;
+
+        private BoundedPayload(int capacity) {
+            this.bytes = new byte[Math.min(INITIAL_CAPACITY, capacity)];
+            this.capacity = capacity;
+        }
+
+        private void append(ByteBuf chunk) {
+            int count = Math.min(chunk.readableBytes(), this.capacity - this.length);
+            if (count <= 0) {
+                return;
+            }
+
+            if (this.length + count > this.bytes.length) {
+                this.bytes = Arrays.copyOf(this.bytes, Math.min(Math.max(this.bytes.length * 2, this.length + count), this.capacity));
+            }
+
+            chunk.getBytes(chunk.readerIndex(), this.bytes, this.length, count);
+            this.length += count;
+        }
+
+    }
+
 }
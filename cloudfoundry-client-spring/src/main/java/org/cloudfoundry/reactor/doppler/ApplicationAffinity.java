@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import org.cloudfoundry.doppler.ContainerMetric;
+import org.cloudfoundry.doppler.CounterEvent;
+import org.cloudfoundry.doppler.Error;
+import org.cloudfoundry.doppler.Event;
+import org.cloudfoundry.doppler.HttpStart;
+import org.cloudfoundry.doppler.HttpStartStop;
+import org.cloudfoundry.doppler.HttpStop;
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.ValueMetric;
+
+import java.util.UUID;
+
+/**
+ * Assigns {@link Event}s to one of a fixed number of rails by application id, so that every event for an application is assigned to the same rail regardless of its type.  Application ids that
+ * arrive as {@link String}s are hashed as the {@link UUID} they represent without being parsed into one.  Application ids that arrive as {@link UUID}s were rebuilt from the two little-endian halves
+ * dropsonde writes, so their bytes are reversed back into canonical order before hashing.  Events without an application id are assigned by their name or source.
+ */
+final class ApplicationAffinity {
+
+    private ApplicationAffinity() {
+    }
+
+    /**
+     * Returns the rail for an event
+     *
+     * @param event the event
+     * @param rails the number of rails
+     * @return the rail, between {@code 0} inclusive and {@code rails} exclusive
+     */
+    static int getRail(Event event, int rails) {
+        int hash = getHash(event);
+        return Math.floorMod(hash ^ (hash >>> 16), rails);
+    }
+
+    static int getHash(Event event) {
+        if (event instanceof LogMessage) {
+            return hash(((LogMessage) event).getApplicationId());
+        } else if (event instanceof ContainerMetric) {
+            return hash(((ContainerMetric) event).getApplicationId());
+        } else if (event instanceof LogMessageView) {
+            return hash(((LogMessageView) event).getApplicationId());
+        } else if (event instanceof HttpStartStop) {
+            return hash(((HttpStartStop) event).getApplicationId());
+        } else if (event instanceof HttpStart) {
+            return hash(((HttpStart) event).getApplicationId());
+        } else if (event instanceof HttpStop) {
+            return hash(((HttpStop) event).getApplicationId());
+        } else if (event instanceof ValueMetric) {
+            return hash(((ValueMetric) event).getName());
+        } else if (event instanceof CounterEvent) {
+            return hash(((CounterEvent) event).getName());
+        } else if (event instanceof Error) {
+            return hash(((Error) event).getSource());
+        } else {
+            return 0;
+        }
+    }
+
+    private static int hash(long mostSignificantBits, long leastSignificantBits) {
+        long hilo = mostSignificantBits ^ leastSignificantBits;
+        return ((int) (hilo >> 32)) ^ (int) hilo;
+    }
+
+    private static int hash(UUID uuid) {
+        return uuid == null ? 0 : hash(Long.reverseBytes(uuid.getLeastSignificantBits()), Long.reverseBytes(uuid.getMostSignificantBits()));
+    }
+
+    private static int hash(String s) {
+        if (s == null) {
+            return 0;
+        }
+
+        if (s.length() != 36) {
+            return s.hashCode();
+        }
+
+        long mostSignificantBits = 0;
+        long leastSignificantBits = 0;
+        int digits = 0;
+
+        for (int i = 0; i < 36; i++) {
+            char c = s.charAt(i);
+
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return s.hashCode();
+                }
+                continue;
+            }
+
+            int digit = Character.digit(c, 16);
+            if (digit < 0) {
+                return s.hashCode();
+            }
+
+            if (digits++ < 16) {
+                mostSignificantBits = (mostSignificantBits << 4) | digit;
+            } else {
+                leastSignificantBits = (leastSignificantBits << 4) | digit;
+            }
+        }
+
+        return hash(mostSignificantBits, leastSignificantBits);
+    }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+/**
+ * Thrown when an envelope cannot be decoded, for example because it is truncated or holds an event type or enum value that is not known.  Distinct from the {@link IllegalArgumentException}s and
+ * {@link IllegalStateException}s that signal an invalid request, so that a single bad envelope can be skipped without ending the stream it arrived on.
+ */
+final class EnvelopeDecodeException extends RuntimeException {
+
+    private static final long serialVersionUID = 4711392265148307196L;
+
+    EnvelopeDecodeException(String message) {
+        super(message);
+    }
+
+    EnvelopeDecodeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
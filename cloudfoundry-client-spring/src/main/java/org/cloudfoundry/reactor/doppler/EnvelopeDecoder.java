@@ -0,0 +1,594 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import io.netty.buffer.ByteBuf;
+import org.cloudfoundry.doppler.ContainerMetric;
+import org.cloudfoundry.doppler.CounterEvent;
+import org.cloudfoundry.doppler.Error;
+import org.cloudfoundry.doppler.Event;
+import org.cloudfoundry.doppler.HttpStart;
+import org.cloudfoundry.doppler.HttpStartStop;
+import org.cloudfoundry.doppler.HttpStop;
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.MessageType;
+import org.cloudfoundry.doppler.Method;
+import org.cloudfoundry.doppler.PeerType;
+import org.cloudfoundry.doppler.ValueMetric;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Decodes dropsonde {@code Envelope}s directly from a {@link ByteBuf}, without materializing an intermediate stream, buffer copy, or dropsonde message graph.  The decoder holds no state, so a
+ * single instance of the logic is reused for every frame and each envelope is decoded in place before the frame is released.
+ */
+final class EnvelopeDecoder {
+
+    static final int CONTAINER_METRIC = 9;
+
+    static final int COUNTER_EVENT = 7;
+
+    static final int ERROR = 8;
+
+    static final int HTTP_START = 2;
+
+    static final int HTTP_START_STOP = 4;
+
+    static final int HTTP_STOP = 3;
+
+    static final int LOG_MESSAGE = 5;
+
+    static final int VALUE_METRIC = 6;
+
+    private static final int ENVELOPE_EVENT_TYPE = 2;
+
+    private static final int FIXED_32 = 5;
+
+    private static final int FIXED_64 = 1;
+
+    private static final int LENGTH_DELIMITED = 2;
+
+    private static final int VARINT = 0;
+
+    private EnvelopeDecoder() {
+    }
+
+    /**
+     * Decodes an envelope into its {@link Event}
+     *
+     * @param buffer the buffer containing exactly one envelope
+     * @return the decoded event
+     */
+    static Event decode(ByteBuf buffer) {
+        return decode(buffer, false);
+    }
+
+    /**
+     * Decodes an envelope into its {@link Event}
+     *
+     * @param buffer the buffer containing exactly one envelope
+     * @param views  whether {@link LogMessage}s should be decoded as lazy {@link LogMessageView}s
+     * @return the decoded event
+     * @throws EnvelopeDecodeException if the envelope is malformed or holds an unknown event type or value
+     */
+    static Event decode(ByteBuf buffer, boolean views) {
+        try {
+            return decodeEnvelope(buffer, views);
+        } catch (EnvelopeDecodeException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new EnvelopeDecodeException("Envelope is malformed", e);
+        }
+    }
+
+    static Event decodeBody(ByteBuf buffer, int eventType, int index, int limit, boolean views) {
+        buffer.readerIndex(index);
+
+        switch (eventType) {
+            case HTTP_START:
+                return decodeHttpStart(buffer, limit);
+            case HTTP_STOP:
+                return decodeHttpStop(buffer, limit);
+            case HTTP_START_STOP:
+                return decodeHttpStartStop(buffer, limit);
+            case LOG_MESSAGE:
+                return views ? decodeLogMessageView(buffer, limit) : decodeLogMessage(buffer, limit);
+            case VALUE_METRIC:
+                return decodeValueMetric(buffer, limit);
+            case COUNTER_EVENT:
+                return decodeCounterEvent(buffer, limit);
+            case ERROR:
+                return decodeError(buffer, limit);
+            case CONTAINER_METRIC:
+                return decodeContainerMetric(buffer, limit);
+            default:
+                throw new EnvelopeDecodeException(String.format("Envelope event type %d is unsupported", eventType));
+        }
+    }
+
+    static int getBodyField(int eventType) {
+        switch (eventType) {
+            case HTTP_START:
+                return 4;
+            case HTTP_STOP:
+                return 5;
+            case HTTP_START_STOP:
+                return 7;
+            case LOG_MESSAGE:
+                return 8;
+            case VALUE_METRIC:
+                return 9;
+            case COUNTER_EVENT:
+                return 10;
+            case ERROR:
+                return 11;
+            case CONTAINER_METRIC:
+                return 12;
+            default:
+                return -1;
+        }
+    }
+
+    static boolean isBodyField(int field) {
+        return (field >= 4 && field <= 5) || (field >= 7 && field <= 12);
+    }
+
+    static long readVarint64(ByteBuf buffer) {
+        long result = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.readByte();
+            result |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+
+        throw new EnvelopeDecodeException("Malformed varint");
+    }
+
+    static int readVarint32(ByteBuf buffer) {
+        return (int) readVarint64(buffer);
+    }
+
+    static String readString(ByteBuf buffer) {
+        int length = readVarint32(buffer);
+        String value = buffer.toString(buffer.readerIndex(), length, StandardCharsets.UTF_8);
+        buffer.skipBytes(length);
+        return value;
+    }
+
+    static void skip(ByteBuf buffer, int wireType) {
+        switch (wireType) {
+            case VARINT:
+                readVarint64(buffer);
+                break;
+            case FIXED_64:
+                buffer.skipBytes(8);
+                break;
+            case LENGTH_DELIMITED:
+                buffer.skipBytes(readVarint32(buffer));
+                break;
+            case FIXED_32:
+                buffer.skipBytes(4);
+                break;
+            default:
+                throw new EnvelopeDecodeException(String.format("Unsupported wire type %d", wireType));
+        }
+    }
+
+    private static ContainerMetric decodeContainerMetric(ByteBuf buffer, int limit) {
+        ContainerMetric.Builder builder = ContainerMetric.builder();
+
+        while (buffer.readerIndex() < limit) {
+            int tag = readVarint32(buffer);
+
+            switch (tag >>> 3) {
+                case 1:
+                    builder.applicationId(readString(buffer));
+                    break;
+                case 2:
+                    builder.instanceIndex(readVarint32(buffer));
+                    break;
+                case 3:
+                    builder.cpuPercentage(Double.longBitsToDouble(buffer.readLongLE()));
+                    break;
+                case 4:
+                    builder.memoryBytes(readVarint64(buffer));
+                    break;
+                case 5:
+                    builder.diskBytes(readVarint64(buffer));
+                    break;
+                default:
+                    skip(buffer, tag & 0x7);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static CounterEvent decodeCounterEvent(ByteBuf buffer, int limit) {
+        CounterEvent.Builder builder = CounterEvent.builder();
+
+        while (buffer.readerIndex() < limit) {
+            int tag = readVarint32(buffer);
+
+            switch (tag >>> 3) {
+                case 1:
+                    builder.name(readString(buffer));
+                    break;
+                case 2:
+                    builder.delta(readVarint64(buffer));
+                    break;
+                case 3:
+                    builder.total(readVarint64(buffer));
+                    break;
+                default:
+                    skip(buffer, tag & 0x7);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static Event decodeEnvelope(ByteBuf buffer, boolean views) {
+        int eventType = 0;
+        int bodyField = 0;
+        int bodyIndex = -1;
+        int bodyLength = 0;
+
+        while (buffer.isReadable()) {
+            int tag = readVarint32(buffer);
+            int field = tag >>> 3;
+            int wireType = tag & 0x7;
+
+            if (field == ENVELOPE_EVENT_TYPE && wireType == VARINT) {
+                eventType = readVarint32(buffer);
+            } else if (isBodyField(field) && wireType == LENGTH_DELIMITED) {
+                bodyField = field;
+                bodyLength = readVarint32(buffer);
+                bodyIndex = buffer.readerIndex();
+                buffer.skipBytes(bodyLength);
+            } else {
+                skip(buffer, wireType);
+            }
+        }
+
+        if (bodyIndex < 0 || bodyField != getBodyField(eventType)) {
+            throw new EnvelopeDecodeException(String.format("Envelope event type %d is unsupported or has no event", eventType));
+        }
+
+        return decodeBody(buffer, eventType, bodyIndex, bodyIndex + bodyLength, views);
+    }
+
+    private static Error decodeError(ByteBuf buffer, int limit) {
+        Error.Builder builder = Error.builder();
+
+        while (buffer.readerIndex() < limit) {
+            int tag = readVarint32(buffer);
+
+            switch (tag >>> 3) {
+                case 1:
+                    builder.source(readString(buffer));
+                    break;
+                case 2:
+                    builder.code(readVarint32(buffer));
+                    break;
+                case 3:
+                    builder.message(readString(buffer));
+                    break;
+                default:
+                    skip(buffer, tag & 0x7);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static HttpStart decodeHttpStart(ByteBuf buffer, int limit) {
+        HttpStart.Builder builder = HttpStart.builder();
+
+        while (buffer.readerIndex() < limit) {
+            int tag = readVarint32(buffer);
+
+            switch (tag >>> 3) {
+                case 1:
+                    builder.timestamp(readVarint64(buffer));
+                    break;
+                case 2:
+                    builder.requestId(readUuid(buffer));
+                    break;
+                case 3:
+                    builder.peerType(toPeerType(readVarint32(buffer)));
+                    break;
+                case 4:
+                    builder.method(toMethod(readVarint32(buffer)));
+                    break;
+                case 5:
+                    builder.uri(readString(buffer));
+                    break;
+                case 6:
+                    builder.remoteAddress(readString(buffer));
+                    break;
+                case 7:
+                    builder.userAgent(readString(buffer));
+                    break;
+                case 8:
+                    builder.parentRequestId(readUuid(buffer));
+                    break;
+                case 9:
+                    builder.applicationId(readUuid(buffer));
+                    break;
+                case 10:
+                    builder.instanceIndex(readVarint32(buffer));
+                    break;
+                case 11:
+                    builder.instanceId(readString(buffer));
+                    break;
+                default:
+                    skip(buffer, tag & 0x7);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static HttpStartStop decodeHttpStartStop(ByteBuf buffer, int limit) {
+        HttpStartStop.Builder builder = HttpStartStop.builder();
+
+        while (buffer.readerIndex() < limit) {
+            int tag = readVarint32(buffer);
+
+            switch (tag >>> 3) {
+                case 1:
+                    builder.startTimestamp(readVarint64(buffer));
+                    break;
+                case 2:
+                    builder.stopTimestamp(readVarint64(buffer));
+                    break;
+                case 3:
+                    builder.requestId(readUuid(buffer));
+                    break;
+                case 4:
+                    builder.peerType(toPeerType(readVarint32(buffer)));
+                    break;
+                case 5:
+                    builder.method(toMethod(readVarint32(buffer)));
+                    break;
+                case 6:
+                    builder.uri(readString(buffer));
+                    break;
+                case 7:
+                    builder.remoteAddress(readString(buffer));
+                    break;
+                case 8:
+                    builder.userAgent(readString(buffer));
+                    break;
+                case 9:
+                    builder.statusCode(readVarint32(buffer));
+                    break;
+                case 10:
+                    builder.contentLength(readVarint64(buffer));
+                    break;
+                case 12:
+                    builder.applicationId(readUuid(buffer));
+                    break;
+                case 13:
+                    builder.instanceIndex(readVarint32(buffer));
+                    break;
+                case 14:
+                    builder.instanceId(readString(buffer));
+                    break;
+                default:
+                    skip(buffer, tag & 0x7);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static HttpStop decodeHttpStop(ByteBuf buffer, int limit) {
+        HttpStop.Builder builder = HttpStop.builder();
+
+        while (buffer.readerIndex() < limit) {
+            int tag = readVarint32(buffer);
+
+            switch (tag >>> 3) {
+                case 1:
+                    builder.timestamp(readVarint64(buffer));
+                    break;
+                case 2:
+                    builder.uri(readString(buffer));
+                    break;
+                case 3:
+                    builder.requestId(readUuid(buffer));
+                    break;
+                case 4:
+                    builder.peerType(toPeerType(readVarint32(buffer)));
+                    break;
+                case 5:
+                    builder.statusCode(readVarint32(buffer));
+                    break;
+                case 6:
+                    builder.contentLength(readVarint64(buffer));
+                    break;
+                case 7:
+                    builder.applicationId(readUuid(buffer));
+                    break;
+                default:
+                    skip(buffer, tag & 0x7);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static LogMessage decodeLogMessage(ByteBuf buffer, int limit) {
+        LogMessage.Builder builder = LogMessage.builder();
+
+        while (buffer.readerIndex() < limit) {
+            int tag = readVarint32(buffer);
+
+            switch (tag >>> 3) {
+                case 1:
+                    builder.message(readString(buffer));
+                    break;
+                case 2:
+                    builder.messageType(toMessageType(readVarint32(buffer)));
+                    break;
+                case 3:
+                    builder.timestamp(readVarint64(buffer));
+                    break;
+                case 4:
+                    builder.applicationId(readString(buffer));
+                    break;
+                case 5:
+                    builder.sourceType(readString(buffer));
+                    break;
+                case 6:
+                    builder.sourceInstance(readString(buffer));
+                    break;
+                default:
+                    skip(buffer, tag & 0x7);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static LogMessageView decodeLogMessageView(ByteBuf buffer, int limit) {
+        String applicationId = null;
+        Utf8Sequence message = null;
+        MessageType messageType = null;
+        String sourceInstance = null;
+        String sourceType = null;
+        Long timestamp = null;
+
+        while (buffer.readerIndex() < limit) {
+            int tag = readVarint32(buffer);
+
+            switch (tag >>> 3) {
+                case 1:
+                    byte[] bytes = new byte[readVarint32(buffer)];
+                    buffer.readBytes(bytes);
+                    message = new Utf8Sequence(bytes);
+                    break;
+                case 2:
+                    messageType = toMessageType(readVarint32(buffer));
+                    break;
+                case 3:
+                    timestamp = readVarint64(buffer);
+                    break;
+                case 4:
+                    applicationId = readString(buffer);
+                    break;
+                case 5:
+                    sourceType = readString(buffer);
+                    break;
+                case 6:
+                    sourceInstance = readString(buffer);
+                    break;
+                default:
+                    skip(buffer, tag & 0x7);
+            }
+        }
+
+        return new LogMessageView(applicationId, message, messageType, sourceInstance, sourceType, timestamp);
+    }
+
+    private static ValueMetric decodeValueMetric(ByteBuf buffer, int limit) {
+        ValueMetric.Builder builder = ValueMetric.builder();
+
+        while (buffer.readerIndex() < limit) {
+            int tag = readVarint32(buffer);
+
+            switch (tag >>> 3) {
+                case 1:
+                    builder.name(readString(buffer));
+                    break;
+                case 2:
+                    builder.value(Double.longBitsToDouble(buffer.readLongLE()));
+                    break;
+                case 3:
+                    builder.unit(readString(buffer));
+                    break;
+                default:
+                    skip(buffer, tag & 0x7);
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static UUID readUuid(ByteBuf buffer) {
+        int limit = readVarint32(buffer) + buffer.readerIndex();
+        long high = 0;
+        long low = 0;
+
+        while (buffer.readerIndex() < limit) {
+            int tag = readVarint32(buffer);
+
+            switch (tag >>> 3) {
+                case 1:
+                    low = readVarint64(buffer);
+                    break;
+                case 2:
+                    high = readVarint64(buffer);
+                    break;
+                default:
+                    skip(buffer, tag & 0x7);
+            }
+        }
+
+        return new UUID(high, low);
+    }
+
+    private static MessageType toMessageType(int value) {
+        switch (value) {
+            case 1:
+                return MessageType.OUT;
+            case 2:
+                return MessageType.ERR;
+            default:
+                throw new EnvelopeDecodeException(String.format("Unknown message type: %d", value));
+        }
+    }
+
+    private static Method toMethod(int value) {
+        org.cloudfoundry.dropsonde.events.Method dropsonde = org.cloudfoundry.dropsonde.events.Method.fromValue(value);
+
+        if (dropsonde == null) {
+            throw new EnvelopeDecodeException(String.format("Unknown method: %d", value));
+        }
+
+        return Method.valueOf(dropsonde.name());
+    }
+
+    private static PeerType toPeerType(int value) {
+        switch (value) {
+            case 1:
+                return PeerType.CLIENT;
+            case 2:
+                return PeerType.SERVER;
+            default:
+                throw new EnvelopeDecodeException(String.format("Unknown peer type: %d", value));
+        }
+    }
+
+}
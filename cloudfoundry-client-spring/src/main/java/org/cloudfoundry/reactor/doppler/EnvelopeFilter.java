@@ -0,0 +1,201 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import io.netty.buffer.ByteBuf;
+import org.cloudfoundry.doppler.EventType;
+import org.cloudfoundry.doppler.FirehoseRequest;
+import org.cloudfoundry.doppler.StreamRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Predicate} over encoded dropsonde {@code Envelope}s that is evaluated using only the envelope header fields.  Event bodies are skipped rather than decoded, and origins and
+ * deployments are compared as encoded bytes, so a rejected envelope causes no allocation.  The reader index of the buffer is unchanged after evaluation.
+ */
+final class EnvelopeFilter implements Predicate<ByteBuf> {
+
+    private static final Predicate<ByteBuf> ALL = buffer -> true;
+
+    private static final int ENVELOPE_DEPLOYMENT = 13;
+
+    private static final int ENVELOPE_EVENT_TYPE = 2;
+
+    private static final int ENVELOPE_ORIGIN = 1;
+
+    private static final int LENGTH_DELIMITED = 2;
+
+    private static final int VARINT = 0;
+
+    private final byte[][] deployments;
+
+    private final int eventTypes;
+
+    private final byte[][] origins;
+
+    private EnvelopeFilter(Set<String> deployments, Set<EventType> eventTypes, Set<String> origins) {
+        this.deployments = toBytes(deployments);
+        this.eventTypes = toMask(eventTypes);
+        this.origins = toBytes(origins);
+    }
+
+    /**
+     * Creates a filter for a Firehose request
+     *
+     * @param request the request
+     * @return the filter, which accepts every envelope without reading it if the request does not restrict the events that are received
+     */
+    static Predicate<ByteBuf> from(FirehoseRequest request) {
+        return from(request.getDeployments(), request.getEventTypes(), request.getOrigins());
+    }
+
+    /**
+     * Creates a filter for a Stream request
+     *
+     * @param request the request
+     * @return the filter, which accepts every envelope without reading it if the request does not restrict the events that are received
+     */
+    static Predicate<ByteBuf> from(StreamRequest request) {
+        return from(request.getDeployments(), request.getEventTypes(), request.getOrigins());
+    }
+
+    @Override
+    public boolean test(ByteBuf buffer) {
+        int readerIndex = buffer.readerIndex();
+
+        try {
+            int eventType = 0;
+            boolean deployment = this.deployments == null;
+            boolean origin = this.origins == null;
+
+            while (buffer.isReadable()) {
+                int tag = EnvelopeDecoder.readVarint32(buffer);
+                int field = tag >>> 3;
+                int wireType = tag & 0x7;
+
+                if (field == ENVELOPE_EVENT_TYPE && wireType == VARINT) {
+                    eventType = EnvelopeDecoder.readVarint32(buffer);
+
+                    if (!acceptsEventType(eventType)) {
+                        return false;
+                    }
+                } else if (field == ENVELOPE_ORIGIN && wireType == LENGTH_DELIMITED && this.origins != null) {
+                    if (!(origin = matches(buffer, this.origins))) {
+                        return false;
+                    }
+                } else if (field == ENVELOPE_DEPLOYMENT && wireType == LENGTH_DELIMITED && this.deployments != null) {
+                    if (!(deployment = matches(buffer, this.deployments))) {
+                        return false;
+                    }
+                } else {
+                    EnvelopeDecoder.skip(buffer, wireType);
+                }
+            }
+
+            return acceptsEventType(eventType) && origin && deployment;
+        } catch (EnvelopeDecodeException | IndexOutOfBoundsException e) {
+            return true;  // Accepted so that the decoder reports the malformed envelope
+        } finally {
+            buffer.readerIndex(readerIndex);
+        }
+    }
+
+    private static Predicate<ByteBuf> from(Set<String> deployments, Set<EventType> eventTypes, Set<String> origins) {
+        if (deployments.isEmpty() && eventTypes.isEmpty() && origins.isEmpty()) {
+            return ALL;
+        }
+
+        return new EnvelopeFilter(deployments, eventTypes, origins);
+    }
+
+    private static boolean matches(ByteBuf buffer, byte[][] candidates) {
+        int length = EnvelopeDecoder.readVarint32(buffer);
+        int index = buffer.readerIndex();
+        buffer.skipBytes(length);
+
+        for (byte[] candidate : candidates) {
+            if (candidate.length == length && matches(buffer, index, candidate)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean matches(ByteBuf buffer, int index, byte[] candidate) {
+        for (int i = 0; i < candidate.length; i++) {
+            if (buffer.getByte(index + i) != candidate[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static byte[][] toBytes(Set<String> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+
+        return values.stream()
+            .map(value -> value.getBytes(StandardCharsets.UTF_8))
+            .toArray(byte[][]::new);
+    }
+
+    private static int toEventType(EventType eventType) {
+        switch (eventType) {
+            case CONTAINER_METRIC:
+                return EnvelopeDecoder.CONTAINER_METRIC;
+            case COUNTER_EVENT:
+                return EnvelopeDecoder.COUNTER_EVENT;
+            case ERROR:
+                return EnvelopeDecoder.ERROR;
+            case HTTP_START:
+                return EnvelopeDecoder.HTTP_START;
+            case HTTP_START_STOP:
+                return EnvelopeDecoder.HTTP_START_STOP;
+            case HTTP_STOP:
+                return EnvelopeDecoder.HTTP_STOP;
+            case LOG_MESSAGE:
+                return EnvelopeDecoder.LOG_MESSAGE;
+            case VALUE_METRIC:
+                return EnvelopeDecoder.VALUE_METRIC;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown event type: %s", eventType));
+        }
+    }
+
+    private static int toMask(Set<EventType> eventTypes) {
+        if (eventTypes.isEmpty()) {
+            return -1;
+        }
+
+        int mask = 0;
+        for (EventType eventType : eventTypes) {
+            mask |= 1 << toEventType(eventType);
+        }
+
+        return mask;
+    }
+
+    private boolean acceptsEventType(int eventType) {
+        return eventType > 0 && eventType < Integer.SIZE && (this.eventTypes & (1 << eventType)) != 0;
+    }
+
+}
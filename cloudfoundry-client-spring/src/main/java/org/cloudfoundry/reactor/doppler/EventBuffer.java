@@ -0,0 +1,315 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import lombok.Builder;
+import lombok.Singular;
+import org.cloudfoundry.doppler.Event;
+import org.cloudfoundry.doppler.EventType;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded buffer between a stream of {@link Event}s and a consumer that may not keep up with it.  The buffer requests events from upstream without limit, so the connection to Doppler is always
+ * drained and never marked as a slow consumer, and holds at most {@code capacity} events for the consumer.  When the buffer is full, events are dropped according to its
+ * {@link OverflowStrategy}.  Once the buffer is at least half full, event types with a sample rate of {@code n} are thinned to one in every {@code n} events, so bursts of high-volume types
+ * degrade before the buffer overflows.  Every event received, dropped, and delivered is counted in the buffer's {@link EventCounters}.
+ */
+public final class EventBuffer {
+
+    private static final int DEFAULT_CAPACITY = 8 * 1024;
+
+    private final int capacity;
+
+    private final EventCounters counters = new EventCounters();
+
+    private final OverflowStrategy overflowStrategy;
+
+    private final int[] sampleRates = new int[EventType.values().length];
+
+    @Builder
+    EventBuffer(Integer capacity, OverflowStrategy overflowStrategy, @Singular Map<EventType, Integer> sampleRates) {
+        this.capacity = Optional.ofNullable(capacity).orElse(DEFAULT_CAPACITY);
+        this.overflowStrategy = Optional.ofNullable(overflowStrategy).orElse(OverflowStrategy.DROP_OLDEST);
+
+        if (this.capacity < 1) {
+            throw new IllegalArgumentException(String.format("Capacity must be positive: %d", this.capacity));
+        }
+
+        sampleRates.forEach((eventType, sampleRate) -> {
+            if (sampleRate < 1) {
+                throw new IllegalArgumentException(String.format("Sample rate for %s must be positive: %d", eventType, sampleRate));
+            }
+
+            this.sampleRates[eventType.ordinal()] = sampleRate;
+        });
+    }
+
+    /**
+     * Buffers a stream of events
+     *
+     * @param source the events to buffer
+     * @param <T>    the type of event
+     * @return the buffered events
+     */
+    public <T extends Event> Flux<T> apply(Publisher<T> source) {
+        return Flux.from(subscriber -> source.subscribe(new BufferSubscriber<>(subscriber)));
+    }
+
+    /**
+     * Returns the counts of events received, dropped, and delivered by this buffer
+     *
+     * @return the counters
+     */
+    public EventCounters getCounters() {
+        return this.counters;
+    }
+
+    private final class BufferSubscriber<T extends Event> implements Subscriber<T>, Subscription {
+
+        private final Subscriber<? super T> actual;
+
+        private final Object[] ring = new Object[EventBuffer.this.capacity];
+
+        private final long[] sampled = new long[EventBuffer.this.sampleRates.length];
+
+        private final AtomicLong requested = new AtomicLong();
+
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+
+        private volatile boolean done;
+
+        private Throwable error;
+
+        private int head;
+
+        private volatile Throwable invalidRequest;
+
+        private int size;
+
+        private Subscription upstream;
+
+        private BufferSubscriber(Subscriber<? super T> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public void cancel() {
+            if (this.cancelled) {
+                return;
+            }
+
+            this.cancelled = true;
+            this.upstream.cancel();
+
+            if (this.wip.getAndIncrement() == 0) {
+                clear();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            this.done = true;
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            this.error = t;
+            this.done = true;
+            drain();
+        }
+
+        @Override
+        public void onNext(T event) {
+            int type = EventCounters.getEventType(event).ordinal();
+            EventBuffer.this.counters.received(type);
+
+            if (offer(event, type)) {
+                drain();
+            }
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            this.upstream = s;
+            this.actual.onSubscribe(this);
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                this.invalidRequest = new IllegalArgumentException(String.format("Request must be positive: %d", n));
+                this.upstream.cancel();
+                drain();
+                return;
+            }
+
+            for (; ; ) {
+                long current = this.requested.get();
+                if (current == Long.MAX_VALUE) {
+                    break;
+                }
+
+                long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                if (this.requested.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+
+            drain();
+        }
+
+        private synchronized void clear() {
+            while (this.size > 0) {
+                poll();
+            }
+        }
+
+        private void drain() {
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+
+            for (; ; ) {
+                long requested = this.requested.get();
+                long emitted = 0;
+
+                while (emitted != requested) {
+                    if (isCancelled()) {
+                        return;
+                    }
+
+                    boolean done = this.done;
+                    T event = poll();
+
+                    if (done && event == null) {
+                        terminate();
+                        return;
+                    }
+
+                    if (event == null) {
+                        break;
+                    }
+
+                    this.actual.onNext(event);
+                    EventBuffer.this.counters.delivered(EventCounters.getEventType(event).ordinal());
+                    emitted++;
+                }
+
+                if (emitted == requested) {
+                    if (isCancelled()) {
+                        return;
+                    }
+
+                    if (this.done && isEmpty()) {
+                        terminate();
+                        return;
+                    }
+                }
+
+                if (emitted != 0 && requested != Long.MAX_VALUE) {
+                    this.requested.addAndGet(-emitted);
+                }
+
+                missed = this.wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private boolean isCancelled() {
+            if (this.cancelled) {
+                clear();
+                return true;
+            }
+
+            Throwable invalidRequest = this.invalidRequest;
+            if (invalidRequest != null) {
+                this.cancelled = true;
+                clear();
+                this.actual.onError(invalidRequest);
+                return true;
+            }
+
+            return false;
+        }
+
+        private synchronized boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        private synchronized boolean offer(T event, int type) {
+            int sampleRate = EventBuffer.this.sampleRates[type];
+            if (sampleRate > 1 && this.size >= this.ring.length / 2 && this.sampled[type]++ % sampleRate != 0) {
+                EventBuffer.this.counters.dropped(type);
+                return false;
+            }
+
+            if (this.size == this.ring.length) {
+                if (EventBuffer.this.overflowStrategy == OverflowStrategy.DROP_NEWEST) {
+                    EventBuffer.this.counters.dropped(type);
+                    return false;
+                }
+
+                EventBuffer.this.counters.dropped(EventCounters.getEventType(poll()).ordinal());
+            }
+
+            this.ring[(this.head + this.size) % this.ring.length] = event;
+            this.size++;
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized T poll() {
+            if (this.size == 0) {
+                return null;
+            }
+
+            T event = (T) this.ring[this.head];
+            this.ring[this.head] = null;
+            this.head = (this.head + 1) % this.ring.length;
+            this.size--;
+            return event;
+        }
+
+        private void terminate() {
+            Throwable error = this.error;
+
+            if (error != null) {
+                this.actual.onError(error);
+            } else {
+                this.actual.onComplete();
+            }
+        }
+
+    }
+
+}
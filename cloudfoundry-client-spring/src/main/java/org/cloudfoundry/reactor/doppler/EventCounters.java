@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import org.cloudfoundry.doppler.ContainerMetric;
+import org.cloudfoundry.doppler.CounterEvent;
+import org.cloudfoundry.doppler.Error;
+import org.cloudfoundry.doppler.Event;
+import org.cloudfoundry.doppler.EventType;
+import org.cloudfoundry.doppler.HttpStart;
+import org.cloudfoundry.doppler.HttpStartStop;
+import org.cloudfoundry.doppler.HttpStop;
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.ValueMetric;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts of the events received, dropped, and delivered by an {@link EventBuffer}, broken down by {@link EventType}.  Counts are cumulative and may be read while events are flowing.
+ */
+public final class EventCounters {
+
+    private static final int DELIVERED = 2;
+
+    private static final int DROPPED = 1;
+
+    private static final int RECEIVED = 0;
+
+    private static final int TYPES = EventType.values().length;
+
+    private final AtomicLongArray counts = new AtomicLongArray(3 * TYPES);
+
+    EventCounters() {
+    }
+
+    /**
+     * Returns the number of events of a type delivered downstream
+     *
+     * @param eventType the type of event
+     * @return the number of events delivered
+     */
+    public long getDelivered(EventType eventType) {
+        return this.counts.get(index(DELIVERED, eventType.ordinal()));
+    }
+
+    /**
+     * Returns the number of events of a type dropped because of overflow or sampling
+     *
+     * @param eventType the type of event
+     * @return the number of events dropped
+     */
+    public long getDropped(EventType eventType) {
+        return this.counts.get(index(DROPPED, eventType.ordinal()));
+    }
+
+    /**
+     * Returns the number of events of a type received from upstream
+     *
+     * @param eventType the type of event
+     * @return the number of events received
+     */
+    public long getReceived(EventType eventType) {
+        return this.counts.get(index(RECEIVED, eventType.ordinal()));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("EventCounters{");
+
+        for (EventType eventType : EventType.values()) {
+            sb.append(eventType).append("=[received=").append(getReceived(eventType))
+                .append(", dropped=").append(getDropped(eventType))
+                .append(", delivered=").append(getDelivered(eventType)).append("]");
+
+            if (eventType.ordinal() < TYPES - 1) {
+                sb.append(", ");
+            }
+        }
+
+        return sb.append("}").toString();
+    }
+
+    static EventType getEventType(Event event) {
+        if (event instanceof LogMessage || event instanceof LogMessageView) {
+            return EventType.LOG_MESSAGE;
+        } else if (event instanceof HttpStartStop) {
+            return EventType.HTTP_START_STOP;
+        } else if (event instanceof ContainerMetric) {
+            return EventType.CONTAINER_METRIC;
+        } else if (event instanceof ValueMetric) {
+            return EventType.VALUE_METRIC;
+        } else if (event instanceof CounterEvent) {
+            return EventType.COUNTER_EVENT;
+        } else if (event instanceof HttpStart) {
+            return EventType.HTTP_START;
+        } else if (event instanceof HttpStop) {
+            return EventType.HTTP_STOP;
+        } else if (event instanceof Error) {
+            return EventType.ERROR;
+        } else {
+            throw new IllegalArgumentException(String.format("Unknown event: %s", event));
+        }
+    }
+
+    void delivered(int type) {
+        this.counts.incrementAndGet(index(DELIVERED, type));
+    }
+
+    void dropped(int type) {
+        this.counts.incrementAndGet(index(DROPPED, type));
+    }
+
+    void received(int type) {
+        this.counts.incrementAndGet(index(RECEIVED, type));
+    }
+
+    private static int index(int counter, int type) {
+        return counter * TYPES + type;
+    }
+
+}
@@ -0,0 +1,588 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.Builder;
+import org.cloudfoundry.doppler.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.util.Exceptions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * An append-only journal of the raw envelopes received from Doppler, for replaying exactly what was sent during an interval.  Envelopes are written, prefixed with their length and time of receipt,
+ * into memory-mapped segment files of a fixed size.  Appending an envelope is a copy into the page cache, so journaling keeps up with the connection that is reading the envelopes.  Everything else
+ * happens on background threads owned by the journal: the next segment is created and mapped before it is needed on one thread, and a full segment is forced to disk, unmapped, and expired segments
+ * are deleted after the appender has moved on on another, so a slow force never delays the allocation of the next segment.  Appending never waits: an envelope that arrives while the next segment is
+ * still being allocated, or after the journal is closed, is dropped and counted.  Each segment keeps a sparse index of receipt times, so a replay reads only the segments that overlap its interval and starts near the first envelope
+ * within it.  Segments are deleted once they are older than the retention period, or once the journal exceeds its retention size.
+ * <p>
+ * Replayed envelopes are decoded in the same way as live envelopes.  Segments remaining in the directory when a journal is created are indexed and can be replayed; new envelopes are always
+ * written to a new segment.
+ */
+public final class FirehoseJournal implements Closeable {
+
+    private static final int DEFAULT_INDEX_INTERVAL = 64 * 1024;
+
+    private static final Duration DEFAULT_RETENTION = Duration.ofHours(24);
+
+    private static final long DEFAULT_RETENTION_SIZE = 1024L * 1024 * 1024;
+
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final int HEADER_SIZE = 4 + 8;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("cloudfoundry-client.doppler");
+
+    private static final String SUFFIX = ".journal";
+
+    private final Executor allocator;
+
+    private final LongSupplier clock;
+
+    private final Path directory;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(daemon("firehose-journal"));
+
+    private final int indexInterval;
+
+    private final Duration retention;
+
+    private final long retentionSize;
+
+    private final int segmentSize;
+
+    private final List<Segment> segments = new ArrayList<>();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private Segment active;
+
+    private long lastTimestamp;
+
+    private CompletableFuture<Segment> next;
+
+    private long nextSequence;
+
+    @Builder
+    FirehoseJournal(Path directory, Integer indexInterval, Duration retention, Long retentionSize, Integer segmentSize) {
+        this(directory, indexInterval, retention, retentionSize, segmentSize, System::currentTimeMillis, Executors.newSingleThreadExecutor(daemon("firehose-journal-allocator")));
+    }
+
+    FirehoseJournal(Path directory, Integer indexInterval, Duration retention, Long retentionSize, Integer segmentSize, LongSupplier clock, Executor allocator) {
+        this.allocator = allocator;
+        this.clock = clock;
+        this.directory = directory;
+        this.indexInterval = Optional.ofNullable(indexInterval).orElse(DEFAULT_INDEX_INTERVAL);
+        this.retention = Optional.ofNullable(retention).orElse(DEFAULT_RETENTION);
+        this.retentionSize = Optional.ofNullable(retentionSize).orElse(DEFAULT_RETENTION_SIZE);
+        this.segmentSize = Optional.ofNullable(segmentSize).orElse(DEFAULT_SEGMENT_SIZE);
+
+        if (this.segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException(String.format("Segment size must be greater than %d: %d", HEADER_SIZE, this.segmentSize));
+        }
+
+        try {
+            Files.createDirectories(directory);
+            open();
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+
+        this.next = allocate();
+    }
+
+    /**
+     * Appends an envelope to the journal.  The reader index of the buffer is unchanged.  The envelope is dropped if the next segment is not yet allocated or the journal is closed.
+     *
+     * @param envelope the encoded envelope
+     */
+    public void append(ByteBuf envelope) {
+        int length = envelope.readableBytes();
+        if (length + HEADER_SIZE > this.segmentSize) {
+            this.dropped.incrementAndGet();
+            return;
+        }
+
+        synchronized (this) {
+            this.lastTimestamp = Math.max(this.lastTimestamp, this.clock.getAsLong());
+
+            if ((this.active == null || this.active.getRemaining() < length + HEADER_SIZE) && !roll()) {
+                this.dropped.incrementAndGet();
+                return;
+            }
+
+            this.active.append(envelope, length, this.lastTimestamp, this.indexInterval);
+        }
+
+        this.written.incrementAndGet();
+    }
+
+    /**
+     * Closes the journal.  The active segment is forced to disk and unmapped, the pre-allocated next segment is deleted, and the background threads are stopped once their outstanding work is done.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (this.active != null) {
+                Segment active = this.active;
+                this.executor.execute(active::seal);
+                this.active = null;
+            }
+
+            if (this.next != null) {
+                this.next.thenAccept(Segment::discard);
+                this.next = null;
+            }
+        }
+
+        if (this.allocator instanceof ExecutorService) {
+            ((ExecutorService) this.allocator).shutdown();
+        }
+
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.warn("Timed out waiting for journal segments to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the number of envelopes that were not journaled because they were larger than a segment, arrived while the next segment was being allocated, or arrived after the journal was closed
+     *
+     * @return the number of envelopes dropped
+     */
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Returns the number of envelopes journaled
+     *
+     * @return the number of envelopes journaled
+     */
+    public long getWritten() {
+        return this.written.get();
+    }
+
+    /**
+     * Replays the envelopes received during an interval, in the order they were received
+     *
+     * @param from the start of the interval, inclusive
+     * @param to   the end of the interval, exclusive
+     * @return the decoded events
+     */
+    public Flux<Event> replay(Instant from, Instant to) {
+        long start = from.toEpochMilli();
+        long end = to.toEpochMilli();
+
+        return Flux
+            .defer(() -> Flux.fromIterable(getSegments(start, end)))
+            .concatMap(segment -> Flux.fromIterable(() -> segment.read(start, end)))
+            .map(EnvelopeDecoder::decode);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Unmaps a memory-mapped buffer immediately, rather than when it is garbage collected, so that the address space and file handle of a segment are released as soon as it is no longer used.  The
+     * buffer must not be accessed afterwards.
+     *
+     * @param buffer the buffer to unmap
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Unable to unmap journal segment, it will be unmapped when it is garbage collected", e);
+        }
+    }
+
+    private CompletableFuture<Segment> allocate() {
+        Path path = this.directory.resolve(String.format("%020d%s", this.nextSequence++, SUFFIX));
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return Segment.create(path, this.segmentSize);
+            } catch (IOException e) {
+                throw Exceptions.propagate(e);
+            }
+        }, this.allocator);
+    }
+
+    private synchronized List<Segment> getSegments(long start, long end) {
+        List<Segment> overlapping = new ArrayList<>();
+
+        for (Segment segment : this.segments) {
+            if (segment.getFirstTimestamp() < end && segment.getLastTimestamp() >= start) {
+                overlapping.add(segment);
+            }
+        }
+
+        return overlapping;
+    }
+
+    private void open() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + SUFFIX)) {
+            stream.forEach(paths::add);
+        }
+        paths.sort(null);
+
+        for (Path path : paths) {
+            String name = path.getFileName().toString();
+
+            try {
+                this.nextSequence = Math.max(this.nextSequence, Long.parseLong(name.substring(0, name.length() - SUFFIX.length())) + 1);
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Ignoring journal segment with unexpected name {}", path);
+                continue;
+            }
+
+            Segment segment = Segment.recover(path, this.indexInterval);
+            if (segment.getLimit() > 0) {
+                this.lastTimestamp = Math.max(this.lastTimestamp, segment.getLastTimestamp());
+                this.segments.add(segment);
+            } else {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private List<Segment> expire() {
+        long cutoff = this.lastTimestamp - this.retention.toMillis();
+        long size = (long) this.segments.size() * this.segmentSize;
+
+        List<Segment> expired = new ArrayList<>();
+
+        Iterator<Segment> iterator = this.segments.iterator();
+        while (iterator.hasNext()) {
+            Segment segment = iterator.next();
+            if (segment == this.active || (size <= this.retentionSize && segment.getLastTimestamp() >= cutoff)) {
+                break;
+            }
+
+            expired.add(segment);
+            iterator.remove();
+            size -= this.segmentSize;
+        }
+
+        return expired;
+    }
+
+    private boolean roll() {
+        if (this.next == null || !this.next.isDone()) {
+            return false;
+        }
+
+        Segment previous = this.active;
+
+        try {
+            this.active = this.next.get();
+        } catch (ExecutionException e) {
+            LOGGER.warn("Unable to allocate journal segment", e.getCause());
+            this.next = allocate();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        this.segments.add(this.active);
+        List<Segment> expired = expire();
+
+        this.executor.execute(() -> {
+            if (previous != null) {
+                previous.seal();
+            }
+
+            for (Segment segment : expired) {
+                try {
+                    Files.deleteIfExists(segment.getPath());
+                } catch (IOException e) {
+                    LOGGER.warn("Unable to delete expired journal segment {}", segment.getPath(), e);
+                }
+            }
+        });
+
+        this.next = allocate();
+        return true;
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+
+        private volatile long firstTimestamp = Long.MAX_VALUE;
+
+        private int[] indexPositions = new int[16];
+
+        private int indexSize;
+
+        private long[] indexTimestamps = new long[16];
+
+        private int lastIndexed = -1;
+
+        private volatile long lastTimestamp = Long.MIN_VALUE;
+
+        private volatile int limit;
+
+        private MappedByteBuffer writer;
+
+        private Segment(Path path) {
+            this.path = path;
+        }
+
+        private static Segment create(Path path, int size) throws IOException {
+            Segment segment = new Segment(path);
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                segment.writer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+
+            return segment;
+        }
+
+        private static Segment recover(Path path, int indexInterval) throws IOException {
+            Segment segment = new Segment(path);
+
+            MappedByteBuffer buffer = map(path);
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int position = buffer.position();
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining() - 8) {
+                    break;
+                }
+
+                segment.index(position, buffer.getLong(), indexInterval);
+                buffer.position(buffer.position() + length);
+                segment.limit = buffer.position();
+            }
+            unmap(buffer);
+
+            return segment;
+        }
+
+        private static MappedByteBuffer map(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+
+        private void append(ByteBuf envelope, int length, long timestamp, int indexInterval) {
+            int position = this.writer.position();
+
+            this.writer.putInt(length).putLong(timestamp);
+
+            // ByteBuf.getBytes fills the destination to its limit, so bound it to the envelope
+            this.writer.limit(this.writer.position() + length);
+            envelope.getBytes(envelope.readerIndex(), this.writer);
+            this.writer.limit(this.writer.capacity());
+
+            synchronized (this) {
+                index(position, timestamp, indexInterval);
+            }
+
+            // Publish the record to readers only once it has been completely written
+            this.limit = this.writer.position();
+        }
+
+        private void discard() {
+            unmap(this.writer);
+            this.writer = null;
+
+            try {
+                Files.deleteIfExists(this.path);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to delete unused journal segment {}", this.path, e);
+            }
+        }
+
+        private long getFirstTimestamp() {
+            return this.firstTimestamp;
+        }
+
+        private long getLastTimestamp() {
+            return this.lastTimestamp;
+        }
+
+        private int getLimit() {
+            return this.limit;
+        }
+
+        private Path getPath() {
+            return this.path;
+        }
+
+        private int getRemaining() {
+            return this.writer.remaining();
+        }
+
+        private synchronized int getStartPosition(long start) {
+            int index = Arrays.binarySearch(this.indexTimestamps, 0, this.indexSize, start);
+            if (index < 0) {
+                index = -index - 2;
+            } else {
+                while (index > 0 && this.indexTimestamps[index - 1] == start) {
+                    index--;
+                }
+                index--;
+            }
+
+            return index < 0 ? 0 : this.indexPositions[index];
+        }
+
+        private void index(int position, long timestamp, int indexInterval) {
+            if (this.firstTimestamp == Long.MAX_VALUE) {
+                this.firstTimestamp = timestamp;
+            }
+            this.lastTimestamp = timestamp;
+
+            if (this.lastIndexed >= 0 && position - this.lastIndexed < indexInterval) {
+                return;
+            }
+
+            if (this.indexSize == this.indexTimestamps.length) {
+                this.indexTimestamps = Arrays.copyOf(this.indexTimestamps, this.indexSize * 2);
+                this.indexPositions = Arrays.copyOf(this.indexPositions, this.indexSize * 2);
+            }
+
+            this.indexTimestamps[this.indexSize] = timestamp;
+            this.indexPositions[this.indexSize] = position;
+            this.indexSize++;
+            this.lastIndexed = position;
+        }
+
+        private Iterator<ByteBuf> read(long start, long end) {
+            MappedByteBuffer buffer;
+            try {
+                buffer = map(this.path);
+            } catch (IOException e) {
+                throw Exceptions.propagate(e);
+            }
+
+            buffer.limit(this.limit);
+            buffer.position(getStartPosition(start));
+
+            return new Iterator<ByteBuf>() {
+
+                private ByteBuf next = advance();
+
+                private boolean unmapped;
+
+                @Override
+                public boolean hasNext() {
+                    // Every envelope returned has been consumed by the time the iterator is asked for another, so the mapping can be released once it is exhausted
+                    if (this.next == null && !this.unmapped) {
+                        unmap(buffer);
+                        this.unmapped = true;
+                    }
+
+                    return this.next != null;
+                }
+
+                @Override
+                public ByteBuf next() {
+                    if (this.next == null) {
+                        throw new NoSuchElementException();
+                    }
+
+                    ByteBuf current = this.next;
+                    this.next = advance();
+                    return current;
+                }
+
+                private ByteBuf advance() {
+                    while (buffer.remaining() >= HEADER_SIZE) {
+                        int length = buffer.getInt();
+                        long timestamp = buffer.getLong();
+
+                        if (timestamp >= end) {
+                            return null;
+                        }
+
+                        ByteBuffer envelope = buffer.slice();
+                        envelope.limit(length);
+                        buffer.position(buffer.position() + length);
+
+                        if (timestamp >= start) {
+                            return Unpooled.wrappedBuffer(envelope);
+                        }
+                    }
+
+                    return null;
+                }
+
+            };
+        }
+
+        private void seal() {
+            this.writer.force();
+            unmap(this.writer);
+            this.writer = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import org.cloudfoundry.doppler.Event;
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.MessageType;
+
+import java.util.Objects;
+
+/**
+ * A view of a "log line" and associated metadata whose message is only decoded when it is accessed.  Consumers that filter or route log messages on their metadata never pay for decoding the
+ * message itself.
+ */
+public final class LogMessageView implements Event {
+
+    private final String applicationId;
+
+    private final CharSequence message;
+
+    private final MessageType messageType;
+
+    private final String sourceInstance;
+
+    private final String sourceType;
+
+    private final Long timestamp;
+
+    LogMessageView(String applicationId, CharSequence message, MessageType messageType, String sourceInstance, String sourceType, Long timestamp) {
+        this.applicationId = applicationId;
+        this.message = Objects.requireNonNull(message, "message");
+        this.messageType = Objects.requireNonNull(messageType, "messageType");
+        this.sourceInstance = sourceInstance;
+        this.sourceType = sourceType;
+        this.timestamp = Objects.requireNonNull(timestamp, "timestamp");
+    }
+
+    /**
+     * Returns the application that emitted the message (or to which the application is related)
+     *
+     * @return the application id
+     */
+    public String getApplicationId() {
+        return this.applicationId;
+    }
+
+    /**
+     * Returns the log message.  The message is decoded the first time its characters are accessed.
+     *
+     * @return the log message
+     */
+    public CharSequence getMessage() {
+        return this.message;
+    }
+
+    /**
+     * Returns the type of the message
+     *
+     * @return the type of the message
+     */
+    public MessageType getMessageType() {
+        return this.messageType;
+    }
+
+    /**
+     * Returns the instance that emitted the message
+     *
+     * @return the source instance
+     */
+    public String getSourceInstance() {
+        return this.sourceInstance;
+    }
+
+    /**
+     * Returns the source of the message
+     *
+     * @return the source type
+     */
+    public String getSourceType() {
+        return this.sourceType;
+    }
+
+    /**
+     * Returns the UNIX timestamp (in nanoseconds) when the log was written
+     *
+     * @return the timestamp
+     */
+    public Long getTimestamp() {
+        return this.timestamp;
+    }
+
+    /**
+     * Converts this view into a fully decoded {@link LogMessage}
+     *
+     * @return the {@link LogMessage}
+     */
+    public LogMessage toLogMessage() {
+        return LogMessage.builder()
+            .applicationId(this.applicationId)
+            .message(this.message.toString())
+            .messageType(this.messageType)
+            .sourceInstance(this.sourceInstance)
+            .sourceType(this.sourceType)
+            .timestamp(this.timestamp)
+            .build();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LogMessageView{applicationId=%s, messageType=%s, sourceInstance=%s, sourceType=%s, timestamp=%d}", this.applicationId, this.messageType, this.sourceInstance,
+            this.sourceType, this.timestamp);
+    }
+
+}
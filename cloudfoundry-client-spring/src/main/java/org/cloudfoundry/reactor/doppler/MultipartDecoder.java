@@ -0,0 +1,201 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cloudfoundry.doppler.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decodes a {@code multipart} response of dropsonde {@code Envelope}s as its chunks arrive.  Chunks are retained and added to a composite accumulation buffer rather than copied, the buffer is
+ * scanned for part delimiters, and each part is decoded in place by the {@link EnvelopeDecoder} as soon as it is complete, so no part is materialized as a stream or copied.  Chunks are released
+ * once every part they hold has been decoded.  An instance holds the state of a single response, must not be shared, and must be {@link #release() released} when the response ends.
+ */
+final class MultipartDecoder {
+
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=\"?([^\";]+)\"?");
+
+    private static final byte[] CRLF = new byte[]{'\r', '\n'};
+
+    private static final byte[] HEADERS_END = new byte[]{'\r', '\n', '\r', '\n'};
+
+    private static final int MAXIMUM_COMPONENTS = 256;
+
+    private final CompositeByteBuf accumulator = Unpooled.compositeBuffer(MAXIMUM_COMPONENTS);
+
+    private final byte[] delimiter;
+
+    private int searchIndex;
+
+    private State state = State.PREAMBLE;
+
+    MultipartDecoder(String boundary) {
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.US_ASCII);
+
+        // The first delimiter is not preceded by a line break, so one is added to make every delimiter the same
+        this.accumulator.addComponent(true, Unpooled.wrappedBuffer(CRLF));
+    }
+
+    /**
+     * Returns the boundary from a {@code Content-Type} header
+     *
+     * @param contentType the content type
+     * @return the boundary
+     */
+    static String getBoundary(String contentType) {
+        Matcher matcher = BOUNDARY.matcher(contentType == null ? "" : contentType);
+
+        if (!matcher.find()) {
+            throw new IllegalStateException(String.format("Content-Type %s does not specify a multipart boundary", contentType));
+        }
+
+        return matcher.group(1);
+    }
+
+    /**
+     * Verifies that the response ended with its closing delimiter.  A response that ends part way through a part has been truncated, so the incomplete part is reported as an error rather than
+     * dropped.
+     *
+     * @throws IllegalStateException if the response ended before its closing delimiter
+     */
+    void complete() {
+        if (this.state == State.EPILOGUE || (this.state == State.PREAMBLE && this.accumulator.readableBytes() <= CRLF.length)) {
+            return;
+        }
+
+        throw new IllegalStateException(String.format("Multipart response ended before its closing delimiter, %d bytes of an incomplete part were discarded", this.accumulator.readableBytes()));
+    }
+
+    /**
+     * Decodes the parts completed by a chunk of the response.  The chunk is retained until every part it holds has been decoded, so the caller may release its own reference once this method
+     * returns.
+     *
+     * @param chunk the chunk
+     * @return the events in the parts that were completed by the chunk
+     */
+    List<Event> decode(ByteBuf chunk) {
+        if (chunk.isReadable()) {
+            this.accumulator.addComponent(true, chunk.retainedSlice());
+        }
+
+        List<Event> events = Collections.emptyList();
+
+        while (this.state != State.EPILOGUE) {
+            if (this.state == State.PREAMBLE || this.state == State.BODY) {
+                int index = indexOf(this.delimiter);
+                if (index < 0) {
+                    break;
+                }
+
+                if (this.state == State.BODY) {
+                    if (events.isEmpty()) {
+                        events = new ArrayList<>();
+                    }
+                    events.add(EnvelopeDecoder.decode(this.accumulator.slice(this.accumulator.readerIndex(), index - this.accumulator.readerIndex())));
+                }
+
+                this.accumulator.readerIndex(index + this.delimiter.length);
+                this.state = State.DELIMITER;
+            } else if (this.state == State.DELIMITER) {
+                if (this.accumulator.readableBytes() < 2) {
+                    break;
+                }
+
+                int readerIndex = this.accumulator.readerIndex();
+                boolean close = this.accumulator.getByte(readerIndex) == '-' && this.accumulator.getByte(readerIndex + 1) == '-';
+
+                this.searchIndex = readerIndex;
+                this.state = close ? State.EPILOGUE : State.HEADERS;
+            } else {
+                int index = indexOf(HEADERS_END);
+                if (index < 0) {
+                    break;
+                }
+
+                this.accumulator.readerIndex(index + HEADERS_END.length);
+                this.searchIndex = this.accumulator.readerIndex();
+                this.state = State.BODY;
+            }
+        }
+
+        if (this.state == State.EPILOGUE) {
+            this.accumulator.skipBytes(this.accumulator.readableBytes());
+        }
+
+        int readerIndex = this.accumulator.readerIndex();
+        this.accumulator.discardReadComponents();
+        this.searchIndex = Math.max(0, this.searchIndex - (readerIndex - this.accumulator.readerIndex()));
+
+        return events;
+    }
+
+    /**
+     * Releases the chunks that are still held
+     */
+    void release() {
+        if (this.accumulator.refCnt() > 0) {
+            this.accumulator.release();
+        }
+    }
+
+    private int indexOf(byte[] pattern) {
+        int last = this.accumulator.writerIndex() - pattern.length;
+
+        for (int i = Math.max(this.searchIndex, this.accumulator.readerIndex()); i <= last; i++) {
+            if (matches(i, pattern)) {
+                return i;
+            }
+        }
+
+        // Resume the search where a pattern that straddles the next chunk could begin
+        this.searchIndex = Math.max(this.accumulator.readerIndex(), last + 1);
+        return -1;
+    }
+
+    private boolean matches(int index, byte[] pattern) {
+        for (int i = 0; i < pattern.length; i++) {
+            if (this.accumulator.getByte(index + i) != pattern[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private enum State {
+
+        BODY,
+
+        DELIMITER,
+
+        EPILOGUE,
+
+        HEADERS,
+
+        PREAMBLE
+
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+/**
+ * What an {@link EventBuffer} does with an event that arrives when it is full
+ */
+public enum OverflowStrategy {
+
+    /**
+     * Discard the buffered event that arrived earliest and buffer the new event
+     */
+    DROP_OLDEST,
+
+    /**
+     * Discard the new event
+     */
+    DROP_NEWEST
+
+}
@@ -17,38 +17,41 @@
 package org.cloudfoundry.reactor.doppler;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
 import lombok.Builder;
 import org.cloudfoundry.doppler.ContainerMetric;
 import org.cloudfoundry.doppler.ContainerMetricsRequest;
-import org.cloudfoundry.doppler.CounterEvent;
 import org.cloudfoundry.doppler.DopplerClient;
-import org.cloudfoundry.doppler.Error;
 import org.cloudfoundry.doppler.Event;
 import org.cloudfoundry.doppler.FirehoseRequest;
-import org.cloudfoundry.doppler.HttpStart;
-import org.cloudfoundry.doppler.HttpStartStop;
-import org.cloudfoundry.doppler.HttpStop;
 import org.cloudfoundry.doppler.LogMessage;
 import org.cloudfoundry.doppler.RecentLogsRequest;
 import org.cloudfoundry.doppler.StreamRequest;
-import org.cloudfoundry.doppler.ValueMetric;
-import org.cloudfoundry.dropsonde.events.Envelope;
 import org.cloudfoundry.reactor.util.AuthorizationProvider;
 import org.cloudfoundry.reactor.util.ConnectionContextSupplier;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.GroupedFlux;
 import reactor.core.publisher.Mono;
-import reactor.core.util.Exceptions;
+import reactor.core.scheduler.Scheduler;
 import reactor.io.netty.http.HttpClient;
 import reactor.io.netty.http.HttpClientResponse;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * The Reactor-based implementation of {@link DopplerClient}
  */
 public final class ReactorDopplerClient extends AbstractDopplerOperations implements DopplerClient {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger("cloudfoundry-client.doppler");
+
+    private final AtomicLong undecodableEnvelopes = new AtomicLong();
+
     @Builder
     ReactorDopplerClient(ConnectionContextSupplier cloudFoundryClient) {
         this(cloudFoundryClient.getConnectionContext().getAuthorizationProvider(), cloudFoundryClient.getConnectionContext().getHttpClient(),
@@ -62,65 +65,200 @@ public final class ReactorDopplerClient extends AbstractDopplerOperations implem
     @Override
     public Flux<ContainerMetric> containerMetrics(ContainerMetricsRequest request) {
         return get(builder -> builder.pathSegment("apps", request.getApplicationId(), "containermetrics"))
-            .flatMap(inbound -> inbound.receiveMultipart().receiveInputStream())
-            .map(ReactorDopplerClient::toEnvelope)
-            .map(ReactorDopplerClient::toEvent);
+            .flatMap(ReactorDopplerClient::receiveMultipart);
     }
 
     @Override
     public Flux<Event> firehose(FirehoseRequest request) {
-        return ws(builder -> builder.pathSegment("firehose", request.getSubscriptionId()))
-            .flatMap(HttpClientResponse::receiveInputStream)
-            .map(ReactorDopplerClient::toEnvelope)
-            .map(ReactorDopplerClient::toEvent);
+        return decode(ws(builder -> builder.pathSegment("firehose", request.getSubscriptionId()))
+            .flatMap(HttpClientResponse::receive)
+            .filter(EnvelopeFilter.from(request)), false, this.undecodableEnvelopes);
+    }
+
+    /**
+     * Makes the Firehose request, buffering events for a consumer that may not keep up with them
+     *
+     * @param request the Firehose request
+     * @param buffer  the buffer that holds events until they are requested
+     * @return the events from the firehose
+     */
+    public Flux<Event> firehose(FirehoseRequest request, EventBuffer buffer) {
+        return buffer.apply(firehose(request));
+    }
+
+    /**
+     * Makes the Firehose request, appending every envelope received to a journal before it is filtered and decoded
+     *
+     * @param request the Firehose request
+     * @param journal the journal that envelopes are appended to
+     * @return the events from the firehose
+     */
+    public Flux<Event> firehose(FirehoseRequest request, FirehoseJournal journal) {
+        return decode(ws(builder -> builder.pathSegment("firehose", request.getSubscriptionId()))
+            .flatMap(HttpClientResponse::receive)
+            .doOnNext(journal::append)
+            .filter(EnvelopeFilter.from(request)), false, this.undecodableEnvelopes);
+    }
+
+    /**
+     * Makes the Firehose request, reconnecting to the same subscription whenever the connection is lost
+     *
+     * @param request     the Firehose request
+     * @param reconnector the reconnector that re-establishes the connection
+     * @return the events from the firehose
+     */
+    public Flux<Event> firehose(FirehoseRequest request, Reconnector reconnector) {
+        return reconnector.apply(firehose(request));
+    }
+
+    /**
+     * Makes the Firehose request over several connections that share the request's subscription id.  Loggregator balances envelopes across the connections, each of which is read and decoded on
+     * its own event loop, so decoding scales with the number of connections.  The decoded events are then partitioned onto rails by application id, so that every event for an application is
+     * delivered on the same rail in the order it was received.  The rails are not published on any worker, see {@link #firehose(FirehoseRequest, int, int, Scheduler, Function)}.
+     *
+     * @param request     the Firehose request
+     * @param connections the number of connections to open
+     * @param rails       the number of rails to partition events onto
+     * @return the rails, keyed by index
+     */
+    public Flux<GroupedFlux<Integer, Event>> firehose(FirehoseRequest request, int connections, int rails) {
+        validateSharding(connections, rails);
+
+        return firehose(request, connections)
+            .groupBy(event -> ApplicationAffinity.getRail(event, rails));
+    }
+
+    /**
+     * Makes the Firehose request over several connections that share the request's subscription id, partitioning the decoded events onto rails by application id.  Each rail is published on its
+     * own worker of {@code scheduler} and transformed there by {@code processor}, so that rails are processed in parallel while every event for an application is still processed in order.
+     *
+     * @param request     the Firehose request
+     * @param connections the number of connections to open
+     * @param rails       the number of rails to partition events onto
+     * @param scheduler   the scheduler that each rail is published on
+     * @param processor   the transformation applied to each rail on its worker
+     * @param <T>         the type of the processed results
+     * @return the results of processing each rail, merged
+     */
+    public <T> Flux<T> firehose(FirehoseRequest request, int connections, int rails, Scheduler scheduler, Function<Flux<Event>, ? extends Publisher<T>> processor) {
+        validateSharding(connections, rails);
+
+        return partition(firehose(request, connections), rails, scheduler, processor);
+    }
+
+    /**
+     * Makes the Firehose request, delivering {@link LogMessage}s as {@link LogMessageView}s whose message is only decoded when it is accessed
+     *
+     * @param request the Firehose request
+     * @return the events from the firehose
+     */
+    public Flux<Event> firehoseViews(FirehoseRequest request) {
+        return decode(ws(builder -> builder.pathSegment("firehose", request.getSubscriptionId()))
+            .flatMap(HttpClientResponse::receive)
+            .filter(EnvelopeFilter.from(request)), true, this.undecodableEnvelopes);
+    }
+
+    /**
+     * Returns the number of envelopes received on firehose and stream connections that could not be decoded and were skipped
+     *
+     * @return the number of undecodable envelopes
+     */
+    public long getUndecodableEnvelopes() {
+        return this.undecodableEnvelopes.get();
     }
 
     @Override
     public Flux<LogMessage> recentLogs(RecentLogsRequest request) {
         return get(builder -> builder.pathSegment("apps", request.getApplicationId(), "recentlogs"))
-            .flatMap(inbound -> inbound.receiveMultipart().receiveInputStream())
-            .map(ReactorDopplerClient::toEnvelope)
-            .map(ReactorDopplerClient::toEvent);
+            .flatMap(ReactorDopplerClient::receiveMultipart);
     }
 
     @Override
     public Flux<Event> stream(StreamRequest request) {
-        return ws(builder -> builder.pathSegment("apps", request.getApplicationId(), "stream"))
-            .flatMap(HttpClientResponse::receiveInputStream)
-            .map(ReactorDopplerClient::toEnvelope)
-            .map(ReactorDopplerClient::toEvent);
+        return decode(ws(builder -> builder.pathSegment("apps", request.getApplicationId(), "stream"))
+            .flatMap(HttpClientResponse::receive)
+            .filter(EnvelopeFilter.from(request)), false, this.undecodableEnvelopes);
     }
 
-    private static Envelope toEnvelope(InputStream inputStream) {
-        try (InputStream in = inputStream) {
-            return Envelope.ADAPTER.decode(in);
-        } catch (IOException e) {
-            throw Exceptions.propagate(e);
-        }
+    /**
+     * Makes the Stream request, buffering events for a consumer that may not keep up with them
+     *
+     * @param request the Stream request
+     * @param buffer  the buffer that holds events until they are requested
+     * @return the events from the stream
+     */
+    public Flux<Event> stream(StreamRequest request, EventBuffer buffer) {
+        return buffer.apply(stream(request));
+    }
+
+    /**
+     * Makes the Stream request, reconnecting whenever the connection is lost
+     *
+     * @param request     the Stream request
+     * @param reconnector the reconnector that re-establishes the connection
+     * @return the events from the stream
+     */
+    public Flux<Event> stream(StreamRequest request, Reconnector reconnector) {
+        return reconnector.apply(stream(request));
+    }
+
+    /**
+     * Makes the Stream request, delivering {@link LogMessage}s as {@link LogMessageView}s whose message is only decoded when it is accessed
+     *
+     * @param request the Stream request
+     * @return the events from the stream
+     */
+    public Flux<Event> streamViews(StreamRequest request) {
+        return decode(ws(builder -> builder.pathSegment("apps", request.getApplicationId(), "stream"))
+            .flatMap(HttpClientResponse::receive)
+            .filter(EnvelopeFilter.from(request)), true, this.undecodableEnvelopes);
+    }
+
+    static Flux<Event> decode(Flux<ByteBuf> envelopes, boolean views, AtomicLong undecodableEnvelopes) {
+        return envelopes
+            .concatMap(buffer -> {
+                try {
+                    return Mono.just(EnvelopeDecoder.decode(buffer, views));
+                } catch (EnvelopeDecodeException e) {
+                    undecodableEnvelopes.incrementAndGet();
+                    LOGGER.debug("Skipping envelope that could not be decoded", e);
+                    return Mono.<Event>empty();
+                }
+            });
+    }
+
+    static <T> Flux<T> partition(Flux<Event> events, int rails, Scheduler scheduler, Function<Flux<Event>, ? extends Publisher<T>> processor) {
+        return events
+            .groupBy(event -> ApplicationAffinity.getRail(event, rails))
+            .flatMap(rail -> processor.apply(rail.publishOn(scheduler)), rails, 256);
     }
 
     @SuppressWarnings("unchecked")
-    private static <T extends Event> T toEvent(Envelope envelope) {
-        switch (envelope.eventType) {
-            case HttpStart:
-                return (T) HttpStart.from(envelope.httpStart);
-            case HttpStop:
-                return (T) HttpStop.from(envelope.httpStop);
-            case HttpStartStop:
-                return (T) HttpStartStop.from(envelope.httpStartStop);
-            case LogMessage:
-                return (T) LogMessage.from(envelope.logMessage);
-            case ValueMetric:
-                return (T) ValueMetric.from(envelope.valueMetric);
-            case CounterEvent:
-                return (T) CounterEvent.from(envelope.counterEvent);
-            case Error:
-                return (T) Error.from(envelope.error);
-            case ContainerMetric:
-                return (T) ContainerMetric.from(envelope.containerMetric);
-            default:
-                throw new IllegalStateException(String.format("Envelope event type %s is unsupported", envelope.eventType));
+    private static <T extends Event> Flux<T> receiveMultipart(HttpClientResponse inbound) {
+        return Flux.using(() -> new MultipartDecoder(MultipartDecoder.getBoundary(inbound.responseHeaders().get(CONTENT_TYPE))),
+            decoder -> inbound.receive()
+                .map(decoder::decode)
+                .concatWith(Mono.defer(() -> {
+                    decoder.complete();
+                    return Mono.<List<Event>>empty();
+                }))
+                .concatMap(events -> Flux.fromIterable((List<T>) (List<?>) events)),
+            MultipartDecoder::release);
+    }
+
+    private static void validateSharding(int connections, int rails) {
+        if (connections < 1) {
+            throw new IllegalArgumentException(String.format("Connections must be positive: %d", connections));
         }
+
+        if (rails < 1) {
+            throw new IllegalArgumentException(String.format("Rails must be positive: %d", rails));
+        }
+    }
+
+    private Flux<Event> firehose(FirehoseRequest request, int connections) {
+        return Flux.range(0, connections)
+            .flatMap(connection -> firehose(request));
     }
 
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import lombok.Builder;
+import org.cloudfoundry.doppler.Event;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.io.netty.http.HttpException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a stream of {@link Event}s connected.  When the connection completes or fails transiently, for example when a Doppler instance is restarted or a token expires, it is re-established after an
+ * exponential backoff.  Each connection attempt requests a new {@code Authorization} header, so expired tokens are refreshed by the {@code AuthorizationProvider}, and firehose connections resume
+ * on the same subscription.  The backoff is reset as soon as a new connection delivers an event.  Errors that a new connection would not fix, such as a {@code 401}, {@code 403}, or other client
+ * error status, or an invalid request, are not retried and are delivered to the subscriber.  Envelopes that cannot be decoded are skipped by the client, and if a decoding error does reach the
+ * reconnector it reconnects rather than ending the stream.
+ * <p>
+ * The number of reconnections and an estimate of the events missed while disconnected are recorded.  The gap is estimated from the time of receipt of the last event before a disconnection and the
+ * first event after it.  Event timestamps are not used because different kinds of event are stamped by different sources, and some are not stamped at all.
+ */
+public final class Reconnector {
+
+    private static final Duration DEFAULT_MAXIMUM_BACKOFF = Duration.ofSeconds(30);
+
+    private static final Duration DEFAULT_MINIMUM_BACKOFF = Duration.ofSeconds(1);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("cloudfoundry-client.doppler");
+
+    private final AtomicLong estimatedGap = new AtomicLong();
+
+    private final AtomicLong lastGap = new AtomicLong();
+
+    private final Duration maximumBackoff;
+
+    private final Duration minimumBackoff;
+
+    private final AtomicLong reconnects = new AtomicLong();
+
+    @Builder
+    Reconnector(Duration maximumBackoff, Duration minimumBackoff) {
+        this.maximumBackoff = Optional.ofNullable(maximumBackoff).orElse(DEFAULT_MAXIMUM_BACKOFF);
+        this.minimumBackoff = Optional.ofNullable(minimumBackoff).orElse(DEFAULT_MINIMUM_BACKOFF);
+
+        if (this.minimumBackoff.isNegative() || this.minimumBackoff.compareTo(this.maximumBackoff) > 0) {
+            throw new IllegalArgumentException(String.format("Minimum backoff %s must be between zero and maximum backoff %s", this.minimumBackoff, this.maximumBackoff));
+        }
+    }
+
+    /**
+     * Keeps a stream of events connected.  The source is re-subscribed to for each connection, so it must open a new connection on every subscription.
+     *
+     * @param source the events to keep connected
+     * @param <T>    the type of event
+     * @return the events from every connection
+     */
+    public <T extends Event> Flux<T> apply(Publisher<T> source) {
+        return Flux.defer(() -> {
+            Session session = new Session();
+
+            return Flux.from(source)
+                .doOnNext(session::onEvent)
+                .concatWith(Mono.error(new ConnectionClosedException()))
+                .retryWhen(errors -> errors.flatMap(session::onDisconnect));
+        });
+    }
+
+    /**
+     * Returns the total estimated duration of the events missed while disconnected
+     *
+     * @return the total estimated gap
+     */
+    public Duration getEstimatedGap() {
+        return Duration.ofNanos(this.estimatedGap.get());
+    }
+
+    /**
+     * Returns the estimated duration of the events missed during the most recent disconnection
+     *
+     * @return the most recent estimated gap
+     */
+    public Duration getLastGap() {
+        return Duration.ofNanos(this.lastGap.get());
+    }
+
+    /**
+     * Returns the number of times a connection has been re-established and delivered an event
+     *
+     * @return the number of reconnections
+     */
+    public long getReconnects() {
+        return this.reconnects.get();
+    }
+
+    static boolean isTransient(int statusCode) {
+        return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+    }
+
+    static boolean isTransient(Throwable t) {
+        if (t instanceof HttpException) {
+            return isTransient(((HttpException) t).getResponseStatus().code());
+        }
+
+        if (t instanceof EnvelopeDecodeException) {
+            return true;
+        }
+
+        return !(t instanceof IllegalArgumentException || t instanceof IllegalStateException);
+    }
+
+    Duration getBackoff(int attempt) {
+        Duration candidate = this.minimumBackoff.multipliedBy(1L << Math.min(attempt, 30));
+        return candidate.compareTo(this.maximumBackoff) <= 0 ? candidate : this.maximumBackoff;
+    }
+
+    private final class Session {
+
+        private volatile int attempt;
+
+        private volatile boolean disconnected;
+
+        private volatile long lastReceipt;
+
+        private Publisher<Long> onDisconnect(Throwable t) {
+            if (!isTransient(t)) {
+                LOGGER.debug("Connection failed, not reconnecting", t);
+                return Mono.error(t);
+            }
+
+            Duration backoff = getBackoff(this.attempt++);
+            this.disconnected = true;
+
+            LOGGER.debug("Connection lost, reconnecting in {}", backoff, t);
+            return Mono.delay(backoff);
+        }
+
+        private void onEvent(Event event) {
+            long receipt = System.nanoTime();
+
+            if (this.disconnected) {
+                this.disconnected = false;
+                this.attempt = 0;
+                Reconnector.this.reconnects.incrementAndGet();
+
+                long gap = this.lastReceipt == 0 ? 0 : Math.max(0, receipt - this.lastReceipt);
+                Reconnector.this.lastGap.set(gap);
+                Reconnector.this.estimatedGap.addAndGet(gap);
+            }
+
+            this.lastReceipt = receipt;
+        }
+
+    }
+
+    private static final class ConnectionClosedException extends RuntimeException {
+
+        private static final long serialVersionUID = -1862236384232153473L;
+
+        private ConnectionClosedException() {
+            super("Connection closed");
+        }
+
+    }
+
+}
@@ -28,6 +28,8 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.UNPROCESSABLE_ENTITY;
 
 public final class CloudFoundryExceptionBuilderTest {
@@ -43,6 +45,33 @@ public final class CloudFoundryExceptionBuilderTest {
         assertEquals("CF-UnprocessableEntity", exception.getErrorCode());
     }
 
+    @Test
+    public void buildAdditionalFields() {
+        String body = "{\"error_code\":\"CF-AppNotFound\",\"types\":[\"AppNotFound\",\"Error\"],\"backtrace\":{\"lines\":[1,2]},\"code\":100004,\"description\":\"The app could not be found\"}";
+        HttpStatusCodeException cause = new HttpClientErrorException(NOT_FOUND, NOT_FOUND.getReasonPhrase(), body.getBytes(Charset.defaultCharset()), Charset.defaultCharset());
+
+        CloudFoundryException exception = CloudFoundryExceptionBuilder.build(cause);
+        assertEquals(Integer.valueOf(100004), exception.getCode());
+        assertEquals("The app could not be found", exception.getDescription());
+        assertEquals("CF-AppNotFound", exception.getErrorCode());
+    }
+
+    @Test
+    public void buildTruncatedPayload() {
+        StringBuilder body = new StringBuilder("{\"code\":10008,\"error_code\":\"CF-UnprocessableEntity\",\"description\":\"");
+        while (body.length() <= CloudFoundryExceptionBuilder.MAXIMUM_PAYLOAD_SIZE) {
+            body.append("too long ");
+        }
+        body.append("\"}");
+        HttpStatusCodeException cause = new HttpClientErrorException(UNPROCESSABLE_ENTITY, UNPROCESSABLE_ENTITY.getReasonPhrase(), body.toString().getBytes(Charset.defaultCharset()),
+            Charset.defaultCharset());
+
+        CloudFoundryException exception = CloudFoundryExceptionBuilder.build(cause);
+        assertEquals(Integer.valueOf(10008), exception.getCode());
+        assertNull(exception.getDescription());
+        assertEquals("CF-UnprocessableEntity", exception.getErrorCode());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void buildInvalidPayload() {
         HttpStatusCodeException cause = new HttpClientErrorException(UNPROCESSABLE_ENTITY, UNPROCESSABLE_ENTITY.getReasonPhrase(), "{".getBytes(Charset.defaultCharset()), Charset.defaultCharset());
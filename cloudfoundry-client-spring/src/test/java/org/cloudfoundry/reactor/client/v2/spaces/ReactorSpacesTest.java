@@ -25,6 +25,8 @@ import org.cloudfoundry.client.v2.domains.DomainResource;
 import org.cloudfoundry.client.v2.events.EventEntity;
 import org.cloudfoundry.client.v2.events.EventResource;
 import org.cloudfoundry.client.v2.jobs.JobEntity;
+import org.cloudfoundry.client.v2.organizations.OrganizationEntity;
+import org.cloudfoundry.client.v2.organizations.OrganizationResource;
 import org.cloudfoundry.client.v2.routes.Route;
 import org.cloudfoundry.client.v2.routes.RouteEntity;
 import org.cloudfoundry.client.v2.routes.RouteResource;
@@ -110,6 +112,7 @@ import org.cloudfoundry.reactor.client.AbstractClientApiTest;
 import org.cloudfoundry.util.StringMap;
 import reactor.core.publisher.Mono;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
 
@@ -740,6 +743,80 @@ public final class ReactorSpacesTest {
 
     }
 
+    public static final class GetInlineRelations extends AbstractClientApiTest<GetSpaceRequest, GetSpaceResponse> {
+
+        private final ReactorSpaces spaces = new ReactorSpaces(AUTHORIZATION_PROVIDER, HTTP_CLIENT, OBJECT_MAPPER, this.root);
+
+        @Override
+        protected InteractionContext getInteractionContext() {
+            return InteractionContext.builder()
+                .request(TestRequest.builder()
+                    .method(GET).path("/v2/spaces/test-space-id?include-relations=domains,organization&inline-relations-depth=1")
+                    .build())
+                .response(TestResponse.builder()
+                    .status(OK)
+                    .payload("fixtures/client/v2/spaces/GET_{id}_inline_relations_response.json")
+                    .build())
+                .build();
+        }
+
+        @Override
+        protected GetSpaceResponse getResponse() {
+            return GetSpaceResponse.builder()
+                .metadata(Metadata.builder()
+                    .id("0f102457-c1fc-42e5-9c81-c7be2bc65dcd")
+                    .url("/v2/spaces/0f102457-c1fc-42e5-9c81-c7be2bc65dcd")
+                    .createdAt("2015-07-27T22:43:08Z")
+                    .build())
+                .entity(SpaceEntity.builder()
+                    .name("name-108")
+                    .organizationId("525a31fb-bc2b-4f7f-865e-1c93b42a6762")
+                    .allowSsh(true)
+                    .organizationUrl("/v2/organizations/525a31fb-bc2b-4f7f-865e-1c93b42a6762")
+                    .organization(OrganizationResource.builder()
+                        .metadata(Metadata.builder()
+                            .id("525a31fb-bc2b-4f7f-865e-1c93b42a6762")
+                            .url("/v2/organizations/525a31fb-bc2b-4f7f-865e-1c93b42a6762")
+                            .createdAt("2015-07-27T22:43:08Z")
+                            .build())
+                        .entity(OrganizationEntity.builder()
+                            .name("name-107")
+                            .billingEnabled(false)
+                            .quotaDefinitionId("a8b2fd7b-0a57-44e2-9bde-3a8b0ec3eb3b")
+                            .status("active")
+                            .build())
+                        .build())
+                    .domainsUrl("/v2/spaces/0f102457-c1fc-42e5-9c81-c7be2bc65dcd/domains")
+                    .domain(DomainResource.builder()
+                        .metadata(Metadata.builder()
+                            .id("4a1e5ae0-2d58-4b3b-b0e6-8e0d0ab1bc59")
+                            .url("/v2/shared_domains/4a1e5ae0-2d58-4b3b-b0e6-8e0d0ab1bc59")
+                            .createdAt("2015-07-27T22:43:08Z")
+                            .build())
+                        .entity(DomainEntity.builder()
+                            .name("customer-app-domain1.com")
+                            .build())
+                        .build())
+                    .build())
+                .build();
+        }
+
+        @Override
+        protected GetSpaceRequest getValidRequest() throws Exception {
+            return GetSpaceRequest.builder()
+                .includeRelations(Arrays.asList("domains", "organization"))
+                .inlineRelationsDepth(1)
+                .spaceId("test-space-id")
+                .build();
+        }
+
+        @Override
+        protected Mono<GetSpaceResponse> invoke(GetSpaceRequest request) {
+            return this.spaces.get(request);
+        }
+
+    }
+
     public static final class GetSummary extends AbstractClientApiTest<GetSpaceSummaryRequest, GetSpaceSummaryResponse> {
 
         private final ReactorSpaces spaces = new ReactorSpaces(AUTHORIZATION_PROVIDER, HTTP_CLIENT, OBJECT_MAPPER, this.root);
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import io.netty.buffer.Unpooled;
+import org.cloudfoundry.doppler.ContainerMetric;
+import org.cloudfoundry.doppler.Event;
+import org.cloudfoundry.doppler.HttpStartStop;
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.MessageType;
+import org.cloudfoundry.doppler.ValueMetric;
+import org.cloudfoundry.dropsonde.events.Envelope;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class ApplicationAffinityTest {
+
+    private static final String APPLICATION_ID = "1a95eadc-95c6-4675-aa07-8c02f80ea8a4";
+
+    @Test
+    public void nonUuidApplicationId() {
+        assertEquals("test-application-id".hashCode(), ApplicationAffinity.getHash(logMessage("test-application-id")));
+    }
+
+    @Test
+    public void range() {
+        for (int i = 0; i < 100; i++) {
+            int rail = ApplicationAffinity.getRail(logMessage(UUID.randomUUID().toString()), 7);
+            assertTrue(rail >= 0 && rail < 7);
+        }
+    }
+
+    @Test
+    public void sameApplicationSameRail() {
+        ContainerMetric containerMetric = ContainerMetric.builder()
+            .applicationId(APPLICATION_ID)
+            .cpuPercentage(0.0)
+            .diskBytes(0L)
+            .instanceIndex(0)
+            .memoryBytes(0L)
+            .build();
+
+        Event httpStartStop = EnvelopeDecoder.decode(Unpooled.wrappedBuffer(Envelope.ADAPTER.encode(new Envelope.Builder()
+            .eventType(Envelope.EventType.HttpStartStop)
+            .httpStartStop(new org.cloudfoundry.dropsonde.events.HttpStartStop.Builder()
+                .applicationId(uuid(APPLICATION_ID))
+                .contentLength(0L)
+                .method(org.cloudfoundry.dropsonde.events.Method.GET)
+                .peerType(org.cloudfoundry.dropsonde.events.PeerType.Server)
+                .remoteAddress("test-remote-address")
+                .requestId(uuid(UUID.randomUUID().toString()))
+                .startTimestamp(0L)
+                .statusCode(200)
+                .stopTimestamp(0L)
+                .uri("test-uri")
+                .userAgent("test-user-agent")
+                .build())
+            .origin("test-origin")
+            .build())));
+
+        int hash = UUID.fromString(APPLICATION_ID).hashCode();
+        assertEquals(hash, ApplicationAffinity.getHash(logMessage(APPLICATION_ID)));
+        assertEquals(hash, ApplicationAffinity.getHash(containerMetric));
+        assertTrue(httpStartStop instanceof HttpStartStop);
+        assertEquals(hash, ApplicationAffinity.getHash(httpStartStop));
+        assertEquals(ApplicationAffinity.getRail(containerMetric, 8), ApplicationAffinity.getRail(httpStartStop, 8));
+    }
+
+    @Test
+    public void valueMetric() {
+        assertEquals("test-name".hashCode(), ApplicationAffinity.getHash(ValueMetric.builder()
+            .name("test-name")
+            .unit("test-unit")
+            .value(1.0)
+            .build()));
+    }
+
+    private static LogMessage logMessage(String applicationId) {
+        return LogMessage.builder()
+            .applicationId(applicationId)
+            .message("test-message")
+            .messageType(MessageType.OUT)
+            .timestamp(0L)
+            .build();
+    }
+
+    private static org.cloudfoundry.dropsonde.events.UUID uuid(String s) {
+        UUID uuid = UUID.fromString(s);
+
+        return new org.cloudfoundry.dropsonde.events.UUID.Builder()
+            .high(Long.reverseBytes(uuid.getLeastSignificantBits()))
+            .low(Long.reverseBytes(uuid.getMostSignificantBits()))
+            .build();
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import okio.ByteString;
+import org.cloudfoundry.doppler.ContainerMetric;
+import org.cloudfoundry.doppler.CounterEvent;
+import org.cloudfoundry.doppler.HttpStartStop;
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.MessageType;
+import org.cloudfoundry.doppler.ValueMetric;
+import org.cloudfoundry.dropsonde.events.Envelope;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public final class EnvelopeDecoderTest {
+
+    @Test
+    public void containerMetric() {
+        org.cloudfoundry.dropsonde.events.ContainerMetric dropsonde = new org.cloudfoundry.dropsonde.events.ContainerMetric.Builder()
+            .applicationId("test-application-id")
+            .cpuPercentage(0.09530591690894699)
+            .diskBytes(154005504L)
+            .instanceIndex(2)
+            .memoryBytes(385896448L)
+            .build();
+
+        assertEquals(ContainerMetric.from(dropsonde), EnvelopeDecoder.decode(encode(envelope(Envelope.EventType.ContainerMetric)
+            .containerMetric(dropsonde))));
+    }
+
+    @Test
+    public void counterEvent() {
+        org.cloudfoundry.dropsonde.events.CounterEvent dropsonde = new org.cloudfoundry.dropsonde.events.CounterEvent.Builder()
+            .delta(1L)
+            .name("test-name")
+            .total(2L)
+            .build();
+
+        assertEquals(CounterEvent.from(dropsonde), EnvelopeDecoder.decode(encode(envelope(Envelope.EventType.CounterEvent)
+            .counterEvent(dropsonde))));
+    }
+
+    @Test
+    public void httpStartStop() {
+        org.cloudfoundry.dropsonde.events.HttpStartStop dropsonde = new org.cloudfoundry.dropsonde.events.HttpStartStop.Builder()
+            .applicationId(uuid(3L, 4L))
+            .contentLength(100L)
+            .instanceId("test-instance-id")
+            .instanceIndex(1)
+            .method(org.cloudfoundry.dropsonde.events.Method.POST)
+            .peerType(org.cloudfoundry.dropsonde.events.PeerType.Server)
+            .remoteAddress("test-remote-address")
+            .requestId(uuid(-1L, 2L))
+            .startTimestamp(1461278188035928339L)
+            .statusCode(201)
+            .stopTimestamp(1461278188715651492L)
+            .uri("test-uri")
+            .userAgent("test-user-agent")
+            .build();
+
+        assertEquals(HttpStartStop.from(dropsonde), EnvelopeDecoder.decode(encode(envelope(Envelope.EventType.HttpStartStop)
+            .httpStartStop(dropsonde))));
+    }
+
+    @Test
+    public void logMessage() {
+        org.cloudfoundry.dropsonde.events.LogMessage dropsonde = logMessage("test-message ✓");
+
+        assertEquals(LogMessage.from(dropsonde), EnvelopeDecoder.decode(encode(envelope(Envelope.EventType.LogMessage)
+            .logMessage(dropsonde))));
+    }
+
+    @Test
+    public void logMessageView() {
+        org.cloudfoundry.dropsonde.events.LogMessage dropsonde = logMessage("test-message ✓");
+
+        LogMessageView view = (LogMessageView) EnvelopeDecoder.decode(encode(envelope(Envelope.EventType.LogMessage)
+            .logMessage(dropsonde)), true);
+
+        assertEquals("test-application-id", view.getApplicationId());
+        assertEquals(MessageType.ERR, view.getMessageType());
+        assertEquals("test-message ✓", view.getMessage().toString());
+        assertEquals(LogMessage.from(dropsonde), view.toLogMessage());
+    }
+
+    @Test(expected = EnvelopeDecodeException.class)
+    public void malformed() {
+        EnvelopeDecoder.decode(Unpooled.wrappedBuffer(new byte[]{0x10, (byte) 0x80}));
+    }
+
+    @Test(expected = EnvelopeDecodeException.class)
+    public void missingEvent() {
+        EnvelopeDecoder.decode(encode(envelope(Envelope.EventType.LogMessage)));
+    }
+
+    @Test
+    public void valueMetric() {
+        org.cloudfoundry.dropsonde.events.ValueMetric dropsonde = new org.cloudfoundry.dropsonde.events.ValueMetric.Builder()
+            .name("test-name")
+            .unit("test-unit")
+            .value(1.5)
+            .build();
+
+        assertEquals(ValueMetric.from(dropsonde), EnvelopeDecoder.decode(encode(envelope(Envelope.EventType.ValueMetric)
+            .valueMetric(dropsonde))));
+    }
+
+    private static ByteBuf encode(Envelope.Builder builder) {
+        return Unpooled.wrappedBuffer(Envelope.ADAPTER.encode(builder.build()));
+    }
+
+    private static Envelope.Builder envelope(Envelope.EventType eventType) {
+        return new Envelope.Builder()
+            .deployment("test-deployment")
+            .eventType(eventType)
+            .origin("test-origin")
+            .timestamp(1461278188035930425L);
+    }
+
+    private static org.cloudfoundry.dropsonde.events.LogMessage logMessage(String message) {
+        return new org.cloudfoundry.dropsonde.events.LogMessage.Builder()
+            .app_id("test-application-id")
+            .message(ByteString.of(message.getBytes(StandardCharsets.UTF_8)))
+            .message_type(org.cloudfoundry.dropsonde.events.LogMessage.MessageType.ERR)
+            .source_instance("0")
+            .source_type("APP")
+            .timestamp(1461278188035928339L)
+            .build();
+    }
+
+    private static org.cloudfoundry.dropsonde.events.UUID uuid(long high, long low) {
+        return new org.cloudfoundry.dropsonde.events.UUID.Builder()
+            .high(high)
+            .low(low)
+            .build();
+    }
+
+}
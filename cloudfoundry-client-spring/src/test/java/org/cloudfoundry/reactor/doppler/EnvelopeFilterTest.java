@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cloudfoundry.doppler.EventType;
+import org.cloudfoundry.doppler.FirehoseRequest;
+import org.cloudfoundry.doppler.StreamRequest;
+import org.cloudfoundry.dropsonde.events.Envelope;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class EnvelopeFilterTest {
+
+    @Test
+    public void deployment() {
+        ByteBuf buffer = encode(envelope(Envelope.EventType.CounterEvent));
+
+        assertTrue(EnvelopeFilter.from(StreamRequest.builder()
+            .applicationId("test-application-id")
+            .deployment("test-deployment")
+            .build()).test(buffer));
+
+        assertFalse(EnvelopeFilter.from(StreamRequest.builder()
+            .applicationId("test-application-id")
+            .deployment("test-deploymenx")
+            .build()).test(buffer));
+    }
+
+    @Test
+    public void eventType() {
+        ByteBuf buffer = encode(envelope(Envelope.EventType.CounterEvent));
+
+        assertTrue(EnvelopeFilter.from(FirehoseRequest.builder()
+            .eventType(EventType.COUNTER_EVENT)
+            .eventType(EventType.VALUE_METRIC)
+            .subscriptionId("test-subscription-id")
+            .build()).test(buffer));
+
+        assertFalse(EnvelopeFilter.from(FirehoseRequest.builder()
+            .eventType(EventType.HTTP_START_STOP)
+            .subscriptionId("test-subscription-id")
+            .build()).test(buffer));
+
+        assertEquals(0, buffer.readerIndex());
+    }
+
+    @Test
+    public void noRestrictions() {
+        assertTrue(EnvelopeFilter.from(FirehoseRequest.builder()
+            .subscriptionId("test-subscription-id")
+            .build()).test(Unpooled.EMPTY_BUFFER));
+    }
+
+    @Test
+    public void origin() {
+        ByteBuf buffer = encode(envelope(Envelope.EventType.CounterEvent));
+
+        assertTrue(EnvelopeFilter.from(FirehoseRequest.builder()
+            .eventType(EventType.COUNTER_EVENT)
+            .origin("other-origin")
+            .origin("test-origin")
+            .subscriptionId("test-subscription-id")
+            .build()).test(buffer));
+
+        assertFalse(EnvelopeFilter.from(FirehoseRequest.builder()
+            .origin("test")
+            .subscriptionId("test-subscription-id")
+            .build()).test(buffer));
+    }
+
+    private static ByteBuf encode(Envelope.Builder builder) {
+        return Unpooled.wrappedBuffer(Envelope.ADAPTER.encode(builder.build()));
+    }
+
+    private static Envelope.Builder envelope(Envelope.EventType eventType) {
+        return new Envelope.Builder()
+            .counterEvent(new org.cloudfoundry.dropsonde.events.CounterEvent.Builder()
+                .delta(1L)
+                .name("test-name")
+                .build())
+            .deployment("test-deployment")
+            .eventType(eventType)
+            .origin("test-origin")
+            .timestamp(0L);
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import org.cloudfoundry.doppler.Event;
+import org.cloudfoundry.doppler.EventType;
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.MessageType;
+import org.cloudfoundry.doppler.ValueMetric;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class EventBufferTest {
+
+    @Test
+    public void dropNewest() {
+        EventBuffer buffer = EventBuffer.builder()
+            .capacity(4)
+            .overflowStrategy(OverflowStrategy.DROP_NEWEST)
+            .build();
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        buffer.apply(Flux.range(0, 10).map(EventBufferTest::logMessage)).subscribe(subscriber);
+        subscriber.request(Long.MAX_VALUE);
+
+        assertEquals(Arrays.asList("0", "1", "2", "3"), subscriber.getMessages());
+        assertTrue(subscriber.completed);
+        assertEquals(10, buffer.getCounters().getReceived(EventType.LOG_MESSAGE));
+        assertEquals(6, buffer.getCounters().getDropped(EventType.LOG_MESSAGE));
+        assertEquals(4, buffer.getCounters().getDelivered(EventType.LOG_MESSAGE));
+    }
+
+    @Test
+    public void dropOldest() {
+        EventBuffer buffer = EventBuffer.builder()
+            .capacity(4)
+            .overflowStrategy(OverflowStrategy.DROP_OLDEST)
+            .build();
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        buffer.apply(Flux.range(0, 10).map(EventBufferTest::logMessage)).subscribe(subscriber);
+
+        subscriber.request(2);
+        assertEquals(Arrays.asList("6", "7"), subscriber.getMessages());
+        assertEquals(false, subscriber.completed);
+
+        subscriber.request(2);
+        assertEquals(Arrays.asList("6", "7", "8", "9"), subscriber.getMessages());
+        assertTrue(subscriber.completed);
+        assertEquals(6, buffer.getCounters().getDropped(EventType.LOG_MESSAGE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCapacity() {
+        EventBuffer.builder()
+            .capacity(0)
+            .build();
+    }
+
+    @Test
+    public void invalidRequest() {
+        EventBuffer buffer = EventBuffer.builder()
+            .build();
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        buffer.apply(Flux.range(0, 10).map(EventBufferTest::logMessage)).subscribe(subscriber);
+        subscriber.request(0);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertEquals(0, subscriber.events.size());
+        assertEquals(false, subscriber.completed);
+    }
+
+    @Test
+    public void passThrough() {
+        EventBuffer buffer = EventBuffer.builder()
+            .build();
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        subscriber.request = Long.MAX_VALUE;
+        buffer.apply(Flux.range(0, 10).map(EventBufferTest::logMessage)).subscribe(subscriber);
+
+        assertEquals(10, subscriber.events.size());
+        assertTrue(subscriber.completed);
+        assertEquals(0, buffer.getCounters().getDropped(EventType.LOG_MESSAGE));
+        assertEquals(10, buffer.getCounters().getDelivered(EventType.LOG_MESSAGE));
+    }
+
+    @Test
+    public void sampling() {
+        EventBuffer buffer = EventBuffer.builder()
+            .capacity(100)
+            .sampleRate(EventType.VALUE_METRIC, 10)
+            .build();
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        buffer.apply(Flux.range(0, 150).map(i -> (Event) (i < 50 ? logMessage(i) : valueMetric(i)))).subscribe(subscriber);
+        subscriber.request(Long.MAX_VALUE);
+
+        assertEquals(50, buffer.getCounters().getDelivered(EventType.LOG_MESSAGE));
+        assertEquals(100, buffer.getCounters().getReceived(EventType.VALUE_METRIC));
+        assertEquals(10, buffer.getCounters().getDelivered(EventType.VALUE_METRIC));
+        assertEquals(90, buffer.getCounters().getDropped(EventType.VALUE_METRIC));
+    }
+
+    private static Event logMessage(int i) {
+        return LogMessage.builder()
+            .message(String.valueOf(i))
+            .messageType(MessageType.OUT)
+            .timestamp((long) i)
+            .build();
+    }
+
+    private static Event valueMetric(int i) {
+        return ValueMetric.builder()
+            .name("test-name")
+            .unit("test-unit")
+            .value((double) i)
+            .build();
+    }
+
+    private static final class RecordingSubscriber implements Subscriber<Event> {
+
+        private final List<Event> events = new ArrayList<>();
+
+        private boolean completed;
+
+        private Throwable error;
+
+        private long request;
+
+        private Subscription subscription;
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            this.error = t;
+        }
+
+        @Override
+        public void onNext(Event event) {
+            this.events.add(event);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            this.subscription = s;
+
+            if (this.request > 0) {
+                s.request(this.request);
+            }
+        }
+
+        private List<String> getMessages() {
+            List<String> messages = new ArrayList<>();
+            this.events.forEach(event -> messages.add(((LogMessage) event).getMessage()));
+            return messages;
+        }
+
+        private void request(long n) {
+            this.subscription.request(n);
+        }
+
+    }
+
+}
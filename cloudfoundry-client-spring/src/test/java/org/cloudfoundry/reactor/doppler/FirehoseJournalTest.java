@@ -0,0 +1,191 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cloudfoundry.doppler.Event;
+import org.cloudfoundry.doppler.ValueMetric;
+import org.cloudfoundry.dropsonde.events.Envelope;
+import org.cloudfoundry.util.test.TestSubscriber;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public final class FirehoseJournalTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    private final Path directory;
+
+    public FirehoseJournalTest() throws IOException {
+        this.directory = Files.createTempDirectory("firehose-journal");
+    }
+
+    @After
+    public void delete() throws IOException {
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void dropAfterClose() {
+        FirehoseJournal journal = journal(256, null, null);
+        journal.append(envelope(0));
+        journal.close();
+
+        journal.append(envelope(1));
+
+        assertEquals(1, journal.getDropped());
+        assertEquals(1, journal.getWritten());
+    }
+
+    @Test
+    public void dropWhileAllocating() {
+        List<Runnable> allocations = new ArrayList<>();
+        FirehoseJournal journal = new FirehoseJournal(this.directory, 64, null, null, 256, this.clock::get, allocations::add);
+
+        journal.append(envelope(0));
+        assertEquals(1, journal.getDropped());
+
+        allocations.remove(0).run();
+        journal.append(envelope(1));
+
+        assertEquals(1, journal.getDropped());
+        assertEquals(1, journal.getWritten());
+        journal.close();
+    }
+
+    @Test
+    public void dropOversized() {
+        FirehoseJournal journal = journal(64, null, null);
+
+        journal.append(Unpooled.wrappedBuffer(new byte[128]));
+
+        assertEquals(1, journal.getDropped());
+        assertEquals(0, journal.getWritten());
+    }
+
+    @Test
+    public void recover() throws InterruptedException {
+        FirehoseJournal journal = journal(4096, null, null);
+        for (int i = 0; i < 10; i++) {
+            this.clock.set(1_000 + i);
+            journal.append(envelope(i));
+        }
+        journal.close();
+
+        TestSubscriber<Event> testSubscriber = new TestSubscriber<Event>()
+            .assertEquals(valueMetric(4))
+            .assertEquals(valueMetric(5));
+
+        journal(4096, null, null)
+            .replay(Instant.ofEpochMilli(1_004), Instant.ofEpochMilli(1_006))
+            .subscribe(testSubscriber);
+
+        testSubscriber.verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void replay() throws InterruptedException {
+        FirehoseJournal journal = journal(256, null, null);
+        for (int i = 0; i < 100; i++) {
+            this.clock.set(1_000 + i / 2);
+            journal.append(envelope(i));
+        }
+
+        TestSubscriber<Event> testSubscriber = new TestSubscriber<Event>()
+            .assertEquals(valueMetric(40))
+            .assertEquals(valueMetric(41))
+            .assertEquals(valueMetric(42))
+            .assertEquals(valueMetric(43));
+
+        journal.replay(Instant.ofEpochMilli(1_020), Instant.ofEpochMilli(1_022))
+            .subscribe(testSubscriber);
+
+        testSubscriber.verify(Duration.ofSeconds(5));
+        assertEquals(100, journal.getWritten());
+    }
+
+    @Test
+    public void retentionPeriod() throws InterruptedException {
+        FirehoseJournal journal = journal(256, Duration.ofSeconds(10), null);
+        for (int i = 0; i < 100; i++) {
+            this.clock.set(1_000 + i * 1_000);
+            journal.append(envelope(i));
+        }
+
+        TestSubscriber<Event> testSubscriber = new TestSubscriber<Event>()
+            .assertCount(0);
+
+        journal.replay(Instant.ofEpochMilli(0), Instant.ofEpochMilli(50_000))
+            .subscribe(testSubscriber);
+
+        testSubscriber.verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void retentionSize() throws IOException {
+        FirehoseJournal journal = journal(256, null, 1_024L);
+        for (int i = 0; i < 100; i++) {
+            journal.append(envelope(i));
+        }
+        journal.close();
+
+        try (Stream<Path> paths = Files.list(this.directory)) {
+            assertEquals(4, paths.count());
+        }
+    }
+
+    private static ByteBuf envelope(int value) {
+        return Unpooled.wrappedBuffer(Envelope.ADAPTER.encode(new Envelope.Builder()
+            .eventType(Envelope.EventType.ValueMetric)
+            .origin("test-origin")
+            .valueMetric(new org.cloudfoundry.dropsonde.events.ValueMetric.Builder()
+                .name("test-name")
+                .unit("test-unit")
+                .value((double) value)
+                .build())
+            .build()));
+    }
+
+    private static Event valueMetric(int value) {
+        return ValueMetric.builder()
+            .name("test-name")
+            .unit("test-unit")
+            .value((double) value)
+            .build();
+    }
+
+    private FirehoseJournal journal(int segmentSize, Duration retention, Long retentionSize) {
+        return new FirehoseJournal(this.directory, 64, retention, retentionSize, segmentSize, this.clock::get, Runnable::run);
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import io.netty.buffer.Unpooled;
+import org.cloudfoundry.doppler.ContainerMetric;
+import org.cloudfoundry.doppler.Event;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public final class MultipartDecoderTest {
+
+    private static final String BOUNDARY = "30662872b152b6fbeb87658af504679def2b6680145265ad354761ea7acf";
+
+    @Test
+    public void boundary() {
+        assertEquals(BOUNDARY, MultipartDecoder.getBoundary("multipart/x-protobuf; boundary=" + BOUNDARY));
+        assertEquals(BOUNDARY, MultipartDecoder.getBoundary("multipart/x-protobuf; boundary=\"" + BOUNDARY + "\""));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noBoundary() {
+        MultipartDecoder.getBoundary("application/x-protobuf");
+    }
+
+    @Test
+    public void singleChunk() throws IOException {
+        byte[] payload = getPayload();
+
+        MultipartDecoder decoder = new MultipartDecoder(BOUNDARY);
+        List<Event> events = decoder.decode(Unpooled.wrappedBuffer(payload));
+        decoder.complete();
+        decoder.release();
+
+        assertEquals(getExpected(), events);
+    }
+
+    @Test
+    public void splitChunks() throws IOException {
+        byte[] payload = getPayload();
+
+        for (int size = 1; size < 80; size += 7) {
+            MultipartDecoder decoder = new MultipartDecoder(BOUNDARY);
+            List<Event> events = new ArrayList<>();
+
+            for (int offset = 0; offset < payload.length; offset += size) {
+                events.addAll(decoder.decode(Unpooled.wrappedBuffer(payload, offset, Math.min(size, payload.length - offset))));
+            }
+
+            decoder.complete();
+            decoder.release();
+
+            assertEquals(String.format("Chunk size %d", size), getExpected(), events);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void truncated() throws IOException {
+        byte[] payload = getPayload();
+
+        MultipartDecoder decoder = new MultipartDecoder(BOUNDARY);
+        decoder.decode(Unpooled.wrappedBuffer(payload, 0, payload.length - 20));
+        decoder.complete();
+    }
+
+    private static List<Event> getExpected() {
+        List<Event> expected = new ArrayList<>();
+
+        expected.add(ContainerMetric.builder()
+            .applicationId("1a95eadc-95c6-4675-aa07-8c02f80ea8a4")
+            .cpuPercentage(0.09530591690894699)
+            .diskBytes(154005504L)
+            .instanceIndex(2)
+            .memoryBytes(385896448L)
+            .build());
+
+        expected.add(ContainerMetric.builder()
+            .applicationId("1a95eadc-95c6-4675-aa07-8c02f80ea8a4")
+            .cpuPercentage(0.070504789909887)
+            .diskBytes(154005504L)
+            .instanceIndex(0)
+            .memoryBytes(371363840L)
+            .build());
+
+        return expected;
+    }
+
+    private static byte[] getPayload() throws IOException {
+        try (InputStream in = new ClassPathResource("fixtures/doppler/apps/GET_{id}_containermetrics_response.bin").getInputStream()) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+
+}
@@ -16,19 +16,35 @@
 
 package org.cloudfoundry.reactor.doppler;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.cloudfoundry.doppler.ContainerMetric;
 import org.cloudfoundry.doppler.ContainerMetricsRequest;
+import org.cloudfoundry.doppler.Event;
 import org.cloudfoundry.doppler.LogMessage;
 import org.cloudfoundry.doppler.MessageType;
 import org.cloudfoundry.doppler.RecentLogsRequest;
+import org.cloudfoundry.dropsonde.events.Envelope;
 import org.cloudfoundry.reactor.InteractionContext;
 import org.cloudfoundry.reactor.TestRequest;
 import org.cloudfoundry.reactor.TestResponse;
+import org.junit.Test;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Computations;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import static io.netty.handler.codec.http.HttpMethod.GET;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 public final class ReactorDopplerClientTest {
 
@@ -88,6 +104,71 @@ public final class ReactorDopplerClientTest {
 
     }
 
+    public static final class Decode {
+
+        @Test
+        public void skipsUndecodableEnvelopes() {
+            AtomicLong undecodableEnvelopes = new AtomicLong();
+
+            List<Event> events = ReactorDopplerClient
+                .decode(Flux.just(valueMetric(), Unpooled.wrappedBuffer(new byte[]{0x10, 0x63}), valueMetric()), false, undecodableEnvelopes)
+                .collectList()
+                .block();
+
+            assertEquals(2, events.size());
+            assertEquals(1, undecodableEnvelopes.get());
+        }
+
+        private static ByteBuf valueMetric() {
+            return Unpooled.wrappedBuffer(Envelope.ADAPTER.encode(new Envelope.Builder()
+                .eventType(Envelope.EventType.ValueMetric)
+                .origin("test-origin")
+                .valueMetric(new org.cloudfoundry.dropsonde.events.ValueMetric.Builder()
+                    .name("test-name")
+                    .unit("test-unit")
+                    .value(1.0)
+                    .build())
+                .build()));
+        }
+
+    }
+
+    public static final class Partition {
+
+        private final Scheduler scheduler = Computations.parallel("test-rails", 256, 2);
+
+        @Test
+        public void railsOnDifferentWorkers() {
+            String applicationId1 = UUID.randomUUID().toString();
+            String applicationId2 = applicationId1;
+            while (ApplicationAffinity.getRail(logMessage(applicationId1), 2) == ApplicationAffinity.getRail(logMessage(applicationId2), 2)) {
+                applicationId2 = UUID.randomUUID().toString();
+            }
+
+            Map<String, Set<String>> threads = ReactorDopplerClient
+                .partition(Flux.just(logMessage(applicationId1), logMessage(applicationId2), logMessage(applicationId1), logMessage(applicationId2)), 2, this.scheduler,
+                    rail -> rail.map(event -> new String[]{((LogMessage) event).getApplicationId(), Thread.currentThread().getName()}))
+                .collectList()
+                .map(pairs -> pairs.stream()
+                    .collect(Collectors.groupingBy(pair -> pair[0], Collectors.mapping(pair -> pair[1], Collectors.toSet()))))
+                .block();
+
+            assertEquals(1, threads.get(applicationId1).size());
+            assertEquals(1, threads.get(applicationId2).size());
+            assertNotEquals(threads.get(applicationId1), threads.get(applicationId2));
+        }
+
+        private static Event logMessage(String applicationId) {
+            return LogMessage.builder()
+                .applicationId(applicationId)
+                .message("test-message")
+                .messageType(MessageType.OUT)
+                .timestamp(0L)
+                .build();
+        }
+
+    }
+
     public static final class RecentLogs extends AbstractDopplerApiTest<RecentLogsRequest, LogMessage> {
 
         private final ReactorDopplerClient dopplerClient = new ReactorDopplerClient(AUTHORIZATION_PROVIDER, HTTP_CLIENT, OBJECT_MAPPER, this.root);
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.reactor.doppler;
+
+import org.cloudfoundry.doppler.Event;
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.MessageType;
+import org.cloudfoundry.util.test.TestSubscriber;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class ReconnectorTest {
+
+    @Test
+    public void backoff() {
+        Reconnector reconnector = Reconnector.builder()
+            .maximumBackoff(Duration.ofSeconds(5))
+            .minimumBackoff(Duration.ofSeconds(1))
+            .build();
+
+        assertEquals(Duration.ofSeconds(1), reconnector.getBackoff(0));
+        assertEquals(Duration.ofSeconds(4), reconnector.getBackoff(2));
+        assertEquals(Duration.ofSeconds(5), reconnector.getBackoff(3));
+        assertEquals(Duration.ofSeconds(5), reconnector.getBackoff(100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBackoff() {
+        Reconnector.builder()
+            .maximumBackoff(Duration.ofSeconds(1))
+            .minimumBackoff(Duration.ofSeconds(2))
+            .build();
+    }
+
+    @Test
+    public void reconnect() throws InterruptedException {
+        Reconnector reconnector = Reconnector.builder()
+            .maximumBackoff(Duration.ofMillis(10))
+            .minimumBackoff(Duration.ofMillis(1))
+            .build();
+
+        AtomicInteger connections = new AtomicInteger();
+        Flux<Event> source = Flux.defer(() -> {
+            long connection = connections.getAndIncrement();
+            return Flux.just(logMessage(connection * 100), logMessage(connection * 100 + 10));
+        });
+
+        TestSubscriber<Event> testSubscriber = new TestSubscriber<Event>()
+            .assertEquals(logMessage(0))
+            .assertEquals(logMessage(10))
+            .assertEquals(logMessage(100))
+            .assertEquals(logMessage(110))
+            .assertEquals(logMessage(200))
+            .assertEquals(logMessage(210));
+
+        reconnector.apply(source)
+            .take(6)
+            .subscribe(testSubscriber);
+
+        testSubscriber.verify(Duration.ofSeconds(5));
+
+        assertEquals(2, reconnector.getReconnects());
+        assertTrue(reconnector.getLastGap().compareTo(Duration.ofMillis(1)) >= 0);
+        assertTrue(reconnector.getEstimatedGap().compareTo(reconnector.getLastGap().plusMillis(1)) >= 0);
+    }
+
+    @Test
+    public void reconnectNonTransientError() {
+        Reconnector reconnector = Reconnector.builder()
+            .maximumBackoff(Duration.ofMillis(10))
+            .minimumBackoff(Duration.ofMillis(1))
+            .build();
+
+        AtomicInteger connections = new AtomicInteger();
+        Flux<Event> source = Flux.defer(() -> {
+            connections.incrementAndGet();
+            return Flux.<Event>just(logMessage(0)).concatWith(Flux.error(new IllegalArgumentException("test-message")));
+        });
+
+        TestSubscriber<Event> testSubscriber = new TestSubscriber<Event>()
+            .assertEquals(logMessage(0))
+            .assertError(IllegalArgumentException.class, "test-message");
+
+        reconnector.apply(source)
+            .subscribe(testSubscriber);
+
+        testSubscriber.verify(Duration.ofSeconds(5));
+
+        assertEquals(1, connections.get());
+        assertEquals(0, reconnector.getReconnects());
+    }
+
+    @Test
+    public void transientDecodeError() {
+        assertTrue(Reconnector.isTransient(new EnvelopeDecodeException("test-message")));
+        assertFalse(Reconnector.isTransient(new IllegalArgumentException("test-message")));
+    }
+
+    @Test
+    public void transientStatus() {
+        assertTrue(Reconnector.isTransient(500));
+        assertTrue(Reconnector.isTransient(503));
+        assertTrue(Reconnector.isTransient(408));
+        assertTrue(Reconnector.isTransient(429));
+        assertFalse(Reconnector.isTransient(400));
+        assertFalse(Reconnector.isTransient(401));
+        assertFalse(Reconnector.isTransient(403));
+        assertFalse(Reconnector.isTransient(404));
+    }
+
+    private static Event logMessage(long timestamp) {
+        return LogMessage.builder()
+            .message("test-message")
+            .messageType(MessageType.OUT)
+            .timestamp(timestamp)
+            .build();
+    }
+
+}
@@ -19,11 +19,27 @@ package org.cloudfoundry.client.v2;
 import org.cloudfoundry.Nullable;
 import org.cloudfoundry.QueryParameter;
 
+import java.util.List;
+
 /**
  * Base class for requests that are paginated
  */
 public abstract class PaginatedRequest {
 
+    /**
+     * The relations to embed in the response, limiting those embedded by {@link #getInlineRelationsDepth()}
+     */
+    @Nullable
+    @QueryParameter("include-relations")
+    public abstract List<String> getIncludeRelations();
+
+    /**
+     * The depth to which related resources are embedded in the response
+     */
+    @Nullable
+    @QueryParameter("inline-relations-depth")
+    public abstract Integer getInlineRelationsDepth();
+
     /**
      * The order direction
      */
@@ -19,6 +19,7 @@ package org.cloudfoundry.client.v2.events;
 import org.cloudfoundry.Nullable;
 import org.cloudfoundry.client.v2.GreaterThanOrEqualToFilterParameter;
 import org.cloudfoundry.client.v2.InFilterParameter;
+import org.cloudfoundry.client.v2.LessThanFilterParameter;
 import org.cloudfoundry.client.v2.PaginatedRequest;
 import org.immutables.value.Value;
 
@@ -37,6 +38,13 @@ abstract class _ListEventsRequest extends PaginatedRequest {
     @Nullable
     abstract List<String> getActees();
 
+    /**
+     * The timestamps that events must be before
+     */
+    @LessThanFilterParameter("timestamp")
+    @Nullable
+    abstract List<String> getBeforeTimestamps();
+
     /**
      * The timestamps
      */
@@ -17,14 +17,32 @@
 package org.cloudfoundry.client.v2.organizations;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.cloudfoundry.Nullable;
+import org.cloudfoundry.QueryParameter;
 import org.immutables.value.Value;
 
+import java.util.List;
+
 /**
  * The request payload for the Retrieve a Particular Organization operation
  */
 @Value.Immutable
 abstract class _GetOrganizationRequest {
 
+    /**
+     * The relations to embed in the response, limiting those embedded by the inline relations depth
+     */
+    @Nullable
+    @QueryParameter("include-relations")
+    abstract List<String> getIncludeRelations();
+
+    /**
+     * The depth to which related resources are embedded in the response
+     */
+    @Nullable
+    @QueryParameter("inline-relations-depth")
+    abstract Integer getInlineRelationsDepth();
+
     /**
      * The organization id
      */
@@ -19,8 +19,13 @@ package org.cloudfoundry.client.v2.organizations;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import org.cloudfoundry.Nullable;
+import org.cloudfoundry.client.v2.organizationquotadefinitions.OrganizationQuotaDefinitionResource;
+import org.cloudfoundry.client.v2.spacequotadefinitions.SpaceQuotaDefinitionResource;
+import org.cloudfoundry.client.v2.spaces.SpaceResource;
 import org.immutables.value.Value;
 
+import java.util.List;
+
 /**
  * The entity response payload for the Organization resource
  */
@@ -84,6 +89,13 @@ abstract class _OrganizationEntity {
     @Nullable
     abstract String getPrivateDomainsUrl();
 
+    /**
+     * The quota definition, when inlined
+     */
+    @JsonProperty("quota_definition")
+    @Nullable
+    abstract OrganizationQuotaDefinitionResource getQuotaDefinition();
+
     /**
      * The quota definition id
      */
@@ -98,6 +110,13 @@ abstract class _OrganizationEntity {
     @Nullable
     abstract String getQuotaDefinitionUrl();
 
+    /**
+     * The space quota definitions, when inlined
+     */
+    @JsonProperty("space_quota_definitions")
+    @Nullable
+    abstract List<SpaceQuotaDefinitionResource> getSpaceQuotaDefinitions();
+
     /**
      * The space quota definition url
      */
@@ -105,6 +124,13 @@ abstract class _OrganizationEntity {
     @Nullable
     abstract String getSpaceQuotaDefinitionsUrl();
 
+    /**
+     * The spaces, when inlined
+     */
+    @JsonProperty("spaces")
+    @Nullable
+    abstract List<SpaceResource> getSpaces();
+
     /**
      * The spaces url
      */
@@ -19,8 +19,15 @@ package org.cloudfoundry.client.v2.spaces;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import org.cloudfoundry.Nullable;
+import org.cloudfoundry.client.v2.applications.ApplicationResource;
+import org.cloudfoundry.client.v2.domains.DomainResource;
+import org.cloudfoundry.client.v2.organizations.OrganizationResource;
+import org.cloudfoundry.client.v2.securitygroups.SecurityGroupResource;
+import org.cloudfoundry.client.v2.spacequotadefinitions.SpaceQuotaDefinitionResource;
 import org.immutables.value.Value;
 
+import java.util.List;
+
 /**
  * The entity response payload for the Space resource
  */
@@ -42,6 +49,13 @@ abstract class _SpaceEntity {
     @Nullable
     abstract String getApplicationEventsUrl();
 
+    /**
+     * The applications, when inlined
+     */
+    @JsonProperty("apps")
+    @Nullable
+    abstract List<ApplicationResource> getApplications();
+
     /**
      * The applications url
      */
@@ -63,6 +77,13 @@ abstract class _SpaceEntity {
     @Nullable
     abstract String getDevelopersUrl();
 
+    /**
+     * The domains, when inlined
+     */
+    @JsonProperty("domains")
+    @Nullable
+    abstract List<DomainResource> getDomains();
+
     /**
      * The domains url
      */
@@ -91,6 +112,13 @@ abstract class _SpaceEntity {
     @Nullable
     abstract String getName();
 
+    /**
+     * The organization, when inlined
+     */
+    @JsonProperty("organization")
+    @Nullable
+    abstract OrganizationResource getOrganization();
+
     /**
      * The organization id
      */
@@ -112,6 +140,13 @@ abstract class _SpaceEntity {
     @Nullable
     abstract String getRoutesUrl();
 
+    /**
+     * The security groups, when inlined
+     */
+    @JsonProperty("security_groups")
+    @Nullable
+    abstract List<SecurityGroupResource> getSecurityGroups();
+
     /**
      * The security groups url
      */
@@ -126,6 +161,13 @@ abstract class _SpaceEntity {
     @Nullable
     abstract String getServiceInstancesUrl();
 
+    /**
+     * The space quota definition, when inlined
+     */
+    @JsonProperty("space_quota_definition")
+    @Nullable
+    abstract SpaceQuotaDefinitionResource getSpaceQuotaDefinition();
+
     /**
      * The space quota definition id
      */
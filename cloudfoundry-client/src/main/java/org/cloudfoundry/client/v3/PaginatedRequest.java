@@ -20,6 +20,8 @@ import org.cloudfoundry.Nullable;
 import org.cloudfoundry.QueryParameter;
 import org.immutables.value.Value;
 
+import java.util.List;
+
 /**
  * Base class for requests that are paginated
  */
@@ -36,6 +38,13 @@ public abstract class PaginatedRequest {
         }
     }
 
+    /**
+     * The related resources to include in the response
+     */
+    @Nullable
+    @QueryParameter("include")
+    public abstract List<String> getIncludes();
+
     /**
      * The page
      */
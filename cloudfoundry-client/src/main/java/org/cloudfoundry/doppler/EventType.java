@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.doppler;
+
+/**
+ * The type of an {@link Event}
+ */
+public enum EventType {
+
+    /**
+     * {@link ContainerMetric}
+     */
+    CONTAINER_METRIC,
+
+    /**
+     * {@link CounterEvent}
+     */
+    COUNTER_EVENT,
+
+    /**
+     * {@link Error}
+     */
+    ERROR,
+
+    /**
+     * {@link HttpStart}
+     */
+    HTTP_START,
+
+    /**
+     * {@link HttpStartStop}
+     */
+    HTTP_START_STOP,
+
+    /**
+     * {@link HttpStop}
+     */
+    HTTP_STOP,
+
+    /**
+     * {@link LogMessage}
+     */
+    LOG_MESSAGE,
+
+    /**
+     * {@link ValueMetric}
+     */
+    VALUE_METRIC
+
+}
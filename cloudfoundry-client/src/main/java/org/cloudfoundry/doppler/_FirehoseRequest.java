@@ -19,12 +19,32 @@ package org.cloudfoundry.doppler;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.immutables.value.Value;
 
+import java.util.Set;
+
 /**
  * The request payload for the Firehose endpoint
  */
 @Value.Immutable
 abstract class _FirehoseRequest {
 
+    /**
+     * The deployments to receive events from.  If empty, events from all deployments are received.
+     */
+    @JsonIgnore
+    abstract Set<String> getDeployments();
+
+    /**
+     * The types of events to receive.  If empty, events of all types are received.
+     */
+    @JsonIgnore
+    abstract Set<EventType> getEventTypes();
+
+    /**
+     * The origins to receive events from.  If empty, events from all origins are received.
+     */
+    @JsonIgnore
+    abstract Set<String> getOrigins();
+
     /**
      * The subscription id
      */
@@ -19,6 +19,8 @@ package org.cloudfoundry.doppler;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.immutables.value.Value;
 
+import java.util.Set;
+
 /**
  * The request payload for the Stream endpoint
  */
@@ -31,4 +33,22 @@ abstract class _StreamRequest {
     @JsonIgnore
     abstract String getApplicationId();
 
+    /**
+     * The deployments to receive events from.  If empty, events from all deployments are received.
+     */
+    @JsonIgnore
+    abstract Set<String> getDeployments();
+
+    /**
+     * The types of events to receive.  If empty, events of all types are received.
+     */
+    @JsonIgnore
+    abstract Set<EventType> getEventTypes();
+
+    /**
+     * The origins to receive events from.  If empty, events from all origins are received.
+     */
+    @JsonIgnore
+    abstract Set<String> getOrigins();
+
 }
@@ -23,6 +23,7 @@ import org.cloudfoundry.operations.domains.Domains;
 import org.cloudfoundry.operations.organizationadmin.OrganizationAdmin;
 import org.cloudfoundry.operations.organizations.Organizations;
 import org.cloudfoundry.operations.routes.Routes;
+import org.cloudfoundry.operations.search.Search;
 import org.cloudfoundry.operations.serviceadmin.ServiceAdmin;
 import org.cloudfoundry.operations.services.Services;
 import org.cloudfoundry.operations.spaceadmin.SpaceAdmin;
@@ -88,6 +89,13 @@ public interface CloudFoundryOperations {
      */
     Routes routes();
 
+    /**
+     * Main entry point to the Cloud Foundry Search Operations API
+     *
+     * @return the Cloud Foundry Search Operations API
+     */
+    Search search();
+
     /**
      * Main entry point to the Cloud Foundry Service Admin Operations API
      *
@@ -37,6 +37,8 @@ import org.cloudfoundry.operations.organizations.DefaultOrganizations;
 import org.cloudfoundry.operations.organizations.Organizations;
 import org.cloudfoundry.operations.routes.DefaultRoutes;
 import org.cloudfoundry.operations.routes.Routes;
+import org.cloudfoundry.operations.search.DefaultSearch;
+import org.cloudfoundry.operations.search.Search;
 import org.cloudfoundry.operations.serviceadmin.DefaultServiceAdmin;
 import org.cloudfoundry.operations.serviceadmin.ServiceAdmin;
 import org.cloudfoundry.operations.services.DefaultServices;
@@ -47,6 +49,7 @@ import org.cloudfoundry.operations.spaces.DefaultSpaces;
 import org.cloudfoundry.operations.spaces.Spaces;
 import org.cloudfoundry.operations.stacks.DefaultStacks;
 import org.cloudfoundry.operations.stacks.Stacks;
+import org.cloudfoundry.operations.topology.TopologyIndex;
 import org.cloudfoundry.uaa.UaaClient;
 import org.cloudfoundry.util.ExceptionUtils;
 import org.cloudfoundry.util.PaginationUtils;
@@ -75,7 +78,7 @@ abstract class _DefaultCloudFoundryOperations implements CloudFoundryOperations
     @Override
     @Value.Derived
     public Applications applications() {
-        return new DefaultApplications(getCloudFoundryClientPublisher(), getDopplerClientPublisher(), getSpaceId());
+        return new DefaultApplications(getCloudFoundryClientPublisher(), getDopplerClientPublisher(), getSpaceId(), getTopologyIndex());
     }
 
     @Override
@@ -105,7 +108,13 @@ abstract class _DefaultCloudFoundryOperations implements CloudFoundryOperations
     @Override
     @Value.Derived
     public Routes routes() {
-        return new DefaultRoutes(getCloudFoundryClientPublisher(), getOrganizationId(), getSpaceId());
+        return new DefaultRoutes(getCloudFoundryClientPublisher(), getOrganizationId(), getSpaceId(), getTopologyIndex());
+    }
+
+    @Override
+    @Value.Derived
+    public Search search() {
+        return new DefaultSearch(getCloudFoundryClientPublisher());
     }
 
     @Override
@@ -117,7 +126,7 @@ abstract class _DefaultCloudFoundryOperations implements CloudFoundryOperations
     @Override
     @Value.Derived
     public Services services() {
-        return new DefaultServices(getCloudFoundryClientPublisher(), getOrganizationId(), getSpaceId());
+        return new DefaultServices(getCloudFoundryClientPublisher(), getOrganizationId(), getSpaceId(), getTopologyIndex());
     }
 
     @Override
@@ -173,9 +182,11 @@ abstract class _DefaultCloudFoundryOperations implements CloudFoundryOperations
     @Value.Derived
     Mono<String> getOrganizationId() {
         return Optional.ofNullable(getOrganization())
-            .map(organization -> getOrganization(getCloudFoundryClientPublisher(), organization)
-                .map(ResourceUtils::getId)
-                .cache())
+            .map(organization -> Mono
+                .defer(() -> Mono.justOrEmpty(Optional.ofNullable(getTopologyIndex()).flatMap(index -> index.getOrganizationId(organization))))
+                .otherwiseIfEmpty(getOrganization(getCloudFoundryClientPublisher(), organization)
+                    .map(ResourceUtils::getId)
+                    .cache()))
             .orElse(Mono.error(new IllegalStateException("No organization targeted")));
     }
 
@@ -189,12 +200,20 @@ abstract class _DefaultCloudFoundryOperations implements CloudFoundryOperations
     Mono<String> getSpaceId() {
         return Optional.ofNullable(getSpace())
             .map(space -> getOrganizationId()
-                .then(organizationId -> getSpace(getCloudFoundryClientPublisher(), organizationId, space))
-                .map(ResourceUtils::getId)
-                .cache())
+                .then(organizationId -> Mono.justOrEmpty(Optional.ofNullable(getTopologyIndex()).flatMap(index -> index.getSpaceId(organizationId, space))))
+                .otherwiseIfEmpty(getOrganizationId()
+                    .then(organizationId -> getSpace(getCloudFoundryClientPublisher(), organizationId, space))
+                    .map(ResourceUtils::getId)
+                    .cache()))
             .orElse(Mono.error(new IllegalStateException("No space targeted")));
     }
 
+    /**
+     * The {@link TopologyIndex} to consult when resolving names to ids
+     */
+    @Nullable
+    abstract TopologyIndex getTopologyIndex();
+
     /**
      * The {@link UaaClient} to use for operations functionality
      */
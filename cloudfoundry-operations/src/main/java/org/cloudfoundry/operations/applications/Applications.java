@@ -99,6 +99,14 @@ public interface Applications {
      */
     Mono<ApplicationHealthCheck> getHealthCheck(GetApplicationHealthCheckRequest request);
 
+    /**
+     * Add the recent logs of several applications to a {@link LogIndex}, optionally continuing with their live logs
+     *
+     * @param request the index application logs request
+     * @return a completion indicator, which only completes once recent logs are indexed if live logs are not followed
+     */
+    Mono<Void> indexLogs(IndexLogsRequest request);
+
     /**
      * Lists the applications
      *
@@ -106,6 +114,14 @@ public interface Applications {
      */
     Flux<ApplicationSummary> list();
 
+    /**
+     * Lists the details of every application in the space, in the order in which they are retrieved
+     *
+     * @param request the list application details request
+     * @return the application details
+     */
+    Flux<ApplicationDetail> listDetails(ListApplicationDetailsRequest request);
+
     /**
      * List the applications logs
      *
@@ -114,6 +130,14 @@ public interface Applications {
      */
     Flux<LogMessage> logs(LogsRequest request);
 
+    /**
+     * List the recent logs of several applications, merged into a single timestamp-ordered stream
+     *
+     * @param request the merged application logs request
+     * @return the applications logs
+     */
+    Flux<LogMessage> mergedLogs(MergedLogsRequest request);
+
     /**
      * Push a specific application
      *
@@ -202,6 +226,14 @@ public interface Applications {
      */
     Mono<Void> stop(StopApplicationRequest request);
 
+    /**
+     * Tail the logs of several applications, tagged with the application that they came from
+     *
+     * @param request the tail application logs request
+     * @return the applications logs
+     */
+    Flux<ApplicationLog> tailLogs(TailLogsRequest request);
+
     /**
      * Unset an environment variable of an application
      *
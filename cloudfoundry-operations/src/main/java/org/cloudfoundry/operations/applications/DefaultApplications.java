@@ -18,6 +18,7 @@ package org.cloudfoundry.operations.applications;
 
 import org.cloudfoundry.client.CloudFoundryClient;
 import org.cloudfoundry.client.v2.OrderDirection;
+import org.cloudfoundry.client.v2.applications.AbstractApplicationEntity;
 import org.cloudfoundry.client.v2.applications.AbstractApplicationResource;
 import org.cloudfoundry.client.v2.applications.ApplicationEnvironmentRequest;
 import org.cloudfoundry.client.v2.applications.ApplicationEnvironmentResponse;
@@ -82,6 +83,7 @@ import org.cloudfoundry.doppler.Event;
 import org.cloudfoundry.doppler.LogMessage;
 import org.cloudfoundry.doppler.RecentLogsRequest;
 import org.cloudfoundry.doppler.StreamRequest;
+import org.cloudfoundry.operations.topology.TopologyIndex;
 import org.cloudfoundry.util.DateUtils;
 import org.cloudfoundry.util.DelayTimeoutException;
 import org.cloudfoundry.util.ExceptionUtils;
@@ -98,16 +100,24 @@ import reactor.core.tuple.Tuple6;
 
 import java.io.InputStream;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 import static org.cloudfoundry.util.DelayUtils.exponentialBackOff;
 import static org.cloudfoundry.util.tuple.TupleUtils.function;
@@ -115,18 +125,30 @@ import static org.cloudfoundry.util.tuple.TupleUtils.predicate;
 
 public final class DefaultApplications implements Applications {
 
+    private static final int CF_APP_NOT_FOUND = 100004;
+
     private static final int CF_APP_STOPPED_STATS_ERROR = 200003;
 
     private static final int CF_INSTANCES_ERROR = 220001;
 
     private static final int CF_STAGING_NOT_FINISHED = 170002;
 
+    private static final int DEFAULT_DETAILS_CONCURRENCY = 8;
+
+    private static final int DEFAULT_LOGS_CONCURRENCY = 8;
+
+    private static final int DEFAULT_TAIL_CONNECTIONS = 100;
+
+    private static final Duration DEFAULT_TAIL_SLICE = Duration.ofSeconds(30);
+
     private static final int MAX_NUMBER_OF_RECENT_EVENTS = 50;
 
     private static final String STARTED_STATE = "STARTED";
 
     private static final String STOPPED_STATE = "STOPPED";
 
+    private static final Duration TAIL_CHECK_INTERVAL = Duration.ofSeconds(1);
+
     private final Mono<CloudFoundryClient> cloudFoundryClient;
 
     private final Mono<DopplerClient> dopplerClient;
@@ -135,28 +157,36 @@ public final class DefaultApplications implements Applications {
 
     private final Mono<String> spaceId;
 
+    private final TopologyIndex topologyIndex;
+
     public DefaultApplications(Mono<CloudFoundryClient> cloudFoundryClient, Mono<DopplerClient> dopplerClient, Mono<String> spaceId) {
-        this(cloudFoundryClient, dopplerClient, spaceId, new WordListRandomWords());
+        this(cloudFoundryClient, dopplerClient, spaceId, new WordListRandomWords(), null);
+    }
+
+    public DefaultApplications(Mono<CloudFoundryClient> cloudFoundryClient, Mono<DopplerClient> dopplerClient, Mono<String> spaceId, TopologyIndex topologyIndex) {
+        this(cloudFoundryClient, dopplerClient, spaceId, new WordListRandomWords(), topologyIndex);
     }
 
     DefaultApplications(Mono<CloudFoundryClient> cloudFoundryClient, Mono<DopplerClient> dopplerClient, Mono<String> spaceId, RandomWords randomWords) {
+        this(cloudFoundryClient, dopplerClient, spaceId, randomWords, null);
+    }
+
+    DefaultApplications(Mono<CloudFoundryClient> cloudFoundryClient, Mono<DopplerClient> dopplerClient, Mono<String> spaceId, RandomWords randomWords, TopologyIndex topologyIndex) {
         this.cloudFoundryClient = cloudFoundryClient;
         this.dopplerClient = dopplerClient;
         this.spaceId = spaceId;
         this.randomWords = randomWords;
+        this.topologyIndex = topologyIndex;
     }
 
     @Override
     public Mono<Void> copySource(CopySourceApplicationRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .then(function((cloudFoundryClient, spaceId) -> Mono.when(
-                Mono.just(cloudFoundryClient),
-                getApplicationId(cloudFoundryClient, request.getName(), spaceId),
-                getApplicationIdFromOrgSpace(cloudFoundryClient, request.getTargetName(), spaceId, request.getTargetOrganization(), request.getTargetSpace())
-            )))
-            .then(function((cloudFoundryClient, sourceApplicationId, targetApplicationId) -> copyBits(cloudFoundryClient, sourceApplicationId, targetApplicationId)
-                .then(Mono.just(Tuple.of(cloudFoundryClient, targetApplicationId)))))
+            .then(function((cloudFoundryClient, spaceId) -> getApplicationIdFromOrgSpace(cloudFoundryClient, request.getTargetName(), spaceId, request.getTargetOrganization(), request.getTargetSpace())
+                .then(targetApplicationId -> withApplicationId(cloudFoundryClient, this.topologyIndex, request.getName(), spaceId,
+                    sourceApplicationId -> copyBits(cloudFoundryClient, sourceApplicationId, targetApplicationId))
+                    .then(Mono.just(Tuple.of(cloudFoundryClient, targetApplicationId))))))
             .filter(predicate((cloudFoundryClient, targetApplicationId) -> Optional.ofNullable(request.getRestart()).orElse(false)))
             .then(function((cloudFoundryClient, targetApplicationId) -> restartApplication(cloudFoundryClient, request.getTargetName(), targetApplicationId, request.getStagingTimeout(),
                 request.getStartupTimeout())));
@@ -172,7 +202,8 @@ public final class DefaultApplications implements Applications {
                 .then(Mono.just(Tuple.of(cloudFoundryClient, applicationId)))))
             .then(function((cloudFoundryClient, applicationId) -> removeServiceBindings(cloudFoundryClient, applicationId)
                 .then(Mono.just(Tuple.of(cloudFoundryClient, applicationId)))))
-            .then(function(DefaultApplications::requestDeleteApplication));
+            .then(function((cloudFoundryClient, applicationId) -> requestDeleteApplication(cloudFoundryClient, applicationId)
+                .doOnSuccess(v -> invalidate(this.topologyIndex, applicationId))));
     }
 
     @Override
@@ -217,11 +248,7 @@ public final class DefaultApplications implements Applications {
             .when(this.cloudFoundryClient, this.spaceId)
             .then(function((cloudFoundryClient, spaceId) -> Mono.when(
                 Mono.just(cloudFoundryClient),
-                getApplicationId(cloudFoundryClient, request.getName(), spaceId)
-            )))
-            .then(function((cloudFoundryClient, applicationId) -> Mono.when(
-                Mono.just(cloudFoundryClient),
-                requestApplicationSummary(cloudFoundryClient, applicationId)
+                withApplicationId(cloudFoundryClient, this.topologyIndex, request.getName(), spaceId, applicationId -> requestApplicationSummary(cloudFoundryClient, applicationId))
             )))
             .then(function((cloudFoundryClient, response) -> Mono.when(
                 Mono.just(response),
@@ -234,11 +261,8 @@ public final class DefaultApplications implements Applications {
     public Mono<ApplicationEnvironments> getEnvironments(GetApplicationEnvironmentsRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .then(function((cloudFoundryClient, spaceId) -> Mono.when(
-                Mono.just(cloudFoundryClient),
-                getApplicationId(cloudFoundryClient, request.getName(), spaceId)
-            )))
-            .then(function(DefaultApplications::requestApplicationEnvironment))
+            .then(function((cloudFoundryClient, spaceId) -> withApplicationId(cloudFoundryClient, this.topologyIndex, request.getName(), spaceId,
+                applicationId -> requestApplicationEnvironment(cloudFoundryClient, applicationId))))
             .map(DefaultApplications::toApplicationEnvironments);
     }
 
@@ -248,7 +272,7 @@ public final class DefaultApplications implements Applications {
             .when(this.cloudFoundryClient, this.spaceId)
             .then(function((cloudFoundryClient, spaceId) -> Mono.when(
                 Mono.just(cloudFoundryClient),
-                getApplicationId(cloudFoundryClient, request.getName(), spaceId)
+                getApplicationId(cloudFoundryClient, this.topologyIndex, request.getName(), spaceId)
             )))
             .flatMap(function((cloudFoundryClient, applicationId) -> requestEvents(applicationId, cloudFoundryClient)
                 .take(Optional.ofNullable(request.getMaxNumberOfEvents()).orElse(MAX_NUMBER_OF_RECENT_EVENTS))))
@@ -263,6 +287,28 @@ public final class DefaultApplications implements Applications {
             .map(DefaultApplications::toHealthCheck);
     }
 
+    @Override
+    public Mono<Void> indexLogs(IndexLogsRequest request) {
+        boolean follow = Optional.ofNullable(request.getFollow()).orElse(false);
+        int concurrency = Optional.ofNullable(request.getConcurrency()).orElse(follow ? DEFAULT_TAIL_CONNECTIONS : DEFAULT_LOGS_CONCURRENCY);
+
+        return Mono
+            .when(this.cloudFoundryClient, this.spaceId)
+            .flatMap(function((cloudFoundryClient, spaceId) -> getNamedApplications(cloudFoundryClient, request.getNames(), spaceId)))
+            .collectList()
+            .then(applications -> {
+                if (follow && applications.size() > concurrency) {
+                    return ExceptionUtils.illegalArgument("Following %d applications requires more than the maximum of %d connections", applications.size(), concurrency);
+                }
+
+                return Mono.just(applications);
+            })
+            .flatMapIterable(applications -> applications)
+            .flatMap(application -> indexApplicationLogs(this.dopplerClient, application, follow), concurrency, 1)
+            .doOnNext(request.getIndex()::add)
+            .then();
+    }
+
     @Override
     public Flux<ApplicationSummary> list() {
         return Mono
@@ -272,14 +318,43 @@ public final class DefaultApplications implements Applications {
             .map(DefaultApplications::toApplicationSummary);
     }
 
+    @Override
+    public Flux<ApplicationDetail> listDetails(ListApplicationDetailsRequest request) {
+        return Mono
+            .when(this.cloudFoundryClient, this.spaceId)
+            .then(function((cloudFoundryClient, spaceId) -> Mono.when(
+                Mono.just(cloudFoundryClient),
+                requestSpaceSummary(cloudFoundryClient, spaceId)
+            )))
+            .then(function((cloudFoundryClient, response) -> Mono.when(
+                Mono.just(cloudFoundryClient),
+                Mono.just(response.getApplications()),
+                getStackNames(cloudFoundryClient, response.getApplications())
+            )))
+            .flatMap(function((cloudFoundryClient, applications, stackNames) -> Flux
+                .fromIterable(applications)
+                .flatMap(application -> getApplicationDetail(cloudFoundryClient, application, getStackName(application, stackNames)),
+                    Optional.ofNullable(request.getConcurrency()).orElse(DEFAULT_DETAILS_CONCURRENCY), 1)));
+    }
+
     @Override
     public Flux<LogMessage> logs(LogsRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .then(function((cloudFoundryClient, spaceId) -> getApplicationId(cloudFoundryClient, request.getName(), spaceId)))
+            .then(function((cloudFoundryClient, spaceId) -> getApplicationId(cloudFoundryClient, this.topologyIndex, request.getName(), spaceId)))
             .flatMap(applicationId -> getLogs(this.dopplerClient, applicationId, request.getRecent()));
     }
 
+    @Override
+    public Flux<LogMessage> mergedLogs(MergedLogsRequest request) {
+        return Mono
+            .when(this.cloudFoundryClient, this.spaceId)
+            .flatMap(function((cloudFoundryClient, spaceId) -> getNamedApplications(cloudFoundryClient, request.getNames(), spaceId)))
+            .flatMap(application -> getSortedLogsRecent(this.dopplerClient, application.getId()), Optional.ofNullable(request.getConcurrency()).orElse(DEFAULT_LOGS_CONCURRENCY), 1)
+            .collect(() -> new ArrayList<List<LogMessage>>(), List::add)
+            .flatMapIterable(TimestampOrderedLogs::new);
+    }
+
     @Override
     public Mono<Void> push(PushApplicationRequest request) {
         return this.cloudFoundryClient
@@ -290,7 +365,8 @@ public final class DefaultApplications implements Applications {
             ))
             .then(function((cloudFoundryClient, spaceId, stackId) -> Mono.when(
                 Mono.just(cloudFoundryClient),
-                getApplicationId(cloudFoundryClient, request, spaceId, stackId.orElse(null)),
+                getApplicationId(cloudFoundryClient, request, spaceId, stackId.orElse(null))
+                    .doOnSuccess(applicationId -> invalidateApplication(this.topologyIndex, spaceId, request.getName())),
                 Mono.just(spaceId)
             )))
             .then(function((cloudFoundryClient, applicationId, spaceId) -> prepareDomainsAndRoutes(cloudFoundryClient, request, applicationId, spaceId, this.randomWords)
@@ -308,11 +384,9 @@ public final class DefaultApplications implements Applications {
     public Mono<Void> rename(RenameApplicationRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .then(function((cloudFoundryClient, spaceId) -> Mono.when(
-                Mono.just(cloudFoundryClient),
-                getApplicationId(cloudFoundryClient, request.getName(), spaceId)
-            )))
-            .then(function((cloudFoundryClient, applicationId) -> requestUpdateApplicationName(cloudFoundryClient, applicationId, request.getNewName())))
+            .then(function((cloudFoundryClient, spaceId) -> withApplicationId(cloudFoundryClient, this.topologyIndex, request.getName(), spaceId,
+                applicationId -> requestUpdateApplicationName(cloudFoundryClient, applicationId, request.getNewName())
+                    .doOnSuccess(response -> invalidate(this.topologyIndex, applicationId)))))
             .then();
     }
 
@@ -320,11 +394,8 @@ public final class DefaultApplications implements Applications {
     public Mono<Void> restage(RestageApplicationRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .then(function((cloudFoundryClient, spaceId) -> Mono.when(
-                Mono.just(cloudFoundryClient),
-                getApplicationId(cloudFoundryClient, request.getName(), spaceId)
-            )))
-            .then(function((cloudFoundryClient, applicationId) -> restageApplication(cloudFoundryClient, request.getName(), applicationId, request.getStagingTimeout(), request.getStartupTimeout())));
+            .then(function((cloudFoundryClient, spaceId) -> withApplicationId(cloudFoundryClient, this.topologyIndex, request.getName(), spaceId,
+                applicationId -> restageApplication(cloudFoundryClient, request.getName(), applicationId, request.getStagingTimeout(), request.getStartupTimeout()))));
     }
 
     @Override
@@ -347,11 +418,8 @@ public final class DefaultApplications implements Applications {
     public Mono<Void> restartInstance(RestartApplicationInstanceRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .then(function((cloudFoundryClient, spaceId) -> Mono.when(
-                Mono.just(cloudFoundryClient),
-                getApplicationId(cloudFoundryClient, request.getName(), spaceId)
-            )))
-            .then(function((cloudFoundryClient, applicationId) -> requestTerminateApplicationInstance(cloudFoundryClient, applicationId, String.valueOf(request.getInstanceIndex()))));
+            .then(function((cloudFoundryClient, spaceId) -> withApplicationId(cloudFoundryClient, this.topologyIndex, request.getName(), spaceId,
+                applicationId -> requestTerminateApplicationInstance(cloudFoundryClient, applicationId, String.valueOf(request.getInstanceIndex())))));
     }
 
     @Override
@@ -361,11 +429,8 @@ public final class DefaultApplications implements Applications {
             .filter(predicate((cloudFoundryClient, spaceId) -> areModifiersPresent(request)))
             .then(function((cloudFoundryClient, spaceId) -> Mono.when(
                 Mono.just(cloudFoundryClient),
-                getApplicationId(cloudFoundryClient, request.getName(), spaceId)
-            )))
-            .then(function((cloudFoundryClient, applicationId) -> Mono.when(
-                Mono.just(cloudFoundryClient),
-                requestUpdateApplicationScale(cloudFoundryClient, applicationId, request.getDiskLimit(), request.getInstances(), request.getMemoryLimit())
+                withApplicationId(cloudFoundryClient, this.topologyIndex, request.getName(), spaceId,
+                    applicationId -> requestUpdateApplicationScale(cloudFoundryClient, applicationId, request.getDiskLimit(), request.getInstances(), request.getMemoryLimit()))
             )))
             .filter(predicate((cloudFoundryClient, resource) -> isRestartRequired(request, resource)))
             .then(function((cloudFoundryClient, resource) -> restartApplication(cloudFoundryClient, request.getName(), ResourceUtils.getId(resource), request.getStagingTimeout(),
@@ -389,11 +454,8 @@ public final class DefaultApplications implements Applications {
     public Mono<Void> setHealthCheck(SetApplicationHealthCheckRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .then(function((cloudFoundryClient, spaceId) -> Mono.when(
-                Mono.just(cloudFoundryClient),
-                getApplicationId(cloudFoundryClient, request.getName(), spaceId)
-            )))
-            .then(function((cloudFoundryClient, applicationId) -> requestUpdateApplicationHealthCheckType(cloudFoundryClient, applicationId, request.getType())))
+            .then(function((cloudFoundryClient, spaceId) -> withApplicationId(cloudFoundryClient, this.topologyIndex, request.getName(), spaceId,
+                applicationId -> requestUpdateApplicationHealthCheckType(cloudFoundryClient, applicationId, request.getType()))))
             .then();
     }
 
@@ -429,6 +491,27 @@ public final class DefaultApplications implements Applications {
             .then();
     }
 
+    @Override
+    public Flux<ApplicationLog> tailLogs(TailLogsRequest request) {
+        int connections = Optional.ofNullable(request.getConnections()).orElse(DEFAULT_TAIL_CONNECTIONS);
+        Duration slice = Optional.ofNullable(request.getSlice()).orElse(DEFAULT_TAIL_SLICE);
+        LogTailStatistics statistics = Optional.ofNullable(request.getStatistics()).orElseGet(LogTailStatistics::new);
+        Duration check = slice.compareTo(TAIL_CHECK_INTERVAL) < 0 ? slice : TAIL_CHECK_INTERVAL;
+
+        return Mono
+            .when(this.cloudFoundryClient, this.spaceId)
+            .flatMap(function((cloudFoundryClient, spaceId) -> {
+                LogTailState state = new LogTailState(connections, statistics);
+
+                return Flux.range(0, Integer.MAX_VALUE)
+                    .concatMap(round -> getRoundApplications(cloudFoundryClient, request.getNames(), spaceId, round)
+                        .collectList()
+                        .flatMap(applications -> Flux.fromIterable(state.nextRound(applications)))
+                        .concatWith(Mono.delay(slice).then(Mono.<SpaceApplicationSummary>empty())))
+                    .flatMap(application -> tailApplicationLogs(this.dopplerClient, application, check, state), connections, 1);
+            }));
+    }
+
     @Override
     public Mono<Void> unsetEnvironmentVariable(UnsetEnvironmentVariableApplicationRequest request) {
         return Mono
@@ -562,11 +645,31 @@ public final class DefaultApplications implements Applications {
             .otherwise(NoSuchElementException.class, t -> ExceptionUtils.illegalArgument("Application %s does not exist", application));
     }
 
+    private static Mono<ApplicationDetail> getApplicationDetail(CloudFoundryClient cloudFoundryClient, SpaceApplicationSummary application, String stackName) {
+        if (STOPPED_STATE.equals(application.getState())) {
+            return Mono.just(toSpaceApplicationDetail(application, Collections.emptyList(), stackName));
+        }
+
+        return Mono
+            .when(
+                getApplicationStatistics(cloudFoundryClient, application.getId()),
+                getApplicationInstances(cloudFoundryClient, application.getId())
+            )
+            .then(function((applicationStatisticsResponse, applicationInstancesResponse) -> toInstanceDetailList(applicationInstancesResponse, applicationStatisticsResponse)))
+            .map(instanceDetails -> toSpaceApplicationDetail(application, instanceDetails, stackName));
+    }
+
     private static Mono<String> getApplicationId(CloudFoundryClient cloudFoundryClient, String application, String spaceId) {
         return getApplication(cloudFoundryClient, application, spaceId)
             .map(ResourceUtils::getId);
     }
 
+    private static Mono<String> getApplicationId(CloudFoundryClient cloudFoundryClient, TopologyIndex topologyIndex, String application, String spaceId) {
+        return Mono
+            .justOrEmpty(Optional.ofNullable(topologyIndex).flatMap(index -> index.getApplicationId(spaceId, application)))
+            .otherwiseIfEmpty(Mono.defer(() -> getApplicationId(cloudFoundryClient, application, spaceId)));
+    }
+
     private static Mono<String> getApplicationId(CloudFoundryClient cloudFoundryClient, PushApplicationRequest request, String spaceId, String stackId) {
         return requestApplications(cloudFoundryClient, request.getName(), spaceId)
             .singleOrEmpty()
@@ -625,10 +728,10 @@ public final class DefaultApplications implements Applications {
             )));
     }
 
-    private static String getBuildpack(SummaryApplicationResponse response) {
+    private static String getBuildpack(AbstractApplicationEntity entity, String detectedBuildpack) {
         return Optional
-            .ofNullable(response.getBuildpack())
-            .orElse(response.getDetectedBuildpack());
+            .ofNullable(entity.getBuildpack())
+            .orElse(detectedBuildpack);
     }
 
     private static Mono<String> getDomainId(CloudFoundryClient cloudFoundryClient, String domain, String organizationId) {
@@ -650,8 +753,7 @@ public final class DefaultApplications implements Applications {
 
     private static Flux<LogMessage> getLogs(Mono<DopplerClient> dopplerClient, String applicationId, Boolean recent) {
         if (Optional.ofNullable(recent).orElse(false)) {
-            return requestLogsRecent(dopplerClient, applicationId)
-                .collectSortedList((a, b) -> a.getTimestamp().compareTo(b.getTimestamp()))
+            return getSortedLogsRecent(dopplerClient, applicationId)
                 .flatMapIterable(d -> d);
         } else {
             return requestLogsStream(dopplerClient, applicationId)
@@ -671,6 +773,19 @@ public final class DefaultApplications implements Applications {
             .orElse(Collections.emptyMap());
     }
 
+    private static Flux<SpaceApplicationSummary> getNamedApplications(CloudFoundryClient cloudFoundryClient, List<String> names, String spaceId) {
+        return requestSpaceSummary(cloudFoundryClient, spaceId)
+            .flatMap(DefaultApplications::extractApplications)
+            .filter(application -> names.isEmpty() || names.contains(application.getName()))
+            .collectList()
+            .then(applications -> names.stream()
+                .filter(name -> applications.stream().noneMatch(application -> name.equals(application.getName())))
+                .findFirst()
+                .map(name -> ExceptionUtils.<List<SpaceApplicationSummary>>illegalArgument("Application %s does not exist", name))
+                .orElse(Mono.just(applications)))
+            .flatMapIterable(applications -> applications);
+    }
+
     private static Mono<Optional<List<Route>>> getOptionalRoutes(CloudFoundryClient cloudFoundryClient, boolean deleteRoutes, String applicationId) {
         if (deleteRoutes) {
             return getRoutes(cloudFoundryClient, applicationId)
@@ -726,6 +841,20 @@ public final class DefaultApplications implements Applications {
                 .map(ResourceUtils::getId));
     }
 
+    private static List<Object> getReplayKey(LogMessage logMessage) {
+        return Arrays.asList(logMessage.getTimestamp(), logMessage.getSourceInstance(), logMessage.getMessage());
+    }
+
+    private static Flux<SpaceApplicationSummary> getRoundApplications(CloudFoundryClient cloudFoundryClient, List<String> names, String spaceId, int round) {
+        if (round == 0) {
+            return getNamedApplications(cloudFoundryClient, names, spaceId);
+        }
+
+        return requestSpaceSummary(cloudFoundryClient, spaceId)
+            .flatMap(DefaultApplications::extractApplications)
+            .filter(application -> names.isEmpty() || names.contains(application.getName()));
+    }
+
     private static Mono<String> getRouteId(CloudFoundryClient cloudFoundryClient, String domainId, String host, String routePath) {
         return requestRoutes(cloudFoundryClient, domainId, host, routePath)
             .filter(resource -> isIdentical(host, ResourceUtils.getEntity(resource).getHost()))
@@ -757,6 +886,11 @@ public final class DefaultApplications implements Applications {
             .map(ResourceUtils::getId);
     }
 
+    private static Mono<List<LogMessage>> getSortedLogsRecent(Mono<DopplerClient> dopplerClient, String applicationId) {
+        return requestLogsRecent(dopplerClient, applicationId)
+            .collectSortedList((a, b) -> a.getTimestamp().compareTo(b.getTimestamp()));
+    }
+
     private static Mono<String> getSpaceId(CloudFoundryClient cloudFoundryClient, String organizationId, String space) {
         return getOrganizationSpaceByName(cloudFoundryClient, organizationId, space)
             .map(ResourceUtils::getId);
@@ -772,6 +906,87 @@ public final class DefaultApplications implements Applications {
             .map(getStackResponse -> getStackResponse.getEntity().getName());
     }
 
+    private static String getStackName(SpaceApplicationSummary application, Map<String, String> stackNames) {
+        return Optional
+            .ofNullable(application.getStackId())
+            .map(stackNames::get)
+            .orElse(null);
+    }
+
+    private static Mono<Map<String, String>> getStackNames(CloudFoundryClient cloudFoundryClient, List<SpaceApplicationSummary> applications) {
+        Map<String, String> stackNames = new ConcurrentHashMap<>();
+
+        return Flux
+            .fromIterable(applications.stream()
+                .map(SpaceApplicationSummary::getStackId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()))
+            .flatMap(stackId -> getStackName(cloudFoundryClient, stackId)
+                .doOnSuccess(stackName -> stackNames.put(stackId, stackName)))
+            .collectList()
+            .map(responses -> stackNames);
+    }
+
+    private static Flux<LogMessage> getTailLogs(Mono<DopplerClient> dopplerClient, String applicationId, Long latestTimestamp) {
+        Flux<LogMessage> live = requestLogsStream(dopplerClient, applicationId)
+            .filter(e -> LogMessage.class.isAssignableFrom(e.getClass()))
+            .cast(LogMessage.class);
+
+        if (latestTimestamp == null) {
+            return live;
+        }
+
+        // The live stream is subscribed to before the recent logs are replayed, so a message that arrives in between is delivered by whichever of the two sees it first
+        Set<List<Object>> replayed = ConcurrentHashMap.newKeySet();
+        AtomicBoolean replaying = new AtomicBoolean(true);
+
+        return Flux.merge(
+            live
+                .filter(logMessage -> !replaying.get() || replayed.add(getReplayKey(logMessage))),
+            getSortedLogsRecent(dopplerClient, applicationId)
+                .flatMapIterable(d -> d)
+                .filter(logMessage -> logMessage.getTimestamp() > latestTimestamp)
+                .filter(logMessage -> replayed.add(getReplayKey(logMessage)))
+                .doOnComplete(() -> {
+                    replaying.set(false);
+                    replayed.clear();
+                }));
+    }
+
+    private static Flux<ApplicationLog> indexApplicationLogs(Mono<DopplerClient> dopplerClient, SpaceApplicationSummary application, boolean follow) {
+        Flux<LogMessage> logs = getSortedLogsRecent(dopplerClient, application.getId())
+            .flatMap(recent -> {
+                if (!follow) {
+                    return Flux.fromIterable(recent);
+                }
+
+                long latestTimestamp = recent.isEmpty() ? Long.MIN_VALUE : recent.get(recent.size() - 1).getTimestamp();
+                return Flux.fromIterable(recent)
+                    .concatWith(requestLogsStream(dopplerClient, application.getId())
+                        .filter(e -> LogMessage.class.isAssignableFrom(e.getClass()))
+                        .cast(LogMessage.class)
+                        .filter(logMessage -> logMessage.getTimestamp() > latestTimestamp));
+            });
+
+        return logs
+            .map(logMessage -> ApplicationLog.builder()
+                .applicationId(application.getId())
+                .applicationName(application.getName())
+                .logMessage(logMessage)
+                .build());
+    }
+
+    private static void invalidate(TopologyIndex topologyIndex, String id) {
+        Optional.ofNullable(topologyIndex)
+            .ifPresent(index -> index.invalidate(id));
+    }
+
+    private static void invalidateApplication(TopologyIndex topologyIndex, String spaceId, String application) {
+        Optional.ofNullable(topologyIndex)
+            .ifPresent(index -> index.getApplicationId(spaceId, application)
+                .ifPresent(index::invalidate));
+    }
+
     private static boolean isIdentical(String s, String t) {
         return s == null ? t == null : s.equals(t);
     }
@@ -1179,25 +1394,63 @@ public final class DefaultApplications implements Applications {
         return isNotIn(resource, STOPPED_STATE) ? stopApplication(cloudFoundryClient, ResourceUtils.getId(resource)) : Mono.just(resource);
     }
 
-    private static ApplicationDetail toApplicationDetail(ApplicationStatisticsResponse applicationStatisticsResponse, SummaryApplicationResponse summaryApplicationResponse,
-                                                         GetStackResponse getStackResponse, ApplicationInstancesResponse applicationInstancesResponse,
-                                                         List<InstanceDetail> instanceDetails, List<String> urls) {
+    private static Flux<ApplicationLog> tailApplicationLogs(Mono<DopplerClient> dopplerClient, SpaceApplicationSummary application, Duration check, LogTailState state) {
+        AtomicBoolean ended = new AtomicBoolean();
+
+        Flux<Optional<LogMessage>> logs = getTailLogs(dopplerClient, application.getId(), state.getLatestTimestamp(application.getId()))
+            .doOnComplete(() -> ended.set(true))
+            .map(Optional::of);
+
+        Flux<Optional<LogMessage>> checks = Flux.range(0, Integer.MAX_VALUE)
+            .concatMap(tick -> Mono.delay(check))
+            .map(tick -> Optional.empty());
+
+        return Flux
+            .merge(logs, checks)
+            .takeWhile(logMessage -> logMessage.isPresent() || (!ended.get() && state.isSelected(application.getId())))
+            .filter(Optional::isPresent)
+            .map(Optional::get)
+            .doOnNext(logMessage -> state.onLog(application.getId(), application.getName(), logMessage))
+            .map(logMessage -> ApplicationLog.builder()
+                .applicationId(application.getId())
+                .applicationName(application.getName())
+                .logMessage(logMessage)
+                .build())
+            .doOnSubscribe(subscription -> state.getStatistics().onConnect(application.getName()))
+            .doOnComplete(() -> state.onDisconnect(application.getId(), application.getName()))
+            .doOnCancel(() -> state.onDisconnect(application.getId(), application.getName()))
+            .doOnError(t -> {
+                state.getStatistics().onError(application.getName());
+                state.onDisconnect(application.getId(), application.getName());
+            })
+            .onErrorResumeWith(t -> Flux.empty());
+    }
+
+    private static ApplicationDetail toApplicationDetail(AbstractApplicationEntity entity, String detectedBuildpack, String id, List<InstanceDetail> instanceDetails, String packageUpdatedAt,
+                                                         Integer runningInstances, String stackName, List<String> urls) {
         return ApplicationDetail.builder()
-            .buildpack(getBuildpack(summaryApplicationResponse))
-            .diskQuota(summaryApplicationResponse.getDiskQuota())
-            .id(summaryApplicationResponse.getId())
+            .buildpack(getBuildpack(entity, detectedBuildpack))
+            .diskQuota(entity.getDiskQuota())
+            .id(id)
             .instanceDetails(instanceDetails)
-            .instances(summaryApplicationResponse.getInstances())
-            .lastUploaded(toDate(summaryApplicationResponse.getPackageUpdatedAt()))
-            .memoryLimit(summaryApplicationResponse.getMemory())
-            .name(summaryApplicationResponse.getName())
-            .requestedState(summaryApplicationResponse.getState())
-            .runningInstances(summaryApplicationResponse.getRunningInstances())
-            .stack(getStackResponse.getEntity().getName())
+            .instances(entity.getInstances())
+            .lastUploaded(toDate(packageUpdatedAt))
+            .memoryLimit(entity.getMemory())
+            .name(entity.getName())
+            .requestedState(entity.getState())
+            .runningInstances(runningInstances)
+            .stack(stackName)
             .urls(urls)
             .build();
     }
 
+    private static ApplicationDetail toApplicationDetail(ApplicationStatisticsResponse applicationStatisticsResponse, SummaryApplicationResponse summaryApplicationResponse,
+                                                         GetStackResponse getStackResponse, ApplicationInstancesResponse applicationInstancesResponse,
+                                                         List<InstanceDetail> instanceDetails, List<String> urls) {
+        return toApplicationDetail(summaryApplicationResponse, summaryApplicationResponse.getDetectedBuildpack(), summaryApplicationResponse.getId(), instanceDetails,
+            summaryApplicationResponse.getPackageUpdatedAt(), summaryApplicationResponse.getRunningInstances(), getStackResponse.getEntity().getName(), urls);
+    }
+
     private static ApplicationEnvironments toApplicationEnvironments(ApplicationEnvironmentResponse response) {
         return ApplicationEnvironments.builder()
             .running(response.getRunningEnvironmentJsons())
@@ -1289,6 +1542,11 @@ public final class DefaultApplications implements Applications {
             .collectList();
     }
 
+    private static ApplicationDetail toSpaceApplicationDetail(SpaceApplicationSummary application, List<InstanceDetail> instanceDetails, String stackName) {
+        return toApplicationDetail(application, application.getDetectedBuildpack(), application.getId(), instanceDetails, application.getPackageUpdatedAt(), application.getRunningInstances(),
+            stackName, application.getUrls());
+    }
+
     private static String toUrl(Route route) {
         String hostName = route.getHost();
         String domainName = route.getDomain().getName();
@@ -1336,4 +1594,14 @@ public final class DefaultApplications implements Applications {
             .then();
     }
 
+    private static <T> Mono<T> withApplicationId(CloudFoundryClient cloudFoundryClient, TopologyIndex topologyIndex, String application, String spaceId, Function<String, Mono<T>> operation) {
+        Mono<String> resolver = Mono.defer(() -> getApplicationId(cloudFoundryClient, application, spaceId));
+
+        return Mono
+            .defer(() -> Optional.ofNullable(topologyIndex)
+                .flatMap(index -> index.getApplicationId(spaceId, application)
+                    .map(applicationId -> index.withId(applicationId, ExceptionUtils.statusCode(CF_APP_NOT_FOUND), resolver, operation)))
+                .orElseGet(() -> resolver.then(operation)));
+    }
+
 }
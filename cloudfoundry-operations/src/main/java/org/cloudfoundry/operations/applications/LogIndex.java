@@ -0,0 +1,424 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.applications;
+
+import org.cloudfoundry.doppler.LogMessage;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * A bounded, searchable index of application logs.  Logs are held in partitions that each cover a fixed width of time by message timestamp.  A partition holds at most a sixteenth of the maximum
+ * number of messages, so a busy width of time is split across several partitions.  Each partition has an inverted index from the words of its messages to the messages containing them, and
+ * postings for each application name and source type.  Partitions are evicted once their width of time falls behind the newest by more than the maximum number of partitions, and the oldest
+ * partitions are evicted whenever the index holds more than its maximum number of messages, so the index never exceeds that maximum.
+ * <p>
+ * Word queries intersect postings.  Words are indexed by at most their first 64 characters, so messages matching a longer query word are verified against the whole word.  Substring queries only
+ * verify the messages that contain a word containing the longest word of the query, so neither kind of query scans every message.  All methods are thread-safe.
+ */
+public final class LogIndex {
+
+    private static final int DEFAULT_MAXIMUM_MESSAGES = 1_000_000;
+
+    private static final int DEFAULT_MAXIMUM_PARTITIONS = 60;
+
+    private static final Duration DEFAULT_PARTITION_WIDTH = Duration.ofMinutes(1);
+
+    private static final int MAXIMUM_TOKEN_LENGTH = 64;
+
+    private static final int PARTITION_DIVISOR = 16;
+
+    private final int maximumMessages;
+
+    private final int maximumPartitions;
+
+    private final int partitionCapacity;
+
+    private final long partitionWidth;
+
+    private final NavigableMap<Long, Deque<Partition>> partitions = new TreeMap<>();
+
+    private int messages;
+
+    /**
+     * Creates an index of one minute partitions that holds at most an hour, and at most one million messages
+     */
+    public LogIndex() {
+        this(DEFAULT_PARTITION_WIDTH, DEFAULT_MAXIMUM_PARTITIONS, DEFAULT_MAXIMUM_MESSAGES);
+    }
+
+    /**
+     * Creates an index
+     *
+     * @param partitionWidth    the width of time covered by each partition
+     * @param maximumPartitions the maximum number of partitions
+     * @param maximumMessages   the maximum number of messages
+     */
+    public LogIndex(Duration partitionWidth, int maximumPartitions, int maximumMessages) {
+        if (partitionWidth.isZero() || partitionWidth.isNegative()) {
+            throw new IllegalArgumentException(String.format("Partition width must be positive: %s", partitionWidth));
+        }
+
+        if (maximumPartitions < 1 || maximumMessages < 1) {
+            throw new IllegalArgumentException(String.format("Maximum partitions %d and maximum messages %d must be positive", maximumPartitions, maximumMessages));
+        }
+
+        this.maximumMessages = maximumMessages;
+        this.maximumPartitions = maximumPartitions;
+        this.partitionCapacity = Math.max(1, maximumMessages / PARTITION_DIVISOR);
+        this.partitionWidth = partitionWidth.toNanos();
+    }
+
+    /**
+     * Adds a log message to the index
+     *
+     * @param applicationLog the log message
+     */
+    public synchronized void add(ApplicationLog applicationLog) {
+        long key = Math.floorDiv(applicationLog.getLogMessage().getTimestamp(), this.partitionWidth);
+
+        if (!this.partitions.isEmpty() && key <= this.partitions.lastKey() - this.maximumPartitions) {
+            return;
+        }
+
+        Deque<Partition> window = this.partitions.computeIfAbsent(key, k -> new ArrayDeque<>());
+
+        Partition partition = window.peekLast();
+        if (partition == null || partition.documents.size() >= this.partitionCapacity) {
+            partition = new Partition();
+            window.addLast(partition);
+        }
+
+        partition.add(applicationLog);
+        this.messages++;
+
+        evict(partition);
+    }
+
+    /**
+     * Returns the number of messages from each application held in the index
+     *
+     * @return the number of messages, keyed by application name
+     */
+    public synchronized Map<String, Integer> getApplicationNameCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        this.partitions.values().forEach(window -> window.forEach(partition -> partition.applicationNames.forEach((name, postings) -> counts.merge(name, postings.size, Integer::sum))));
+        return counts;
+    }
+
+    /**
+     * Returns the number of messages held in the index
+     *
+     * @return the number of messages
+     */
+    public synchronized int getMessages() {
+        return this.messages;
+    }
+
+    /**
+     * Returns the number of messages of each source type held in the index
+     *
+     * @return the number of messages, keyed by source type
+     */
+    public synchronized Map<String, Integer> getSourceTypeCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        this.partitions.values().forEach(window -> window.forEach(partition -> partition.sourceTypes.forEach((sourceType, postings) -> counts.merge(sourceType, postings.size, Integer::sum))));
+        return counts;
+    }
+
+    /**
+     * Searches the index
+     *
+     * @param request the search request
+     * @return the matching log messages, in the order they were added to each partition and partitions in time order
+     */
+    public Flux<ApplicationLog> search(SearchLogsRequest request) {
+        return Flux.defer(() -> Flux.fromIterable(searchNow(request)));
+    }
+
+    static boolean containsIgnoreCase(String text, String query) {
+        int last = text.length() - query.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    static List<String> tokenize(String text) {
+        return tokenize(text, MAXIMUM_TOKEN_LENGTH);
+    }
+
+    static List<String> tokenize(String text, int maximumLength) {
+        List<String> tokens = new ArrayList<>();
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, Math.min(i, start + maximumLength)).toLowerCase());
+                start = -1;
+            }
+        }
+
+        return tokens;
+    }
+
+    private void evict(Partition current) {
+        long oldest = this.partitions.lastKey() - this.maximumPartitions;
+
+        Iterator<Map.Entry<Long, Deque<Partition>>> windows = this.partitions.entrySet().iterator();
+        while (windows.hasNext()) {
+            Map.Entry<Long, Deque<Partition>> entry = windows.next();
+            boolean expired = entry.getKey() <= oldest;
+            if (!expired && this.messages <= this.maximumMessages) {
+                return;
+            }
+
+            Iterator<Partition> partitions = entry.getValue().iterator();
+            while (partitions.hasNext() && (expired || this.messages > this.maximumMessages)) {
+                Partition partition = partitions.next();
+                if (partition == current) {
+                    return;
+                }
+
+                this.messages -= partition.documents.size();
+                partitions.remove();
+            }
+
+            if (entry.getValue().isEmpty()) {
+                windows.remove();
+            }
+        }
+    }
+
+    private synchronized List<ApplicationLog> searchNow(SearchLogsRequest request) {
+        int limit = Optional.ofNullable(request.getLimit()).orElse(Integer.MAX_VALUE);
+        boolean substring = Optional.ofNullable(request.getSubstring()).orElse(false);
+        List<String> tokens = tokenize(request.getQuery());
+        List<String> longTokens = tokenize(request.getQuery(), Integer.MAX_VALUE).stream()
+            .filter(token -> token.length() > MAXIMUM_TOKEN_LENGTH)
+            .collect(Collectors.toList());
+
+        List<ApplicationLog> matches = new ArrayList<>();
+        for (Deque<Partition> window : this.partitions.descendingMap().values()) {
+            Iterator<Partition> partitions = window.descendingIterator();
+            while (partitions.hasNext() && matches.size() < limit) {
+                partitions.next().search(request, tokens, longTokens, substring, limit - matches.size(), matches);
+            }
+
+            if (matches.size() >= limit) {
+                break;
+            }
+        }
+
+        Collections.reverse(matches);
+        return matches;
+    }
+
+    private static final class Partition {
+
+        private final Map<String, Postings> applicationNames = new HashMap<>();
+
+        private final List<ApplicationLog> documents = new ArrayList<>();
+
+        private final Map<String, Postings> sourceTypes = new HashMap<>();
+
+        private final Map<String, Postings> tokens = new HashMap<>();
+
+        private static Postings union(Map<String, Postings> postings, Set<String> keys) {
+            Postings union = null;
+            for (String key : keys) {
+                union = Postings.union(union, postings.get(key));
+            }
+            return union == null ? Postings.EMPTY : union;
+        }
+
+        private static boolean verify(String message, SearchLogsRequest request, List<String> longTokens, boolean substring) {
+            if (substring) {
+                return containsIgnoreCase(message, request.getQuery());
+            }
+
+            for (String token : longTokens) {
+                if (!containsIgnoreCase(message, token)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private void add(ApplicationLog applicationLog) {
+            int document = this.documents.size();
+            this.documents.add(applicationLog);
+
+            this.applicationNames.computeIfAbsent(applicationLog.getApplicationName(), k -> new Postings()).add(document);
+
+            String sourceType = applicationLog.getLogMessage().getSourceType();
+            if (sourceType != null) {
+                this.sourceTypes.computeIfAbsent(sourceType, k -> new Postings()).add(document);
+            }
+
+            for (String token : tokenize(applicationLog.getLogMessage().getMessage())) {
+                this.tokens.computeIfAbsent(token, k -> new Postings()).add(document);
+            }
+        }
+
+        private Postings getCandidates(SearchLogsRequest request, List<String> queryTokens, boolean substring) {
+            Postings candidates = null;
+
+            if (!request.getApplicationNames().isEmpty()) {
+                candidates = union(this.applicationNames, request.getApplicationNames());
+            }
+
+            if (!request.getSourceTypes().isEmpty()) {
+                candidates = Postings.intersect(candidates, union(this.sourceTypes, request.getSourceTypes()));
+            }
+
+            if (substring) {
+                String longest = queryTokens.stream().reduce((a, b) -> b.length() > a.length() ? b : a).orElse(null);
+                if (longest != null) {
+                    Postings containing = null;
+                    for (Map.Entry<String, Postings> entry : this.tokens.entrySet()) {
+                        if (entry.getKey().contains(longest)) {
+                            containing = Postings.union(containing, entry.getValue());
+                        }
+                    }
+                    candidates = Postings.intersect(candidates, containing == null ? Postings.EMPTY : containing);
+                }
+            } else {
+                for (String token : queryTokens) {
+                    candidates = Postings.intersect(candidates, this.tokens.getOrDefault(token, Postings.EMPTY));
+                }
+            }
+
+            return candidates;
+        }
+
+        private void search(SearchLogsRequest request, List<String> queryTokens, List<String> longTokens, boolean substring, int limit, List<ApplicationLog> matches) {
+            Postings candidates = getCandidates(request, queryTokens, substring);
+
+            int found = 0;
+            int count = candidates == null ? this.documents.size() : candidates.size;
+            for (int i = count - 1; i >= 0 && found < limit; i--) {
+                ApplicationLog applicationLog = this.documents.get(candidates == null ? i : candidates.documents[i]);
+
+                if (verify(applicationLog.getLogMessage().getMessage(), request, longTokens, substring)) {
+                    matches.add(applicationLog);
+                    found++;
+                }
+            }
+        }
+
+    }
+
+    private static final class Postings {
+
+        private static final Postings EMPTY = new Postings();
+
+        private int[] documents = new int[4];
+
+        private int size;
+
+        private static Postings intersect(Postings a, Postings b) {
+            if (a == null) {
+                return b;
+            }
+
+            if (b == null) {
+                return a;
+            }
+
+            Postings intersection = new Postings();
+            int i = 0;
+            int j = 0;
+            while (i < a.size && j < b.size) {
+                if (a.documents[i] == b.documents[j]) {
+                    intersection.add(a.documents[i]);
+                    i++;
+                    j++;
+                } else if (a.documents[i] < b.documents[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+
+            return intersection;
+        }
+
+        private static Postings union(Postings a, Postings b) {
+            if (a == null) {
+                return b;
+            }
+
+            if (b == null) {
+                return a;
+            }
+
+            Postings union = new Postings();
+            int i = 0;
+            int j = 0;
+            while (i < a.size || j < b.size) {
+                if (j >= b.size || (i < a.size && a.documents[i] < b.documents[j])) {
+                    union.add(a.documents[i++]);
+                } else if (i >= a.size || b.documents[j] < a.documents[i]) {
+                    union.add(b.documents[j++]);
+                } else {
+                    union.add(a.documents[i]);
+                    i++;
+                    j++;
+                }
+            }
+
+            return union;
+        }
+
+        private void add(int document) {
+            if (this.size > 0 && this.documents[this.size - 1] == document) {
+                return;
+            }
+
+            if (this.size == this.documents.length) {
+                this.documents = Arrays.copyOf(this.documents, this.size * 2);
+            }
+
+            this.documents[this.size++] = document;
+        }
+
+    }
+
+}
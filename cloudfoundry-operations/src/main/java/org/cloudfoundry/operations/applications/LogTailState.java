@@ -0,0 +1,140 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.applications;
+
+import org.cloudfoundry.client.v2.spaces.SpaceApplicationSummary;
+import org.cloudfoundry.doppler.LogMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * The state of a single tail of application logs: which applications are selected in each round, which are connected, and the timestamp of the latest log message seen for each application, so
+ * that logs missed while an application was not connected can be recovered from its recent logs.  A connection stays open for as long as its application remains selected, so only applications
+ * that are rotated out of the connection budget are disconnected.
+ */
+final class LogTailState {
+
+    private final Set<String> connected = ConcurrentHashMap.newKeySet();
+
+    private final int connections;
+
+    private final Map<String, Long> latestTimestamps = new ConcurrentHashMap<>();
+
+    private final LogTailStatistics statistics;
+
+    private int cursor;
+
+    private volatile Set<String> selected = Collections.emptySet();
+
+    LogTailState(int connections, LogTailStatistics statistics) {
+        this.connections = connections;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the timestamp of the latest log message seen for an application
+     *
+     * @param applicationId the application id
+     * @return the timestamp or {@code null} if no log message has been seen
+     */
+    Long getLatestTimestamp(String applicationId) {
+        return this.latestTimestamps.get(applicationId);
+    }
+
+    LogTailStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Returns whether an application is selected in the current round.  A connection to an application that is no longer selected should be closed.
+     *
+     * @param applicationId the application id
+     * @return {@code true} if the application is selected
+     */
+    boolean isSelected(String applicationId) {
+        return this.selected.contains(applicationId);
+    }
+
+    /**
+     * Selects the applications for the next round and returns those that must be connected.  If there are no more applications than connections, every application is selected.  Otherwise the
+     * applications are selected in turn, so that each is connected once every few rounds.  Selected applications that are already connected keep their connection and are not returned.
+     * Applications that no longer exist are forgotten.
+     *
+     * @param applications the applications in the space
+     * @return the applications to connect to
+     */
+    synchronized List<SpaceApplicationSummary> nextRound(List<SpaceApplicationSummary> applications) {
+        Set<String> applicationIds = applications.stream().map(SpaceApplicationSummary::getId).collect(Collectors.toSet());
+        this.latestTimestamps.keySet().retainAll(applicationIds);
+        this.statistics.retain(applications.stream().map(SpaceApplicationSummary::getName).collect(Collectors.toList()));
+
+        List<SpaceApplicationSummary> selected = select(applications);
+        this.selected = selected.stream().map(SpaceApplicationSummary::getId).collect(Collectors.toSet());
+
+        return selected.stream()
+            .filter(application -> this.connected.add(application.getId()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Records that the connection to an application has closed, whether it completed, failed, or was cancelled
+     *
+     * @param applicationId   the application id
+     * @param applicationName the application name
+     */
+    void onDisconnect(String applicationId, String applicationName) {
+        this.connected.remove(applicationId);
+        this.statistics.onDisconnect(applicationName);
+    }
+
+    /**
+     * Records a log message for an application
+     *
+     * @param applicationId   the application id
+     * @param applicationName the application name
+     * @param logMessage      the log message
+     */
+    void onLog(String applicationId, String applicationName, LogMessage logMessage) {
+        this.latestTimestamps.merge(applicationId, logMessage.getTimestamp(), Math::max);
+        this.statistics.onMessage(applicationName);
+    }
+
+    private List<SpaceApplicationSummary> select(List<SpaceApplicationSummary> applications) {
+        if (applications.size() <= this.connections) {
+            return applications;
+        }
+
+        List<SpaceApplicationSummary> sorted = new ArrayList<>(applications);
+        sorted.sort(Comparator.comparing(SpaceApplicationSummary::getName));
+
+        List<SpaceApplicationSummary> selected = new ArrayList<>(this.connections);
+        for (int i = 0; i < this.connections; i++) {
+            selected.add(sorted.get((this.cursor + i) % sorted.size()));
+        }
+
+        this.cursor = (this.cursor + this.connections) % sorted.size();
+        return selected;
+    }
+
+}
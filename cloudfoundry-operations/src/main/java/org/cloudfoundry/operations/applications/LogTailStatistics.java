@@ -0,0 +1,126 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.applications;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput statistics for the applications whose logs are being tailed.  Statistics are recorded while logs flow and may be read at any time.  An application's statistics are discarded when it
+ * is no longer tailed.
+ */
+public final class LogTailStatistics {
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the names of the applications being tailed
+     *
+     * @return the application names
+     */
+    public Set<String> getApplicationNames() {
+        return this.counters.keySet();
+    }
+
+    /**
+     * Returns the number of times the connection to an application has failed.  A failed connection is re-established in a later round.
+     *
+     * @param applicationName the application name
+     * @return the number of failures
+     */
+    public long getErrors(String applicationName) {
+        Counter counter = this.counters.get(applicationName);
+        return counter == null ? 0 : counter.errors.get();
+    }
+
+    /**
+     * Returns the number of log messages received for an application
+     *
+     * @param applicationName the application name
+     * @return the number of log messages
+     */
+    public long getMessages(String applicationName) {
+        Counter counter = this.counters.get(applicationName);
+        return counter == null ? 0 : counter.messages.get();
+    }
+
+    /**
+     * Returns the number of log messages received per second for an application, measured over the time that it has been connected
+     *
+     * @param applicationName the application name
+     * @return the number of log messages per second
+     */
+    public double getMessagesPerSecond(String applicationName) {
+        Counter counter = this.counters.get(applicationName);
+        if (counter == null) {
+            return 0;
+        }
+
+        long connected = counter.getConnectedNanos();
+        return connected == 0 ? 0 : counter.messages.get() * (double) TimeUnit.SECONDS.toNanos(1) / connected;
+    }
+
+    void onConnect(String applicationName) {
+        this.counters.computeIfAbsent(applicationName, name -> new Counter()).connectedAt.set(System.nanoTime());
+    }
+
+    void onDisconnect(String applicationName) {
+        Counter counter = this.counters.get(applicationName);
+        if (counter == null) {
+            return;
+        }
+
+        long connectedAt = counter.connectedAt.getAndSet(0);
+        if (connectedAt != 0) {
+            counter.connectedNanos.addAndGet(System.nanoTime() - connectedAt);
+        }
+    }
+
+    void onError(String applicationName) {
+        this.counters.computeIfAbsent(applicationName, name -> new Counter()).errors.incrementAndGet();
+    }
+
+    void onMessage(String applicationName) {
+        this.counters.computeIfAbsent(applicationName, name -> new Counter()).messages.incrementAndGet();
+    }
+
+    void retain(Collection<String> applicationNames) {
+        this.counters.keySet().retainAll(applicationNames);
+    }
+
+    private static final class Counter {
+
+        private final AtomicLong connectedAt = new AtomicLong();
+
+        private final AtomicLong connectedNanos = new AtomicLong();
+
+        private final AtomicLong errors = new AtomicLong();
+
+        private final AtomicLong messages = new AtomicLong();
+
+        private long getConnectedNanos() {
+            long connectedAt = this.connectedAt.get();
+            return this.connectedNanos.get() + (connectedAt == 0 ? 0 : System.nanoTime() - connectedAt);
+        }
+
+    }
+
+}
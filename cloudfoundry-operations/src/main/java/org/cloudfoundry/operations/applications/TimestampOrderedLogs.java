@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.applications;
+
+import org.cloudfoundry.doppler.LogMessage;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * A k-way merge of lists of {@link LogMessage}s, each already sorted by timestamp, into a single timestamp-ordered sequence.  The head of each list is held in a heap, so each message is produced
+ * in {@code O(log k)} time as it is iterated, without copying or re-sorting the lists.  Messages with equal timestamps are produced in the order of the lists that contain them.
+ */
+final class TimestampOrderedLogs implements Iterable<LogMessage> {
+
+    private final List<List<LogMessage>> sortedLogs;
+
+    TimestampOrderedLogs(List<List<LogMessage>> sortedLogs) {
+        this.sortedLogs = sortedLogs;
+    }
+
+    @Override
+    public Iterator<LogMessage> iterator() {
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, this.sortedLogs.size()));
+
+        for (int i = 0; i < this.sortedLogs.size(); i++) {
+            Iterator<LogMessage> logs = this.sortedLogs.get(i).iterator();
+            if (logs.hasNext()) {
+                heap.add(new Cursor(i, logs));
+            }
+        }
+
+        return new Iterator<LogMessage>() {
+
+            @Override
+            public boolean hasNext() {
+                return !heap.isEmpty();
+            }
+
+            @Override
+            public LogMessage next() {
+                Cursor cursor = heap.poll();
+                if (cursor == null) {
+                    throw new NoSuchElementException();
+                }
+
+                LogMessage head = cursor.head;
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+
+                return head;
+            }
+
+        };
+    }
+
+    private static final class Cursor implements Comparable<Cursor> {
+
+        private final int index;
+
+        private final Iterator<LogMessage> logs;
+
+        private LogMessage head;
+
+        private Cursor(int index, Iterator<LogMessage> logs) {
+            this.index = index;
+            this.logs = logs;
+            this.head = logs.next();
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            int result = this.head.getTimestamp().compareTo(other.head.getTimestamp());
+            return result != 0 ? result : Integer.compare(this.index, other.index);
+        }
+
+        private boolean advance() {
+            if (!this.logs.hasNext()) {
+                return false;
+            }
+
+            this.head = this.logs.next();
+            return true;
+        }
+
+    }
+
+}
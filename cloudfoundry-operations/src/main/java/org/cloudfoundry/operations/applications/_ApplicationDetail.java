@@ -46,8 +46,9 @@ abstract class _ApplicationDetail extends AbstractApplicationSummary {
     abstract Date getLastUploaded();
 
     /**
-     * The name of the stack running the application
+     * The name of the stack running the application, if any
      */
+    @Nullable
     abstract String getStack();
 
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.applications;
+
+import org.cloudfoundry.Nullable;
+import org.immutables.value.Value;
+
+import java.util.List;
+
+/**
+ * The request options for the index application logs operation
+ */
+@Value.Immutable
+abstract class _IndexLogsRequest {
+
+    /**
+     * The maximum number of applications whose logs are retrieved concurrently.  When following, this is the maximum number of live log stream connections, 100 by default, and every application
+     * must fit within it.
+     */
+    @Nullable
+    abstract Integer getConcurrency();
+
+    /**
+     * Whether to keep indexing each application's live log stream once its recent logs have been indexed
+     */
+    @Nullable
+    abstract Boolean getFollow();
+
+    /**
+     * The index to add the logs to
+     */
+    abstract LogIndex getIndex();
+
+    /**
+     * The names of the applications.  If empty, the logs of every application in the space are indexed.
+     */
+    abstract List<String> getNames();
+
+}
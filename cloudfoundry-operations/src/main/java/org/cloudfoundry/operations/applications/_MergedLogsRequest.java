@@ -0,0 +1,41 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.applications;
+
+import org.cloudfoundry.Nullable;
+import org.immutables.value.Value;
+
+import java.util.List;
+
+/**
+ * The request options for the merged application logs operation
+ */
+@Value.Immutable
+abstract class _MergedLogsRequest {
+
+    /**
+     * The maximum number of applications whose logs are retrieved concurrently
+     */
+    @Nullable
+    abstract Integer getConcurrency();
+
+    /**
+     * The names of the applications.  If empty, the logs of every application in the space are retrieved.
+     */
+    abstract List<String> getNames();
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.applications;
+
+import org.cloudfoundry.Nullable;
+import org.immutables.value.Value;
+
+import java.util.Set;
+
+/**
+ * The request options for searching a {@link LogIndex}
+ */
+@Value.Immutable
+abstract class _SearchLogsRequest {
+
+    /**
+     * The names of the applications to search.  If empty, the logs of every application are searched.
+     */
+    abstract Set<String> getApplicationNames();
+
+    /**
+     * The maximum number of log messages to return.  If more messages match, the most recent are returned.
+     */
+    @Nullable
+    abstract Integer getLimit();
+
+    /**
+     * The text to search for.  Matching is case-insensitive.
+     */
+    abstract String getQuery();
+
+    /**
+     * The source types to search, for example {@code RTR} or {@code STG}.  If empty, every source type is searched.
+     */
+    abstract Set<String> getSourceTypes();
+
+    /**
+     * Whether the query matches anywhere within a message.  If not, every word of the query must appear as a whole word in the message.
+     */
+    @Nullable
+    abstract Boolean getSubstring();
+
+}
@@ -17,12 +17,14 @@
 package org.cloudfoundry.operations.organizations;
 
 import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.Resource;
 import org.cloudfoundry.client.v2.domains.DomainResource;
 import org.cloudfoundry.client.v2.featureflags.GetFeatureFlagRequest;
 import org.cloudfoundry.client.v2.featureflags.GetFeatureFlagResponse;
 import org.cloudfoundry.client.v2.organizationquotadefinitions.GetOrganizationQuotaDefinitionRequest;
 import org.cloudfoundry.client.v2.organizationquotadefinitions.GetOrganizationQuotaDefinitionResponse;
 import org.cloudfoundry.client.v2.organizationquotadefinitions.ListOrganizationQuotaDefinitionsRequest;
+import org.cloudfoundry.client.v2.organizationquotadefinitions.OrganizationQuotaDefinitionEntity;
 import org.cloudfoundry.client.v2.organizationquotadefinitions.OrganizationQuotaDefinitionResource;
 import org.cloudfoundry.client.v2.organizations.AssociateOrganizationManagerByUsernameRequest;
 import org.cloudfoundry.client.v2.organizations.AssociateOrganizationManagerByUsernameResponse;
@@ -34,6 +36,7 @@ import org.cloudfoundry.client.v2.organizations.ListOrganizationDomainsRequest;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationSpaceQuotaDefinitionsRequest;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationSpacesRequest;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationsRequest;
+import org.cloudfoundry.client.v2.organizations.OrganizationEntity;
 import org.cloudfoundry.client.v2.organizations.OrganizationResource;
 import org.cloudfoundry.client.v2.organizations.UpdateOrganizationRequest;
 import org.cloudfoundry.client.v2.organizations.UpdateOrganizationResponse;
@@ -48,14 +51,18 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.tuple.Tuple4;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 import static org.cloudfoundry.util.tuple.TupleUtils.function;
 import static org.cloudfoundry.util.tuple.TupleUtils.predicate;
 
 public final class DefaultOrganizations implements Organizations {
 
+    private static final List<String> ORGANIZATION_DETAIL_RELATIONS = Arrays.asList("quota_definition", "space_quota_definitions", "spaces");
+
     private static final String SET_ROLES_BY_USERNAME_FEATURE_FLAG = "set_roles_by_username";
 
     private final Mono<CloudFoundryClient> cloudFoundryClient;
@@ -96,7 +103,7 @@ public final class DefaultOrganizations implements Organizations {
         return this.cloudFoundryClient
             .then(cloudFoundryClient -> Mono.when(
                 Mono.just(cloudFoundryClient),
-                getOrganization(cloudFoundryClient, request.getName())
+                getOrganizationWithRelations(cloudFoundryClient, request.getName())
             ))
             .then(function((cloudFoundryClient, organizationResource) -> getAuxiliaryContent(cloudFoundryClient, organizationResource)
                 .map(function((domains, organizationQuota, spacesQuotas, spaces) -> toOrganizationDetail(domains, organizationQuota, spacesQuotas, spaces, organizationResource, request)))));
@@ -140,8 +147,8 @@ public final class DefaultOrganizations implements Organizations {
             .when(
                 getDomainNames(cloudFoundryClient, organizationId),
                 getOrganizationQuota(cloudFoundryClient, organizationResource),
-                getSpaceQuotas(cloudFoundryClient, organizationId),
-                getSpaceNames(cloudFoundryClient, organizationId)
+                getSpaceQuotas(cloudFoundryClient, organizationResource),
+                getSpaceNames(cloudFoundryClient, organizationResource)
             );
     }
 
@@ -173,9 +180,14 @@ public final class DefaultOrganizations implements Organizations {
     }
 
     private static Mono<OrganizationQuota> getOrganizationQuota(CloudFoundryClient cloudFoundryClient, OrganizationResource resource) {
-        return requestOrganizationQuotaDefinition(cloudFoundryClient, ResourceUtils.getEntity(resource).getQuotaDefinitionId())
-            .map(response -> toOrganizationQuota(response, resource));
+        OrganizationEntity entity = ResourceUtils.getEntity(resource);
 
+        if (entity.getQuotaDefinition() != null) {
+            return Mono.just(toOrganizationQuota(entity.getQuotaDefinition(), resource));
+        }
+
+        return requestOrganizationQuotaDefinition(cloudFoundryClient, entity.getQuotaDefinitionId())
+            .map(response -> toOrganizationQuota(response, resource));
     }
 
     private static Mono<OrganizationQuotaDefinitionResource> getOrganizationQuotaDefinition(CloudFoundryClient cloudFoundryClient, String quotaDefinitionName) {
@@ -189,14 +201,24 @@ public final class DefaultOrganizations implements Organizations {
             .map(ResourceUtils::getId);
     }
 
-    private static Mono<List<String>> getSpaceNames(CloudFoundryClient cloudFoundryClient, String organizationId) {
-        return requestSpaces(cloudFoundryClient, organizationId)
+    private static Mono<OrganizationResource> getOrganizationWithRelations(CloudFoundryClient cloudFoundryClient, String organization) {
+        return requestOrganizationsWithRelations(cloudFoundryClient, organization)
+            .single()
+            .otherwise(NoSuchElementException.class, t -> ExceptionUtils.illegalArgument("Organization %s does not exist", organization));
+    }
+
+    private static Mono<List<String>> getSpaceNames(CloudFoundryClient cloudFoundryClient, OrganizationResource resource) {
+        return Optional.ofNullable(ResourceUtils.getEntity(resource).getSpaces())
+            .map(Flux::fromIterable)
+            .orElseGet(() -> requestSpaces(cloudFoundryClient, ResourceUtils.getId(resource)))
             .map(resource -> ResourceUtils.getEntity(resource).getName())
             .collectList();
     }
 
-    private static Mono<List<SpaceQuota>> getSpaceQuotas(CloudFoundryClient cloudFoundryClient, String organizationId) {
-        return requestSpaceQuotaDefinitions(cloudFoundryClient, organizationId)
+    private static Mono<List<SpaceQuota>> getSpaceQuotas(CloudFoundryClient cloudFoundryClient, OrganizationResource resource) {
+        return Optional.ofNullable(ResourceUtils.getEntity(resource).getSpaceQuotaDefinitions())
+            .map(Flux::fromIterable)
+            .orElseGet(() -> requestSpaceQuotaDefinitions(cloudFoundryClient, ResourceUtils.getId(resource)))
             .map(DefaultOrganizations::toSpaceQuota)
             .collectList();
     }
@@ -283,6 +305,17 @@ public final class DefaultOrganizations implements Organizations {
                     .build()));
     }
 
+    private static Flux<OrganizationResource> requestOrganizationsWithRelations(CloudFoundryClient cloudFoundryClient, String organizationName) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.organizations()
+                .list(ListOrganizationsRequest.builder()
+                    .includeRelations(ORGANIZATION_DETAIL_RELATIONS)
+                    .inlineRelationsDepth(1)
+                    .name(organizationName)
+                    .page(page)
+                    .build()));
+    }
+
     private static Flux<SpaceQuotaDefinitionResource> requestSpaceQuotaDefinitions(CloudFoundryClient cloudFoundryClient, String organizationId) {
         return PaginationUtils
             .requestResources(page -> cloudFoundryClient.organizations()
@@ -330,7 +363,7 @@ public final class DefaultOrganizations implements Organizations {
             .build();
     }
 
-    private static OrganizationQuota toOrganizationQuota(GetOrganizationQuotaDefinitionResponse response, OrganizationResource resource) {
+    private static OrganizationQuota toOrganizationQuota(Resource<OrganizationQuotaDefinitionEntity> response, OrganizationResource resource) {
         return OrganizationQuota.builder()
             .id(ResourceUtils.getId(response))
             .organizationId(ResourceUtils.getId(resource))
@@ -21,14 +21,16 @@ import org.cloudfoundry.client.v2.Resource;
 import org.cloudfoundry.client.v2.applications.ApplicationResource;
 import org.cloudfoundry.client.v2.applications.AssociateApplicationRouteRequest;
 import org.cloudfoundry.client.v2.applications.AssociateApplicationRouteResponse;
+import org.cloudfoundry.client.v2.applications.ListApplicationsRequest;
 import org.cloudfoundry.client.v2.domains.GetDomainRequest;
 import org.cloudfoundry.client.v2.domains.GetDomainResponse;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationPrivateDomainsRequest;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationSpacesRequest;
 import org.cloudfoundry.client.v2.privatedomains.PrivateDomainResource;
+import org.cloudfoundry.client.v2.routemappings.ListRouteMappingsRequest;
+import org.cloudfoundry.client.v2.routemappings.RouteMappingResource;
 import org.cloudfoundry.client.v2.routes.CreateRouteResponse;
 import org.cloudfoundry.client.v2.routes.DeleteRouteResponse;
-import org.cloudfoundry.client.v2.routes.ListRouteApplicationsRequest;
 import org.cloudfoundry.client.v2.routes.RemoveRouteApplicationRequest;
 import org.cloudfoundry.client.v2.routes.RouteEntity;
 import org.cloudfoundry.client.v2.routes.RouteExistsRequest;
@@ -40,36 +42,61 @@ import org.cloudfoundry.client.v2.spaces.GetSpaceResponse;
 import org.cloudfoundry.client.v2.spaces.ListSpaceApplicationsRequest;
 import org.cloudfoundry.client.v2.spaces.ListSpaceRoutesRequest;
 import org.cloudfoundry.client.v2.spaces.SpaceResource;
+import org.cloudfoundry.operations.topology.TopologyIndex;
 import org.cloudfoundry.util.ExceptionUtils;
 import org.cloudfoundry.util.JobUtils;
 import org.cloudfoundry.util.OperationUtils;
 import org.cloudfoundry.util.PaginationUtils;
+import org.cloudfoundry.util.RelationCache;
 import org.cloudfoundry.util.ResourceUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.tuple.Tuple;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.cloudfoundry.util.tuple.TupleUtils.function;
-import static org.cloudfoundry.util.tuple.TupleUtils.predicate;
 
 public final class DefaultRoutes implements Routes {
 
+    private static final int CF_DOMAIN_NOT_FOUND = 130002;
+
+    private static final int CF_ROUTE_NOT_FOUND = 210002;
+
+    private static final int DEFAULT_DELETE_CONCURRENCY = 10;
+
+    private static final int RESOLUTION_WINDOW = 50;
+
     private final Mono<CloudFoundryClient> cloudFoundryClient;
 
     private final Mono<String> organizationId;
 
     private final Mono<String> spaceId;
 
+    private final TopologyIndex topologyIndex;
+
     public DefaultRoutes(Mono<CloudFoundryClient> cloudFoundryClient, Mono<String> organizationId, Mono<String> spaceId) {
+        this(cloudFoundryClient, organizationId, spaceId, null);
+    }
+
+    public DefaultRoutes(Mono<CloudFoundryClient> cloudFoundryClient, Mono<String> organizationId, Mono<String> spaceId, TopologyIndex topologyIndex) {
         this.cloudFoundryClient = cloudFoundryClient;
         this.organizationId = organizationId;
         this.spaceId = spaceId;
+        this.topologyIndex = topologyIndex;
     }
 
     @Override
@@ -92,10 +119,11 @@ public final class DefaultRoutes implements Routes {
             .then(function((cloudFoundryClient, organizationId) -> Mono
                 .when(
                     Mono.just(cloudFoundryClient),
-                    getSpaceId(cloudFoundryClient, organizationId, request.getSpace()),
-                    getDomainId(cloudFoundryClient, organizationId, request.getDomain())
+                    Mono.just(organizationId),
+                    getSpaceId(cloudFoundryClient, organizationId, request.getSpace())
                 )))
-            .then(function((cloudFoundryClient, spaceId, domainId) -> requestCreateRoute(cloudFoundryClient, domainId, request.getHost(), request.getPath(), spaceId)))
+            .then(function((cloudFoundryClient, organizationId, spaceId) -> withDomainId(cloudFoundryClient, this.topologyIndex, organizationId, request.getDomain(),
+                domainId -> requestCreateRoute(cloudFoundryClient, domainId, request.getHost(), request.getPath(), spaceId))))
             .then();
     }
 
@@ -103,59 +131,69 @@ public final class DefaultRoutes implements Routes {
     public Mono<Void> delete(DeleteRouteRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.organizationId)
-            .then(function((cloudFoundryClient, organizationId) -> Mono
-                .when(
-                    Mono.just(cloudFoundryClient),
-                    getDomainId(cloudFoundryClient, organizationId, request.getDomain())
-                )))
-            .then(function((cloudFoundryClient, domainId) -> Mono
-                .when(
-                    Mono.just(cloudFoundryClient),
-                    getRouteId(cloudFoundryClient, request.getHost(), request.getDomain(), domainId, request.getPath())
-                )))
-            .then(function(DefaultRoutes::deleteRoute));
+            .then(function((cloudFoundryClient, organizationId) -> withDomainId(cloudFoundryClient, this.topologyIndex, organizationId, request.getDomain(),
+                domainId -> withRouteId(this.topologyIndex, domainId, request.getHost(), request.getPath(),
+                    Mono.defer(() -> getRouteId(cloudFoundryClient, request.getHost(), request.getDomain(), domainId, request.getPath())),
+                    routeId -> deleteRoute(cloudFoundryClient, routeId)))));
     }
 
     @Override
     public Mono<Void> deleteOrphanedRoutes() {
+        return deleteOrphanedRoutes(DeleteOrphanedRoutesRequest.builder()
+            .build())
+            .then();
+    }
+
+    @Override
+    public Flux<DeleteOrphanedRoutesProgress> deleteOrphanedRoutes(DeleteOrphanedRoutesRequest request) {
+        int concurrency = Optional.ofNullable(request.getConcurrency()).orElse(DEFAULT_DELETE_CONCURRENCY);
+        if (concurrency < 1) {
+            return ExceptionUtils.<DeleteOrphanedRoutesProgress>illegalArgument("Concurrency %d must be greater than 0", concurrency)
+                .flux();
+        }
+
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .flatMap(function((cloudFoundryClient, spaceId) -> requestSpaceRoutes(cloudFoundryClient, spaceId)
-                .map(ResourceUtils::getId)
-                .map(routeId -> Tuple.of(cloudFoundryClient, routeId))))
-            .flatMap(function((cloudFoundryClient, routeId) -> getApplications(cloudFoundryClient, routeId)
-                .map(applicationResources -> Tuple.of(cloudFoundryClient, applicationResources, routeId))))
-            .filter(predicate((cloudFoundryClient, applicationResources, routeId) -> isOrphan(applicationResources)))
-            .flatMap(function((cloudFoundryClient, applicationResources, routeId) -> deleteRoute(cloudFoundryClient, routeId)))
-            .then();
+            .then(function((cloudFoundryClient, spaceId) -> Mono
+                .when(
+                    Mono.just(cloudFoundryClient),
+                    getOrphanedRouteIds(cloudFoundryClient, spaceId)
+                )))
+            .flatMap(function((cloudFoundryClient, orphanedRouteIds) -> {
+                AtomicInteger deleted = new AtomicInteger();
+
+                return Flux
+                    .fromIterable(orphanedRouteIds)
+                    .flatMap(routeId -> deleteRoute(cloudFoundryClient, routeId)
+                        .then(Mono.defer(() -> Mono.just(DeleteOrphanedRoutesProgress.builder()
+                            .deleted(deleted.incrementAndGet())
+                            .id(routeId)
+                            .orphaned(orphanedRouteIds.size())
+                            .build()))), concurrency, 1);
+            }));
     }
 
     @Override
     public Flux<Route> list(ListRoutesRequest request) {
         return this.cloudFoundryClient
-            .flatMap(cloudFoundryClient -> getRoutes(cloudFoundryClient, request, this.organizationId, this.spaceId)
-                .map(resource -> Tuple.of(cloudFoundryClient, resource)))
-            .flatMap(function((cloudFoundryClient, resource) -> Mono
-                .when(
-                    getApplicationNames(cloudFoundryClient, ResourceUtils.getId(resource)),
-                    getDomainName(cloudFoundryClient, ResourceUtils.getEntity(resource).getDomainId()),
-                    Mono.just(resource),
-                    getSpaceName(cloudFoundryClient, ResourceUtils.getEntity(resource).getSpaceId())
-                )))
-            .map(function(DefaultRoutes::toRoute));
+            .flatMap(cloudFoundryClient -> {
+                RelationNames relationNames = new RelationNames();
+
+                return getRoutes(cloudFoundryClient, request, this.organizationId, this.spaceId)
+                    .buffer(RESOLUTION_WINDOW)
+                    .concatMap(resources -> toRoutes(cloudFoundryClient, resources, relationNames));
+            });
     }
 
     @Override
     public Mono<Void> map(MapRouteRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId, this.organizationId)
-            .then(function((cloudFoundryClient, spaceId, organizationId) -> Mono
-                .when(
-                    Mono.just(cloudFoundryClient),
-                    getOrCreateRoute(cloudFoundryClient, organizationId, spaceId, request.getDomain(), request.getHost(), request.getPath()),
-                    getApplicationId(cloudFoundryClient, request.getApplicationName(), spaceId)
-                )))
-            .then(function((cloudFoundryClient, routeId, applicationId) -> requestAssociateRoute(cloudFoundryClient, applicationId, routeId)))
+            .then(function((cloudFoundryClient, spaceId, organizationId) -> getApplicationId(cloudFoundryClient, request.getApplicationName(), spaceId)
+                .then(applicationId -> withDomainId(cloudFoundryClient, this.topologyIndex, organizationId, request.getDomain(),
+                    domainId -> withRouteId(this.topologyIndex, domainId, request.getHost(), request.getPath(),
+                        Mono.defer(() -> getOrCreateRoute(cloudFoundryClient, spaceId, domainId, request.getHost(), request.getPath())),
+                        routeId -> requestAssociateRoute(cloudFoundryClient, applicationId, routeId))))))
             .then();
     }
 
@@ -163,14 +201,11 @@ public final class DefaultRoutes implements Routes {
     public Mono<Void> unmap(UnmapRouteRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.organizationId, this.spaceId)
-            .then(function((cloudFoundryClient, organizationId, spaceId) -> Mono
-                .when(
-                    Mono.just(cloudFoundryClient),
-                    getApplicationId(cloudFoundryClient, request.getApplicationName(), spaceId),
-                    getDomainId(cloudFoundryClient, organizationId, request.getDomain())
-                        .then(domainId -> getRouteId(cloudFoundryClient, request.getHost(), request.getDomain(), domainId, request.getPath()))
-                )))
-            .then(function(DefaultRoutes::requestRemoveApplication));
+            .then(function((cloudFoundryClient, organizationId, spaceId) -> getApplicationId(cloudFoundryClient, request.getApplicationName(), spaceId)
+                .then(applicationId -> withDomainId(cloudFoundryClient, this.topologyIndex, organizationId, request.getDomain(),
+                    domainId -> withRouteId(this.topologyIndex, domainId, request.getHost(), request.getPath(),
+                        Mono.defer(() -> getRouteId(cloudFoundryClient, request.getHost(), request.getDomain(), domainId, request.getPath())),
+                        routeId -> requestRemoveApplication(cloudFoundryClient, applicationId, routeId))))));
     }
 
     private static Mono<Void> deleteRoute(CloudFoundryClient cloudFoundryClient, String routeId) {
@@ -189,15 +224,38 @@ public final class DefaultRoutes implements Routes {
             .map(ResourceUtils::getId);
     }
 
-    private static Mono<List<String>> getApplicationNames(CloudFoundryClient cloudFoundryClient, String routeId) {
-        return requestApplications(cloudFoundryClient, routeId)
-            .map(resource -> ResourceUtils.getEntity(resource).getName())
-            .collectList();
+    private static Mono<Map<String, String>> getApplicationNames(CloudFoundryClient cloudFoundryClient, List<RouteResource> resources, RelationNames relationNames) {
+        List<String> spaceIds = RelationCache.getMissingIds(getIds(resources, RouteEntity::getSpaceId), relationNames.applicationSpaceIds::contains);
+        if (spaceIds.isEmpty()) {
+            return Mono.just(relationNames.applicationNames.asMap());
+        }
+
+        return requestApplications(cloudFoundryClient, spaceIds)
+            .doOnNext(resource -> relationNames.applicationNames.put(ResourceUtils.getId(resource), ResourceUtils.getEntity(resource).getName()))
+            .collectList()
+            .map(applications -> {
+                relationNames.applicationSpaceIds.addAll(spaceIds);
+                return relationNames.applicationNames.asMap();
+            });
     }
 
-    private static Mono<List<ApplicationResource>> getApplications(CloudFoundryClient cloudFoundryClient, String routeId) {
-        return requestApplications(cloudFoundryClient, routeId)
-            .collectList();
+    private static Mono<Map<String, List<String>>> getApplicationNamesByRouteId(CloudFoundryClient cloudFoundryClient, List<RouteResource> resources, RelationNames relationNames) {
+        return Mono
+            .when(
+                getApplicationNames(cloudFoundryClient, resources, relationNames),
+                requestRouteMappings(cloudFoundryClient, resources.stream().map(ResourceUtils::getId).collect(Collectors.toList()))
+                    .collectList()
+            )
+            .map(function((applicationNames, routeMappings) -> {
+                Map<String, List<String>> applicationNamesByRouteId = new HashMap<>();
+
+                routeMappings.stream()
+                    .map(ResourceUtils::getEntity)
+                    .filter(entity -> applicationNames.containsKey(entity.getApplicationId()))
+                    .forEach(entity -> applicationNamesByRouteId.computeIfAbsent(entity.getRouteId(), routeId -> new ArrayList<>()).add(applicationNames.get(entity.getApplicationId())));
+
+                return applicationNamesByRouteId;
+            }));
     }
 
     private static Mono<Resource<?>> getDomain(CloudFoundryClient cloudFoundryClient, String organizationId, String domain) {
@@ -206,14 +264,10 @@ public final class DefaultRoutes implements Routes {
             .otherwise(NoSuchElementException.class, t -> ExceptionUtils.illegalArgument("Domain %s does not exist", domain));
     }
 
-    private static Mono<String> getDomainId(CloudFoundryClient cloudFoundryClient, String organizationId, String domain) {
-        return getDomain(cloudFoundryClient, organizationId, domain)
-            .map(ResourceUtils::getId);
-    }
-
-    private static Mono<String> getDomainName(CloudFoundryClient cloudFoundryClient, String domainId) {
-        return requestDomain(cloudFoundryClient, domainId)
-            .map(response -> ResourceUtils.getEntity(response).getName());
+    private static Mono<Map<String, String>> getDomainNames(CloudFoundryClient cloudFoundryClient, List<RouteResource> resources, RelationNames relationNames) {
+        return relationNames.domainNames
+            .resolve(getIds(resources, RouteEntity::getDomainId), domainId -> requestDomain(cloudFoundryClient, domainId)
+                .map(response -> ResourceUtils.getEntity(response).getName()));
     }
 
     private static Flux<Resource<?>> getDomains(CloudFoundryClient cloudFoundryClient, String organizationId, String domain) {
@@ -223,21 +277,47 @@ public final class DefaultRoutes implements Routes {
                 .map(OperationUtils.<SharedDomainResource, Resource<?>>cast()));
     }
 
+    private static Stream<String> getIds(List<RouteResource> resources, Function<RouteEntity, String> idExtractor) {
+        return resources.stream()
+            .map(resource -> idExtractor.apply(ResourceUtils.getEntity(resource)));
+    }
+
+    private static Mono<Set<String>> getMappedRouteIds(CloudFoundryClient cloudFoundryClient, String spaceId) {
+        return requestApplications(cloudFoundryClient, Collections.singletonList(spaceId))
+            .map(ResourceUtils::getId)
+            .buffer(RESOLUTION_WINDOW)
+            .concatMap(applicationIds -> requestApplicationRouteMappings(cloudFoundryClient, applicationIds))
+            .map(resource -> ResourceUtils.getEntity(resource).getRouteId())
+            .collect(HashSet::new, Set::add);
+    }
+
     private static Mono<String> getOptionalDomainId(CloudFoundryClient cloudFoundryClient, String organizationId, String domain) {
         return getDomains(cloudFoundryClient, organizationId, domain)
             .singleOrEmpty()
             .map(ResourceUtils::getId);
     }
 
-    private static Mono<String> getOrCreateRoute(CloudFoundryClient cloudFoundryClient, String organizationId, String spaceId, String domain, String host, String path) {
-        return getDomainId(cloudFoundryClient, organizationId, domain)
-            .then(domainId -> requestRoutes(cloudFoundryClient, domainId, host, path)
-                .singleOrEmpty()
-                .map(OperationUtils.<RouteResource, Resource<RouteEntity>>cast())
-                .otherwiseIfEmpty(requestCreateRoute(cloudFoundryClient, domainId, host, path, spaceId)))
+    private static Mono<String> getOrCreateRoute(CloudFoundryClient cloudFoundryClient, String spaceId, String domainId, String host, String path) {
+        return requestRoutes(cloudFoundryClient, domainId, host, path)
+            .singleOrEmpty()
+            .map(OperationUtils.<RouteResource, Resource<RouteEntity>>cast())
+            .otherwiseIfEmpty(requestCreateRoute(cloudFoundryClient, domainId, host, path, spaceId))
             .map(ResourceUtils::getId);
     }
 
+    private static Mono<List<String>> getOrphanedRouteIds(CloudFoundryClient cloudFoundryClient, String spaceId) {
+        return Mono
+            .when(
+                getMappedRouteIds(cloudFoundryClient, spaceId),
+                requestSpaceRoutes(cloudFoundryClient, spaceId)
+                    .map(ResourceUtils::getId)
+                    .collectList()
+            )
+            .map(function((mappedRouteIds, routeIds) -> routeIds.stream()
+                .filter(routeId -> !mappedRouteIds.contains(routeId))
+                .collect(Collectors.toList())));
+    }
+
     private static Mono<RouteResource> getRoute(CloudFoundryClient cloudFoundryClient, String host, String domain, String domainId, String path) {
         return requestRoutes(cloudFoundryClient, domainId, host, path)
             .single()
@@ -270,21 +350,27 @@ public final class DefaultRoutes implements Routes {
             .map(ResourceUtils::getId);
     }
 
-    private static Mono<String> getSpaceName(CloudFoundryClient cloudFoundryClient, String spaceId) {
-        return requestSpace(cloudFoundryClient, spaceId)
-            .map(response -> ResourceUtils.getEntity(response).getName());
+    private static Mono<Map<String, String>> getSpaceNames(CloudFoundryClient cloudFoundryClient, List<RouteResource> resources, RelationNames relationNames) {
+        return relationNames.spaceNames
+            .resolve(getIds(resources, RouteEntity::getSpaceId), spaceId -> requestSpace(cloudFoundryClient, spaceId)
+                .map(response -> ResourceUtils.getEntity(response).getName()));
     }
 
-    private static boolean isOrphan(List<ApplicationResource> applications) {
-        return applications.isEmpty();
+    private static Flux<RouteMappingResource> requestApplicationRouteMappings(CloudFoundryClient cloudFoundryClient, List<String> applicationIds) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.routeMappings()
+                .list(ListRouteMappingsRequest.builder()
+                    .applicationIds(applicationIds)
+                    .page(page)
+                    .build()));
     }
 
-    private static Flux<ApplicationResource> requestApplications(CloudFoundryClient cloudFoundryClient, String routeId) {
+    private static Flux<ApplicationResource> requestApplications(CloudFoundryClient cloudFoundryClient, List<String> spaceIds) {
         return PaginationUtils
-            .requestResources(page -> cloudFoundryClient.routes()
-                .listApplications(ListRouteApplicationsRequest.builder()
-                    .routeId(routeId)
+            .requestResources(page -> cloudFoundryClient.applicationsV2()
+                .list(ListApplicationsRequest.builder()
                     .page(page)
+                    .spaceIds(spaceIds)
                     .build()));
     }
 
@@ -358,6 +444,15 @@ public final class DefaultRoutes implements Routes {
                 .build());
     }
 
+    private static Flux<RouteMappingResource> requestRouteMappings(CloudFoundryClient cloudFoundryClient, List<String> routeIds) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.routeMappings()
+                .list(ListRouteMappingsRequest.builder()
+                    .page(page)
+                    .routeIds(routeIds)
+                    .build()));
+    }
+
     private static Flux<RouteResource> requestRoutes(CloudFoundryClient cloudFoundryClient, UnaryOperator<org.cloudfoundry.client.v2.routes.ListRoutesRequest.Builder> modifier) {
 
         org.cloudfoundry.client.v2.routes.ListRoutesRequest.Builder listBuilder = modifier.apply(org.cloudfoundry.client.v2.routes.ListRoutesRequest.builder());
@@ -425,4 +520,51 @@ public final class DefaultRoutes implements Routes {
             .build();
     }
 
+    private static Flux<Route> toRoutes(CloudFoundryClient cloudFoundryClient, List<RouteResource> resources, RelationNames relationNames) {
+        return Mono
+            .when(
+                getApplicationNamesByRouteId(cloudFoundryClient, resources, relationNames),
+                getDomainNames(cloudFoundryClient, resources, relationNames),
+                getSpaceNames(cloudFoundryClient, resources, relationNames)
+            )
+            .flatMap(function((applicationNamesByRouteId, domainNames, spaceNames) -> Flux
+                .fromIterable(resources)
+                .map(resource -> toRoute(
+                    applicationNamesByRouteId.getOrDefault(ResourceUtils.getId(resource), Collections.emptyList()),
+                    domainNames.get(ResourceUtils.getEntity(resource).getDomainId()),
+                    resource,
+                    spaceNames.get(ResourceUtils.getEntity(resource).getSpaceId())))));
+    }
+
+    private static <T> Mono<T> withDomainId(CloudFoundryClient cloudFoundryClient, TopologyIndex topologyIndex, String organizationId, String domain, Function<String, Mono<T>> operation) {
+        Mono<String> resolver = Mono.defer(() -> getDomain(cloudFoundryClient, organizationId, domain)
+            .map(ResourceUtils::getId));
+
+        return Mono
+            .defer(() -> Optional.ofNullable(topologyIndex)
+                .flatMap(index -> index.getDomainId(organizationId, domain)
+                    .map(domainId -> index.withId(domainId, ExceptionUtils.statusCode(CF_DOMAIN_NOT_FOUND), resolver, operation)))
+                .orElseGet(() -> resolver.then(operation)));
+    }
+
+    private static <T> Mono<T> withRouteId(TopologyIndex topologyIndex, String domainId, String host, String path, Mono<String> resolver, Function<String, Mono<T>> operation) {
+        return Mono
+            .defer(() -> Optional.ofNullable(topologyIndex)
+                .flatMap(index -> index.getRouteId(domainId, host, path)
+                    .map(routeId -> index.withId(routeId, ExceptionUtils.statusCode(CF_ROUTE_NOT_FOUND), resolver, operation)))
+                .orElseGet(() -> resolver.then(operation)));
+    }
+
+    private static final class RelationNames {
+
+        private final RelationCache<String> applicationNames = new RelationCache<>();
+
+        private final Set<String> applicationSpaceIds = ConcurrentHashMap.newKeySet();
+
+        private final RelationCache<String> domainNames = new RelationCache<>();
+
+        private final RelationCache<String> spaceNames = new RelationCache<>();
+
+    }
+
 }
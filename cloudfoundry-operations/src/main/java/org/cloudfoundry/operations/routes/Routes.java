@@ -57,6 +57,16 @@ public interface Routes {
      */
     Mono<Void> deleteOrphanedRoutes();
 
+    /**
+     * Delete orphaned routes, reporting progress as each route is deleted.  Orphans are found by comparing the space's routes with its applications' route mappings, and are deleted concurrently.
+     *
+     * Warning: this operation is not atomic and may delete routes which are in the process of being associated with applications.
+     *
+     * @param request the Delete Orphaned Routes request
+     * @return the progress of the deletion
+     */
+    Flux<DeleteOrphanedRoutesProgress> deleteOrphanedRoutes(DeleteOrphanedRoutesRequest request);
+
     /**
      * Lists the routes and the applications bound to those routes
      *
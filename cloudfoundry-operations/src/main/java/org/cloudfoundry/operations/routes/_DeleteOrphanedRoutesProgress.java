@@ -0,0 +1,42 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.routes;
+
+import org.immutables.value.Value;
+
+/**
+ * The progress of a delete orphaned routes operation, reported as each orphaned route is deleted
+ */
+@Value.Immutable
+abstract class _DeleteOrphanedRoutesProgress {
+
+    /**
+     * The number of orphaned routes deleted so far
+     */
+    abstract Integer getDeleted();
+
+    /**
+     * The id of the route that was just deleted
+     */
+    abstract String getId();
+
+    /**
+     * The total number of orphaned routes found
+     */
+    abstract Integer getOrphaned();
+
+}
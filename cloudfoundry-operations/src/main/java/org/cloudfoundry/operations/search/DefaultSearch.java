@@ -0,0 +1,231 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.search;
+
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.applications.ApplicationResource;
+import org.cloudfoundry.client.v2.applications.ListApplicationsRequest;
+import org.cloudfoundry.client.v2.domains.GetDomainRequest;
+import org.cloudfoundry.client.v2.domains.GetDomainResponse;
+import org.cloudfoundry.client.v2.organizations.ListOrganizationsRequest;
+import org.cloudfoundry.client.v2.organizations.OrganizationResource;
+import org.cloudfoundry.client.v2.routes.ListRoutesRequest;
+import org.cloudfoundry.client.v2.routes.RouteEntity;
+import org.cloudfoundry.client.v2.routes.RouteResource;
+import org.cloudfoundry.client.v2.serviceinstances.ListServiceInstancesRequest;
+import org.cloudfoundry.client.v2.serviceinstances.ServiceInstanceResource;
+import org.cloudfoundry.client.v2.spaces.GetSpaceRequest;
+import org.cloudfoundry.client.v2.spaces.GetSpaceResponse;
+import org.cloudfoundry.client.v2.spaces.SpaceEntity;
+import org.cloudfoundry.util.PaginationUtils;
+import org.cloudfoundry.util.RelationCache;
+import org.cloudfoundry.util.ResourceUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+public final class DefaultSearch implements Search {
+
+    private static final int DEFAULT_CONCURRENCY = 10;
+
+    private static final int ORGANIZATION_WINDOW = 50;
+
+    private final Mono<CloudFoundryClient> cloudFoundryClient;
+
+    public DefaultSearch(Mono<CloudFoundryClient> cloudFoundryClient) {
+        this.cloudFoundryClient = cloudFoundryClient;
+    }
+
+    @Override
+    public Flux<SearchResult> applications(SearchRequest request) {
+        return this.cloudFoundryClient
+            .flatMap(cloudFoundryClient -> search(cloudFoundryClient, request, ORGANIZATION_WINDOW, (organizationIds, cache) -> requestApplications(cloudFoundryClient, organizationIds, request.getName())
+                .map(DefaultSearch::toCandidate)));
+    }
+
+    @Override
+    public Flux<SearchResult> routes(SearchRequest request) {
+        return this.cloudFoundryClient
+            .flatMap(cloudFoundryClient -> search(cloudFoundryClient, request, 1, (organizationIds, cache) -> Flux
+                .fromIterable(organizationIds)
+                .concatMap(organizationId -> requestRoutes(cloudFoundryClient, organizationId, request.getName()))
+                .concatMap(resource -> getDomainName(cloudFoundryClient, ResourceUtils.getEntity(resource).getDomainId(), cache)
+                    .map(domainName -> toCandidate(resource, domainName)))));
+    }
+
+    @Override
+    public Flux<SearchResult> serviceInstances(SearchRequest request) {
+        return this.cloudFoundryClient
+            .flatMap(cloudFoundryClient -> search(cloudFoundryClient, request, ORGANIZATION_WINDOW, (organizationIds, cache) -> requestServiceInstances(cloudFoundryClient, organizationIds, request.getName())
+                .map(DefaultSearch::toCandidate)));
+    }
+
+    private static int getConcurrency(SearchRequest request) {
+        return Optional.ofNullable(request.getConcurrency()).orElse(DEFAULT_CONCURRENCY);
+    }
+
+    private static Mono<String> getDomainName(CloudFoundryClient cloudFoundryClient, String domainId, SearchCache cache) {
+        return cache.domainNames
+            .resolve(domainId, id -> requestDomain(cloudFoundryClient, id)
+                .map(response -> ResourceUtils.getEntity(response).getName()));
+    }
+
+    private static Mono<SpaceEntity> getSpace(CloudFoundryClient cloudFoundryClient, String spaceId, SearchCache cache) {
+        return cache.spaces
+            .resolve(spaceId, id -> requestSpace(cloudFoundryClient, id)
+                .map(ResourceUtils::getEntity));
+    }
+
+    private static Flux<ApplicationResource> requestApplications(CloudFoundryClient cloudFoundryClient, List<String> organizationIds, String name) {
+        return PaginationUtils
+            .requestResources(page -> {
+                ListApplicationsRequest.Builder builder = ListApplicationsRequest.builder()
+                    .organizationIds(organizationIds)
+                    .page(page);
+
+                Optional.ofNullable(name).ifPresent(builder::name);
+                return cloudFoundryClient.applicationsV2()
+                    .list(builder.build());
+            });
+    }
+
+    private static Mono<GetDomainResponse> requestDomain(CloudFoundryClient cloudFoundryClient, String domainId) {
+        return cloudFoundryClient.domains()
+            .get(GetDomainRequest.builder()
+                .domainId(domainId)
+                .build());
+    }
+
+    private static Flux<OrganizationResource> requestOrganizations(CloudFoundryClient cloudFoundryClient, List<String> organizations) {
+        return PaginationUtils
+            .requestResources(page -> {
+                ListOrganizationsRequest.Builder builder = ListOrganizationsRequest.builder()
+                    .page(page);
+
+                Optional.ofNullable(organizations).ifPresent(builder::names);
+                return cloudFoundryClient.organizations()
+                    .list(builder.build());
+            });
+    }
+
+    private static Flux<RouteResource> requestRoutes(CloudFoundryClient cloudFoundryClient, String organizationId, String host) {
+        return PaginationUtils
+            .requestResources(page -> {
+                ListRoutesRequest.Builder builder = ListRoutesRequest.builder()
+                    .organizationId(organizationId)
+                    .page(page);
+
+                Optional.ofNullable(host).ifPresent(builder::host);
+                return cloudFoundryClient.routes()
+                    .list(builder.build());
+            });
+    }
+
+    private static Flux<ServiceInstanceResource> requestServiceInstances(CloudFoundryClient cloudFoundryClient, List<String> organizationIds, String name) {
+        return PaginationUtils
+            .requestResources(page -> {
+                ListServiceInstancesRequest.Builder builder = ListServiceInstancesRequest.builder()
+                    .organizationIds(organizationIds)
+                    .page(page);
+
+                Optional.ofNullable(name).ifPresent(builder::name);
+                return cloudFoundryClient.serviceInstances()
+                    .list(builder.build());
+            });
+    }
+
+    private static Mono<GetSpaceResponse> requestSpace(CloudFoundryClient cloudFoundryClient, String spaceId) {
+        return cloudFoundryClient.spaces()
+            .get(GetSpaceRequest.builder()
+                .spaceId(spaceId)
+                .build());
+    }
+
+    private static Flux<SearchResult> search(CloudFoundryClient cloudFoundryClient, SearchRequest request, int window, BiFunction<List<String>, SearchCache, Flux<Candidate>> finder) {
+        SearchCache cache = new SearchCache();
+
+        return requestOrganizations(cloudFoundryClient, request.getOrganizations())
+            .doOnNext(resource -> cache.organizationNames.put(ResourceUtils.getId(resource), ResourceUtils.getEntity(resource).getName()))
+            .map(ResourceUtils::getId)
+            .buffer(window)
+            .flatMap(organizationIds -> finder.apply(organizationIds, cache)
+                .concatMap(candidate -> getSpace(cloudFoundryClient, candidate.spaceId, cache)
+                    .map(space -> toSearchResult(candidate, space, cache))), getConcurrency(request), 1);
+    }
+
+    private static Candidate toCandidate(ApplicationResource resource) {
+        return new Candidate(ResourceUtils.getId(resource), ResourceUtils.getEntity(resource).getName(), ResourceUtils.getEntity(resource).getSpaceId());
+    }
+
+    private static Candidate toCandidate(RouteResource resource, String domainName) {
+        RouteEntity entity = ResourceUtils.getEntity(resource);
+
+        StringBuilder url = new StringBuilder();
+        if (entity.getHost() != null && !entity.getHost().isEmpty()) {
+            url.append(entity.getHost()).append('.');
+        }
+        url.append(domainName);
+        if (entity.getPath() != null) {
+            url.append(entity.getPath());
+        }
+
+        return new Candidate(ResourceUtils.getId(resource), url.toString(), entity.getSpaceId());
+    }
+
+    private static Candidate toCandidate(ServiceInstanceResource resource) {
+        return new Candidate(ResourceUtils.getId(resource), ResourceUtils.getEntity(resource).getName(), ResourceUtils.getEntity(resource).getSpaceId());
+    }
+
+    private static SearchResult toSearchResult(Candidate candidate, SpaceEntity space, SearchCache cache) {
+        return SearchResult.builder()
+            .id(candidate.id)
+            .name(candidate.name)
+            .organization(cache.organizationNames.get(space.getOrganizationId()))
+            .space(space.getName())
+            .build();
+    }
+
+    private static final class Candidate {
+
+        private final String id;
+
+        private final String name;
+
+        private final String spaceId;
+
+        private Candidate(String id, String name, String spaceId) {
+            this.id = id;
+            this.name = name;
+            this.spaceId = spaceId;
+        }
+
+    }
+
+    private static final class SearchCache {
+
+        private final RelationCache<String> domainNames = new RelationCache<>();
+
+        private final RelationCache<String> organizationNames = new RelationCache<>();
+
+        private final RelationCache<SpaceEntity> spaces = new RelationCache<>();
+
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.search;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Main entry point to the Cloud Foundry Search Operations API.  Searches span every organization visible to the current user, or those named in the request, and return results as they are
+ * found.  Cancelling the returned {@link Flux}, for example with {@code next()}, cancels any outstanding requests.  Results that need matching on more than a name can be narrowed with
+ * {@link Flux#filter(java.util.function.Predicate)}, which still stops the search as soon as enough results have been taken.
+ */
+public interface Search {
+
+    /**
+     * Search for applications
+     *
+     * @param request the search request
+     * @return the applications found
+     */
+    Flux<SearchResult> applications(SearchRequest request);
+
+    /**
+     * Search for routes.  The name of the request is matched against route hosts.
+     *
+     * @param request the search request
+     * @return the routes found
+     */
+    Flux<SearchResult> routes(SearchRequest request);
+
+    /**
+     * Search for service instances
+     *
+     * @param request the search request
+     * @return the service instances found
+     */
+    Flux<SearchResult> serviceInstances(SearchRequest request);
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.search;
+
+import org.cloudfoundry.Nullable;
+import org.immutables.value.Value;
+
+import java.util.List;
+
+/**
+ * The request options for the search operations
+ */
+@Value.Immutable
+abstract class _SearchRequest {
+
+    /**
+     * The maximum number of organizations, or groups of organizations, searched concurrently.  The spaces and domains of each one's results are looked up one at a
+     * time, so this is the single bound on searches in flight.
+     */
+    @Nullable
+    abstract Integer getConcurrency();
+
+    /**
+     * The name to search for.  When not specified, every resource is returned.
+     */
+    @Nullable
+    abstract String getName();
+
+    /**
+     * The names of the organizations to search.  When not specified, every organization is searched.
+     */
+    @Nullable
+    abstract List<String> getOrganizations();
+
+}
@@ -18,7 +18,6 @@ package org.cloudfoundry.operations.services;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.cloudfoundry.client.CloudFoundryClient;
-import org.cloudfoundry.client.v2.applications.ApplicationEntity;
 import org.cloudfoundry.client.v2.applications.ApplicationResource;
 import org.cloudfoundry.client.v2.applications.GetApplicationRequest;
 import org.cloudfoundry.client.v2.applications.GetApplicationResponse;
@@ -28,6 +27,7 @@ import org.cloudfoundry.client.v2.servicebindings.CreateServiceBindingResponse;
 import org.cloudfoundry.client.v2.servicebindings.DeleteServiceBindingRequest;
 import org.cloudfoundry.client.v2.servicebindings.DeleteServiceBindingResponse;
 import org.cloudfoundry.client.v2.servicebindings.ListServiceBindingsRequest;
+import org.cloudfoundry.client.v2.servicebindings.ServiceBindingEntity;
 import org.cloudfoundry.client.v2.servicebindings.ServiceBindingResource;
 import org.cloudfoundry.client.v2.serviceinstances.AbstractServiceInstanceResource;
 import org.cloudfoundry.client.v2.serviceinstances.BaseServiceInstanceEntity;
@@ -60,22 +60,27 @@ import org.cloudfoundry.client.v2.spaces.ListSpaceServicesRequest;
 import org.cloudfoundry.client.v2.userprovidedserviceinstances.CreateUserProvidedServiceInstanceResponse;
 import org.cloudfoundry.client.v2.userprovidedserviceinstances.DeleteUserProvidedServiceInstanceRequest;
 import org.cloudfoundry.client.v2.userprovidedserviceinstances.UpdateUserProvidedServiceInstanceResponse;
+import org.cloudfoundry.operations.topology.TopologyIndex;
 import org.cloudfoundry.util.DelayUtils;
 import org.cloudfoundry.util.ExceptionUtils;
 import org.cloudfoundry.util.JobUtils;
 import org.cloudfoundry.util.PaginationUtils;
+import org.cloudfoundry.util.RelationCache;
 import org.cloudfoundry.util.ResourceUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.tuple.Tuple;
 import reactor.core.util.Exceptions;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.cloudfoundry.util.tuple.TupleUtils.function;
@@ -84,31 +89,38 @@ public final class DefaultServices implements Services {
 
     private static final int CF_SERVICE_ALREADY_BOUND = 90003;
 
+    private static final int CF_SERVICE_INSTANCE_NOT_FOUND = 60004;
+
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    private static final int RESOLUTION_WINDOW = 50;
+
     private final Mono<CloudFoundryClient> cloudFoundryClient;
 
     private final Mono<String> organizationId;
 
     private final Mono<String> spaceId;
 
+    private final TopologyIndex topologyIndex;
+
     public DefaultServices(Mono<CloudFoundryClient> cloudFoundryClient, Mono<String> organizationId, Mono<String> spaceId) {
+        this(cloudFoundryClient, organizationId, spaceId, null);
+    }
+
+    public DefaultServices(Mono<CloudFoundryClient> cloudFoundryClient, Mono<String> organizationId, Mono<String> spaceId, TopologyIndex topologyIndex) {
         this.cloudFoundryClient = cloudFoundryClient;
         this.spaceId = spaceId;
         this.organizationId = organizationId;
+        this.topologyIndex = topologyIndex;
     }
 
     @Override
     public Mono<Void> bind(BindServiceInstanceRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .then(function((cloudFoundryClient, spaceId) -> Mono
-                .when(
-                    Mono.just(cloudFoundryClient),
-                    getApplicationId(cloudFoundryClient, request.getApplicationName(), spaceId),
-                    getSpaceServiceInstanceId(cloudFoundryClient, request.getServiceInstanceName(), spaceId)
-                )))
-            .then(function((cloudFoundryClient, applicationId, serviceInstanceId) -> createServiceBinding(cloudFoundryClient, applicationId, serviceInstanceId, request.getParameters())))
+            .then(function((cloudFoundryClient, spaceId) -> getApplicationId(cloudFoundryClient, request.getApplicationName(), spaceId)
+                .then(applicationId -> withServiceInstanceId(cloudFoundryClient, this.topologyIndex, request.getServiceInstanceName(), spaceId,
+                    serviceInstanceId -> createServiceBinding(cloudFoundryClient, applicationId, serviceInstanceId, request.getParameters())))))
             .then();
     }
 
@@ -140,12 +152,8 @@ public final class DefaultServices implements Services {
     public Mono<Void> createServiceKey(CreateServiceKeyRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .then(function((cloudFoundryClient, spaceId) -> Mono
-                .when(
-                    Mono.just(cloudFoundryClient),
-                    getSpaceServiceInstanceId(cloudFoundryClient, request.getServiceInstanceName(), spaceId)
-                )))
-            .then(function((cloudFoundryClient, serviceInstanceId) -> requestCreateServiceKey(cloudFoundryClient, serviceInstanceId, request.getServiceKeyName(), request.getParameters())))
+            .then(function((cloudFoundryClient, spaceId) -> withServiceInstanceId(cloudFoundryClient, this.topologyIndex, request.getServiceInstanceName(), spaceId,
+                serviceInstanceId -> requestCreateServiceKey(cloudFoundryClient, serviceInstanceId, request.getServiceKeyName(), request.getParameters()))))
             .then();
     }
 
@@ -178,13 +186,9 @@ public final class DefaultServices implements Services {
             .then(function((cloudFoundryClient, spaceId) -> Mono
                 .when(
                     Mono.just(cloudFoundryClient),
-                    getSpaceServiceInstanceId(cloudFoundryClient, request.getServiceInstanceName(), spaceId)
-                )))
-            .then(function((cloudFoundryClient, serviceInstanceId) -> Mono
-                .when(
-                    Mono.just(cloudFoundryClient),
-                    getServiceKey(cloudFoundryClient, serviceInstanceId, request.getServiceKeyName())
-                        .map(ResourceUtils::getId)
+                    withServiceInstanceId(cloudFoundryClient, this.topologyIndex, request.getServiceInstanceName(), spaceId,
+                        serviceInstanceId -> getServiceKey(cloudFoundryClient, serviceInstanceId, request.getServiceKeyName())
+                            .map(ResourceUtils::getId))
                 )))
             .then(function(DefaultServices::requestDeleteServiceKey));
     }
@@ -198,32 +202,16 @@ public final class DefaultServices implements Services {
                     Mono.just(cloudFoundryClient),
                     getSpaceServiceInstance(cloudFoundryClient, request.getName(), spaceId)
                 )))
-            .then(function((cloudFoundryClient, resource) -> Mono
-                .when(
-                    Mono.just(cloudFoundryClient),
-                    Mono.just(resource),
-                    getServicePlanEntity(cloudFoundryClient, ResourceUtils.getEntity(resource).getServicePlanId())
-                )))
-            .then(function((cloudFoundryClient, resource, servicePlanEntity) -> Mono
-                .when(
-                    Mono.just(resource),
-                    Mono.just(Optional.ofNullable(servicePlanEntity.getName())),
-                    getBoundApplications(cloudFoundryClient, ResourceUtils.getId(resource)),
-                    getServiceEntity(cloudFoundryClient, Optional.ofNullable(servicePlanEntity.getServiceId()))
-                )))
-            .map(function(DefaultServices::toServiceInstance));
+            .flatMap(function((cloudFoundryClient, resource) -> toServiceInstances(cloudFoundryClient, Collections.singletonList(resource), new ServiceRelations())))
+            .single();
     }
 
     @Override
     public Mono<ServiceKey> getServiceKey(GetServiceKeyRequest request) {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .then(function((cloudFoundryClient, spaceId) -> Mono
-                .when(
-                    Mono.just(cloudFoundryClient),
-                    getSpaceServiceInstanceId(cloudFoundryClient, request.getServiceInstanceName(), spaceId)
-                )))
-            .then(function((cloudFoundryClient, serviceInstanceId) -> getServiceKey(cloudFoundryClient, serviceInstanceId, request.getServiceKeyName())))
+            .then(function((cloudFoundryClient, spaceId) -> withServiceInstanceId(cloudFoundryClient, this.topologyIndex, request.getServiceInstanceName(), spaceId,
+                serviceInstanceId -> getServiceKey(cloudFoundryClient, serviceInstanceId, request.getServiceKeyName()))))
             .map(DefaultServices::toServiceKey);
     }
 
@@ -231,23 +219,13 @@ public final class DefaultServices implements Services {
     public Flux<ServiceInstance> listInstances() {
         return Mono
             .when(this.cloudFoundryClient, this.spaceId)
-            .flatMap(function((cloudFoundryClient, spaceId) -> requestListServiceInstances(cloudFoundryClient, spaceId)
-                .map(resource -> Tuple.of(cloudFoundryClient, resource))
-            ))
-            .flatMap(function((cloudFoundryClient, resource) -> Mono
-                .when(
-                    Mono.just(cloudFoundryClient),
-                    Mono.just(resource),
-                    getServicePlanEntity(cloudFoundryClient, ResourceUtils.getEntity(resource).getServicePlanId())
-                )))
-            .flatMap(function((cloudFoundryClient, resource, servicePlanEntity) -> Mono
-                .when(
-                    Mono.just(resource),
-                    Mono.just(Optional.ofNullable(servicePlanEntity.getName())),
-                    getBoundApplications(cloudFoundryClient, ResourceUtils.getId(resource)),
-                    getServiceEntity(cloudFoundryClient, Optional.ofNullable(servicePlanEntity.getServiceId()))
-                )))
-            .map(function(DefaultServices::toServiceInstance));
+            .flatMap(function((cloudFoundryClient, spaceId) -> {
+                ServiceRelations serviceRelations = new ServiceRelations();
+
+                return requestListServiceInstances(cloudFoundryClient, spaceId)
+                    .buffer(RESOLUTION_WINDOW)
+                    .concatMap(resources -> toServiceInstances(cloudFoundryClient, resources, serviceRelations));
+            }));
     }
 
     @Override
@@ -271,14 +249,9 @@ public final class DefaultServices implements Services {
                 .ofNullable(request.getServiceName())
                 .map(serviceName -> getSpaceService(cloudFoundryClient, spaceId, serviceName).flux())
                 .orElse(requestListServices(cloudFoundryClient, spaceId))
-                .map(resource -> Tuple.of(cloudFoundryClient, resource))
-            ))
-            .flatMap(function((cloudFoundryClient, resource) -> Mono
-                .when(
-                    Mono.just(resource),
-                    getServicePlans(cloudFoundryClient, ResourceUtils.getId(resource))
-                )))
-            .map(function(DefaultServices::toServiceOffering));
+                .buffer(RESOLUTION_WINDOW)
+                .concatMap(resources -> toServiceOfferings(cloudFoundryClient, resources))
+            ));
     }
 
     @Override
@@ -398,13 +371,23 @@ public final class DefaultServices implements Services {
             .map(ResourceUtils::getId);
     }
 
-    private static Mono<List<String>> getBoundApplications(CloudFoundryClient cloudFoundryClient, String serviceInstanceId) {
-        return requestListServiceBindings(cloudFoundryClient, serviceInstanceId)
-            .map(resource -> ResourceUtils.getEntity(resource).getApplicationId())
-            .flatMap(applicationId -> requestGetApplication(cloudFoundryClient, applicationId))
+    private static Mono<Map<String, List<String>>> getBoundApplications(CloudFoundryClient cloudFoundryClient, List<UnionServiceInstanceResource> resources, ServiceRelations serviceRelations) {
+        return requestListServiceBindings(cloudFoundryClient, resources.stream().map(ResourceUtils::getId).collect(Collectors.toList()))
             .map(ResourceUtils::getEntity)
-            .map(ApplicationEntity::getName)
-            .collectList();
+            .collectList()
+            .then(serviceBindings -> serviceRelations.applicationNames
+                .resolve(serviceBindings.stream().map(ServiceBindingEntity::getApplicationId), applicationId -> requestGetApplication(cloudFoundryClient, applicationId)
+                    .map(response -> ResourceUtils.getEntity(response).getName()))
+                .map(applicationNames -> {
+                    Map<String, List<String>> boundApplications = new HashMap<>();
+
+                    serviceBindings.stream()
+                        .filter(entity -> applicationNames.containsKey(entity.getApplicationId()))
+                        .forEach(entity -> boundApplications.computeIfAbsent(entity.getServiceInstanceId(), serviceInstanceId -> new ArrayList<>())
+                            .add(applicationNames.get(entity.getApplicationId())));
+
+                    return boundApplications;
+                }));
     }
 
     @SuppressWarnings("unchecked")
@@ -450,12 +433,10 @@ public final class DefaultServices implements Services {
             .map(ResourceUtils::getId);
     }
 
-    private static Mono<ServiceEntity> getServiceEntity(CloudFoundryClient cloudFoundryClient, Optional<String> serviceId) {
-        return Mono
-            .justOrEmpty(serviceId)
-            .then(serviceId1 -> requestGetService(cloudFoundryClient, serviceId1))
-            .map(ResourceUtils::getEntity)
-            .otherwiseIfEmpty(Mono.just(ServiceEntity.builder().build()));
+    private static Mono<Map<String, ServiceEntity>> getServiceEntities(CloudFoundryClient cloudFoundryClient, Map<String, ServicePlanEntity> servicePlanEntities, ServiceRelations serviceRelations) {
+        return serviceRelations.serviceEntities
+            .resolve(servicePlanEntities.values().stream().map(ServicePlanEntity::getServiceId), serviceId -> requestGetService(cloudFoundryClient, serviceId)
+                .map(ResourceUtils::getEntity));
     }
 
     private static Mono<String> getServiceId(CloudFoundryClient cloudFoundryClient, String servicePlanId) {
@@ -474,12 +455,23 @@ public final class DefaultServices implements Services {
             .otherwise(NoSuchElementException.class, t -> ExceptionUtils.illegalArgument("Service key %s does not exist", serviceKey));
     }
 
-    private static Mono<ServicePlanEntity> getServicePlanEntity(CloudFoundryClient cloudFoundryClient, String servicePlanId) {
-        return Mono
-            .justOrEmpty(servicePlanId)
-            .then(servicePlanId1 -> requestGetServicePlan(cloudFoundryClient, servicePlanId1))
-            .map(ResourceUtils::getEntity)
-            .otherwiseIfEmpty(Mono.just(ServicePlanEntity.builder().build()));
+    private static Mono<Map<String, ServicePlanEntity>> getServicePlanEntities(CloudFoundryClient cloudFoundryClient, List<UnionServiceInstanceResource> resources, ServiceRelations serviceRelations) {
+        List<String> serviceInstanceIds = resources.stream()
+            .filter(resource -> {
+                String servicePlanId = ResourceUtils.getEntity(resource).getServicePlanId();
+                return servicePlanId != null && !serviceRelations.servicePlanEntities.contains(servicePlanId);
+            })
+            .map(ResourceUtils::getId)
+            .collect(Collectors.toList());
+
+        if (serviceInstanceIds.isEmpty()) {
+            return Mono.just(serviceRelations.servicePlanEntities.asMap());
+        }
+
+        return requestListServiceInstancePlans(cloudFoundryClient, serviceInstanceIds)
+            .doOnNext(resource -> serviceRelations.servicePlanEntities.put(ResourceUtils.getId(resource), ResourceUtils.getEntity(resource)))
+            .collectList()
+            .map(servicePlans -> serviceRelations.servicePlanEntities.asMap());
     }
 
     private static Mono<String> getServicePlanIdByName(CloudFoundryClient cloudFoundryClient, String serviceId, String plan) {
@@ -663,12 +655,21 @@ public final class DefaultServices implements Services {
                     .build()));
     }
 
-    private static Flux<ServiceBindingResource> requestListServiceBindings(CloudFoundryClient cloudFoundryClient, String serviceInstanceId) {
+    private static Flux<ServiceBindingResource> requestListServiceBindings(CloudFoundryClient cloudFoundryClient, List<String> serviceInstanceIds) {
         return PaginationUtils
             .requestResources(page -> cloudFoundryClient.serviceBindingsV2()
                 .list(ListServiceBindingsRequest.builder()
                     .page(page)
-                    .serviceInstanceId(serviceInstanceId)
+                    .serviceInstanceIds(serviceInstanceIds)
+                    .build()));
+    }
+
+    private static Flux<ServicePlanResource> requestListServiceInstancePlans(CloudFoundryClient cloudFoundryClient, List<String> serviceInstanceIds) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.servicePlans()
+                .list(ListServicePlansRequest.builder()
+                    .page(page)
+                    .serviceInstanceIds(serviceInstanceIds)
                     .build()));
     }
 
@@ -731,6 +732,15 @@ public final class DefaultServices implements Services {
                     .build()));
     }
 
+    private static Flux<ServicePlanResource> requestListServicePlans(CloudFoundryClient cloudFoundryClient, List<String> serviceIds) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.servicePlans()
+                .list(ListServicePlansRequest.builder()
+                    .page(page)
+                    .serviceIds(serviceIds)
+                    .build()));
+    }
+
     private static Flux<ServiceResource> requestListServices(CloudFoundryClient cloudFoundryClient, String spaceId) {
         return PaginationUtils
             .requestResources(page -> cloudFoundryClient.spaces()
@@ -794,6 +804,31 @@ public final class DefaultServices implements Services {
             .build();
     }
 
+    private static ServiceInstance toServiceInstance(UnionServiceInstanceResource resource, List<String> applications, ServiceRelations serviceRelations) {
+        Optional<ServicePlanEntity> servicePlanEntity = Optional
+            .ofNullable(ResourceUtils.getEntity(resource).getServicePlanId())
+            .map(serviceRelations.servicePlanEntities::get);
+
+        ServiceEntity serviceEntity = servicePlanEntity
+            .map(ServicePlanEntity::getServiceId)
+            .map(serviceRelations.serviceEntities::get)
+            .orElse(ServiceEntity.builder().build());
+
+        return toServiceInstance(resource, servicePlanEntity.map(ServicePlanEntity::getName), applications, serviceEntity);
+    }
+
+    private static Flux<ServiceInstance> toServiceInstances(CloudFoundryClient cloudFoundryClient, List<UnionServiceInstanceResource> resources, ServiceRelations serviceRelations) {
+        return Mono
+            .when(
+                getBoundApplications(cloudFoundryClient, resources, serviceRelations),
+                getServicePlanEntities(cloudFoundryClient, resources, serviceRelations)
+                    .then(servicePlanEntities -> getServiceEntities(cloudFoundryClient, servicePlanEntities, serviceRelations))
+            )
+            .flatMap(function((boundApplications, serviceEntities) -> Flux
+                .fromIterable(resources)
+                .map(resource -> toServiceInstance(resource, boundApplications.getOrDefault(ResourceUtils.getId(resource), Collections.emptyList()), serviceRelations))));
+    }
+
     private static ServiceKey toServiceKey(AbstractServiceKeyResource resource) {
         ServiceKeyEntity entity = ResourceUtils.getEntity(resource);
 
@@ -815,6 +850,16 @@ public final class DefaultServices implements Services {
             .build();
     }
 
+    private static Flux<ServiceOffering> toServiceOfferings(CloudFoundryClient cloudFoundryClient, List<ServiceResource> resources) {
+        return requestListServicePlans(cloudFoundryClient, resources.stream().map(ResourceUtils::getId).collect(Collectors.toList()))
+            .collect(() -> new HashMap<String, List<ServicePlanResource>>(), (servicePlans, resource) -> servicePlans
+                .computeIfAbsent(ResourceUtils.getEntity(resource).getServiceId(), serviceId -> new ArrayList<>())
+                .add(resource))
+            .flatMap(servicePlans -> Flux
+                .fromIterable(resources)
+                .map(resource -> toServiceOffering(resource, servicePlans.getOrDefault(ResourceUtils.getId(resource), Collections.emptyList()))));
+    }
+
     private static ServicePlan toServicePlan(ServicePlanResource resource) {
         ServicePlanEntity entity = ResourceUtils.getEntity(resource);
 
@@ -868,9 +913,25 @@ public final class DefaultServices implements Services {
             .then();
     }
 
-    private Mono<List<ServicePlanResource>> getServicePlans(CloudFoundryClient cloudFoundryClient, String serviceId) {
-        return requestListServicePlans(cloudFoundryClient, serviceId)
-            .collectList();
+    private static <T> Mono<T> withServiceInstanceId(CloudFoundryClient cloudFoundryClient, TopologyIndex topologyIndex, String serviceInstanceName, String spaceId,
+                                                     Function<String, Mono<T>> operation) {
+        Mono<String> resolver = Mono.defer(() -> getSpaceServiceInstanceId(cloudFoundryClient, serviceInstanceName, spaceId));
+
+        return Mono
+            .defer(() -> Optional.ofNullable(topologyIndex)
+                .flatMap(index -> index.getServiceInstanceId(spaceId, serviceInstanceName)
+                    .map(serviceInstanceId -> index.withId(serviceInstanceId, ExceptionUtils.statusCode(CF_SERVICE_INSTANCE_NOT_FOUND), resolver, operation)))
+                .orElseGet(() -> resolver.then(operation)));
+    }
+
+    private static final class ServiceRelations {
+
+        private final RelationCache<String> applicationNames = new RelationCache<>();
+
+        private final RelationCache<ServiceEntity> serviceEntities = new RelationCache<>();
+
+        private final RelationCache<ServicePlanEntity> servicePlanEntities = new RelationCache<>();
+
     }
 
 }
@@ -47,6 +47,7 @@ import org.cloudfoundry.client.v2.spaces.ListSpaceDomainsRequest;
 import org.cloudfoundry.client.v2.spaces.ListSpaceSecurityGroupsRequest;
 import org.cloudfoundry.client.v2.spaces.ListSpaceServicesRequest;
 import org.cloudfoundry.client.v2.spaces.ListSpacesRequest;
+import org.cloudfoundry.client.v2.spaces.SpaceEntity;
 import org.cloudfoundry.client.v2.spaces.SpaceResource;
 import org.cloudfoundry.client.v2.spaces.UpdateSpaceRequest;
 import org.cloudfoundry.client.v2.spaces.UpdateSpaceResponse;
@@ -59,6 +60,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.tuple.Tuple;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -70,6 +72,8 @@ import static org.cloudfoundry.util.tuple.TupleUtils.function;
 
 public final class DefaultSpaces implements Spaces {
 
+    private static final List<String> SPACE_DETAIL_RELATIONS = Arrays.asList("apps", "domains", "organization", "security_groups", "space_quota_definition");
+
     private final Mono<CloudFoundryClient> cloudFoundryClient;
 
     private final Mono<String> organizationId;
@@ -164,7 +168,7 @@ public final class DefaultSpaces implements Spaces {
             .then(function((cloudFoundryClient, organizationId) -> Mono
                 .when(
                     Mono.just(cloudFoundryClient),
-                    getOrganizationSpace(cloudFoundryClient, organizationId, request.getName())
+                    getOrganizationSpaceWithRelations(cloudFoundryClient, organizationId, request.getName())
                 )))
             .then(function((cloudFoundryClient, resource) -> getSpaceDetail(cloudFoundryClient, resource, request)));
     }
@@ -204,24 +208,33 @@ public final class DefaultSpaces implements Spaces {
     }
 
     private static Mono<List<String>> getApplicationNames(CloudFoundryClient cloudFoundryClient, SpaceResource spaceResource) {
-        return requestSpaceApplications(cloudFoundryClient, ResourceUtils.getId(spaceResource))
+        return Optional.ofNullable(ResourceUtils.getEntity(spaceResource).getApplications())
+            .map(Flux::fromIterable)
+            .orElseGet(() -> requestSpaceApplications(cloudFoundryClient, ResourceUtils.getId(spaceResource)))
             .map(applicationResource -> ResourceUtils.getEntity(applicationResource).getName())
             .collectList();
     }
 
     private static Mono<List<String>> getDomainNames(CloudFoundryClient cloudFoundryClient, SpaceResource spaceResource) {
-        return requestSpaceDomains(cloudFoundryClient, ResourceUtils.getId(spaceResource))
+        return Optional.ofNullable(ResourceUtils.getEntity(spaceResource).getDomains())
+            .map(Flux::fromIterable)
+            .orElseGet(() -> requestSpaceDomains(cloudFoundryClient, ResourceUtils.getId(spaceResource)))
             .map(domainResource -> ResourceUtils.getEntity(domainResource).getName())
             .collectList();
     }
 
     private static Mono<Optional<SpaceQuota>> getOptionalSpaceQuotaDefinition(CloudFoundryClient cloudFoundryClient, SpaceResource spaceResource) {
-        String spaceQuotaDefinitionId = ResourceUtils.getEntity(spaceResource).getSpaceQuotaDefinitionId();
+        SpaceEntity entity = ResourceUtils.getEntity(spaceResource);
+        String spaceQuotaDefinitionId = entity.getSpaceQuotaDefinitionId();
 
         if (spaceQuotaDefinitionId == null) {
             return Mono.just(Optional.empty());
         }
 
+        if (entity.getSpaceQuotaDefinition() != null) {
+            return Mono.just(Optional.of(toSpaceQuotaDefinition(entity.getSpaceQuotaDefinition())));
+        }
+
         return requestSpaceQuotaDefinition(cloudFoundryClient, spaceQuotaDefinitionId)
             .map(DefaultSpaces::toSpaceQuotaDefinition)
             .map(Optional::of);
@@ -255,7 +268,13 @@ public final class DefaultSpaces implements Spaces {
     }
 
     private static Mono<String> getOrganizationName(CloudFoundryClient cloudFoundryClient, SpaceResource resource) {
-        return requestOrganization(cloudFoundryClient, ResourceUtils.getEntity(resource).getOrganizationId())
+        SpaceEntity entity = ResourceUtils.getEntity(resource);
+
+        if (entity.getOrganization() != null) {
+            return Mono.just(ResourceUtils.getEntity(entity.getOrganization()).getName());
+        }
+
+        return requestOrganization(cloudFoundryClient, entity.getOrganizationId())
             .map(response -> ResourceUtils.getEntity(response).getName());
     }
 
@@ -276,8 +295,16 @@ public final class DefaultSpaces implements Spaces {
             .map(ResourceUtils::getId);
     }
 
+    private static Mono<SpaceResource> getOrganizationSpaceWithRelations(CloudFoundryClient cloudFoundryClient, String organizationId, String space) {
+        return requestOrganizationSpacesWithRelations(cloudFoundryClient, organizationId, space)
+            .single()
+            .otherwise(NoSuchElementException.class, t -> ExceptionUtils.illegalArgument("Space %s does not exist", space));
+    }
+
     private static Mono<List<SecurityGroupEntity>> getSecurityGroups(CloudFoundryClient cloudFoundryClient, SpaceResource spaceResource, boolean withRules) {
-        return requestSpaceSecurityGroups(cloudFoundryClient, ResourceUtils.getId(spaceResource))
+        return Optional.ofNullable(ResourceUtils.getEntity(spaceResource).getSecurityGroups())
+            .map(Flux::fromIterable)
+            .orElseGet(() -> requestSpaceSecurityGroups(cloudFoundryClient, ResourceUtils.getId(spaceResource)))
             .map(securityGroupResource -> {
                 SecurityGroupEntity entity = ResourceUtils.getEntity(securityGroupResource);
                 if (!withRules) {
@@ -388,6 +415,18 @@ public final class DefaultSpaces implements Spaces {
                     .build()));
     }
 
+    private static Flux<SpaceResource> requestOrganizationSpacesWithRelations(CloudFoundryClient cloudFoundryClient, String organizationId, String space) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.organizations()
+                .listSpaces(ListOrganizationSpacesRequest.builder()
+                    .includeRelations(SPACE_DETAIL_RELATIONS)
+                    .inlineRelationsDepth(1)
+                    .name(space)
+                    .organizationId(organizationId)
+                    .page(page)
+                    .build()));
+    }
+
     private static Flux<OrganizationResource> requestOrganizations(CloudFoundryClient cloudFoundryClient, String organizationName) {
         return PaginationUtils
             .requestResources(page -> cloudFoundryClient.organizations()
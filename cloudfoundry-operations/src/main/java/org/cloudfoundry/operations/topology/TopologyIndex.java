@@ -0,0 +1,505 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.topology;
+
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.OrderDirection;
+import org.cloudfoundry.client.v2.applications.ApplicationResource;
+import org.cloudfoundry.client.v2.applications.ListApplicationsRequest;
+import org.cloudfoundry.client.v2.events.EventEntity;
+import org.cloudfoundry.client.v2.events.EventResource;
+import org.cloudfoundry.client.v2.events.ListEventsRequest;
+import org.cloudfoundry.client.v2.organizations.ListOrganizationsRequest;
+import org.cloudfoundry.client.v2.organizations.OrganizationResource;
+import org.cloudfoundry.client.v2.privatedomains.ListPrivateDomainsRequest;
+import org.cloudfoundry.client.v2.privatedomains.PrivateDomainResource;
+import org.cloudfoundry.client.v2.routes.AbstractRouteResource;
+import org.cloudfoundry.client.v2.routes.GetRouteRequest;
+import org.cloudfoundry.client.v2.routes.GetRouteResponse;
+import org.cloudfoundry.client.v2.routes.ListRoutesRequest;
+import org.cloudfoundry.client.v2.routes.RouteEntity;
+import org.cloudfoundry.client.v2.routes.RouteResource;
+import org.cloudfoundry.client.v2.serviceinstances.ListServiceInstancesRequest;
+import org.cloudfoundry.client.v2.serviceinstances.ServiceInstanceResource;
+import org.cloudfoundry.client.v2.shareddomains.ListSharedDomainsRequest;
+import org.cloudfoundry.client.v2.shareddomains.SharedDomainResource;
+import org.cloudfoundry.client.v2.spaces.ListSpacesRequest;
+import org.cloudfoundry.client.v2.spaces.SpaceResource;
+import org.cloudfoundry.client.v2.userprovidedserviceinstances.ListUserProvidedServiceInstancesRequest;
+import org.cloudfoundry.client.v2.userprovidedserviceinstances.UserProvidedServiceInstanceResource;
+import org.cloudfoundry.util.DateUtils;
+import org.cloudfoundry.util.ExceptionUtils;
+import org.cloudfoundry.util.PaginationUtils;
+import org.cloudfoundry.util.ResourceUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.cloudfoundry.util.tuple.TupleUtils.function;
+
+/**
+ * An in-memory index of the organizations, spaces, applications, routes, domains, and service instances of a Cloud Foundry instance.  The index maps names to ids and ids to the id of their parent,
+ * so that resolving a name is a hash lookup rather than a request.  It is populated by {@link #load()} and kept current by {@link #refresh()}, which applies the audit events recorded since the
+ * previous load or refresh.  Lookups return {@link Optional#empty()} for anything that is not indexed, in which case callers should resolve the name with the Cloud Controller.  Ids that are
+ * indexed are used without being checked, through {@link #withId(String, Predicate, Mono, Function)}, which falls back to the Cloud Controller only if the resource turns out to be gone.
+ */
+public final class TopologyIndex {
+
+    static final List<String> EVENT_TYPES = Arrays.asList(
+        "audit.app.create", "audit.app.delete-request", "audit.app.update",
+        "audit.organization.create", "audit.organization.delete-request", "audit.organization.update",
+        "audit.route.create", "audit.route.delete-request", "audit.route.update",
+        "audit.service_instance.create", "audit.service_instance.delete", "audit.service_instance.update",
+        "audit.space.create", "audit.space.delete-request", "audit.space.update",
+        "audit.user_provided_service_instance.create", "audit.user_provided_service_instance.delete", "audit.user_provided_service_instance.update");
+
+    private static final int CF_ROUTE_NOT_FOUND = 210002;
+
+    private static final int RESULTS_PER_PAGE = 100;
+
+    private final Mono<CloudFoundryClient> cloudFoundryClient;
+
+    private final AtomicReference<String> cursor = new AtomicReference<>();
+
+    private final Map<Type, ConcurrentMap<String, String>> ids = new EnumMap<>(Type.class);
+
+    private final ConcurrentMap<String, Node> nodes = new ConcurrentHashMap<>();
+
+    public TopologyIndex(Mono<CloudFoundryClient> cloudFoundryClient) {
+        this.cloudFoundryClient = cloudFoundryClient;
+
+        for (Type type : Type.values()) {
+            this.ids.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Returns the id of an application
+     *
+     * @param spaceId the id of the space containing the application
+     * @param name    the name of the application
+     * @return the id of the application if it is indexed
+     */
+    public Optional<String> getApplicationId(String spaceId, String name) {
+        return getId(Type.APPLICATION, spaceId, name);
+    }
+
+    /**
+     * Returns the id of a domain visible to an organization.  Private domains shared with, rather than owned by, the organization are not indexed for it.
+     *
+     * @param organizationId the id of the organization
+     * @param name           the name of the domain
+     * @return the id of the domain if it is indexed
+     */
+    public Optional<String> getDomainId(String organizationId, String name) {
+        return getId(Type.DOMAIN, null, name)
+            .filter(domainId -> getParentId(domainId)
+                .map(organizationId::equals)
+                .orElse(true));
+    }
+
+    /**
+     * Returns the id of an organization
+     *
+     * @param name the name of the organization
+     * @return the id of the organization if it is indexed
+     */
+    public Optional<String> getOrganizationId(String name) {
+        return getId(Type.ORGANIZATION, null, name);
+    }
+
+    /**
+     * Returns the id of the parent of an indexed resource.  The parent of a space is its organization, the parent of an application, route, or service instance is its space, and the parent of a
+     * private domain is its owning organization.
+     *
+     * @param id the id of the resource
+     * @return the id of the parent if the resource is indexed and has a parent
+     */
+    public Optional<String> getParentId(String id) {
+        return Optional.ofNullable(this.nodes.get(id))
+            .map(node -> node.parentId);
+    }
+
+    /**
+     * Returns the id of a route
+     *
+     * @param domainId the id of the domain of the route
+     * @param host     the host of the route
+     * @param path     the path of the route
+     * @return the id of the route if it is indexed
+     */
+    public Optional<String> getRouteId(String domainId, String host, String path) {
+        return getId(Type.ROUTE, domainId, getRouteName(host, path));
+    }
+
+    /**
+     * Returns the id of a service instance
+     *
+     * @param spaceId the id of the space containing the service instance
+     * @param name    the name of the service instance
+     * @return the id of the service instance if it is indexed
+     */
+    public Optional<String> getServiceInstanceId(String spaceId, String name) {
+        return getId(Type.SERVICE_INSTANCE, spaceId, name);
+    }
+
+    /**
+     * Returns the id of a space
+     *
+     * @param organizationId the id of the organization containing the space
+     * @param name           the name of the space
+     * @return the id of the space if it is indexed
+     */
+    public Optional<String> getSpaceId(String organizationId, String name) {
+        return getId(Type.SPACE, organizationId, name);
+    }
+
+    /**
+     * Removes a resource from the index, so that lookups of it are resolved with the Cloud Controller until it is indexed again by {@link #load()} or {@link #refresh()}
+     *
+     * @param id the id of the resource
+     */
+    public void invalidate(String id) {
+        remove(id);
+    }
+
+    /**
+     * Populates the index, replacing any existing content.  Each kind of resource is scanned concurrently, and the pages of each scan are requested concurrently.
+     *
+     * @return a completion indicator
+     */
+    public Mono<Void> load() {
+        return this.cloudFoundryClient
+            .then(cloudFoundryClient -> requestLatestEvent(cloudFoundryClient)
+                .map(resource -> ResourceUtils.getEntity(resource).getTimestamp())
+                .defaultIfEmpty(DateUtils.formatToIso8601(Instant.EPOCH))
+                .then(cursor -> {
+                    clear();
+
+                    return Flux
+                        .merge(
+                            requestOrganizations(cloudFoundryClient)
+                                .doOnNext(resource -> put(Type.ORGANIZATION, ResourceUtils.getId(resource), null, ResourceUtils.getEntity(resource).getName(), null))
+                                .then(),
+                            requestSpaces(cloudFoundryClient)
+                                .doOnNext(resource -> put(Type.SPACE, ResourceUtils.getId(resource), ResourceUtils.getEntity(resource).getOrganizationId(), ResourceUtils.getEntity(resource).getName(),
+                                    ResourceUtils.getEntity(resource).getOrganizationId()))
+                                .then(),
+                            requestApplications(cloudFoundryClient)
+                                .doOnNext(resource -> put(Type.APPLICATION, ResourceUtils.getId(resource), ResourceUtils.getEntity(resource).getSpaceId(), ResourceUtils.getEntity(resource).getName(),
+                                    ResourceUtils.getEntity(resource).getSpaceId()))
+                                .then(),
+                            requestPrivateDomains(cloudFoundryClient)
+                                .doOnNext(resource -> put(Type.DOMAIN, ResourceUtils.getId(resource), null, ResourceUtils.getEntity(resource).getName(),
+                                    ResourceUtils.getEntity(resource).getOwningOrganizationId()))
+                                .then(),
+                            requestSharedDomains(cloudFoundryClient)
+                                .doOnNext(resource -> put(Type.DOMAIN, ResourceUtils.getId(resource), null, ResourceUtils.getEntity(resource).getName(), null))
+                                .then(),
+                            requestRoutes(cloudFoundryClient)
+                                .doOnNext(this::putRoute)
+                                .then(),
+                            requestServiceInstances(cloudFoundryClient)
+                                .doOnNext(resource -> put(Type.SERVICE_INSTANCE, ResourceUtils.getId(resource), ResourceUtils.getEntity(resource).getSpaceId(), ResourceUtils.getEntity(resource).getName(),
+                                    ResourceUtils.getEntity(resource).getSpaceId()))
+                                .then(),
+                            requestUserProvidedServiceInstances(cloudFoundryClient)
+                                .doOnNext(resource -> put(Type.SERVICE_INSTANCE, ResourceUtils.getId(resource), ResourceUtils.getEntity(resource).getSpaceId(), ResourceUtils.getEntity(resource).getName(),
+                                    ResourceUtils.getEntity(resource).getSpaceId()))
+                                .then())
+                        .then()
+                        .doOnSuccess(v -> this.cursor.set(cursor));
+                }));
+    }
+
+    /**
+     * Applies the audit events recorded since the previous load or refresh to the index.  Events are applied in timestamp order, and events sharing the timestamp of the last applied event are
+     * applied again on the next refresh, which is harmless as applying an event is idempotent.  Domains do not produce audit events and are only updated by {@link #load()}.
+     *
+     * @return a completion indicator
+     */
+    public Mono<Void> refresh() {
+        return Mono
+            .when(this.cloudFoundryClient, getCursor())
+            .then(function((cloudFoundryClient, cursor) -> requestEvents(cloudFoundryClient, cursor)
+                .collectList()
+                .map(TopologyIndex::sortByTimestamp)
+                .flatMap(Flux::fromIterable)
+                .concatMap(resource -> applyEvent(cloudFoundryClient, resource)
+                    .doOnSuccess(v -> this.cursor.set(ResourceUtils.getEntity(resource).getTimestamp())))
+                .then()));
+    }
+
+    /**
+     * Runs an operation against an id returned by the index.  The id is trusted without a request, as {@link #refresh()} keeps the index current.  If the operation fails because the resource no
+     * longer exists, the id is invalidated and the operation is run once more against the id resolved with the Cloud Controller.
+     *
+     * @param id        the id returned by the index
+     * @param notFound  whether an error from the operation means that the resource no longer exists
+     * @param resolver  resolves the id with the Cloud Controller
+     * @param operation the operation
+     * @param <T>       the type of the result of the operation
+     * @return the result of the operation
+     */
+    public <T> Mono<T> withId(String id, Predicate<? super Throwable> notFound, Mono<String> resolver, Function<String, Mono<T>> operation) {
+        return operation.apply(id)
+            .otherwise(notFound, t -> {
+                invalidate(id);
+                return resolver.then(operation);
+            });
+    }
+
+    private static String getKey(String scopeId, String name) {
+        return Optional.ofNullable(scopeId).orElse("") + '/' + name;
+    }
+
+    private static String getRouteName(String host, String path) {
+        return Optional.ofNullable(host).orElse("") + Optional.ofNullable(path).orElse("");
+    }
+
+    private static boolean isDelete(EventEntity event) {
+        String type = Optional.ofNullable(event.getType()).orElse("");
+        return type.endsWith(".delete") || type.endsWith(".delete-request");
+    }
+
+    private static Flux<ApplicationResource> requestApplications(CloudFoundryClient cloudFoundryClient) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.applicationsV2()
+                .list(ListApplicationsRequest.builder()
+                    .page(page)
+                    .resultsPerPage(RESULTS_PER_PAGE)
+                    .build()));
+    }
+
+    private static Flux<EventResource> requestEvents(CloudFoundryClient cloudFoundryClient, String timestamp) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.events()
+                .list(ListEventsRequest.builder()
+                    .page(page)
+                    .resultsPerPage(RESULTS_PER_PAGE)
+                    .timestamp(timestamp)
+                    .types(EVENT_TYPES)
+                    .build()));
+    }
+
+    private static Mono<EventResource> requestLatestEvent(CloudFoundryClient cloudFoundryClient) {
+        return cloudFoundryClient.events()
+            .list(ListEventsRequest.builder()
+                .orderDirection(OrderDirection.DESCENDING)
+                .page(1)
+                .resultsPerPage(1)
+                .types(EVENT_TYPES)
+                .build())
+            .flatMap(ResourceUtils::getResources)
+            .next();
+    }
+
+    private static Flux<OrganizationResource> requestOrganizations(CloudFoundryClient cloudFoundryClient) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.organizations()
+                .list(ListOrganizationsRequest.builder()
+                    .page(page)
+                    .resultsPerPage(RESULTS_PER_PAGE)
+                    .build()));
+    }
+
+    private static Flux<PrivateDomainResource> requestPrivateDomains(CloudFoundryClient cloudFoundryClient) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.privateDomains()
+                .list(ListPrivateDomainsRequest.builder()
+                    .page(page)
+                    .resultsPerPage(RESULTS_PER_PAGE)
+                    .build()));
+    }
+
+    private static Mono<GetRouteResponse> requestRoute(CloudFoundryClient cloudFoundryClient, String routeId) {
+        return cloudFoundryClient.routes()
+            .get(GetRouteRequest.builder()
+                .routeId(routeId)
+                .build());
+    }
+
+    private static Flux<RouteResource> requestRoutes(CloudFoundryClient cloudFoundryClient) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.routes()
+                .list(ListRoutesRequest.builder()
+                    .page(page)
+                    .resultsPerPage(RESULTS_PER_PAGE)
+                    .build()));
+    }
+
+    private static Flux<ServiceInstanceResource> requestServiceInstances(CloudFoundryClient cloudFoundryClient) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.serviceInstances()
+                .list(ListServiceInstancesRequest.builder()
+                    .page(page)
+                    .resultsPerPage(RESULTS_PER_PAGE)
+                    .build()));
+    }
+
+    private static Flux<SharedDomainResource> requestSharedDomains(CloudFoundryClient cloudFoundryClient) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.sharedDomains()
+                .list(ListSharedDomainsRequest.builder()
+                    .page(page)
+                    .resultsPerPage(RESULTS_PER_PAGE)
+                    .build()));
+    }
+
+    private static Flux<SpaceResource> requestSpaces(CloudFoundryClient cloudFoundryClient) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.spaces()
+                .list(ListSpacesRequest.builder()
+                    .page(page)
+                    .resultsPerPage(RESULTS_PER_PAGE)
+                    .build()));
+    }
+
+    private static Flux<UserProvidedServiceInstanceResource> requestUserProvidedServiceInstances(CloudFoundryClient cloudFoundryClient) {
+        return PaginationUtils
+            .requestResources(page -> cloudFoundryClient.userProvidedServiceInstances()
+                .list(ListUserProvidedServiceInstancesRequest.builder()
+                    .page(page)
+                    .resultsPerPage(RESULTS_PER_PAGE)
+                    .build()));
+    }
+
+    private static List<EventResource> sortByTimestamp(List<EventResource> resources) {
+        return resources.stream()
+            .sorted(Comparator.comparing(resource -> DateUtils.parseInstantFromIso8601(ResourceUtils.getEntity(resource).getTimestamp())))
+            .collect(Collectors.toList());
+    }
+
+    private Mono<Void> applyEvent(CloudFoundryClient cloudFoundryClient, EventResource resource) {
+        EventEntity event = ResourceUtils.getEntity(resource);
+
+        if (event.getActee() == null) {
+            return Mono.empty();
+        }
+
+        if (isDelete(event)) {
+            remove(event.getActee());
+            return Mono.empty();
+        }
+
+        switch (Optional.ofNullable(event.getActeeType()).orElse("")) {
+            case "app":
+                put(Type.APPLICATION, event.getActee(), event.getSpaceId(), event.getActeeName(), event.getSpaceId());
+                return Mono.empty();
+            case "organization":
+                put(Type.ORGANIZATION, event.getActee(), null, event.getActeeName(), null);
+                return Mono.empty();
+            case "route":
+                remove(event.getActee());
+                return requestRoute(cloudFoundryClient, event.getActee())
+                    .doOnSuccess(this::putRoute)
+                    .otherwise(ExceptionUtils.statusCode(CF_ROUTE_NOT_FOUND), t -> Mono.empty())
+                    .then();
+            case "service_instance":
+            case "user_provided_service_instance":
+                put(Type.SERVICE_INSTANCE, event.getActee(), event.getSpaceId(), event.getActeeName(), event.getSpaceId());
+                return Mono.empty();
+            case "space":
+                put(Type.SPACE, event.getActee(), event.getOrganizationId(), event.getActeeName(), event.getOrganizationId());
+                return Mono.empty();
+            default:
+                return Mono.empty();
+        }
+    }
+
+    private synchronized void clear() {
+        this.nodes.clear();
+        this.ids.values().forEach(Map::clear);
+    }
+
+    private Mono<String> getCursor() {
+        return Mono
+            .defer(() -> Mono.justOrEmpty(this.cursor.get()))
+            .otherwiseIfEmpty(ExceptionUtils.illegalState("Topology index has not been loaded"));
+    }
+
+    private Optional<String> getId(Type type, String scopeId, String name) {
+        return Optional.ofNullable(this.ids.get(type).get(getKey(scopeId, name)));
+    }
+
+    private synchronized void put(Type type, String id, String scopeId, String name, String parentId) {
+        remove(id);
+
+        String key = getKey(scopeId, name);
+        this.ids.get(type).put(key, id);
+        this.nodes.put(id, new Node(type, key, parentId));
+    }
+
+    private void putRoute(AbstractRouteResource resource) {
+        RouteEntity entity = ResourceUtils.getEntity(resource);
+        put(Type.ROUTE, ResourceUtils.getId(resource), entity.getDomainId(), getRouteName(entity.getHost(), entity.getPath()), entity.getSpaceId());
+    }
+
+    private synchronized void remove(String id) {
+        Node node = this.nodes.remove(id);
+
+        if (node != null) {
+            this.ids.get(node.type).remove(node.key, id);
+        }
+    }
+
+    private enum Type {
+
+        APPLICATION,
+
+        DOMAIN,
+
+        ORGANIZATION,
+
+        ROUTE,
+
+        SERVICE_INSTANCE,
+
+        SPACE
+
+    }
+
+    private static final class Node {
+
+        private final String key;
+
+        private final String parentId;
+
+        private final Type type;
+
+        private Node(Type type, String key, String parentId) {
+            this.key = key;
+            this.parentId = parentId;
+            this.type = type;
+        }
+
+    }
+
+}
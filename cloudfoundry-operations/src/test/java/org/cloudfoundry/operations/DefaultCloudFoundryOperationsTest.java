@@ -65,6 +65,11 @@ public final class DefaultCloudFoundryOperationsTest extends AbstractOperationsT
         assertNotNull(this.operations.routes());
     }
 
+    @Test
+    public void search() {
+        assertNotNull(this.operations.search());
+    }
+
     @Test
     public void serviceAdmin() {
         assertNotNull(this.operations.serviceAdmin());
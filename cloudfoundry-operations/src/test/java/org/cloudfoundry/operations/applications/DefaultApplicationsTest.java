@@ -964,6 +964,36 @@ public final class DefaultApplicationsTest {
             .thenReturn(Mono
                 .just(fill(GetSpaceSummaryResponse.builder(), "space-summary-")
                     .application(fill(SpaceApplicationSummary.builder(), "application-summary-")
+                        .packageUpdatedAt(DateUtils.formatToIso8601(new Date(0)))
+                        .build())
+                    .build()));
+    }
+
+    private static void requestSpaceSummaryStopped(CloudFoundryClient cloudFoundryClient, String spaceId) {
+        when(cloudFoundryClient.spaces()
+            .getSummary(GetSpaceSummaryRequest.builder()
+                .spaceId(spaceId)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(GetSpaceSummaryResponse.builder(), "space-summary-")
+                    .application(fill(SpaceApplicationSummary.builder(), "application-summary-")
+                        .packageUpdatedAt(DateUtils.formatToIso8601(new Date(0)))
+                        .state("STOPPED")
+                        .build())
+                    .build()));
+    }
+
+    private static void requestSpaceSummaryStoppedNoStack(CloudFoundryClient cloudFoundryClient, String spaceId) {
+        when(cloudFoundryClient.spaces()
+            .getSummary(GetSpaceSummaryRequest.builder()
+                .spaceId(spaceId)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(GetSpaceSummaryResponse.builder(), "space-summary-")
+                    .application(fill(SpaceApplicationSummary.builder(), "application-summary-")
+                        .packageUpdatedAt(DateUtils.formatToIso8601(new Date(0)))
+                        .stackId(null)
+                        .state("STOPPED")
                         .build())
                     .build()));
     }
@@ -2354,6 +2384,88 @@ public final class DefaultApplicationsTest {
 
     }
 
+    public static final class IndexLogs extends AbstractOperationsApiTest<Integer> {
+
+        private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
+
+        private final LogIndex index = new LogIndex();
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceSummary(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestLogsRecent(this.dopplerClient, "test-application-summary-id");
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<Integer> testSubscriber) {
+            testSubscriber
+                .assertEquals(1);
+        }
+
+        @Override
+        protected Publisher<Integer> invoke() {
+            return this.applications
+                .indexLogs(IndexLogsRequest.builder()
+                    .index(this.index)
+                    .build())
+                .then(Mono.defer(() -> Mono.just(this.index.getMessages())));
+        }
+
+    }
+
+    public static final class IndexLogsFollowExceedsConcurrency extends AbstractOperationsApiTest<Void> {
+
+        private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceSummary(this.cloudFoundryClient, TEST_SPACE_ID);
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<Void> testSubscriber) {
+            testSubscriber
+                .assertError(IllegalArgumentException.class, "Following 1 applications requires more than the maximum of 0 connections");
+        }
+
+        @Override
+        protected Publisher<Void> invoke() {
+            return this.applications
+                .indexLogs(IndexLogsRequest.builder()
+                    .concurrency(0)
+                    .follow(true)
+                    .index(new LogIndex())
+                    .build());
+        }
+
+    }
+
+    public static final class IndexLogsNoApp extends AbstractOperationsApiTest<Void> {
+
+        private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceSummary(this.cloudFoundryClient, TEST_SPACE_ID);
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<Void> testSubscriber) {
+            testSubscriber
+                .assertError(IllegalArgumentException.class, "Application test-other-application-name does not exist");
+        }
+
+        @Override
+        protected Publisher<Void> invoke() {
+            return this.applications
+                .indexLogs(IndexLogsRequest.builder()
+                    .index(new LogIndex())
+                    .name("test-other-application-name")
+                    .build());
+        }
+
+    }
+
     public static final class List extends AbstractOperationsApiTest<ApplicationSummary> {
 
         private final Applications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
@@ -2380,6 +2492,107 @@ public final class DefaultApplicationsTest {
 
     }
 
+    public static final class ListDetails extends AbstractOperationsApiTest<ApplicationDetail> {
+
+        private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceSummary(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestStack(this.cloudFoundryClient, "test-application-summary-stackId");
+            requestApplicationStatistics(this.cloudFoundryClient, "test-application-summary-id");
+            requestApplicationInstances(this.cloudFoundryClient, "test-application-summary-id");
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<ApplicationDetail> testSubscriber) {
+            testSubscriber
+                .assertEquals(fill(ApplicationDetail.builder())
+                    .buildpack("test-application-summary-buildpack")
+                    .id("test-application-summary-id")
+                    .instanceDetail(fill(InstanceDetail.builder())
+                        .since(new Date(1000))
+                        .state("test-application-instance-info-state")
+                        .build())
+                    .lastUploaded(new Date(0))
+                    .name("test-application-summary-name")
+                    .requestedState("test-application-summary-state")
+                    .stack("test-stack-entity-name")
+                    .build());
+        }
+
+        @Override
+        protected Publisher<ApplicationDetail> invoke() {
+            return this.applications
+                .listDetails(ListApplicationDetailsRequest.builder()
+                    .build());
+        }
+
+    }
+
+    public static final class ListDetailsStopped extends AbstractOperationsApiTest<ApplicationDetail> {
+
+        private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceSummaryStopped(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestStack(this.cloudFoundryClient, "test-application-summary-stackId");
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<ApplicationDetail> testSubscriber) {
+            testSubscriber
+                .assertEquals(fill(ApplicationDetail.builder())
+                    .buildpack("test-application-summary-buildpack")
+                    .id("test-application-summary-id")
+                    .lastUploaded(new Date(0))
+                    .name("test-application-summary-name")
+                    .requestedState("STOPPED")
+                    .stack("test-stack-entity-name")
+                    .build());
+        }
+
+        @Override
+        protected Publisher<ApplicationDetail> invoke() {
+            return this.applications
+                .listDetails(ListApplicationDetailsRequest.builder()
+                    .build());
+        }
+
+    }
+
+    public static final class ListDetailsStoppedNoStack extends AbstractOperationsApiTest<ApplicationDetail> {
+
+        private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceSummaryStoppedNoStack(this.cloudFoundryClient, TEST_SPACE_ID);
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<ApplicationDetail> testSubscriber) {
+            testSubscriber
+                .assertEquals(fill(ApplicationDetail.builder())
+                    .buildpack("test-application-summary-buildpack")
+                    .id("test-application-summary-id")
+                    .lastUploaded(new Date(0))
+                    .name("test-application-summary-name")
+                    .requestedState("STOPPED")
+                    .stack(null)
+                    .build());
+        }
+
+        @Override
+        protected Publisher<ApplicationDetail> invoke() {
+            return this.applications
+                .listDetails(ListApplicationDetailsRequest.builder()
+                    .build());
+        }
+
+    }
+
     public static final class Logs extends AbstractOperationsApiTest<LogMessage> {
 
         private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
@@ -2489,6 +2702,57 @@ public final class DefaultApplicationsTest {
 
     }
 
+    public static final class MergedLogs extends AbstractOperationsApiTest<LogMessage> {
+
+        private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceSummary(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestLogsRecent(this.dopplerClient, "test-application-summary-id");
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<LogMessage> testSubscriber) {
+            testSubscriber
+                .assertEquals(fill(LogMessage.builder(), "log-message-")
+                    .build());
+        }
+
+        @Override
+        protected Publisher<LogMessage> invoke() {
+            return this.applications
+                .mergedLogs(MergedLogsRequest.builder()
+                    .build());
+        }
+
+    }
+
+    public static final class MergedLogsNoApp extends AbstractOperationsApiTest<LogMessage> {
+
+        private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceSummary(this.cloudFoundryClient, TEST_SPACE_ID);
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<LogMessage> testSubscriber) {
+            testSubscriber
+                .assertError(IllegalArgumentException.class, "Application test-other-application-name does not exist");
+        }
+
+        @Override
+        protected Publisher<LogMessage> invoke() {
+            return this.applications
+                .mergedLogs(MergedLogsRequest.builder()
+                    .name("test-other-application-name")
+                    .build());
+        }
+
+    }
+
     public static final class PushDomainNotFound extends AbstractOperationsApiTest<Void> {
 
         private final InputStream applicationBits = new ByteArrayInputStream("test-application".getBytes());
@@ -4131,6 +4395,67 @@ public final class DefaultApplicationsTest {
 
     }
 
+    public static final class TailLogs extends AbstractOperationsApiTest<ApplicationLog> {
+
+        private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
+
+        private final LogTailStatistics statistics = new LogTailStatistics();
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceSummary(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestLogsStream(this.dopplerClient, "test-application-summary-id");
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<ApplicationLog> testSubscriber) {
+            testSubscriber
+                .assertEquals(ApplicationLog.builder()
+                    .applicationId("test-application-summary-id")
+                    .applicationName("test-application-summary-name")
+                    .logMessage(fill(LogMessage.builder(), "log-message-")
+                        .build())
+                    .build());
+        }
+
+        @Override
+        protected Publisher<ApplicationLog> invoke() {
+            return this.applications
+                .tailLogs(TailLogsRequest.builder()
+                    .slice(Duration.ofSeconds(1))
+                    .statistics(this.statistics)
+                    .build())
+                .take(1);
+        }
+
+    }
+
+    public static final class TailLogsNoApp extends AbstractOperationsApiTest<ApplicationLog> {
+
+        private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceSummary(this.cloudFoundryClient, TEST_SPACE_ID);
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<ApplicationLog> testSubscriber) {
+            testSubscriber
+                .assertError(IllegalArgumentException.class, "Application test-other-application-name does not exist");
+        }
+
+        @Override
+        protected Publisher<ApplicationLog> invoke() {
+            return this.applications
+                .tailLogs(TailLogsRequest.builder()
+                    .name("test-other-application-name")
+                    .slice(Duration.ofSeconds(1))
+                    .build());
+        }
+
+    }
+
     public static final class UnsetEnvironmentVariable extends AbstractOperationsApiTest<Void> {
 
         private final DefaultApplications applications = new DefaultApplications(Mono.just(this.cloudFoundryClient), Mono.just(this.dopplerClient), Mono.just(TEST_SPACE_ID));
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.applications;
+
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.MessageType;
+import org.cloudfoundry.util.test.TestSubscriber;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class LogIndexTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    private final LogIndex index = new LogIndex(Duration.ofMinutes(1), 3, 100);
+
+    @Test
+    public void containsIgnoreCase() {
+        assertTrue(LogIndex.containsIgnoreCase("Connection Timed Out", "timed out"));
+        assertFalse(LogIndex.containsIgnoreCase("Connection", "connections"));
+    }
+
+    @Test
+    public void evictByAge() {
+        this.index.add(applicationLog("test-application-1", "RTR", "first", 0));
+        this.index.add(applicationLog("test-application-1", "RTR", "second", 3 * MINUTE));
+
+        assertEquals(1, this.index.getMessages());
+    }
+
+    @Test
+    public void evictBySize() {
+        LogIndex index = new LogIndex(Duration.ofMinutes(1), 10, 2);
+        index.add(applicationLog("test-application-1", "RTR", "first", 0));
+        index.add(applicationLog("test-application-1", "RTR", "second", MINUTE));
+        index.add(applicationLog("test-application-1", "RTR", "third", 2 * MINUTE));
+
+        assertEquals(2, index.getMessages());
+    }
+
+    @Test
+    public void evictBySizeWithinPartition() {
+        LogIndex index = new LogIndex(Duration.ofMinutes(1), 10, 32);
+        for (int i = 0; i < 100; i++) {
+            index.add(applicationLog("test-application-1", "RTR", "request " + i, i));
+        }
+
+        assertTrue(index.getMessages() <= 32);
+        assertTrue(index.getMessages() >= 30);
+    }
+
+    @Test
+    public void facets() throws InterruptedException {
+        this.index.add(applicationLog("test-application-1", "RTR", "GET /orders 200", 0));
+        this.index.add(applicationLog("test-application-2", "APP", "GET /orders 500", 1));
+
+        assertEquals(1, this.index.getApplicationNameCounts().get("test-application-2").intValue());
+        assertEquals(1, this.index.getSourceTypeCounts().get("RTR").intValue());
+
+        TestSubscriber<ApplicationLog> testSubscriber = new TestSubscriber<ApplicationLog>()
+            .assertEquals(applicationLog("test-application-2", "APP", "GET /orders 500", 1));
+
+        this.index
+            .search(SearchLogsRequest.builder()
+                .applicationName("test-application-2")
+                .query("orders")
+                .sourceType("APP")
+                .build())
+            .subscribe(testSubscriber);
+
+        testSubscriber.verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void limit() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            this.index.add(applicationLog("test-application-1", "APP", "request " + i, i));
+        }
+
+        TestSubscriber<ApplicationLog> testSubscriber = new TestSubscriber<ApplicationLog>()
+            .assertEquals(applicationLog("test-application-1", "APP", "request 8", 8))
+            .assertEquals(applicationLog("test-application-1", "APP", "request 9", 9));
+
+        this.index
+            .search(SearchLogsRequest.builder()
+                .limit(2)
+                .query("REQUEST")
+                .build())
+            .subscribe(testSubscriber);
+
+        testSubscriber.verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void longTokens() throws InterruptedException {
+        String prefix = String.join("", Collections.nCopies(64, "a"));
+        this.index.add(applicationLog("test-application-1", "APP", "token " + prefix + "bbbbbbbb", 0));
+        this.index.add(applicationLog("test-application-1", "APP", "token " + prefix + "cccccccc", 1));
+
+        TestSubscriber<ApplicationLog> testSubscriber = new TestSubscriber<ApplicationLog>()
+            .assertEquals(applicationLog("test-application-1", "APP", "token " + prefix + "cccccccc", 1));
+
+        this.index
+            .search(SearchLogsRequest.builder()
+                .query(prefix + "cccccccc")
+                .build())
+            .subscribe(testSubscriber);
+
+        testSubscriber.verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void substring() throws InterruptedException {
+        this.index.add(applicationLog("test-application-1", "APP", "upstream connection timed out", 0));
+        this.index.add(applicationLog("test-application-1", "APP", "connection established", MINUTE));
+        this.index.add(applicationLog("test-application-1", "APP", "timed out waiting for connection", MINUTE + 1));
+
+        TestSubscriber<ApplicationLog> testSubscriber = new TestSubscriber<ApplicationLog>()
+            .assertEquals(applicationLog("test-application-1", "APP", "upstream connection timed out", 0));
+
+        this.index
+            .search(SearchLogsRequest.builder()
+                .query("nection timed o")
+                .substring(true)
+                .build())
+            .subscribe(testSubscriber);
+
+        testSubscriber.verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void tokenize() {
+        assertEquals(Arrays.asList("get", "v2", "apps", "42", "http", "1", "1"), LogIndex.tokenize("GET /v2/apps/42 HTTP/1.1"));
+    }
+
+    @Test
+    public void tokens() throws InterruptedException {
+        this.index.add(applicationLog("test-application-1", "APP", "upstream connection timed out", 0));
+        this.index.add(applicationLog("test-application-1", "APP", "connection established", 1));
+
+        TestSubscriber<ApplicationLog> testSubscriber = new TestSubscriber<ApplicationLog>()
+            .assertEquals(applicationLog("test-application-1", "APP", "upstream connection timed out", 0));
+
+        this.index
+            .search(SearchLogsRequest.builder()
+                .query("Timed connection")
+                .build())
+            .subscribe(testSubscriber);
+
+        testSubscriber.verify(Duration.ofSeconds(5));
+    }
+
+    private static ApplicationLog applicationLog(String applicationName, String sourceType, String message, long timestamp) {
+        return ApplicationLog.builder()
+            .applicationId(applicationName + "-id")
+            .applicationName(applicationName)
+            .logMessage(LogMessage.builder()
+                .message(message)
+                .messageType(MessageType.OUT)
+                .sourceType(sourceType)
+                .timestamp(timestamp)
+                .build())
+            .build();
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.applications;
+
+import org.cloudfoundry.client.v2.spaces.SpaceApplicationSummary;
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.MessageType;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public final class LogTailStateTest {
+
+    private final LogTailStatistics statistics = new LogTailStatistics();
+
+    @Test
+    public void forgetRemovedApplications() {
+        LogTailState state = new LogTailState(10, this.statistics);
+
+        state.nextRound(Arrays.asList(application("a"), application("b")));
+        state.onLog("a-id", "a", logMessage(1L));
+        state.onLog("a-id", "a", logMessage(3L));
+        state.onLog("a-id", "a", logMessage(2L));
+
+        assertEquals(Long.valueOf(3L), state.getLatestTimestamp("a-id"));
+        assertEquals(3, this.statistics.getMessages("a"));
+
+        state.nextRound(Collections.singletonList(application("b")));
+
+        assertNull(state.getLatestTimestamp("a-id"));
+        assertEquals(0, this.statistics.getMessages("a"));
+    }
+
+    @Test
+    public void reconnectAfterDisconnect() {
+        LogTailState state = new LogTailState(3, this.statistics);
+        List<SpaceApplicationSummary> applications = Arrays.asList(application("a"), application("b"));
+
+        assertEquals(Arrays.asList("a", "b"), names(state.nextRound(applications)));
+        state.onDisconnect("b-id", "b");
+
+        assertEquals(Collections.singletonList("b"), names(state.nextRound(applications)));
+    }
+
+    @Test
+    public void rotate() {
+        LogTailState state = new LogTailState(2, this.statistics);
+        List<SpaceApplicationSummary> applications = Arrays.asList(application("c"), application("a"), application("b"));
+
+        assertEquals(Arrays.asList("a", "b"), names(state.nextRound(applications)));
+
+        assertEquals(Collections.singletonList("c"), names(state.nextRound(applications)));
+        assertTrue(state.isSelected("a-id"));
+        assertFalse(state.isSelected("b-id"));
+        state.onDisconnect("b-id", "b");
+
+        assertEquals(Collections.singletonList("b"), names(state.nextRound(applications)));
+        assertFalse(state.isSelected("a-id"));
+        assertTrue(state.isSelected("c-id"));
+    }
+
+    @Test
+    public void withinBudget() {
+        LogTailState state = new LogTailState(3, this.statistics);
+        List<SpaceApplicationSummary> applications = Arrays.asList(application("c"), application("a"), application("b"));
+
+        assertEquals(applications, state.nextRound(applications));
+        assertEquals(Collections.emptyList(), state.nextRound(applications));
+        assertTrue(state.isSelected("a-id"));
+        assertTrue(state.isSelected("b-id"));
+        assertTrue(state.isSelected("c-id"));
+    }
+
+    private static SpaceApplicationSummary application(String name) {
+        return SpaceApplicationSummary.builder()
+            .id(name + "-id")
+            .name(name)
+            .build();
+    }
+
+    private static LogMessage logMessage(Long timestamp) {
+        return LogMessage.builder()
+            .message("test-message")
+            .messageType(MessageType.OUT)
+            .timestamp(timestamp)
+            .build();
+    }
+
+    private static List<String> names(List<SpaceApplicationSummary> applications) {
+        return applications.stream()
+            .map(SpaceApplicationSummary::getName)
+            .collect(Collectors.toList());
+    }
+
+}
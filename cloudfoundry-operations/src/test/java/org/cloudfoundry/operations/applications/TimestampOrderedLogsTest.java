@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.applications;
+
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.MessageType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public final class TimestampOrderedLogsTest {
+
+    @Test
+    public void empty() {
+        assertFalse(new TimestampOrderedLogs(Collections.emptyList()).iterator().hasNext());
+    }
+
+    @Test
+    public void merge() {
+        List<List<LogMessage>> sortedLogs = Arrays.asList(
+            Arrays.asList(logMessage("a", 1), logMessage("a", 4), logMessage("a", 9)),
+            Collections.emptyList(),
+            Arrays.asList(logMessage("b", 2), logMessage("b", 4)),
+            Collections.singletonList(logMessage("c", 0)));
+
+        List<String> merged = new ArrayList<>();
+        new TimestampOrderedLogs(sortedLogs).forEach(logMessage -> merged.add(logMessage.getMessage() + logMessage.getTimestamp()));
+
+        assertEquals(Arrays.asList("c0", "a1", "b2", "a4", "b4", "a9"), merged);
+    }
+
+    private static LogMessage logMessage(String message, long timestamp) {
+        return LogMessage.builder()
+            .message(message)
+            .messageType(MessageType.OUT)
+            .timestamp(timestamp)
+            .build();
+    }
+
+}
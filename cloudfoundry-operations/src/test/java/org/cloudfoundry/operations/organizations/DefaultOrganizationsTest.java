@@ -264,6 +264,50 @@ public final class DefaultOrganizationsTest {
                     .build()));
     }
 
+    private static void requestOrganizationsWithRelations(CloudFoundryClient cloudFoundryClient, String organizationName) {
+        when(cloudFoundryClient.organizations()
+            .list(ListOrganizationsRequest.builder()
+                .includeRelations(Arrays.asList("quota_definition", "space_quota_definitions", "spaces"))
+                .inlineRelationsDepth(1)
+                .name(organizationName)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListOrganizationsResponse.builder())
+                    .resource(fill(OrganizationResource.builder(), "organization-")
+                        .entity(fill(OrganizationEntity.builder(), "organization-entity-")
+                            .quotaDefinition(fill(OrganizationQuotaDefinitionResource.builder())
+                                .entity(fill(OrganizationQuotaDefinitionEntity.builder())
+                                    .build())
+                                .build())
+                            .space(fill(SpaceResource.builder())
+                                .build())
+                            .spaceQuotaDefinition(fill(SpaceQuotaDefinitionResource.builder())
+                                .build())
+                            .build())
+                        .build())
+                    .build()));
+    }
+
+    private static void requestOrganizationsWithRelationsNotInlined(CloudFoundryClient cloudFoundryClient, String organizationName) {
+        when(cloudFoundryClient.organizations()
+            .list(ListOrganizationsRequest.builder()
+                .includeRelations(Arrays.asList("quota_definition", "space_quota_definitions", "spaces"))
+                .inlineRelationsDepth(1)
+                .name(organizationName)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListOrganizationsResponse.builder())
+                    .resource(fill(OrganizationResource.builder(), "organization-")
+                        .entity(OrganizationEntity.builder()
+                            .name(organizationName)
+                            .quotaDefinitionId("test-organization-entity-quotaDefinitionId")
+                            .build())
+                        .build())
+                    .build()));
+    }
+
     private static void requestSpaceQuotaDefinitions(CloudFoundryClient cloudFoundryClient, String organizationId) {
         when(cloudFoundryClient.organizations()
             .listSpaceQuotaDefinitions(ListOrganizationSpaceQuotaDefinitionsRequest.builder()
@@ -438,7 +482,43 @@ public final class DefaultOrganizationsTest {
 
         @Before
         public void setUp() throws Exception {
-            requestOrganizations(this.cloudFoundryClient, "test-organization-name");
+            requestOrganizationsWithRelations(this.cloudFoundryClient, "test-organization-name");
+            requestDomains(this.cloudFoundryClient, "test-organization-id");
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<OrganizationDetail> testSubscriber) {
+            testSubscriber
+                .assertEquals(fill(OrganizationDetail.builder())
+                    .domain("test-name")
+                    .id("test-organization-id")
+                    .name("test-organization-name")
+                    .quota(fill(OrganizationQuota.builder())
+                        .organizationId("test-organization-id")
+                        .build())
+                    .space("test-name")
+                    .spaceQuota(fill(SpaceQuota.builder())
+                        .build())
+                    .build());
+        }
+
+        @Override
+        protected Publisher<OrganizationDetail> invoke() {
+            return this.organizations
+                .get(OrganizationInfoRequest.builder()
+                    .name("test-organization-name")
+                    .build());
+        }
+
+    }
+
+    public static final class InfoRelationsNotInlined extends AbstractOperationsApiTest<OrganizationDetail> {
+
+        private final DefaultOrganizations organizations = new DefaultOrganizations(Mono.just(this.cloudFoundryClient), Mono.just(TEST_USERNAME));
+
+        @Before
+        public void setUp() throws Exception {
+            requestOrganizationsWithRelationsNotInlined(this.cloudFoundryClient, "test-organization-name");
             requestDomains(this.cloudFoundryClient, "test-organization-id");
             requestOrganizationQuotaDefinition(this.cloudFoundryClient, "test-organization-entity-quotaDefinitionId");
             requestSpaceQuotaDefinitions(this.cloudFoundryClient, "test-organization-id");
@@ -22,6 +22,8 @@ import org.cloudfoundry.client.v2.Metadata;
 import org.cloudfoundry.client.v2.applications.ApplicationResource;
 import org.cloudfoundry.client.v2.applications.AssociateApplicationRouteRequest;
 import org.cloudfoundry.client.v2.applications.AssociateApplicationRouteResponse;
+import org.cloudfoundry.client.v2.applications.ListApplicationsRequest;
+import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
 import org.cloudfoundry.client.v2.domains.GetDomainRequest;
 import org.cloudfoundry.client.v2.domains.GetDomainResponse;
 import org.cloudfoundry.client.v2.jobs.ErrorDetails;
@@ -33,10 +35,12 @@ import org.cloudfoundry.client.v2.organizations.ListOrganizationPrivateDomainsRe
 import org.cloudfoundry.client.v2.organizations.ListOrganizationSpacesRequest;
 import org.cloudfoundry.client.v2.organizations.ListOrganizationSpacesResponse;
 import org.cloudfoundry.client.v2.privatedomains.PrivateDomainResource;
+import org.cloudfoundry.client.v2.routemappings.ListRouteMappingsRequest;
+import org.cloudfoundry.client.v2.routemappings.ListRouteMappingsResponse;
+import org.cloudfoundry.client.v2.routemappings.RouteMappingEntity;
+import org.cloudfoundry.client.v2.routemappings.RouteMappingResource;
 import org.cloudfoundry.client.v2.routes.CreateRouteResponse;
 import org.cloudfoundry.client.v2.routes.DeleteRouteResponse;
-import org.cloudfoundry.client.v2.routes.ListRouteApplicationsRequest;
-import org.cloudfoundry.client.v2.routes.ListRouteApplicationsResponse;
 import org.cloudfoundry.client.v2.routes.ListRoutesResponse;
 import org.cloudfoundry.client.v2.routes.RemoveRouteApplicationRequest;
 import org.cloudfoundry.client.v2.routes.RouteEntity;
@@ -55,6 +59,7 @@ import org.cloudfoundry.client.v2.spaces.SpaceEntity;
 import org.cloudfoundry.client.v2.spaces.SpaceResource;
 import org.cloudfoundry.operations.AbstractOperationsApiTest;
 import org.cloudfoundry.util.test.TestSubscriber;
+import org.junit.After;
 import org.junit.Before;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Mono;
@@ -67,23 +72,40 @@ import java.util.Queue;
 import java.util.function.Supplier;
 
 import static org.cloudfoundry.util.test.TestObjects.fill;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public final class DefaultRoutesTest {
 
-    private static void requestApplications(CloudFoundryClient cloudFoundryClient, String routeId) {
-        when(cloudFoundryClient.routes()
-            .listApplications(ListRouteApplicationsRequest.builder()
+    private static void requestApplicationRouteMappings(CloudFoundryClient cloudFoundryClient, String applicationId, String routeId) {
+        when(cloudFoundryClient.routeMappings()
+            .list(ListRouteMappingsRequest.builder()
+                .applicationId(applicationId)
                 .page(1)
-                .routeId(routeId)
                 .build()))
             .thenReturn(Mono
-                .just(fill(ListRouteApplicationsResponse.builder())
-                    .resource(fill(ApplicationResource.builder(), "application-")
+                .just(fill(ListRouteMappingsResponse.builder())
+                    .resource(fill(RouteMappingResource.builder())
+                        .entity(fill(RouteMappingEntity.builder())
+                            .applicationId(applicationId)
+                            .routeId(routeId)
+                            .build())
                         .build())
                     .build()));
     }
 
+    private static void requestApplicationRouteMappingsEmpty(CloudFoundryClient cloudFoundryClient, String applicationId) {
+        when(cloudFoundryClient.routeMappings()
+            .list(ListRouteMappingsRequest.builder()
+                .applicationId(applicationId)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListRouteMappingsResponse.builder())
+                    .build()));
+    }
+
     private static void requestApplications(CloudFoundryClient cloudFoundryClient, String application, String spaceId) {
         when(cloudFoundryClient.spaces()
             .listApplications(ListSpaceApplicationsRequest.builder()
@@ -98,17 +120,6 @@ public final class DefaultRoutesTest {
                     .build()));
     }
 
-    private static void requestApplicationsEmpty(CloudFoundryClient cloudFoundryClient, String routeId) {
-        when(cloudFoundryClient.routes()
-            .listApplications(ListRouteApplicationsRequest.builder()
-                .page(1)
-                .routeId(routeId)
-                .build()))
-            .thenReturn(Mono
-                .just(fill(ListRouteApplicationsResponse.builder())
-                    .build()));
-    }
-
     private static void requestApplicationsEmpty(CloudFoundryClient cloudFoundryClient, String application, String spaceId) {
         when(cloudFoundryClient.spaces()
             .listApplications(ListSpaceApplicationsRequest.builder()
@@ -228,6 +239,19 @@ public final class DefaultRoutesTest {
                 }));
     }
 
+    private static void requestListApplications(CloudFoundryClient cloudFoundryClient, String spaceId) {
+        when(cloudFoundryClient.applicationsV2()
+            .list(ListApplicationsRequest.builder()
+                .page(1)
+                .spaceId(spaceId)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListApplicationsResponse.builder())
+                    .resource(fill(ApplicationResource.builder(), "application-")
+                        .build())
+                    .build()));
+    }
+
     private static void requestOrganizationsRoutes(CloudFoundryClient cloudFoundryClient, String organizationId) {
         when(cloudFoundryClient.routes()
             .list(org.cloudfoundry.client.v2.routes.ListRoutesRequest.builder()
@@ -290,6 +314,44 @@ public final class DefaultRoutesTest {
             .thenReturn(Mono.empty());
     }
 
+    private static void requestRouteMappings(CloudFoundryClient cloudFoundryClient, String routeId, String applicationId) {
+        when(cloudFoundryClient.routeMappings()
+            .list(ListRouteMappingsRequest.builder()
+                .page(1)
+                .routeId(routeId)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListRouteMappingsResponse.builder())
+                    .resource(fill(RouteMappingResource.builder())
+                        .entity(fill(RouteMappingEntity.builder())
+                            .applicationId(applicationId)
+                            .routeId(routeId)
+                            .build())
+                        .build())
+                    .build()));
+    }
+
+    private static void requestRouteMappingsSharedApplication(CloudFoundryClient cloudFoundryClient, String applicationId, String... routeIds) {
+        ListRouteMappingsResponse.Builder responseBuilder = fill(ListRouteMappingsResponse.builder());
+        Arrays.stream(routeIds)
+            .forEach(routeId -> responseBuilder
+                .resource(fill(RouteMappingResource.builder())
+                    .entity(fill(RouteMappingEntity.builder())
+                        .applicationId(applicationId)
+                        .routeId(routeId)
+                        .build())
+                    .build()));
+
+        when(cloudFoundryClient.routeMappings()
+            .list(ListRouteMappingsRequest.builder()
+                .page(1)
+                .routeIds(Arrays.asList(routeIds))
+                .build()))
+            .thenReturn(Mono
+                .just(responseBuilder
+                    .build()));
+    }
+
     private static void requestRouteExistsFalse(CloudFoundryClient cloudFoundryClient, String domainId, String host, String path) {
         when(cloudFoundryClient.routes()
             .exists(RouteExistsRequest.builder()
@@ -402,6 +464,29 @@ public final class DefaultRoutesTest {
                     .build()));
     }
 
+    private static void requestSpaceRoutesSharedDomainAndSpace(CloudFoundryClient cloudFoundryClient, String spaceId) {
+        when(cloudFoundryClient.spaces()
+            .listRoutes(ListSpaceRoutesRequest.builder()
+                .page(1)
+                .spaceId(spaceId)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListSpaceRoutesResponse.builder())
+                    .resource(fill(RouteResource.builder())
+                        .metadata(fill(Metadata.builder(), "route-1-")
+                            .build())
+                        .entity(fill(RouteEntity.builder(), "route-")
+                            .build())
+                        .build())
+                    .resource(fill(RouteResource.builder())
+                        .metadata(fill(Metadata.builder(), "route-2-")
+                            .build())
+                        .entity(fill(RouteEntity.builder(), "route-")
+                            .build())
+                        .build())
+                    .build()));
+    }
+
     private static void requestSpaces(CloudFoundryClient cloudFoundryClient, String organizationId, String space) {
         when(cloudFoundryClient.organizations()
             .listSpaces(ListOrganizationSpacesRequest.builder()
@@ -787,8 +872,8 @@ public final class DefaultRoutesTest {
         @Before
         public void setUp() throws Exception {
             requestSpaceRoutes(this.cloudFoundryClient, TEST_SPACE_ID);
-            requestApplications(this.cloudFoundryClient, "test-route-id");
-            requestDeleteRoute(this.cloudFoundryClient, "test-route-id");
+            requestListApplications(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestApplicationRouteMappings(this.cloudFoundryClient, "test-application-id", "test-route-id");
         }
 
         @Override
@@ -804,6 +889,26 @@ public final class DefaultRoutesTest {
 
     }
 
+    public static final class DeleteOrphanedRoutesInvalidConcurrency extends AbstractOperationsApiTest<DeleteOrphanedRoutesProgress> {
+
+        private final DefaultRoutes routes = new DefaultRoutes(Mono.just(this.cloudFoundryClient), Mono.just(TEST_ORGANIZATION_ID), Mono.just(TEST_SPACE_ID));
+
+        @Override
+        protected void assertions(TestSubscriber<DeleteOrphanedRoutesProgress> testSubscriber) {
+            testSubscriber
+                .assertError(IllegalArgumentException.class, "Concurrency 0 must be greater than 0");
+        }
+
+        @Override
+        protected Publisher<DeleteOrphanedRoutesProgress> invoke() {
+            return this.routes
+                .deleteOrphanedRoutes(DeleteOrphanedRoutesRequest.builder()
+                    .concurrency(0)
+                    .build());
+        }
+
+    }
+
     public static final class DeleteOrphanedRoutesNoAssociatedApplications extends AbstractOperationsApiTest<Void> {
 
         private final DefaultRoutes routes = new DefaultRoutes(Mono.just(this.cloudFoundryClient), Mono.just(TEST_ORGANIZATION_ID), Mono.just(TEST_SPACE_ID));
@@ -811,7 +916,8 @@ public final class DefaultRoutesTest {
         @Before
         public void setUp() throws Exception {
             requestSpaceRoutes(this.cloudFoundryClient, TEST_SPACE_ID);
-            requestApplicationsEmpty(this.cloudFoundryClient, "test-route-id");
+            requestListApplications(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestApplicationRouteMappingsEmpty(this.cloudFoundryClient, "test-application-id");
             requestDeleteRoute(this.cloudFoundryClient, "test-route-id");
             requestJobSuccess(this.cloudFoundryClient, "test-id");
         }
@@ -836,7 +942,8 @@ public final class DefaultRoutesTest {
         @Before
         public void setUp() throws Exception {
             requestSpaceRoutes(this.cloudFoundryClient, TEST_SPACE_ID);
-            requestApplicationsEmpty(this.cloudFoundryClient, "test-route-id");
+            requestListApplications(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestApplicationRouteMappingsEmpty(this.cloudFoundryClient, "test-application-id");
             requestDeleteRoute(this.cloudFoundryClient, "test-route-id");
             requestJobFailure(this.cloudFoundryClient, "test-id");
         }
@@ -862,6 +969,8 @@ public final class DefaultRoutesTest {
         @Before
         public void setUp() throws Exception {
             requestSpaceRoutesEmpty(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestListApplications(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestApplicationRouteMappingsEmpty(this.cloudFoundryClient, "test-application-id");
         }
 
         @Override
@@ -877,6 +986,39 @@ public final class DefaultRoutesTest {
 
     }
 
+    public static final class DeleteOrphanedRoutesReportsProgress extends AbstractOperationsApiTest<DeleteOrphanedRoutesProgress> {
+
+        private final DefaultRoutes routes = new DefaultRoutes(Mono.just(this.cloudFoundryClient), Mono.just(TEST_ORGANIZATION_ID), Mono.just(TEST_SPACE_ID));
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceRoutes(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestListApplications(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestApplicationRouteMappingsEmpty(this.cloudFoundryClient, "test-application-id");
+            requestDeleteRoute(this.cloudFoundryClient, "test-route-id");
+            requestJobSuccess(this.cloudFoundryClient, "test-id");
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<DeleteOrphanedRoutesProgress> testSubscriber) {
+            testSubscriber
+                .assertEquals(DeleteOrphanedRoutesProgress.builder()
+                    .deleted(1)
+                    .id("test-route-id")
+                    .orphaned(1)
+                    .build());
+        }
+
+        @Override
+        protected Publisher<DeleteOrphanedRoutesProgress> invoke() {
+            return this.routes
+                .deleteOrphanedRoutes(DeleteOrphanedRoutesRequest.builder()
+                    .concurrency(2)
+                    .build());
+        }
+
+    }
+
     public static final class DeletePrivateDomain extends AbstractOperationsApiTest<Void> {
 
         private final DefaultRoutes routes = new DefaultRoutes(Mono.just(this.cloudFoundryClient), Mono.just(TEST_ORGANIZATION_ID), Mono.just(TEST_SPACE_ID));
@@ -984,7 +1126,8 @@ public final class DefaultRoutesTest {
             requestOrganizationsRoutes(this.cloudFoundryClient, TEST_ORGANIZATION_ID);
             requestDomain(this.cloudFoundryClient, "test-route-entity-domainId");
             requestSpace(this.cloudFoundryClient, "test-route-entity-spaceId");
-            requestApplications(this.cloudFoundryClient, "test-id");
+            requestListApplications(this.cloudFoundryClient, "test-route-entity-spaceId");
+            requestRouteMappings(this.cloudFoundryClient, "test-id", "test-application-id");
         }
 
         @Override
@@ -1018,7 +1161,8 @@ public final class DefaultRoutesTest {
             requestOrganizationsRoutesEmpty(this.cloudFoundryClient, TEST_ORGANIZATION_ID);
             requestDomain(this.cloudFoundryClient, "test-route-entity-domainId");
             requestSpace(this.cloudFoundryClient, "test-route-entity-spaceId");
-            requestApplications(this.cloudFoundryClient, "test-id");
+            requestListApplications(this.cloudFoundryClient, "test-route-entity-spaceId");
+            requestRouteMappings(this.cloudFoundryClient, "test-id", "test-application-id");
         }
 
         @Override
@@ -1044,7 +1188,8 @@ public final class DefaultRoutesTest {
             requestSpaceRoutes(this.cloudFoundryClient, TEST_SPACE_ID);
             requestDomain(this.cloudFoundryClient, "test-route-domainId");
             requestSpace(this.cloudFoundryClient, "test-route-spaceId");
-            requestApplications(this.cloudFoundryClient, "test-route-id");
+            requestListApplications(this.cloudFoundryClient, "test-route-spaceId");
+            requestRouteMappings(this.cloudFoundryClient, "test-route-id", "test-application-id");
         }
 
         @Override
@@ -1078,7 +1223,8 @@ public final class DefaultRoutesTest {
             requestSpaceRoutes(this.cloudFoundryClient, TEST_SPACE_ID);
             requestDomain(this.cloudFoundryClient, "test-route-domainId");
             requestSpace(this.cloudFoundryClient, "test-route-spaceId");
-            requestApplications(this.cloudFoundryClient, "test-route-id");
+            requestListApplications(this.cloudFoundryClient, "test-route-spaceId");
+            requestRouteMappings(this.cloudFoundryClient, "test-route-id", "test-application-id");
         }
 
         @Override
@@ -1141,6 +1287,59 @@ public final class DefaultRoutesTest {
         }
     }
 
+    public static final class ListCurrentSpaceSharedDomainAndSpace extends AbstractOperationsApiTest<Route> {
+
+        private final DefaultRoutes routes = new DefaultRoutes(Mono.just(this.cloudFoundryClient), Mono.just(TEST_ORGANIZATION_ID), Mono.just(TEST_SPACE_ID));
+
+        @Before
+        public void setUp() throws Exception {
+            requestSpaceRoutesSharedDomainAndSpace(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestDomain(this.cloudFoundryClient, "test-route-domainId");
+            requestSpace(this.cloudFoundryClient, "test-route-spaceId");
+            requestListApplications(this.cloudFoundryClient, "test-route-spaceId");
+            requestRouteMappingsSharedApplication(this.cloudFoundryClient, "test-application-id", "test-route-1-id", "test-route-2-id");
+        }
+
+        @After
+        public void verifyRelationRequests() {
+            verify(this.domains, times(1)).get(GetDomainRequest.builder()
+                .domainId("test-route-domainId")
+                .build());
+            verify(this.spaces, times(1)).get(GetSpaceRequest.builder()
+                .spaceId("test-route-spaceId")
+                .build());
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<Route> testSubscriber) {
+            testSubscriber
+                .assertEquals(fill(Route.builder())
+                    .application("test-application-name")
+                    .domain("test-domain-name")
+                    .host("test-route-host")
+                    .id("test-route-1-id")
+                    .path("test-route-path")
+                    .space("test-space-entity-name")
+                    .build())
+                .assertEquals(fill(Route.builder())
+                    .application("test-application-name")
+                    .domain("test-domain-name")
+                    .host("test-route-host")
+                    .id("test-route-2-id")
+                    .path("test-route-path")
+                    .space("test-space-entity-name")
+                    .build());
+        }
+
+        @Override
+        protected Publisher<Route> invoke() {
+            return this.routes
+                .list(ListRoutesRequest.builder()
+                    .level(Level.SPACE)
+                    .build());
+        }
+    }
+
     public static final class MapRouteExists extends AbstractOperationsApiTest<Void> {
 
         private final DefaultRoutes routes = new DefaultRoutes(Mono.just(this.cloudFoundryClient), Mono.just(TEST_ORGANIZATION_ID), Mono.just(TEST_SPACE_ID));
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.search;
+
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.Metadata;
+import org.cloudfoundry.client.v2.applications.ApplicationEntity;
+import org.cloudfoundry.client.v2.applications.ApplicationResource;
+import org.cloudfoundry.client.v2.applications.ListApplicationsRequest;
+import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v2.domains.GetDomainRequest;
+import org.cloudfoundry.client.v2.domains.GetDomainResponse;
+import org.cloudfoundry.client.v2.organizations.ListOrganizationsRequest;
+import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
+import org.cloudfoundry.client.v2.organizations.OrganizationResource;
+import org.cloudfoundry.client.v2.routes.ListRoutesRequest;
+import org.cloudfoundry.client.v2.routes.ListRoutesResponse;
+import org.cloudfoundry.client.v2.routes.RouteEntity;
+import org.cloudfoundry.client.v2.routes.RouteResource;
+import org.cloudfoundry.client.v2.serviceinstances.ListServiceInstancesRequest;
+import org.cloudfoundry.client.v2.serviceinstances.ListServiceInstancesResponse;
+import org.cloudfoundry.client.v2.serviceinstances.ServiceInstanceEntity;
+import org.cloudfoundry.client.v2.serviceinstances.ServiceInstanceResource;
+import org.cloudfoundry.client.v2.spaces.GetSpaceRequest;
+import org.cloudfoundry.client.v2.spaces.GetSpaceResponse;
+import org.cloudfoundry.client.v2.spaces.SpaceEntity;
+import org.cloudfoundry.operations.AbstractOperationsApiTest;
+import org.cloudfoundry.util.test.TestSubscriber;
+import org.junit.After;
+import org.junit.Before;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.cloudfoundry.util.test.TestObjects.fill;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+public final class DefaultSearchTest {
+
+    private static void requestApplications(CloudFoundryClient cloudFoundryClient, String organizationId, String name) {
+        when(cloudFoundryClient.applicationsV2()
+            .list(ListApplicationsRequest.builder()
+                .name(name)
+                .organizationId(organizationId)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListApplicationsResponse.builder())
+                    .resource(fill(ApplicationResource.builder(), "application-")
+                        .entity(fill(ApplicationEntity.builder(), "application-")
+                            .spaceId("test-space-id")
+                            .build())
+                        .build())
+                    .build()));
+    }
+
+    private static void requestApplicationsEmpty(CloudFoundryClient cloudFoundryClient, String organizationId, String name) {
+        when(cloudFoundryClient.applicationsV2()
+            .list(ListApplicationsRequest.builder()
+                .name(name)
+                .organizationId(organizationId)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListApplicationsResponse.builder())
+                    .build()));
+    }
+
+    private static void requestApplicationsPageNever(CloudFoundryClient cloudFoundryClient, String organizationId, String name, AtomicBoolean cancelled) {
+        when(cloudFoundryClient.applicationsV2()
+            .list(ListApplicationsRequest.builder()
+                .name(name)
+                .organizationId(organizationId)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListApplicationsResponse.builder())
+                    .resource(fill(ApplicationResource.builder(), "application-")
+                        .entity(fill(ApplicationEntity.builder(), "application-")
+                            .spaceId("test-space-id")
+                            .build())
+                        .build())
+                    .totalPages(2)
+                    .build()));
+        when(cloudFoundryClient.applicationsV2()
+            .list(ListApplicationsRequest.builder()
+                .name(name)
+                .organizationId(organizationId)
+                .page(2)
+                .build()))
+            .thenReturn(Mono.<ListApplicationsResponse>never()
+                .doOnCancel(() -> cancelled.set(true)));
+    }
+
+    private static void requestDomain(CloudFoundryClient cloudFoundryClient, String domainId) {
+        when(cloudFoundryClient.domains()
+            .get(GetDomainRequest.builder()
+                .domainId(domainId)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(GetDomainResponse.builder(), "domain-")
+                    .build()));
+    }
+
+    private static void requestOrganizations(CloudFoundryClient cloudFoundryClient) {
+        when(cloudFoundryClient.organizations()
+            .list(ListOrganizationsRequest.builder()
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListOrganizationsResponse.builder())
+                    .resource(fill(OrganizationResource.builder(), "organization-")
+                        .build())
+                    .build()));
+    }
+
+    private static void requestOrganizations(CloudFoundryClient cloudFoundryClient, String organization) {
+        when(cloudFoundryClient.organizations()
+            .list(ListOrganizationsRequest.builder()
+                .name(organization)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListOrganizationsResponse.builder())
+                    .resource(fill(OrganizationResource.builder(), "organization-")
+                        .build())
+                    .build()));
+    }
+
+    private static void requestOrganizationsWindows(CloudFoundryClient cloudFoundryClient) {
+        ListOrganizationsResponse.Builder responseBuilder = fill(ListOrganizationsResponse.builder());
+        IntStream.range(0, 50)
+            .forEach(i -> responseBuilder
+                .resource(fill(OrganizationResource.builder(), "organization-")
+                    .metadata(fill(Metadata.builder(), String.format("organization-%d-", i))
+                        .build())
+                    .build()));
+
+        when(cloudFoundryClient.organizations()
+            .list(ListOrganizationsRequest.builder()
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(responseBuilder
+                    .resource(fill(OrganizationResource.builder(), "organization-")
+                        .build())
+                    .build()));
+    }
+
+    private static void requestRoutes(CloudFoundryClient cloudFoundryClient, String organizationId, String host) {
+        when(cloudFoundryClient.routes()
+            .list(ListRoutesRequest.builder()
+                .host(host)
+                .organizationId(organizationId)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListRoutesResponse.builder())
+                    .resource(fill(RouteResource.builder(), "route-")
+                        .entity(fill(RouteEntity.builder(), "route-")
+                            .domainId("test-domain-id")
+                            .host(host)
+                            .path("/test-path")
+                            .spaceId("test-space-id")
+                            .build())
+                        .build())
+                    .build()));
+    }
+
+    private static void requestRoutesEmpty(CloudFoundryClient cloudFoundryClient, String organizationId, String host) {
+        when(cloudFoundryClient.routes()
+            .list(ListRoutesRequest.builder()
+                .host(host)
+                .organizationId(organizationId)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListRoutesResponse.builder())
+                    .build()));
+    }
+
+    private static void requestRoutesNever(CloudFoundryClient cloudFoundryClient, String organizationId, String host, AtomicBoolean cancelled) {
+        when(cloudFoundryClient.routes()
+            .list(ListRoutesRequest.builder()
+                .host(host)
+                .organizationId(organizationId)
+                .page(1)
+                .build()))
+            .thenReturn(Mono.<ListRoutesResponse>never()
+                .doOnCancel(() -> cancelled.set(true)));
+    }
+
+    private static void requestServiceInstances(CloudFoundryClient cloudFoundryClient, String organizationId, String name) {
+        when(cloudFoundryClient.serviceInstances()
+            .list(ListServiceInstancesRequest.builder()
+                .name(name)
+                .organizationId(organizationId)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListServiceInstancesResponse.builder())
+                    .resource(fill(ServiceInstanceResource.builder(), "service-instance-")
+                        .entity(fill(ServiceInstanceEntity.builder(), "service-instance-")
+                            .spaceId("test-space-id")
+                            .build())
+                        .build())
+                    .build()));
+    }
+
+    private static void requestSpace(CloudFoundryClient cloudFoundryClient, String spaceId) {
+        when(cloudFoundryClient.spaces()
+            .get(GetSpaceRequest.builder()
+                .spaceId(spaceId)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(GetSpaceResponse.builder(), "space-")
+                    .entity(fill(SpaceEntity.builder(), "space-")
+                        .organizationId("test-organization-id")
+                        .build())
+                    .build()));
+    }
+
+    public static final class Applications extends AbstractOperationsApiTest<SearchResult> {
+
+        private final DefaultSearch search = new DefaultSearch(Mono.just(this.cloudFoundryClient));
+
+        @Before
+        public void setUp() throws Exception {
+            requestOrganizations(this.cloudFoundryClient);
+            requestApplications(this.cloudFoundryClient, "test-organization-id", "test-application-name");
+            requestSpace(this.cloudFoundryClient, "test-space-id");
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<SearchResult> testSubscriber) {
+            testSubscriber
+                .assertEquals(SearchResult.builder()
+                    .id("test-application-id")
+                    .name("test-application-name")
+                    .organization("test-organization-name")
+                    .space("test-space-name")
+                    .build());
+        }
+
+        @Override
+        protected Publisher<SearchResult> invoke() {
+            return this.search
+                .applications(SearchRequest.builder()
+                    .name("test-application-name")
+                    .build());
+        }
+
+    }
+
+    public static final class ApplicationsNotFound extends AbstractOperationsApiTest<SearchResult> {
+
+        private final DefaultSearch search = new DefaultSearch(Mono.just(this.cloudFoundryClient));
+
+        @Before
+        public void setUp() throws Exception {
+            requestOrganizations(this.cloudFoundryClient, "test-organization-name");
+            requestApplicationsEmpty(this.cloudFoundryClient, "test-organization-id", "test-application-name");
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<SearchResult> testSubscriber) {
+            // Expects onComplete() with no onNext()
+        }
+
+        @Override
+        protected Publisher<SearchResult> invoke() {
+            return this.search
+                .applications(SearchRequest.builder()
+                    .name("test-application-name")
+                    .organization("test-organization-name")
+                    .build());
+        }
+
+    }
+
+    public static final class ApplicationsStreamed extends AbstractOperationsApiTest<SearchResult> {
+
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private final DefaultSearch search = new DefaultSearch(Mono.just(this.cloudFoundryClient));
+
+        @Before
+        public void setUp() throws Exception {
+            requestOrganizations(this.cloudFoundryClient);
+            requestApplicationsPageNever(this.cloudFoundryClient, "test-organization-id", "test-application-name", this.cancelled);
+            requestSpace(this.cloudFoundryClient, "test-space-id");
+        }
+
+        @After
+        public void verifyCancelled() {
+            assertTrue(this.cancelled.get());
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<SearchResult> testSubscriber) {
+            testSubscriber
+                .assertEquals(SearchResult.builder()
+                    .id("test-application-id")
+                    .name("test-application-name")
+                    .organization("test-organization-name")
+                    .space("test-space-name")
+                    .build());
+        }
+
+        @Override
+        protected Publisher<SearchResult> invoke() {
+            return this.search
+                .applications(SearchRequest.builder()
+                    .name("test-application-name")
+                    .build())
+                .take(1);
+        }
+
+    }
+
+    public static final class Routes extends AbstractOperationsApiTest<SearchResult> {
+
+        private final DefaultSearch search = new DefaultSearch(Mono.just(this.cloudFoundryClient));
+
+        @Before
+        public void setUp() throws Exception {
+            requestOrganizations(this.cloudFoundryClient);
+            requestRoutes(this.cloudFoundryClient, "test-organization-id", "test-host");
+            requestDomain(this.cloudFoundryClient, "test-domain-id");
+            requestSpace(this.cloudFoundryClient, "test-space-id");
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<SearchResult> testSubscriber) {
+            testSubscriber
+                .assertEquals(SearchResult.builder()
+                    .id("test-route-id")
+                    .name("test-host.test-domain-name/test-path")
+                    .organization("test-organization-name")
+                    .space("test-space-name")
+                    .build());
+        }
+
+        @Override
+        protected Publisher<SearchResult> invoke() {
+            return this.search
+                .routes(SearchRequest.builder()
+                    .name("test-host")
+                    .build());
+        }
+
+    }
+
+    public static final class RoutesCancelled extends AbstractOperationsApiTest<SearchResult> {
+
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private final DefaultSearch search = new DefaultSearch(Mono.just(this.cloudFoundryClient));
+
+        @Before
+        public void setUp() throws Exception {
+            requestOrganizationsWindows(this.cloudFoundryClient);
+            requestRoutesNever(this.cloudFoundryClient, "test-organization-0-id", "test-host", this.cancelled);
+            IntStream.range(1, 50)
+                .forEach(i -> requestRoutesEmpty(this.cloudFoundryClient, String.format("test-organization-%d-id", i), "test-host"));
+            requestRoutes(this.cloudFoundryClient, "test-organization-id", "test-host");
+            requestDomain(this.cloudFoundryClient, "test-domain-id");
+            requestSpace(this.cloudFoundryClient, "test-space-id");
+        }
+
+        @After
+        public void verifyCancelled() {
+            assertTrue(this.cancelled.get());
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<SearchResult> testSubscriber) {
+            testSubscriber
+                .assertEquals(SearchResult.builder()
+                    .id("test-route-id")
+                    .name("test-host.test-domain-name/test-path")
+                    .organization("test-organization-name")
+                    .space("test-space-name")
+                    .build());
+        }
+
+        @Override
+        protected Publisher<SearchResult> invoke() {
+            return this.search
+                .routes(SearchRequest.builder()
+                    .name("test-host")
+                    .build())
+                .take(1);
+        }
+
+    }
+
+    public static final class ServiceInstances extends AbstractOperationsApiTest<SearchResult> {
+
+        private final DefaultSearch search = new DefaultSearch(Mono.just(this.cloudFoundryClient));
+
+        @Before
+        public void setUp() throws Exception {
+            requestOrganizations(this.cloudFoundryClient);
+            requestServiceInstances(this.cloudFoundryClient, "test-organization-id", "test-service-instance-name");
+            requestSpace(this.cloudFoundryClient, "test-space-id");
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<SearchResult> testSubscriber) {
+            testSubscriber
+                .assertEquals(SearchResult.builder()
+                    .id("test-service-instance-id")
+                    .name("test-service-instance-name")
+                    .organization("test-organization-name")
+                    .space("test-space-name")
+                    .build());
+        }
+
+        @Override
+        protected Publisher<SearchResult> invoke() {
+            return this.search
+                .serviceInstances(SearchRequest.builder()
+                    .name("test-service-instance-name")
+                    .build());
+        }
+
+    }
+
+}
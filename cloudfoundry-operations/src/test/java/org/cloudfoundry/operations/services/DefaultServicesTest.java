@@ -415,19 +415,47 @@ public final class DefaultServicesTest {
                     .resource(fill(ServiceBindingResource.builder(), "service-binding")
                         .entity(ServiceBindingEntity.builder()
                             .applicationId(applicationId)
+                            .serviceInstanceId(serviceInstanceId)
                             .build())
                         .build())
                     .build()));
     }
 
-    private static void requestListServiceBindingsEmpty(CloudFoundryClient cloudFoundryClient, String serviceInstanceId) {
+    private static void requestListServiceBindingsTwo(CloudFoundryClient cloudFoundryClient, String serviceInstanceId1, String serviceInstanceId2, String applicationId) {
         when(cloudFoundryClient.serviceBindingsV2()
             .list(ListServiceBindingsRequest.builder()
                 .page(1)
-                .serviceInstanceId(serviceInstanceId)
+                .serviceInstanceId(serviceInstanceId1)
+                .serviceInstanceId(serviceInstanceId2)
                 .build()))
             .thenReturn(Mono
                 .just(fill(ListServiceBindingsResponse.builder())
+                    .resource(fill(ServiceBindingResource.builder(), "service-binding")
+                        .entity(ServiceBindingEntity.builder()
+                            .applicationId(applicationId)
+                            .serviceInstanceId(serviceInstanceId2)
+                            .build())
+                        .build())
+                    .build()));
+    }
+
+    private static void requestListServiceInstancePlans(CloudFoundryClient cloudFoundryClient, String serviceInstanceId, String servicePlanId, String servicePlan, String serviceId) {
+        when(cloudFoundryClient.servicePlans()
+            .list(ListServicePlansRequest.builder()
+                .page(1)
+                .serviceInstanceId(serviceInstanceId)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListServicePlansResponse.builder())
+                    .resource(ServicePlanResource.builder()
+                        .metadata(fill(Metadata.builder())
+                            .id(servicePlanId)
+                            .build())
+                        .entity(ServicePlanEntity.builder()
+                            .name(servicePlan)
+                            .serviceId(serviceId)
+                            .build())
+                        .build())
                     .build()));
     }
 
@@ -689,6 +717,7 @@ public final class DefaultServicesTest {
                             .build())
                         .entity(fill(ServicePlanEntity.builder())
                             .name(plan)
+                            .serviceId(serviceId)
                             .build())
                         .build())
                     .build())
@@ -696,6 +725,36 @@ public final class DefaultServicesTest {
             );
     }
 
+    private static void requestListServicePlansTwo(CloudFoundryClient cloudFoundryClient, String serviceId1, String plan1, String planId1, String serviceId2, String plan2, String planId2) {
+        when(cloudFoundryClient.servicePlans()
+            .list(ListServicePlansRequest.builder()
+                .serviceId(serviceId1)
+                .serviceId(serviceId2)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListServicePlansResponse.builder())
+                    .resource(ServicePlanResource.builder()
+                        .metadata(fill(Metadata.builder())
+                            .id(planId1)
+                            .build())
+                        .entity(fill(ServicePlanEntity.builder())
+                            .name(plan1)
+                            .serviceId(serviceId1)
+                            .build())
+                        .build())
+                    .resource(ServicePlanResource.builder()
+                        .metadata(fill(Metadata.builder())
+                            .id(planId2)
+                            .build())
+                        .entity(fill(ServicePlanEntity.builder())
+                            .name(plan2)
+                            .serviceId(serviceId2)
+                            .build())
+                        .build())
+                    .build()));
+    }
+
     private static void requestListServicePlansNotPublic(CloudFoundryClient cloudFoundryClient, String serviceId, String plan, String planId) {
         when(cloudFoundryClient.servicePlans()
             .list(ListServicePlansRequest.builder()
@@ -1280,7 +1339,7 @@ public final class DefaultServicesTest {
         @Before
         public void setUp() throws Exception {
             requestListServiceInstancesManaged(this.cloudFoundryClient, "test-service-instance-name", TEST_SPACE_ID);
-            requestGetServicePlan(this.cloudFoundryClient, "test-service-plan-id", "test-service-plan", "test-service-id");
+            requestListServiceInstancePlans(this.cloudFoundryClient, "test-service-instance-id", "test-service-plan-id", "test-service-plan", "test-service-id");
             requestListServiceBindings(this.cloudFoundryClient, "test-service-instance-id", "test-application-id");
             requestGetService(this.cloudFoundryClient, "test-service-id", "test-service");
             requestGetApplication(this.cloudFoundryClient, "test-application-id", "test-application");
@@ -1453,10 +1512,8 @@ public final class DefaultServicesTest {
         @Before
         public void setUp() throws Exception {
             requestListServiceInstancesTwo(this.cloudFoundryClient, TEST_SPACE_ID, "test-service-instance1", "test-service-instance2");
-            requestListServiceBindingsEmpty(this.cloudFoundryClient, "test-service-instance1-id");
-            requestListServiceBindings(this.cloudFoundryClient, "test-service-instance2-id", "test-application-id");
-            requestGetServicePlan(this.cloudFoundryClient, "test-service-instance1-plan-id", "test-service-plan", "test-service-id");
-            requestGetServicePlan(this.cloudFoundryClient, "test-service-instance2-plan-id", "test-service-plan", "test-service-id");
+            requestListServiceBindingsTwo(this.cloudFoundryClient, "test-service-instance1-id", "test-service-instance2-id", "test-application-id");
+            requestListServiceInstancePlans(this.cloudFoundryClient, "test-service-instance2-id", "test-service-instance2-plan-id", "test-service-plan", "test-service-id");
             requestGetService(this.cloudFoundryClient, "test-service-id", "test-service");
             requestGetApplication(this.cloudFoundryClient, "test-application-id", "test-application");
         }
@@ -1617,8 +1674,7 @@ public final class DefaultServicesTest {
         @Before
         public void setUp() throws Exception {
             requestListServicesTwo(this.cloudFoundryClient, TEST_SPACE_ID, "test-service1", "test-service2");
-            requestListServicePlans(this.cloudFoundryClient, "test-service1-id", "test-service1-plan", "test-service1-plan-id");
-            requestListServicePlans(this.cloudFoundryClient, "test-service2-id", "test-service2-plan", "test-service2-plan-id");
+            requestListServicePlansTwo(this.cloudFoundryClient, "test-service1-id", "test-service1-plan", "test-service1-plan-id", "test-service2-id", "test-service2-plan", "test-service2-plan-id");
         }
 
         @Override
@@ -266,6 +266,60 @@ public final class DefaultSpacesTest {
                     .build()));
     }
 
+    private static void requestOrganizationSpacesWithRelations(CloudFoundryClient cloudFoundryClient, String organizationId, String space, String spaceQuotaDefinitionId) {
+        when(cloudFoundryClient.organizations()
+            .listSpaces(ListOrganizationSpacesRequest.builder()
+                .includeRelations(Arrays.asList("apps", "domains", "organization", "security_groups", "space_quota_definition"))
+                .inlineRelationsDepth(1)
+                .name(space)
+                .organizationId(organizationId)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListOrganizationSpacesResponse.builder())
+                    .resource(fill(SpaceResource.builder(), "space-")
+                        .entity(fill(SpaceEntity.builder(), "space-")
+                            .application(fill(ApplicationResource.builder(), "application-")
+                                .build())
+                            .domain(fill(DomainResource.builder(), "domain-")
+                                .build())
+                            .organization(fill(OrganizationResource.builder(), "organization-")
+                                .build())
+                            .securityGroup(fill(SecurityGroupResource.builder(), "security-group-")
+                                .entity(fill(SecurityGroupEntity.builder(), "security-group-")
+                                    .rule(fill(RuleEntity.builder(), "security-group-")
+                                        .build())
+                                    .build())
+                                .build())
+                            .spaceQuotaDefinition(spaceQuotaDefinitionId == null ? null : fill(SpaceQuotaDefinitionResource.builder(), "space-quota-definition-")
+                                .build())
+                            .spaceQuotaDefinitionId(spaceQuotaDefinitionId)
+                            .build())
+                        .build())
+                    .build()));
+    }
+
+    private static void requestOrganizationSpacesWithRelationsNotInlined(CloudFoundryClient cloudFoundryClient, String organizationId, String space, String spaceQuotaDefinitionId) {
+        when(cloudFoundryClient.organizations()
+            .listSpaces(ListOrganizationSpacesRequest.builder()
+                .includeRelations(Arrays.asList("apps", "domains", "organization", "security_groups", "space_quota_definition"))
+                .inlineRelationsDepth(1)
+                .name(space)
+                .organizationId(organizationId)
+                .page(1)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListOrganizationSpacesResponse.builder())
+                    .resource(fill(SpaceResource.builder(), "space-")
+                        .entity(SpaceEntity.builder()
+                            .name(space)
+                            .organizationId("test-space-organizationId")
+                            .spaceQuotaDefinitionId(spaceQuotaDefinitionId)
+                            .build())
+                        .build())
+                    .build()));
+    }
+
     private static void requestOrganizationSpacesWithSsh(CloudFoundryClient cloudFoundryClient, String organizationId, String space, Boolean allowSsh) {
         when(cloudFoundryClient.organizations()
             .listSpaces(ListOrganizationSpacesRequest.builder()
@@ -798,13 +852,8 @@ public final class DefaultSpacesTest {
 
         @Before
         public void setUp() throws Exception {
-            requestOrganization(this.cloudFoundryClient, "test-space-organizationId");
-            requestOrganizationSpaces(this.cloudFoundryClient, TEST_ORGANIZATION_ID, TEST_SPACE_NAME, "test-space-spaceQuotaDefinitionId");
-            requestSpaceApplications(this.cloudFoundryClient, TEST_SPACE_ID);
-            requestSpaceDomains(this.cloudFoundryClient, TEST_SPACE_ID);
-            requestSpaceSecurityGroups(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestOrganizationSpacesWithRelations(this.cloudFoundryClient, TEST_ORGANIZATION_ID, TEST_SPACE_NAME, "test-space-spaceQuotaDefinitionId");
             requestSpaceServices(this.cloudFoundryClient, TEST_SPACE_ID);
-            requestSpaceQuotaDefinition(this.cloudFoundryClient, "test-space-spaceQuotaDefinitionId");
         }
 
         @Override
@@ -863,10 +912,48 @@ public final class DefaultSpacesTest {
 
         private final DefaultSpaces spaces = new DefaultSpaces(Mono.just(this.cloudFoundryClient), Mono.just(TEST_ORGANIZATION_ID), MISSING_ID);
 
+        @Before
+        public void setUp() throws Exception {
+            requestOrganizationSpacesWithRelations(this.cloudFoundryClient, TEST_ORGANIZATION_ID, TEST_SPACE_NAME, "test-space-spaceQuotaDefinitionId");
+            requestSpaceServices(this.cloudFoundryClient, TEST_SPACE_ID);
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<SpaceDetail> testSubscriber) {
+            testSubscriber
+                .assertEquals(SpaceDetail.builder()
+                    .application("test-application-name")
+                    .domain("test-domain-name")
+                    .id(TEST_SPACE_ID)
+                    .name(TEST_SPACE_NAME)
+                    .organization("test-organization-name")
+                    .securityGroup(SecurityGroup.builder()
+                        .name("test-security-group-name")
+                        .build())
+                    .service("test-service-label")
+                    .spaceQuota(Optional
+                        .of(fill(SpaceQuota.builder(), "space-quota-definition-")
+                            .build()))
+                    .build());
+        }
+
+        @Override
+        protected Publisher<SpaceDetail> invoke() {
+            return this.spaces
+                .get(GetSpaceRequest.builder()
+                    .name(TEST_SPACE_NAME)
+                    .build());
+        }
+    }
+
+    public static final class GetRelationsNotInlined extends AbstractOperationsApiTest<SpaceDetail> {
+
+        private final DefaultSpaces spaces = new DefaultSpaces(Mono.just(this.cloudFoundryClient), Mono.just(TEST_ORGANIZATION_ID), MISSING_USERNAME);
+
         @Before
         public void setUp() throws Exception {
             requestOrganization(this.cloudFoundryClient, "test-space-organizationId");
-            requestOrganizationSpaces(this.cloudFoundryClient, TEST_ORGANIZATION_ID, TEST_SPACE_NAME, "test-space-spaceQuotaDefinitionId");
+            requestOrganizationSpacesWithRelationsNotInlined(this.cloudFoundryClient, TEST_ORGANIZATION_ID, TEST_SPACE_NAME, "test-space-spaceQuotaDefinitionId");
             requestSpaceApplications(this.cloudFoundryClient, TEST_SPACE_ID);
             requestSpaceDomains(this.cloudFoundryClient, TEST_SPACE_ID);
             requestSpaceSecurityGroups(this.cloudFoundryClient, TEST_SPACE_ID);
@@ -885,6 +972,8 @@ public final class DefaultSpacesTest {
                     .organization("test-organization-name")
                     .securityGroup(SecurityGroup.builder()
                         .name("test-security-group-name")
+                        .rule(fill(Rule.builder(), "security-group-")
+                            .build())
                         .build())
                     .service("test-service-label")
                     .spaceQuota(Optional
@@ -898,8 +987,10 @@ public final class DefaultSpacesTest {
             return this.spaces
                 .get(GetSpaceRequest.builder()
                     .name(TEST_SPACE_NAME)
+                    .securityGroupRules(true)
                     .build());
         }
+
     }
 
     public static final class GetSpaceQuotaNull extends AbstractOperationsApiTest<SpaceDetail> {
@@ -908,11 +999,7 @@ public final class DefaultSpacesTest {
 
         @Before
         public void setUp() throws Exception {
-            requestOrganization(this.cloudFoundryClient, "test-space-organizationId");
-            requestOrganizationSpaces(this.cloudFoundryClient, TEST_ORGANIZATION_ID, TEST_SPACE_NAME, null);
-            requestSpaceApplications(this.cloudFoundryClient, TEST_SPACE_ID);
-            requestSpaceDomains(this.cloudFoundryClient, TEST_SPACE_ID);
-            requestSpaceSecurityGroups(this.cloudFoundryClient, TEST_SPACE_ID);
+            requestOrganizationSpacesWithRelations(this.cloudFoundryClient, TEST_ORGANIZATION_ID, TEST_SPACE_NAME, null);
             requestSpaceServices(this.cloudFoundryClient, TEST_SPACE_ID);
         }
 
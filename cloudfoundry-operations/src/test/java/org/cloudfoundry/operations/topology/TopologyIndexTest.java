@@ -0,0 +1,380 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.operations.topology;
+
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.CloudFoundryException;
+import org.cloudfoundry.client.v2.OrderDirection;
+import org.cloudfoundry.client.v2.applications.ApplicationEntity;
+import org.cloudfoundry.client.v2.applications.ApplicationResource;
+import org.cloudfoundry.client.v2.applications.ListApplicationsRequest;
+import org.cloudfoundry.client.v2.applications.ListApplicationsResponse;
+import org.cloudfoundry.client.v2.events.EventEntity;
+import org.cloudfoundry.client.v2.events.EventResource;
+import org.cloudfoundry.client.v2.events.ListEventsRequest;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
+import org.cloudfoundry.client.v2.organizations.ListOrganizationsRequest;
+import org.cloudfoundry.client.v2.organizations.ListOrganizationsResponse;
+import org.cloudfoundry.client.v2.organizations.OrganizationResource;
+import org.cloudfoundry.client.v2.privatedomains.ListPrivateDomainsRequest;
+import org.cloudfoundry.client.v2.privatedomains.ListPrivateDomainsResponse;
+import org.cloudfoundry.client.v2.routes.ListRoutesRequest;
+import org.cloudfoundry.client.v2.routes.ListRoutesResponse;
+import org.cloudfoundry.client.v2.serviceinstances.ListServiceInstancesRequest;
+import org.cloudfoundry.client.v2.serviceinstances.ListServiceInstancesResponse;
+import org.cloudfoundry.client.v2.shareddomains.ListSharedDomainsRequest;
+import org.cloudfoundry.client.v2.shareddomains.ListSharedDomainsResponse;
+import org.cloudfoundry.client.v2.spaces.ListSpacesRequest;
+import org.cloudfoundry.client.v2.spaces.ListSpacesResponse;
+import org.cloudfoundry.client.v2.spaces.SpaceEntity;
+import org.cloudfoundry.client.v2.spaces.SpaceResource;
+import org.cloudfoundry.client.v2.userprovidedserviceinstances.ListUserProvidedServiceInstancesRequest;
+import org.cloudfoundry.client.v2.userprovidedserviceinstances.ListUserProvidedServiceInstancesResponse;
+import org.cloudfoundry.operations.AbstractOperationsApiTest;
+import org.cloudfoundry.util.ExceptionUtils;
+import org.cloudfoundry.util.test.TestSubscriber;
+import org.junit.After;
+import org.junit.Before;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+import static org.cloudfoundry.util.test.TestObjects.fill;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+public final class TopologyIndexTest {
+
+    private static final String TEST_CURSOR = "2016-06-08T16:41:23Z";
+
+    private static void requestApplications(CloudFoundryClient cloudFoundryClient) {
+        when(cloudFoundryClient.applicationsV2()
+            .list(ListApplicationsRequest.builder()
+                .page(1)
+                .resultsPerPage(100)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListApplicationsResponse.builder())
+                    .resource(fill(ApplicationResource.builder(), "application-")
+                        .entity(fill(ApplicationEntity.builder(), "application-")
+                            .spaceId("test-space-id")
+                            .build())
+                        .build())
+                    .build()));
+    }
+
+    private static void requestEvents(CloudFoundryClient cloudFoundryClient, EventEntity event) {
+        when(cloudFoundryClient.events()
+            .list(ListEventsRequest.builder()
+                .page(1)
+                .resultsPerPage(100)
+                .timestamp(TEST_CURSOR)
+                .types(TopologyIndex.EVENT_TYPES)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListEventsResponse.builder())
+                    .resource(fill(EventResource.builder(), "event-")
+                        .entity(event)
+                        .build())
+                    .build()));
+    }
+
+    private static void requestLatestEvent(CloudFoundryClient cloudFoundryClient) {
+        when(cloudFoundryClient.events()
+            .list(ListEventsRequest.builder()
+                .orderDirection(OrderDirection.DESCENDING)
+                .page(1)
+                .resultsPerPage(1)
+                .types(TopologyIndex.EVENT_TYPES)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListEventsResponse.builder())
+                    .resource(fill(EventResource.builder(), "event-")
+                        .entity(fill(EventEntity.builder(), "event-")
+                            .timestamp(TEST_CURSOR)
+                            .build())
+                        .build())
+                    .build()));
+    }
+
+    private static void requestOrganizations(CloudFoundryClient cloudFoundryClient) {
+        when(cloudFoundryClient.organizations()
+            .list(ListOrganizationsRequest.builder()
+                .page(1)
+                .resultsPerPage(100)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListOrganizationsResponse.builder())
+                    .resource(fill(OrganizationResource.builder(), "organization-")
+                        .build())
+                    .build()));
+    }
+
+    private static void requestPrivateDomains(CloudFoundryClient cloudFoundryClient) {
+        when(cloudFoundryClient.privateDomains()
+            .list(ListPrivateDomainsRequest.builder()
+                .page(1)
+                .resultsPerPage(100)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListPrivateDomainsResponse.builder())
+                    .build()));
+    }
+
+    private static void requestRoutes(CloudFoundryClient cloudFoundryClient) {
+        when(cloudFoundryClient.routes()
+            .list(ListRoutesRequest.builder()
+                .page(1)
+                .resultsPerPage(100)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListRoutesResponse.builder())
+                    .build()));
+    }
+
+    private static void requestServiceInstances(CloudFoundryClient cloudFoundryClient) {
+        when(cloudFoundryClient.serviceInstances()
+            .list(ListServiceInstancesRequest.builder()
+                .page(1)
+                .resultsPerPage(100)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListServiceInstancesResponse.builder())
+                    .build()));
+    }
+
+    private static void requestSharedDomains(CloudFoundryClient cloudFoundryClient) {
+        when(cloudFoundryClient.sharedDomains()
+            .list(ListSharedDomainsRequest.builder()
+                .page(1)
+                .resultsPerPage(100)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListSharedDomainsResponse.builder())
+                    .build()));
+    }
+
+    private static void requestSpaces(CloudFoundryClient cloudFoundryClient) {
+        when(cloudFoundryClient.spaces()
+            .list(ListSpacesRequest.builder()
+                .page(1)
+                .resultsPerPage(100)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListSpacesResponse.builder())
+                    .resource(fill(SpaceResource.builder(), "space-")
+                        .entity(fill(SpaceEntity.builder(), "space-")
+                            .organizationId("test-organization-id")
+                            .build())
+                        .build())
+                    .build()));
+    }
+
+    private static void requestTopology(CloudFoundryClient cloudFoundryClient) {
+        requestLatestEvent(cloudFoundryClient);
+        requestApplications(cloudFoundryClient);
+        requestOrganizations(cloudFoundryClient);
+        requestPrivateDomains(cloudFoundryClient);
+        requestRoutes(cloudFoundryClient);
+        requestServiceInstances(cloudFoundryClient);
+        requestSharedDomains(cloudFoundryClient);
+        requestSpaces(cloudFoundryClient);
+        requestUserProvidedServiceInstances(cloudFoundryClient);
+    }
+
+    private static void requestUserProvidedServiceInstances(CloudFoundryClient cloudFoundryClient) {
+        when(cloudFoundryClient.userProvidedServiceInstances()
+            .list(ListUserProvidedServiceInstancesRequest.builder()
+                .page(1)
+                .resultsPerPage(100)
+                .build()))
+            .thenReturn(Mono
+                .just(fill(ListUserProvidedServiceInstancesResponse.builder())
+                    .build()));
+    }
+
+    public static final class Load extends AbstractOperationsApiTest<String> {
+
+        private final TopologyIndex topologyIndex = new TopologyIndex(Mono.just(this.cloudFoundryClient));
+
+        @Before
+        public void setUp() throws Exception {
+            requestTopology(this.cloudFoundryClient);
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<String> testSubscriber) {
+            testSubscriber
+                .assertEquals("test-space-id");
+        }
+
+        @Override
+        protected Publisher<String> invoke() {
+            return this.topologyIndex
+                .load()
+                .then(Mono.defer(() -> Mono.justOrEmpty(this.topologyIndex.getSpaceId("test-organization-id", "test-space-name"))));
+        }
+
+    }
+
+    public static final class Refresh extends AbstractOperationsApiTest<String> {
+
+        private final TopologyIndex topologyIndex = new TopologyIndex(Mono.just(this.cloudFoundryClient));
+
+        @Before
+        public void setUp() throws Exception {
+            requestTopology(this.cloudFoundryClient);
+            requestEvents(this.cloudFoundryClient, fill(EventEntity.builder(), "event-")
+                .actee("test-application-id")
+                .acteeName("test-application-new-name")
+                .acteeType("app")
+                .spaceId("test-space-id")
+                .timestamp("2016-06-08T16:41:26Z")
+                .type("audit.app.update")
+                .build());
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<String> testSubscriber) {
+            testSubscriber
+                .assertEquals("test-application-id");
+        }
+
+        @Override
+        protected Publisher<String> invoke() {
+            return this.topologyIndex
+                .load()
+                .then(Mono.defer(() -> this.topologyIndex.refresh()))
+                .then(Mono.defer(() -> Mono.justOrEmpty(this.topologyIndex.getApplicationId("test-space-id", "test-application-new-name"))));
+        }
+
+    }
+
+    public static final class RefreshDelete extends AbstractOperationsApiTest<String> {
+
+        private final TopologyIndex topologyIndex = new TopologyIndex(Mono.just(this.cloudFoundryClient));
+
+        @Before
+        public void setUp() throws Exception {
+            requestTopology(this.cloudFoundryClient);
+            requestEvents(this.cloudFoundryClient, fill(EventEntity.builder(), "event-")
+                .actee("test-application-id")
+                .acteeName("test-application-name")
+                .acteeType("app")
+                .spaceId("test-space-id")
+                .timestamp("2016-06-08T16:41:26Z")
+                .type("audit.app.delete-request")
+                .build());
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<String> testSubscriber) {
+            // Expects onComplete() with no onNext()
+        }
+
+        @Override
+        protected Publisher<String> invoke() {
+            return this.topologyIndex
+                .load()
+                .then(Mono.defer(() -> this.topologyIndex.refresh()))
+                .then(Mono.defer(() -> Mono.justOrEmpty(this.topologyIndex.getApplicationId("test-space-id", "test-application-name"))));
+        }
+
+    }
+
+    public static final class RefreshNotLoaded extends AbstractOperationsApiTest<Void> {
+
+        private final TopologyIndex topologyIndex = new TopologyIndex(Mono.just(this.cloudFoundryClient));
+
+        @Override
+        protected void assertions(TestSubscriber<Void> testSubscriber) {
+            testSubscriber
+                .assertError(IllegalStateException.class, "Topology index has not been loaded");
+        }
+
+        @Override
+        protected Publisher<Void> invoke() {
+            return this.topologyIndex
+                .refresh();
+        }
+
+    }
+
+    public static final class WithId extends AbstractOperationsApiTest<String> {
+
+        private final TopologyIndex topologyIndex = new TopologyIndex(Mono.just(this.cloudFoundryClient));
+
+        @Before
+        public void setUp() throws Exception {
+            requestTopology(this.cloudFoundryClient);
+        }
+
+        @After
+        public void verifyIndexed() {
+            assertEquals(Optional.of("test-application-id"), this.topologyIndex.getApplicationId("test-space-id", "test-application-name"));
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<String> testSubscriber) {
+            testSubscriber
+                .assertEquals("test-application-id");
+        }
+
+        @Override
+        protected Publisher<String> invoke() {
+            return this.topologyIndex
+                .load()
+                .then(Mono.defer(() -> this.topologyIndex.withId("test-application-id", ExceptionUtils.statusCode(100004),
+                    Mono.error(new IllegalStateException("test-exception-message")), Mono::just)));
+        }
+
+    }
+
+    public static final class WithIdNotFound extends AbstractOperationsApiTest<String> {
+
+        private final TopologyIndex topologyIndex = new TopologyIndex(Mono.just(this.cloudFoundryClient));
+
+        @Before
+        public void setUp() throws Exception {
+            requestTopology(this.cloudFoundryClient);
+        }
+
+        @After
+        public void verifyInvalidated() {
+            assertEquals(Optional.empty(), this.topologyIndex.getApplicationId("test-space-id", "test-application-name"));
+        }
+
+        @Override
+        protected void assertions(TestSubscriber<String> testSubscriber) {
+            testSubscriber
+                .assertEquals("test-application-new-id");
+        }
+
+        @Override
+        protected Publisher<String> invoke() {
+            return this.topologyIndex
+                .load()
+                .then(Mono.defer(() -> this.topologyIndex.withId("test-application-id", ExceptionUtils.statusCode(100004), Mono.just("test-application-new-id"),
+                    applicationId -> Mono.just(applicationId)
+                        .filter(id -> !"test-application-id".equals(id))
+                        .otherwiseIfEmpty(Mono.error(new CloudFoundryException(100004, "test-exception-description", "test-exception-errorCode"))))));
+        }
+
+    }
+
+}
@@ -16,20 +16,34 @@
 
 package org.cloudfoundry.util;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
- * Utilities for dealing with {@link Date}s
+ * Utilities for dealing with {@link Date}s and {@link Instant}s.  All methods are thread-safe and lock-free.
  */
 public final class DateUtils {
 
-    private static final SimpleDateFormat ISO8601 = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssX");
+    private static final int CACHE_SIZE = 1024;
 
-    private static final Object MONITOR = new Object();
+    private static final DateTimeFormatter ISO8601_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssX").withZone(ZoneOffset.UTC);
+
+    private static final DateTimeFormatter ISO8601_PARSE = new DateTimeFormatterBuilder()
+        .parseCaseInsensitive()
+        .append(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+        .optionalStart().appendOffset("+HH:MM", "Z").optionalEnd()
+        .optionalStart().appendOffset("+HHMM", "Z").optionalEnd()
+        .optionalStart().appendOffset("+HH", "Z").optionalEnd()
+        .toFormatter();
+
+    private static final CachedInstant[] PARSED = new CachedInstant[CACHE_SIZE];
 
     private DateUtils() {
     }
@@ -41,9 +55,17 @@ public final class DateUtils {
      * @return the formatted date
      */
     public static String formatToIso8601(Date d) {
-        synchronized (MONITOR) {
-            return ISO8601.format(d);
-        }
+        return formatToIso8601(d.toInstant());
+    }
+
+    /**
+     * Formats an {@link Instant} into a String in {@code ISO8601} format
+     *
+     * @param instant the instant to format
+     * @return the formatted instant
+     */
+    public static String formatToIso8601(Instant instant) {
+        return ISO8601_FORMAT.format(instant);
     }
 
     /**
@@ -53,13 +75,32 @@ public final class DateUtils {
      * @return the parsed {@link Date}
      */
     public static Date parseFromIso8601(String s) {
-        synchronized (MONITOR) {
-            try {
-                return ISO8601.parse(s);
-            } catch (ParseException e) {
-                throw new IllegalArgumentException("Unable to parse date", e);
-            }
+        return Date.from(parseInstantFromIso8601(s));
+    }
+
+    /**
+     * Parses a string in {@code ISO8601} format to an {@link Instant}.  Recently parsed values are cached, so the second-resolution timestamps that repeat across a response are only parsed once.
+     *
+     * @param s the string to parse
+     * @return the parsed {@link Instant}
+     */
+    public static Instant parseInstantFromIso8601(String s) {
+        int index = (s.hashCode() & 0x7FFFFFFF) % CACHE_SIZE;
+
+        CachedInstant cached = PARSED[index];
+        if (cached != null && cached.text.equals(s)) {
+            return cached.instant;
         }
+
+        Instant instant;
+        try {
+            instant = OffsetDateTime.parse(s, ISO8601_PARSE).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Unable to parse date", e);
+        }
+
+        PARSED[index] = new CachedInstant(s, instant);
+        return instant;
     }
 
     /**
@@ -69,9 +110,30 @@ public final class DateUtils {
      * @return the parsed {@link Date}
      */
     public static Date parseSecondsFromEpoch(Double d) {
-        synchronized (MONITOR) {
-            return new Date(SECONDS.toMillis(d.longValue()));
+        return new Date(SECONDS.toMillis(d.longValue()));
+    }
+
+    /**
+     * Parses a double representing seconds from the epoch to an {@link Instant}
+     *
+     * @param d the double to parse
+     * @return the parsed {@link Instant}
+     */
+    public static Instant parseInstantFromSecondsFromEpoch(Double d) {
+        return Instant.ofEpochSecond(d.longValue());
+    }
+
+    private static final class CachedInstant {
+
+        private final Instant instant;
+
+        private final String text;
+
+        private CachedInstant(String text, Instant instant) {
+            this.instant = instant;
+            this.text = text;
         }
+
     }
 
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A memo of related values by id, for listings that are resolved in windows or one resource at a time.  A single cache is shared by a whole listing, so each related resource is requested once
+ * however many windows or resources refer to it.
+ *
+ * @param <T> the type of the cached values
+ */
+public final class RelationCache<T> {
+
+    private final Map<String, Mono<T>> pending = new ConcurrentHashMap<>();
+
+    private final Map<String, T> values = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the distinct ids that are not yet known
+     *
+     * @param ids   the ids, which may contain {@code null}s and duplicates
+     * @param known whether an id is already known
+     * @return the ids that are not known
+     */
+    public static List<String> getMissingIds(Stream<String> ids, Predicate<String> known) {
+        return ids
+            .filter(id -> id != null && !known.test(id))
+            .distinct()
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a read-only view of the cached values
+     *
+     * @return the cached values by id
+     */
+    public Map<String, T> asMap() {
+        return Collections.unmodifiableMap(this.values);
+    }
+
+    /**
+     * Returns whether a value is cached for an id
+     *
+     * @param id the id
+     * @return {@code true} if a value is cached
+     */
+    public boolean contains(String id) {
+        return this.values.containsKey(id);
+    }
+
+    /**
+     * Returns the value cached for an id
+     *
+     * @param id the id
+     * @return the cached value, or {@code null} if there is none
+     */
+    public T get(String id) {
+        return this.values.get(id);
+    }
+
+    /**
+     * Returns the distinct ids that are not yet cached
+     *
+     * @param ids the ids, which may contain {@code null}s and duplicates
+     * @return the ids that are not cached
+     */
+    public List<String> getMissingIds(Stream<String> ids) {
+        return getMissingIds(ids, this::contains);
+    }
+
+    /**
+     * Caches a value
+     *
+     * @param id    the id
+     * @param value the value
+     */
+    public void put(String id, T value) {
+        this.values.put(id, value);
+    }
+
+    /**
+     * Resolves a single id, unless it is already cached, and caches the result.  Concurrent resolutions of the same id share a single request.
+     *
+     * @param id       the id
+     * @param resolver resolves the value for the id
+     * @return the value for the id
+     */
+    public Mono<T> resolve(String id, Function<String, Mono<T>> resolver) {
+        T value = this.values.get(id);
+        if (value != null) {
+            return Mono.just(value);
+        }
+
+        return this.pending.computeIfAbsent(id, key -> resolver.apply(key)
+            .doOnSuccess(resolved -> {
+                if (resolved != null) {
+                    put(key, resolved);
+                }
+                this.pending.remove(key);
+            })
+            .doOnError(throwable -> this.pending.remove(key))
+            .cache());
+    }
+
+    /**
+     * Resolves each id that is not yet cached, concurrently, and caches the results
+     *
+     * @param ids      the ids, which may contain {@code null}s and duplicates
+     * @param resolver resolves the value for an id
+     * @return a read-only view of the cached values by id, once every missing id has been resolved
+     */
+    public Mono<Map<String, T>> resolve(Stream<String> ids, Function<String, Mono<T>> resolver) {
+        return Flux
+            .fromIterable(getMissingIds(ids))
+            .flatMap(id -> resolver.apply(id)
+                .doOnSuccess(value -> {
+                    if (value != null) {
+                        put(id, value);
+                    }
+                }))
+            .collectList()
+            .map(values -> asMap());
+    }
+
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import org.cloudfoundry.doppler.ContainerMetric;
+import org.cloudfoundry.doppler.Event;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Aggregates {@link ContainerMetric}s into rolling windows per application instance.  The CPU, memory, and disk samples of each instance are held in primitive ring buffers of a fixed capacity,
+ * so recording a sample takes constant time and allocates nothing once an instance has been seen, and memory is bounded by the number of instances.  Windows are queried by age, and summarized as
+ * an average, maximum, and percentiles, either for a single instance or across every instance of an application.
+ * <p>
+ * An aggregator can be used directly as the {@link Consumer} of a firehose, in which case events other than {@link ContainerMetric}s are ignored.  All methods are thread-safe.
+ */
+public final class ContainerMetricsAggregator implements Consumer<Event> {
+
+    private final ConcurrentMap<String, Application> applications = new ConcurrentHashMap<>();
+
+    private final int capacity;
+
+    private final LongSupplier clock;
+
+    /**
+     * Creates an aggregator
+     *
+     * @param capacity the number of samples retained for each instance
+     */
+    public ContainerMetricsAggregator(int capacity) {
+        this(capacity, System::nanoTime);
+    }
+
+    ContainerMetricsAggregator(int capacity, LongSupplier clock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(String.format("Capacity must be positive: %d", capacity));
+        }
+
+        this.capacity = capacity;
+        this.clock = clock;
+    }
+
+    @Override
+    public void accept(Event event) {
+        if (event instanceof ContainerMetric) {
+            record((ContainerMetric) event);
+        }
+    }
+
+    /**
+     * Removes all samples for applications that have not been sampled within a duration
+     *
+     * @param idle the duration
+     */
+    public void evictIdle(Duration idle) {
+        long cutoff = this.clock.getAsLong() - idle.toNanos();
+        this.applications.values().removeIf(application -> application.getLastUpdated() - cutoff < 0);
+    }
+
+    /**
+     * Records a sample
+     *
+     * @param containerMetric the sample
+     */
+    public void record(ContainerMetric containerMetric) {
+        this.applications
+            .computeIfAbsent(containerMetric.getApplicationId(), applicationId -> new Application(this.capacity))
+            .record(containerMetric.getInstanceIndex(), containerMetric.getCpuPercentage(), containerMetric.getMemoryBytes(), containerMetric.getDiskBytes(), this.clock.getAsLong());
+    }
+
+    /**
+     * Removes all samples for an application
+     *
+     * @param applicationId the application id
+     */
+    public void remove(String applicationId) {
+        this.applications.remove(applicationId);
+    }
+
+    /**
+     * Removes all samples for applications other than those specified
+     *
+     * @param applicationIds the application ids to retain
+     */
+    public void retain(Collection<String> applicationIds) {
+        this.applications.keySet().retainAll(applicationIds);
+    }
+
+    /**
+     * Summarizes the samples of a resource taken within a window, across every instance of an application
+     *
+     * @param applicationId the application id
+     * @param resource      the resource
+     * @param window        the age of the oldest sample to include
+     * @return the summary
+     */
+    public WindowSummary summarize(String applicationId, Resource resource, Duration window) {
+        Application application = this.applications.get(applicationId);
+        return application == null ? WindowSummary.of(new double[0], 0) : application.summarize(-1, resource, this.clock.getAsLong() - window.toNanos());
+    }
+
+    /**
+     * Summarizes the samples of a resource taken within a window, for a single instance of an application
+     *
+     * @param applicationId the application id
+     * @param instanceIndex the instance index
+     * @param resource      the resource
+     * @param window        the age of the oldest sample to include
+     * @return the summary
+     */
+    public WindowSummary summarize(String applicationId, int instanceIndex, Resource resource, Duration window) {
+        Application application = this.applications.get(applicationId);
+        return application == null ? WindowSummary.of(new double[0], 0) : application.summarize(instanceIndex, resource, this.clock.getAsLong() - window.toNanos());
+    }
+
+    /**
+     * The resources measured by a {@link ContainerMetric}
+     */
+    public enum Resource {
+
+        /**
+         * The percentage of CPU used
+         */
+        CPU,
+
+        /**
+         * The bytes of disk used
+         */
+        DISK,
+
+        /**
+         * The bytes of memory used
+         */
+        MEMORY
+
+    }
+
+    private static final class Application {
+
+        private final int capacity;
+
+        private Instance[] instances = new Instance[1];
+
+        private volatile long lastUpdated;
+
+        private Application(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private long getLastUpdated() {
+            return this.lastUpdated;
+        }
+
+        private synchronized void record(int instanceIndex, double cpu, long memory, long disk, long timestamp) {
+            if (instanceIndex < 0) {
+                return;
+            }
+
+            if (instanceIndex >= this.instances.length) {
+                this.instances = Arrays.copyOf(this.instances, Math.max(instanceIndex + 1, this.instances.length * 2));
+            }
+
+            Instance instance = this.instances[instanceIndex];
+            if (instance == null) {
+                instance = new Instance(this.capacity);
+                this.instances[instanceIndex] = instance;
+            }
+
+            instance.record(cpu, memory, disk, timestamp);
+            this.lastUpdated = timestamp;
+        }
+
+        private synchronized WindowSummary summarize(int instanceIndex, Resource resource, long cutoff) {
+            if (instanceIndex >= this.instances.length) {
+                return WindowSummary.of(new double[0], 0);
+            }
+
+            int from = instanceIndex < 0 ? 0 : instanceIndex;
+            int to = instanceIndex < 0 ? this.instances.length : instanceIndex + 1;
+
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                size += this.instances[i] == null ? 0 : this.instances[i].size;
+            }
+
+            double[] samples = new double[size];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (this.instances[i] != null) {
+                    count = this.instances[i].copy(resource, cutoff, samples, count);
+                }
+            }
+
+            return WindowSummary.of(samples, count);
+        }
+
+    }
+
+    private static final class Instance {
+
+        private final double[] cpu;
+
+        private final long[] disk;
+
+        private final long[] memory;
+
+        private final long[] timestamps;
+
+        private int head;
+
+        private int size;
+
+        private Instance(int capacity) {
+            this.cpu = new double[capacity];
+            this.disk = new long[capacity];
+            this.memory = new long[capacity];
+            this.timestamps = new long[capacity];
+        }
+
+        private int copy(Resource resource, long cutoff, double[] samples, int offset) {
+            int count = offset;
+
+            // Walk from the newest sample backwards, stopping at the first sample older than the window
+            for (int i = 0; i < this.size; i++) {
+                int index = Math.floorMod(this.head - 1 - i, this.timestamps.length);
+                if (this.timestamps[index] - cutoff < 0) {
+                    break;
+                }
+
+                samples[count++] = getSample(resource, index);
+            }
+
+            return count;
+        }
+
+        private double getSample(Resource resource, int index) {
+            switch (resource) {
+                case CPU:
+                    return this.cpu[index];
+                case DISK:
+                    return this.disk[index];
+                case MEMORY:
+                    return this.memory[index];
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown resource: %s", resource));
+            }
+        }
+
+        private void record(double cpu, long memory, long disk, long timestamp) {
+            this.cpu[this.head] = cpu;
+            this.disk[this.head] = disk;
+            this.memory[this.head] = memory;
+            this.timestamps[this.head] = timestamp;
+
+            this.head = (this.head + 1) % this.timestamps.length;
+            this.size = Math.min(this.size + 1, this.timestamps.length);
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import java.time.Instant;
+
+/**
+ * A downsampled point of a metric time series, summarizing the samples received during an interval
+ */
+public final class DataPoint {
+
+    private final long count;
+
+    private final double last;
+
+    private final double maximum;
+
+    private final double minimum;
+
+    private final double sum;
+
+    private final long timestamp;
+
+    DataPoint(long timestamp, long count, double minimum, double maximum, double sum, double last) {
+        this.count = count;
+        this.last = last;
+        this.maximum = maximum;
+        this.minimum = minimum;
+        this.sum = sum;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Returns the average of the samples
+     *
+     * @return the average
+     */
+    public double getAverage() {
+        return this.sum / this.count;
+    }
+
+    /**
+     * Returns the number of samples
+     *
+     * @return the number of samples
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the most recent sample
+     *
+     * @return the most recent sample
+     */
+    public double getLast() {
+        return this.last;
+    }
+
+    /**
+     * Returns the largest sample
+     *
+     * @return the largest sample
+     */
+    public double getMaximum() {
+        return this.maximum;
+    }
+
+    /**
+     * Returns the smallest sample
+     *
+     * @return the smallest sample
+     */
+    public double getMinimum() {
+        return this.minimum;
+    }
+
+    /**
+     * Returns the sum of the samples
+     *
+     * @return the sum of the samples
+     */
+    public double getSum() {
+        return this.sum;
+    }
+
+    /**
+     * Returns the start of the interval
+     *
+     * @return the start of the interval
+     */
+    public Instant getTimestamp() {
+        return Instant.ofEpochMilli(this.timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DataPoint{timestamp=%s, count=%d, minimum=%s, maximum=%s, sum=%s, last=%s}", getTimestamp(), this.count, this.minimum, this.maximum, this.sum, this.last);
+    }
+
+    long getTimestampMillis() {
+        return this.timestamp;
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import org.cloudfoundry.doppler.Event;
+import org.cloudfoundry.doppler.HttpStartStop;
+import org.cloudfoundry.doppler.PeerType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Computes per-application and per-route latency distributions and response status counts from {@link HttpStartStop} events.  URIs are normalized with path identifiers collapsed, and each
+ * application is limited to a maximum number of routes beyond which requests are counted against {@value #OTHER_ROUTE}.  Statistics accumulate until the next call to {@link #snapshot()}, so a
+ * periodic snapshot yields per-interval distributions.
+ * <p>
+ * An instance can be used directly as the {@link Consumer} of a firehose, in which case events other than {@link HttpStartStop}s are ignored.  Only events from one {@link PeerType} are recorded,
+ * as both the router and the application report each request.  All methods are thread-safe.
+ */
+public final class HttpLatencyAnalytics implements Consumer<Event> {
+
+    /**
+     * The route that requests are counted against once an application has reached its maximum number of routes
+     */
+    public static final String OTHER_ROUTE = "<other>";
+
+    private static final int DEFAULT_MAXIMUM_ROUTES = 256;
+
+    private final ConcurrentMap<UUID, ConcurrentMap<String, RouteStatistics>> applications = new ConcurrentHashMap<>();
+
+    private final int maximumRoutes;
+
+    private final PeerType peerType;
+
+    /**
+     * Creates an instance recording requests reported by the router, with at most {@value #DEFAULT_MAXIMUM_ROUTES} routes per application
+     */
+    public HttpLatencyAnalytics() {
+        this(PeerType.CLIENT, DEFAULT_MAXIMUM_ROUTES);
+    }
+
+    /**
+     * Creates an instance
+     *
+     * @param peerType      the type of peer whose reports are recorded
+     * @param maximumRoutes the maximum number of routes per application
+     */
+    public HttpLatencyAnalytics(PeerType peerType, int maximumRoutes) {
+        if (maximumRoutes < 1) {
+            throw new IllegalArgumentException(String.format("Maximum routes must be positive: %d", maximumRoutes));
+        }
+
+        this.maximumRoutes = maximumRoutes;
+        this.peerType = peerType;
+    }
+
+    @Override
+    public void accept(Event event) {
+        if (event instanceof HttpStartStop) {
+            record((HttpStartStop) event);
+        }
+    }
+
+    /**
+     * Records a request
+     *
+     * @param httpStartStop the request
+     */
+    public void record(HttpStartStop httpStartStop) {
+        if (httpStartStop.getApplicationId() == null || httpStartStop.getPeerType() != this.peerType) {
+            return;
+        }
+
+        long latency = (httpStartStop.getStopTimestamp() - httpStartStop.getStartTimestamp()) / 1_000;
+        RouteStatistics statistics = getStatistics(httpStartStop.getApplicationId(), RouteNormalizer.normalize(httpStartStop.getUri()));
+
+        synchronized (statistics) {
+            statistics.record(latency, httpStartStop.getStatusCode());
+        }
+    }
+
+    /**
+     * Returns the statistics accumulated since the previous snapshot and starts a new interval
+     *
+     * @return the statistics
+     */
+    public HttpLatencySnapshot snapshot() {
+        Map<UUID, Map<String, RouteStatistics>> snapshot = new HashMap<>();
+
+        this.applications.forEach((applicationId, routes) -> routes.forEach((route, statistics) -> {
+            RouteStatistics copy;
+            synchronized (statistics) {
+                if (statistics.getLatencies().getCount() == 0) {
+                    return;
+                }
+
+                copy = statistics.copy();
+                statistics.reset();
+            }
+
+            snapshot.computeIfAbsent(applicationId, key -> new HashMap<>()).put(route, copy);
+        }));
+
+        return new HttpLatencySnapshot(snapshot);
+    }
+
+    private RouteStatistics getStatistics(UUID applicationId, String route) {
+        ConcurrentMap<String, RouteStatistics> routes = this.applications.computeIfAbsent(applicationId, key -> new ConcurrentHashMap<>());
+
+        RouteStatistics statistics = routes.get(route);
+        if (statistics != null) {
+            return statistics;
+        }
+
+        return routes.computeIfAbsent(routes.size() < this.maximumRoutes ? route : OTHER_ROUTE, key -> new RouteStatistics());
+    }
+
+}
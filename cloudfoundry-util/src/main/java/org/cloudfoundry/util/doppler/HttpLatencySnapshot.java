@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The per-route HTTP statistics of every application over an interval
+ */
+public final class HttpLatencySnapshot {
+
+    private final Map<UUID, Map<String, RouteStatistics>> routes;
+
+    HttpLatencySnapshot(Map<UUID, Map<String, RouteStatistics>> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Returns the statistics of every route of an application combined
+     *
+     * @param applicationId the application id
+     * @return the statistics, empty if the application received no requests
+     */
+    public RouteStatistics getApplication(UUID applicationId) {
+        RouteStatistics application = new RouteStatistics();
+        getRoutes(applicationId).values().forEach(application::add);
+        return application;
+    }
+
+    /**
+     * Returns the ids of the applications that received requests
+     *
+     * @return the application ids
+     */
+    public Set<UUID> getApplicationIds() {
+        return Collections.unmodifiableSet(this.routes.keySet());
+    }
+
+    /**
+     * Returns the statistics of each route of an application
+     *
+     * @param applicationId the application id
+     * @return the statistics, keyed by normalized route
+     */
+    public Map<String, RouteStatistics> getRoutes(UUID applicationId) {
+        return Collections.unmodifiableMap(this.routes.getOrDefault(applicationId, Collections.emptyMap()));
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import java.util.Arrays;
+
+/**
+ * A latency distribution in log-linear buckets.  Latencies are recorded in microseconds; values below {@value #SUB_BUCKETS} are recorded exactly and larger values with a relative error of at
+ * most {@code 1/}{@value #HALF_SUB_BUCKETS}.  Recording a value takes constant time and does not allocate.  Instances are not thread-safe.
+ */
+public final class LatencyHistogram {
+
+    static final int HALF_SUB_BUCKETS = 32;
+
+    static final int SUB_BUCKETS = 64;
+
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final long MAXIMUM_VALUE = (1L << 36) - 1;
+
+    private static final int BUCKETS = getIndex(MAXIMUM_VALUE) + 1;
+
+    private final long[] counts = new long[BUCKETS];
+
+    private long count;
+
+    private long maximum;
+
+    private double sum;
+
+    LatencyHistogram() {
+    }
+
+    /**
+     * Returns the number of recorded values
+     *
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the largest recorded value
+     *
+     * @return the largest recorded value in microseconds, or {@code 0} if there are no values
+     */
+    public long getMaximum() {
+        return this.maximum;
+    }
+
+    /**
+     * Returns the mean of the recorded values
+     *
+     * @return the mean in microseconds, or {@link Double#NaN} if there are no values
+     */
+    public double getMean() {
+        return this.count == 0 ? Double.NaN : this.sum / this.count;
+    }
+
+    /**
+     * Returns the value at a percentile
+     *
+     * @param percentile the percentile, between {@code 0} and {@code 100}
+     * @return the value in microseconds, or {@code 0} if there are no values
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException(String.format("Percentile must be between 0 and 100: %s", percentile));
+        }
+
+        if (this.count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(getValue(i), this.maximum);
+            }
+        }
+
+        return this.maximum;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencyHistogram{count=%d, mean=%s, p50=%d, p99=%d, maximum=%d}", this.count, getMean(), getValueAtPercentile(50), getValueAtPercentile(99), this.maximum);
+    }
+
+    static int getIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (subBucket - HALF_SUB_BUCKETS);
+    }
+
+    static long getValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+
+        // Report the middle of the bucket, which halves the worst-case error of reporting either edge
+        return (subBucket << shift) + (1L << (shift - 1));
+    }
+
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] += other.counts[i];
+        }
+
+        this.count += other.count;
+        this.maximum = Math.max(this.maximum, other.maximum);
+        this.sum += other.sum;
+    }
+
+    LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    void record(long value) {
+        long clamped = Math.max(0, Math.min(value, MAXIMUM_VALUE));
+
+        this.counts[getIndex(clamped)]++;
+        this.count++;
+        this.maximum = Math.max(this.maximum, clamped);
+        this.sum += clamped;
+    }
+
+    void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.maximum = 0;
+        this.sum = 0;
+    }
+
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compressed, append-only run of {@link DataPoint}s stored as one byte column per field.  Timestamps are encoded as deltas-of-deltas, so points at a regular interval take a single byte each,
+ * counts as deltas, and values as the bitwise {@code XOR} of consecutive values with trailing zeros removed, so unchanged values also take a single byte.  Instances are not thread-safe.
+ */
+final class MetricChunk {
+
+    static final int CAPACITY = 256;
+
+    private final Column counts = new Column();
+
+    private final Column lasts = new Column();
+
+    private final Column maximums = new Column();
+
+    private final Column minimums = new Column();
+
+    private final Column sums = new Column();
+
+    private final Column timestamps = new Column();
+
+    private long firstTimestamp;
+
+    private long lastCount;
+
+    private long lastDelta;
+
+    private long lastLast;
+
+    private long lastMaximum;
+
+    private long lastMinimum;
+
+    private long lastSum;
+
+    private long lastTimestamp;
+
+    private int size;
+
+    void append(long timestamp, long count, double minimum, double maximum, double sum, double last) {
+        if (this.size == 0) {
+            this.firstTimestamp = timestamp;
+            this.timestamps.writeSigned(timestamp);
+        } else {
+            long delta = timestamp - this.lastTimestamp;
+            this.timestamps.writeSigned(delta - this.lastDelta);
+            this.lastDelta = delta;
+        }
+        this.lastTimestamp = timestamp;
+
+        this.counts.writeSigned(count - this.lastCount);
+        this.lastCount = count;
+
+        this.lastMinimum = this.minimums.writeXor(this.lastMinimum, minimum);
+        this.lastMaximum = this.maximums.writeXor(this.lastMaximum, maximum);
+        this.lastSum = this.sums.writeXor(this.lastSum, sum);
+        this.lastLast = this.lasts.writeXor(this.lastLast, last);
+
+        this.size++;
+    }
+
+    void decode(long from, long to, List<DataPoint> points) {
+        Reader timestamps = new Reader(this.timestamps);
+        Reader counts = new Reader(this.counts);
+        Reader minimums = new Reader(this.minimums);
+        Reader maximums = new Reader(this.maximums);
+        Reader sums = new Reader(this.sums);
+        Reader lasts = new Reader(this.lasts);
+
+        long timestamp = 0;
+        long delta = 0;
+        long count = 0;
+
+        for (int i = 0; i < this.size; i++) {
+            if (i == 0) {
+                timestamp = timestamps.readSigned();
+            } else {
+                delta += timestamps.readSigned();
+                timestamp += delta;
+            }
+
+            count += counts.readSigned();
+            double minimum = minimums.readXor();
+            double maximum = maximums.readXor();
+            double sum = sums.readXor();
+            double last = lasts.readXor();
+
+            if (timestamp >= to) {
+                return;
+            }
+
+            if (timestamp >= from) {
+                points.add(new DataPoint(timestamp, count, minimum, maximum, sum, last));
+            }
+        }
+    }
+
+    int getBytes() {
+        return this.counts.length + this.lasts.length + this.maximums.length + this.minimums.length + this.sums.length + this.timestamps.length;
+    }
+
+    long getFirstTimestamp() {
+        return this.firstTimestamp;
+    }
+
+    long getLastTimestamp() {
+        return this.lastTimestamp;
+    }
+
+    int getSize() {
+        return this.size;
+    }
+
+    boolean isFull() {
+        return this.size >= CAPACITY;
+    }
+
+    void seal() {
+        this.counts.trim();
+        this.lasts.trim();
+        this.maximums.trim();
+        this.minimums.trim();
+        this.sums.trim();
+        this.timestamps.trim();
+    }
+
+    private static final class Column {
+
+        private byte[] data = new byte[64];
+
+        private int length;
+
+        private void trim() {
+            this.data = Arrays.copyOf(this.data, this.length);
+        }
+
+        private void write(int b) {
+            if (this.length == this.data.length) {
+                this.data = Arrays.copyOf(this.data, Math.max(64, this.length * 2));
+            }
+
+            this.data[this.length++] = (byte) b;
+        }
+
+        private void writeSigned(long value) {
+            writeUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        private void writeUnsigned(long value) {
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                write((int) ((remaining & 0x7F) | 0x80));
+                remaining >>>= 7;
+            }
+            write((int) remaining);
+        }
+
+        private long writeXor(long previous, double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            long xor = bits ^ previous;
+
+            if (xor == 0) {
+                write(64);
+            } else {
+                int trailingZeros = Long.numberOfTrailingZeros(xor);
+                write(trailingZeros);
+                writeUnsigned(xor >>> trailingZeros);
+            }
+
+            return bits;
+        }
+
+    }
+
+    private static final class Reader {
+
+        private final Column column;
+
+        private long previous;
+
+        private int position;
+
+        private Reader(Column column) {
+            this.column = column;
+        }
+
+        private int read() {
+            return this.column.data[this.position++] & 0xFF;
+        }
+
+        private long readSigned() {
+            long value = readUnsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long readUnsigned() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        private double readXor() {
+            int trailingZeros = read();
+            if (trailingZeros < 64) {
+                this.previous ^= readUnsigned() << trailingZeros;
+            }
+
+            return Double.longBitsToDouble(this.previous);
+        }
+
+    }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import org.cloudfoundry.doppler.CounterEvent;
+import org.cloudfoundry.doppler.Event;
+import org.cloudfoundry.doppler.ValueMetric;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A local time-series store for {@link ValueMetric}s and {@link CounterEvent}s.  Samples are downsampled into each configured {@link Rollup} as they arrive, and only the downsampled points are
+ * kept, in compressed chunks that are discarded once they are older than the rollup's retention.  A {@link ValueMetric} is recorded as its value and a {@link CounterEvent} as its delta, so the
+ * sum of a counter's point is its increase during the interval.
+ * <p>
+ * Events do not carry the origin, deployment, or timestamp of their envelope, so every sample is recorded with an explicit {@link SeriesKey} and timestamp supplied by the caller.  Samples that
+ * arrive after their interval has been completed are dropped and counted.  All methods are thread-safe.
+ */
+public final class MetricStore {
+
+    private static final List<Rollup> DEFAULT_ROLLUPS = Arrays.asList(Rollup.of(Duration.ofSeconds(10), Duration.ofDays(1)), Rollup.of(Duration.ofMinutes(1), Duration.ofDays(7)));
+
+    private final LongSupplier clock;
+
+    private final AtomicLong late = new AtomicLong();
+
+    private final List<Rollup> rollups;
+
+    private final ConcurrentMap<SeriesKey, Series> series = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a store that keeps 10 second points for a day and 1 minute points for a week
+     */
+    public MetricStore() {
+        this(DEFAULT_ROLLUPS);
+    }
+
+    /**
+     * Creates a store
+     *
+     * @param rollups the resolutions to downsample samples to
+     */
+    public MetricStore(List<Rollup> rollups) {
+        this(rollups, System::currentTimeMillis);
+    }
+
+    MetricStore(List<Rollup> rollups, LongSupplier clock) {
+        if (rollups.isEmpty()) {
+            throw new IllegalArgumentException("At least one rollup must be specified");
+        }
+
+        this.clock = clock;
+        this.rollups = new ArrayList<>(rollups);
+    }
+
+    /**
+     * Removes the series that have not received a sample within a duration
+     *
+     * @param idle the duration
+     */
+    public void evictIdle(Duration idle) {
+        long cutoff = this.clock.getAsLong() - idle.toMillis();
+        this.series.values().removeIf(s -> s.getLastTimestamp() < cutoff);
+    }
+
+    /**
+     * Returns the approximate number of bytes used by the stored points
+     *
+     * @return the number of bytes
+     */
+    public long getBytes() {
+        long bytes = 0;
+        for (Series s : this.series.values()) {
+            bytes += s.getBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the keys of the stored series
+     *
+     * @return the keys
+     */
+    public Set<SeriesKey> getKeys() {
+        return Collections.unmodifiableSet(this.series.keySet());
+    }
+
+    /**
+     * Returns the number of samples dropped because their interval had already been completed
+     *
+     * @return the number of samples dropped
+     */
+    public long getLate() {
+        return this.late.get();
+    }
+
+    /**
+     * Returns the points of a series in a time range, including the point of the interval in progress
+     *
+     * @param key      the key of the series
+     * @param interval the interval of the rollup to query
+     * @param from     the start of the range, inclusive
+     * @param to       the end of the range, exclusive
+     * @return the points, in time order
+     */
+    public List<DataPoint> query(SeriesKey key, Duration interval, Instant from, Instant to) {
+        int rollup = getRollup(interval);
+
+        Series s = this.series.get(key);
+        return s == null ? Collections.emptyList() : s.query(rollup, from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    /**
+     * Records a sample
+     *
+     * @param key       the key of the series
+     * @param timestamp the time of the sample, in milliseconds since the epoch
+     * @param value     the value of the sample
+     */
+    public void record(SeriesKey key, long timestamp, double value) {
+        if (!this.series.computeIfAbsent(key, k -> new Series(this.rollups)).record(timestamp, value)) {
+            this.late.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records a {@link ValueMetric} as its value or a {@link CounterEvent} as its delta.  Other events are ignored.
+     *
+     * @param key       the key of the series
+     * @param timestamp the time of the sample, in milliseconds since the epoch
+     * @param event     the event
+     */
+    public void record(SeriesKey key, long timestamp, Event event) {
+        if (event instanceof ValueMetric) {
+            record(key, timestamp, ((ValueMetric) event).value());
+        } else if (event instanceof CounterEvent) {
+            record(key, timestamp, ((CounterEvent) event).getDelta());
+        }
+    }
+
+    private int getRollup(Duration interval) {
+        for (int i = 0; i < this.rollups.size(); i++) {
+            if (this.rollups.get(i).getInterval().equals(interval)) {
+                return i;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("No rollup with interval %s", interval));
+    }
+
+    private static final class Bucket {
+
+        private final Deque<MetricChunk> chunks = new ArrayDeque<>();
+
+        private final long interval;
+
+        private final long retention;
+
+        private long count;
+
+        private double last;
+
+        private double maximum;
+
+        private double minimum;
+
+        private long start = Long.MIN_VALUE;
+
+        private double sum;
+
+        private Bucket(Rollup rollup) {
+            this.interval = rollup.getIntervalMillis();
+            this.retention = rollup.getRetentionMillis();
+        }
+
+        private void close() {
+            MetricChunk chunk = this.chunks.peekLast();
+            if (chunk == null || chunk.isFull()) {
+                if (chunk != null) {
+                    chunk.seal();
+                }
+
+                chunk = new MetricChunk();
+                this.chunks.addLast(chunk);
+            }
+
+            chunk.append(this.start, this.count, this.minimum, this.maximum, this.sum, this.last);
+
+            long cutoff = this.start - this.retention;
+            while (this.chunks.size() > 1 && this.chunks.peekFirst().getLastTimestamp() < cutoff) {
+                this.chunks.removeFirst();
+            }
+        }
+
+        private int getBytes() {
+            int bytes = 0;
+            for (MetricChunk chunk : this.chunks) {
+                bytes += chunk.getBytes();
+            }
+            return bytes;
+        }
+
+        private void query(long from, long to, List<DataPoint> points) {
+            for (MetricChunk chunk : this.chunks) {
+                if (chunk.getLastTimestamp() >= from && chunk.getFirstTimestamp() < to) {
+                    chunk.decode(from, to, points);
+                }
+            }
+
+            if (this.count > 0 && this.start >= from && this.start < to) {
+                points.add(new DataPoint(this.start, this.count, this.minimum, this.maximum, this.sum, this.last));
+            }
+        }
+
+        private boolean record(long timestamp, double value) {
+            long start = timestamp - Math.floorMod(timestamp, this.interval);
+
+            if (start < this.start) {
+                return false;
+            }
+
+            if (start > this.start) {
+                if (this.count > 0) {
+                    close();
+                }
+
+                this.count = 0;
+                this.maximum = value;
+                this.minimum = value;
+                this.start = start;
+                this.sum = 0;
+            }
+
+            this.count++;
+            this.last = value;
+            this.maximum = Math.max(this.maximum, value);
+            this.minimum = Math.min(this.minimum, value);
+            this.sum += value;
+
+            return true;
+        }
+
+    }
+
+    private static final class Series {
+
+        private final Bucket[] buckets;
+
+        private volatile long lastTimestamp;
+
+        private Series(List<Rollup> rollups) {
+            this.buckets = new Bucket[rollups.size()];
+            for (int i = 0; i < this.buckets.length; i++) {
+                this.buckets[i] = new Bucket(rollups.get(i));
+            }
+        }
+
+        private synchronized int getBytes() {
+            int bytes = 0;
+            for (Bucket bucket : this.buckets) {
+                bytes += bucket.getBytes();
+            }
+            return bytes;
+        }
+
+        private long getLastTimestamp() {
+            return this.lastTimestamp;
+        }
+
+        private synchronized List<DataPoint> query(int rollup, long from, long to) {
+            List<DataPoint> points = new ArrayList<>();
+            this.buckets[rollup].query(from, to, points);
+            return points;
+        }
+
+        private synchronized boolean record(long timestamp, double value) {
+            boolean recorded = false;
+            for (Bucket bucket : this.buckets) {
+                recorded |= bucket.record(timestamp, value);
+            }
+
+            this.lastTimestamp = Math.max(this.lastTimestamp, timestamp);
+            return recorded;
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import java.time.Duration;
+
+/**
+ * A resolution that metric samples are downsampled to, and how long the downsampled points are retained
+ */
+public final class Rollup {
+
+    private final long interval;
+
+    private final long retention;
+
+    private Rollup(Duration interval, Duration retention) {
+        if (interval.toMillis() < 1) {
+            throw new IllegalArgumentException(String.format("Interval must be at least one millisecond: %s", interval));
+        }
+
+        if (retention.compareTo(interval) < 0) {
+            throw new IllegalArgumentException(String.format("Retention %s must be at least interval %s", retention, interval));
+        }
+
+        this.interval = interval.toMillis();
+        this.retention = retention.toMillis();
+    }
+
+    /**
+     * Creates a rollup
+     *
+     * @param interval  the width of each downsampled point
+     * @param retention how long downsampled points are retained
+     * @return the rollup
+     */
+    public static Rollup of(Duration interval, Duration retention) {
+        return new Rollup(interval, retention);
+    }
+
+    /**
+     * Returns the width of each downsampled point
+     *
+     * @return the interval
+     */
+    public Duration getInterval() {
+        return Duration.ofMillis(this.interval);
+    }
+
+    /**
+     * Returns how long downsampled points are retained
+     *
+     * @return the retention
+     */
+    public Duration getRetention() {
+        return Duration.ofMillis(this.retention);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Rollup{interval=%s, retention=%s}", getInterval(), getRetention());
+    }
+
+    long getIntervalMillis() {
+        return this.interval;
+    }
+
+    long getRetentionMillis() {
+        return this.retention;
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+/**
+ * Normalizes request URIs into routes with bounded cardinality.  The scheme, query, and fragment are removed, the host is lower-cased, and path segments that look like identifiers (numbers,
+ * UUIDs, and long hexadecimal strings) are replaced with {@value #IDENTIFIER}.
+ */
+final class RouteNormalizer {
+
+    static final String IDENTIFIER = "{id}";
+
+    private static final int MINIMUM_HEXADECIMAL_LENGTH = 16;
+
+    private RouteNormalizer() {
+    }
+
+    static String normalize(String uri) {
+        int start = uri.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+
+        int end = uri.length();
+        for (int i = start; i < end; i++) {
+            char c = uri.charAt(i);
+            if (c == '?' || c == '#') {
+                end = i;
+            }
+        }
+
+        int pathStart = uri.indexOf('/', start);
+        if (pathStart < 0 || pathStart > end) {
+            pathStart = end;
+        }
+
+        StringBuilder route = new StringBuilder(end - start);
+        for (int i = start; i < pathStart; i++) {
+            route.append(Character.toLowerCase(uri.charAt(i)));
+        }
+
+        int segmentStart = pathStart;
+        while (segmentStart < end) {
+            int segmentEnd = uri.indexOf('/', segmentStart + 1);
+            if (segmentEnd < 0 || segmentEnd > end) {
+                segmentEnd = end;
+            }
+
+            route.append('/');
+            if (isIdentifier(uri, segmentStart + 1, segmentEnd)) {
+                route.append(IDENTIFIER);
+            } else {
+                route.append(uri, segmentStart + 1, segmentEnd);
+            }
+
+            segmentStart = segmentEnd;
+        }
+
+        return route.toString();
+    }
+
+    private static boolean isIdentifier(String uri, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+
+        boolean digits = true;
+        boolean hexadecimal = true;
+        int hexadecimalDigits = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = uri.charAt(i);
+
+            if (c < '0' || c > '9') {
+                digits = false;
+            }
+
+            if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')) {
+                hexadecimalDigits++;
+            } else if (c != '-') {
+                hexadecimal = false;
+            }
+        }
+
+        return digits || (hexadecimal && hexadecimalDigits >= MINIMUM_HEXADECIMAL_LENGTH);
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+/**
+ * The latency distribution and response status counts of a route, or of every route of an application, over an interval
+ */
+public final class RouteStatistics {
+
+    private final LatencyHistogram latencies;
+
+    private final long[] statusCounts;
+
+    RouteStatistics() {
+        this(new LatencyHistogram(), new long[6]);
+    }
+
+    private RouteStatistics(LatencyHistogram latencies, long[] statusCounts) {
+        this.latencies = latencies;
+        this.statusCounts = statusCounts;
+    }
+
+    /**
+     * Returns the latency distribution
+     *
+     * @return the latency distribution
+     */
+    public LatencyHistogram getLatencies() {
+        return this.latencies;
+    }
+
+    /**
+     * Returns the number of responses in a status class
+     *
+     * @param statusClass the status class, for example {@code 5} for {@code 5xx} responses
+     * @return the number of responses
+     */
+    public long getStatusCount(int statusClass) {
+        return statusClass < 1 || statusClass >= this.statusCounts.length ? 0 : this.statusCounts[statusClass];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RouteStatistics{latencies=%s, 2xx=%d, 4xx=%d, 5xx=%d}", this.latencies, getStatusCount(2), getStatusCount(4), getStatusCount(5));
+    }
+
+    void add(RouteStatistics other) {
+        this.latencies.add(other.latencies);
+        for (int i = 0; i < this.statusCounts.length; i++) {
+            this.statusCounts[i] += other.statusCounts[i];
+        }
+    }
+
+    RouteStatistics copy() {
+        return new RouteStatistics(this.latencies.copy(), this.statusCounts.clone());
+    }
+
+    void record(long latency, int statusCode) {
+        this.latencies.record(latency);
+
+        int statusClass = statusCode / 100;
+        if (statusClass > 0 && statusClass < this.statusCounts.length) {
+            this.statusCounts[statusClass]++;
+        }
+    }
+
+    void reset() {
+        this.latencies.reset();
+        for (int i = 0; i < this.statusCounts.length; i++) {
+            this.statusCounts[i] = 0;
+        }
+    }
+
+}
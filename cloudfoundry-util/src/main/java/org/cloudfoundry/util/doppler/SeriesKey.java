@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import java.util.Objects;
+
+/**
+ * The key of a metric time series: the origin and deployment that emitted the metric, and its name
+ */
+public final class SeriesKey {
+
+    private final String deployment;
+
+    private final String name;
+
+    private final String origin;
+
+    private SeriesKey(String origin, String deployment, String name) {
+        this.deployment = deployment;
+        this.name = Objects.requireNonNull(name, "name");
+        this.origin = origin;
+    }
+
+    /**
+     * Creates a key
+     *
+     * @param origin     the origin, or {@code null} if unknown
+     * @param deployment the deployment, or {@code null} if unknown
+     * @param name       the name of the metric
+     * @return the key
+     */
+    public static SeriesKey of(String origin, String deployment, String name) {
+        return new SeriesKey(origin, deployment, name);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        SeriesKey that = (SeriesKey) o;
+        return Objects.equals(this.deployment, that.deployment) && this.name.equals(that.name) && Objects.equals(this.origin, that.origin);
+    }
+
+    /**
+     * Returns the deployment
+     *
+     * @return the deployment, or {@code null} if unknown
+     */
+    public String getDeployment() {
+        return this.deployment;
+    }
+
+    /**
+     * Returns the name of the metric
+     *
+     * @return the name of the metric
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the origin
+     *
+     * @return the origin, or {@code null} if unknown
+     */
+    public String getOrigin() {
+        return this.origin;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.deployment, this.name, this.origin);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SeriesKey{origin=%s, deployment=%s, name=%s}", this.origin, this.deployment, this.name);
+    }
+
+}
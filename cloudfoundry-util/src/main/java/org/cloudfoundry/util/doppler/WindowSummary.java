@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import java.util.Arrays;
+
+/**
+ * A summary of the samples in a window: their count, average, maximum, and percentiles
+ */
+public final class WindowSummary {
+
+    private static final WindowSummary EMPTY = new WindowSummary(new double[0], 0, 0);
+
+    private final double average;
+
+    private final int count;
+
+    private final double[] sorted;
+
+    private WindowSummary(double[] sorted, int count, double sum) {
+        this.average = count == 0 ? Double.NaN : sum / count;
+        this.count = count;
+        this.sorted = sorted;
+    }
+
+    /**
+     * Returns the average of the samples
+     *
+     * @return the average or {@link Double#NaN} if there are no samples
+     */
+    public double getAverage() {
+        return this.average;
+    }
+
+    /**
+     * Returns the number of samples
+     *
+     * @return the number of samples
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the maximum sample
+     *
+     * @return the maximum or {@link Double#NaN} if there are no samples
+     */
+    public double getMaximum() {
+        return this.count == 0 ? Double.NaN : this.sorted[this.count - 1];
+    }
+
+    /**
+     * Returns a percentile of the samples, using the nearest-rank method
+     *
+     * @param percentile the percentile, between {@code 0} and {@code 100}
+     * @return the percentile or {@link Double#NaN} if there are no samples
+     */
+    public double getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException(String.format("Percentile must be between 0 and 100: %s", percentile));
+        }
+
+        if (this.count == 0) {
+            return Double.NaN;
+        }
+
+        int rank = (int) Math.ceil(percentile / 100 * this.count);
+        return this.sorted[Math.max(0, rank - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WindowSummary{count=%d, average=%s, maximum=%s}", this.count, this.average, getMaximum());
+    }
+
+    static WindowSummary of(double[] samples, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+
+        Arrays.sort(samples, 0, count);
+        return new WindowSummary(samples, count, sum);
+    }
+
+}
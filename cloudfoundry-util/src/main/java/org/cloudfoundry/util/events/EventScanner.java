@@ -0,0 +1,258 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.events;
+
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.events.EventResource;
+import org.cloudfoundry.client.v2.events.ListEventsRequest;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
+import org.cloudfoundry.util.DateUtils;
+import org.cloudfoundry.util.ResourceUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Scans the audit events recorded within a time range by splitting the range into shards and requesting the shards concurrently.  The range is first split evenly by the total number of events
+ * it holds, and any shard that then holds more than the shard size is split again by its own total, so shards stay close to the shard size however unevenly events are spread over the range.
+ * Totals are taken from the {@code total_results} of single-result requests.  Shards are requested one page at a time, so the number of requests in flight is bounded by the concurrency.  Shard
+ * boundaries fall on whole seconds, the resolution of event timestamps, so the range is widened to whole seconds and events outside the requested range are dropped.
+ */
+public final class EventScanner {
+
+    private static final int DEFAULT_SHARD_SIZE = 2_000;
+
+    private static final Comparator<EventResource> EVENT_ORDER = Comparator.comparing(EventScanner::getTimestamp);
+
+    private static final int RESULTS_PER_PAGE = 100;
+
+    private final int concurrency;
+
+    private final Function<ListEventsRequest, Mono<ListEventsResponse>> requester;
+
+    private final int shardSize;
+
+    /**
+     * Creates a scanner with shards of about two thousand events
+     *
+     * @param cloudFoundryClient the client to request events with
+     * @param concurrency        the number of requests in flight at once
+     */
+    public EventScanner(CloudFoundryClient cloudFoundryClient, int concurrency) {
+        this(request -> cloudFoundryClient.events().list(request), concurrency, DEFAULT_SHARD_SIZE);
+    }
+
+    EventScanner(Function<ListEventsRequest, Mono<ListEventsResponse>> requester, int concurrency, int shardSize) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException(String.format("Concurrency must be positive: %d", concurrency));
+        }
+
+        if (shardSize < 1) {
+            throw new IllegalArgumentException(String.format("Shard size must be positive: %d", shardSize));
+        }
+
+        this.concurrency = concurrency;
+        this.requester = requester;
+        this.shardSize = shardSize;
+    }
+
+    /**
+     * Scans events in timestamp order.  The events of a shard are held until the events of every earlier shard have been emitted, and a shard is not requested until the shard {@code concurrency}
+     * places before it has been emitted, so at most {@code concurrency} shards are in flight or held at once.
+     *
+     * @param start the start of the range, inclusive
+     * @param end   the end of the range, exclusive
+     * @param types the types of event to scan, or an empty list to scan every type
+     * @return the events
+     */
+    public Flux<EventResource> scan(Instant start, Instant end, List<String> types) {
+        return getShards(start, end, types)
+            .collectList()
+            .flatMap(shards -> Flux.using(() -> new ShardWindow(shards, this.concurrency, shard -> requestSortedShard(shard, types)),
+                window -> Flux.range(0, shards.size()).concatMap(window::take),
+                ShardWindow::cancel))
+            .flatMapIterable(resources -> resources)
+            .filter(resource -> isWithin(resource, start, end));
+    }
+
+    /**
+     * Scans events in no particular order, emitting each as soon as it is received.  Suited to aggregation, where order does not matter.
+     *
+     * @param start the start of the range, inclusive
+     * @param end   the end of the range, exclusive
+     * @param types the types of event to scan, or an empty list to scan every type
+     * @return the events
+     */
+    public Flux<EventResource> scanUnordered(Instant start, Instant end, List<String> types) {
+        return getShards(start, end, types)
+            .flatMap(shard -> requestShard(shard, types), this.concurrency, 1)
+            .filter(resource -> isWithin(resource, start, end));
+    }
+
+    private static Instant ceiling(Instant instant) {
+        Instant truncated = instant.truncatedTo(ChronoUnit.SECONDS);
+        return truncated.equals(instant) ? truncated : truncated.plusSeconds(1);
+    }
+
+    private static Instant getBoundary(Instant start, long seconds, long parts, long index) {
+        return start.plusSeconds(seconds * index / parts);
+    }
+
+    private static Instant getTimestamp(EventResource resource) {
+        return DateUtils.parseInstantFromIso8601(ResourceUtils.getEntity(resource).getTimestamp());
+    }
+
+    private static boolean isWithin(EventResource resource, Instant start, Instant end) {
+        Instant timestamp = getTimestamp(resource);
+        return !timestamp.isBefore(start) && timestamp.isBefore(end);
+    }
+
+    private Flux<Shard> getShards(Instant start, Instant end, List<String> types) {
+        return split(start.truncatedTo(ChronoUnit.SECONDS), ceiling(end), types, true);
+    }
+
+    private Mono<Integer> requestCount(Instant start, Instant end, List<String> types) {
+        return this.requester
+            .apply(ListEventsRequest.builder()
+                .beforeTimestamp(DateUtils.formatToIso8601(end))
+                .page(1)
+                .resultsPerPage(1)
+                .timestamp(DateUtils.formatToIso8601(start))
+                .types(types)
+                .build())
+            .map(response -> response.getTotalResults() == null ? 0 : response.getTotalResults());
+    }
+
+    private Mono<ListEventsResponse> requestPage(Shard shard, List<String> types, int page) {
+        return this.requester
+            .apply(ListEventsRequest.builder()
+                .beforeTimestamp(DateUtils.formatToIso8601(shard.end))
+                .page(page)
+                .resultsPerPage(RESULTS_PER_PAGE)
+                .timestamp(DateUtils.formatToIso8601(shard.start))
+                .types(types)
+                .build());
+    }
+
+    private Flux<EventResource> requestShard(Shard shard, List<String> types) {
+        return requestPage(shard, types, 1)
+            .flatMap(response -> Flux
+                .range(2, Math.max(0, (response.getTotalPages() == null ? 1 : response.getTotalPages()) - 1))
+                .concatMap(page -> requestPage(shard, types, page))
+                .startWith(response))
+            .flatMapIterable(ListEventsResponse::getResources);
+    }
+
+    private Mono<List<EventResource>> requestSortedShard(Shard shard, List<String> types) {
+        return requestShard(shard, types)
+            .collectList()
+            .map(resources -> {
+                Collections.sort(resources, EVENT_ORDER);
+                return resources;
+            });
+    }
+
+    private Flux<Shard> split(Instant start, Instant end, List<String> types, boolean concurrent) {
+        long seconds = Duration.between(start, end).getSeconds();
+        if (seconds <= 0) {
+            return Flux.empty();
+        }
+
+        return requestCount(start, end, types)
+            .flatMap(count -> {
+                if (count == 0) {
+                    return Flux.<Shard>empty();
+                }
+
+                if (count <= this.shardSize || seconds == 1) {
+                    return Flux.just(new Shard(start, end));
+                }
+
+                long parts = Math.min(seconds, (count + this.shardSize - 1) / this.shardSize);
+                Flux<Integer> indexes = Flux.range(0, (int) parts);
+                Function<Integer, Flux<Shard>> splitPart = index -> split(getBoundary(start, seconds, parts, index), getBoundary(start, seconds, parts, index + 1), types, false);
+
+                return concurrent ? indexes.flatMap(splitPart, this.concurrency, 1) : indexes.concatMap(splitPart);
+            });
+    }
+
+    private static final class Shard {
+
+        private final Instant end;
+
+        private final Instant start;
+
+        private Shard(Instant start, Instant end) {
+            this.end = end;
+            this.start = start;
+        }
+
+    }
+
+    private static final class ShardWindow {
+
+        private final int concurrency;
+
+        private MonoProcessor<List<EventResource>> current;
+
+        private final Map<Integer, MonoProcessor<List<EventResource>>> pending = new HashMap<>();
+
+        private final Function<Shard, Mono<List<EventResource>>> requester;
+
+        private final List<Shard> shards;
+
+        private int started;
+
+        private ShardWindow(List<Shard> shards, int concurrency, Function<Shard, Mono<List<EventResource>>> requester) {
+            this.concurrency = concurrency;
+            this.requester = requester;
+            this.shards = shards.stream()
+                .sorted(Comparator.comparing(shard -> shard.start))
+                .collect(Collectors.toList());
+        }
+
+        private synchronized void cancel() {
+            Optional.ofNullable(this.current)
+                .ifPresent(MonoProcessor::cancel);
+            this.pending.values().forEach(MonoProcessor::cancel);
+            this.pending.clear();
+        }
+
+        private synchronized Mono<List<EventResource>> take(int index) {
+            for (int limit = Math.min(index + this.concurrency, this.shards.size()); this.started < limit; this.started++) {
+                this.pending.put(this.started, this.requester.apply(this.shards.get(this.started)).subscribe());
+            }
+
+            this.current = this.pending.remove(index);
+            return this.current;
+        }
+
+    }
+
+}
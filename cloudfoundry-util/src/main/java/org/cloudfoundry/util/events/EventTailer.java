@@ -0,0 +1,291 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.events;
+
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.CloudFoundryException;
+import org.cloudfoundry.client.v2.OrderDirection;
+import org.cloudfoundry.client.v2.events.EventResource;
+import org.cloudfoundry.client.v2.events.ListEventsRequest;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
+import org.cloudfoundry.util.DateUtils;
+import org.cloudfoundry.util.PaginationUtils;
+import org.cloudfoundry.util.ResourceUtils;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Follows the audit events of a Cloud Foundry instance as they are recorded.  Each poll requests the events with a {@code timestamp} at or after an overlap window before the latest event seen,
+ * and drops those already seen by id, so that an event recorded with a slightly older timestamp than one already delivered is still delivered once.  Polls are issued at the minimum interval
+ * while events are arriving, and the interval doubles, up to the maximum, for each poll that finds nothing new.
+ * <p>
+ * The position is persisted to a checkpoint file after the events of each poll have been emitted, and is resumed from when tailing restarts.  Delivery is at-least-once: the events of a poll that
+ * was interrupted before its checkpoint was written are delivered again.  Without a checkpoint, tailing starts at the latest recorded event.  A poll that fails with a transient error is retried,
+ * with the same backoff as an empty poll, rather than ending the tail.
+ */
+public final class EventTailer {
+
+    private static final int CF_SERVER_ERROR = 10001;
+
+    private static final Duration DEFAULT_MAXIMUM_INTERVAL = Duration.ofSeconds(30);
+
+    private static final Duration DEFAULT_MINIMUM_INTERVAL = Duration.ofSeconds(1);
+
+    private static final Duration DEFAULT_OVERLAP = Duration.ofSeconds(10);
+
+    private static final int RESULTS_PER_PAGE = 100;
+
+    private final Path checkpoint;
+
+    private final Duration maximumInterval;
+
+    private final Duration minimumInterval;
+
+    private final Duration overlap;
+
+    private final Function<ListEventsRequest, Mono<ListEventsResponse>> requester;
+
+    /**
+     * Creates a tailer with a one second minimum interval, a thirty second maximum interval, and a ten second overlap window
+     *
+     * @param cloudFoundryClient the client to request events with
+     * @param checkpoint         the file the position is persisted to
+     */
+    public EventTailer(CloudFoundryClient cloudFoundryClient, Path checkpoint) {
+        this(cloudFoundryClient, checkpoint, DEFAULT_MINIMUM_INTERVAL, DEFAULT_MAXIMUM_INTERVAL, DEFAULT_OVERLAP);
+    }
+
+    /**
+     * Creates a tailer
+     *
+     * @param cloudFoundryClient the client to request events with
+     * @param checkpoint         the file the position is persisted to
+     * @param minimumInterval    the interval between polls while events are arriving
+     * @param maximumInterval    the longest interval between polls
+     * @param overlap            how far before the latest event seen each poll starts.  Events recorded with a timestamp older than this are not delivered.
+     */
+    public EventTailer(CloudFoundryClient cloudFoundryClient, Path checkpoint, Duration minimumInterval, Duration maximumInterval, Duration overlap) {
+        this(request -> cloudFoundryClient.events().list(request), checkpoint, minimumInterval, maximumInterval, overlap);
+    }
+
+    EventTailer(Function<ListEventsRequest, Mono<ListEventsResponse>> requester, Path checkpoint, Duration minimumInterval, Duration maximumInterval, Duration overlap) {
+        if (minimumInterval.isNegative() || minimumInterval.isZero()) {
+            throw new IllegalArgumentException(String.format("Minimum interval must be positive: %s", minimumInterval));
+        }
+
+        if (maximumInterval.compareTo(minimumInterval) < 0) {
+            throw new IllegalArgumentException(String.format("Maximum interval must not be less than minimum interval: %s", maximumInterval));
+        }
+
+        if (overlap.isNegative()) {
+            throw new IllegalArgumentException(String.format("Overlap must not be negative: %s", overlap));
+        }
+
+        this.checkpoint = checkpoint;
+        this.maximumInterval = maximumInterval;
+        this.minimumInterval = minimumInterval;
+        this.overlap = overlap;
+        this.requester = requester;
+    }
+
+    /**
+     * Follows events.  The returned {@link Flux} does not complete, and polling stops when it is cancelled.
+     *
+     * @param types the types of event to follow, or an empty list to follow every type
+     * @return the events, in the order they were recorded within each poll
+     */
+    public Flux<EventResource> tail(List<String> types) {
+        return getInitialState(types)
+            .flatMap(state -> Flux
+                .range(0, Integer.MAX_VALUE)
+                .concatMap(round -> Mono
+                    .defer(() -> requestEvents(types, state.getQueryTimestamp()).collectList())
+                    .retryWhen(this::retryTransient)
+                    .flatMap(resources -> Flux.fromIterable(state.advance(resources)))
+                    .doOnComplete(() -> writeCheckpoint(this.checkpoint, state))
+                    .concatWith(Mono.defer(() -> Mono.delay(state.interval).then(Mono.<EventResource>empty())))));
+    }
+
+    private static Instant getTimestamp(EventResource resource) {
+        return DateUtils.parseInstantFromIso8601(ResourceUtils.getEntity(resource).getTimestamp());
+    }
+
+    private static boolean isTransient(Throwable t) {
+        if (t instanceof CloudFoundryException) {
+            return ((CloudFoundryException) t).getCode() == CF_SERVER_ERROR;
+        }
+
+        return !(t instanceof IllegalArgumentException || t instanceof IllegalStateException);
+    }
+
+    private static void writeCheckpoint(Path checkpoint, TailState state) {
+        List<String> lines = new ArrayList<>();
+        lines.add(DateUtils.formatToIso8601(state.high));
+        state.seen.forEach((id, timestamp) -> lines.add(String.format("%s %s", id, DateUtils.formatToIso8601(timestamp))));
+
+        try {
+            Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            Files.write(temporary, lines, StandardCharsets.UTF_8);
+            Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to write checkpoint %s", checkpoint), e);
+        }
+    }
+
+    private Duration getBackOff(int attempt) {
+        Duration backOff = this.minimumInterval.multipliedBy(1L << Math.min(attempt, 30));
+        return backOff.compareTo(this.maximumInterval) > 0 ? this.maximumInterval : backOff;
+    }
+
+    private Mono<TailState> getInitialState(List<String> types) {
+        return Mono
+            .defer(() -> Mono.justOrEmpty(readCheckpoint()))
+            .otherwiseIfEmpty(requestLatestEvent(types)
+                .map(EventTailer::getTimestamp)
+                .defaultIfEmpty(Instant.EPOCH)
+                .map(timestamp -> new TailState(timestamp, Collections.emptyMap(), timestamp)));
+    }
+
+    private Optional<TailState> readCheckpoint() {
+        if (!Files.exists(this.checkpoint)) {
+            return Optional.empty();
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(this.checkpoint, StandardCharsets.UTF_8);
+            if (lines.isEmpty()) {
+                return Optional.empty();
+            }
+
+            Map<String, Instant> seen = new HashMap<>();
+            lines.stream()
+                .skip(1)
+                .filter(line -> !line.isEmpty())
+                .map(line -> line.split(" ", 2))
+                .forEach(fields -> seen.put(fields[0], DateUtils.parseInstantFromIso8601(fields[1])));
+
+            return Optional.of(new TailState(DateUtils.parseInstantFromIso8601(lines.get(0)), seen, null));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to read checkpoint %s", this.checkpoint), e);
+        }
+    }
+
+    private Flux<EventResource> requestEvents(List<String> types, String timestamp) {
+        return PaginationUtils
+            .requestResources(page -> this.requester.apply(ListEventsRequest.builder()
+                .page(page)
+                .resultsPerPage(RESULTS_PER_PAGE)
+                .timestamp(timestamp)
+                .types(types)
+                .build()));
+    }
+
+    private Mono<EventResource> requestLatestEvent(List<String> types) {
+        return this.requester
+            .apply(ListEventsRequest.builder()
+                .orderDirection(OrderDirection.DESCENDING)
+                .page(1)
+                .resultsPerPage(1)
+                .types(types)
+                .build())
+            .flatMap(ResourceUtils::getResources)
+            .next();
+    }
+
+    private Publisher<?> retryTransient(Flux<Throwable> errors) {
+        return errors
+            .zipWith(Flux.range(0, Integer.MAX_VALUE), (error, attempt) -> isTransient(error) ? Mono.delay(getBackOff(attempt)) : Mono.<Long>error(error))
+            .concatMap(delay -> delay);
+    }
+
+    private final class TailState {
+
+        private final Map<String, Instant> seen;
+
+        private Instant high;
+
+        private Duration interval = EventTailer.this.minimumInterval;
+
+        private Instant start;
+
+        private TailState(Instant high, Map<String, Instant> seen, Instant start) {
+            this.high = high;
+            this.seen = new HashMap<>(seen);
+            this.start = start;
+        }
+
+        private List<EventResource> advance(List<EventResource> resources) {
+            List<EventResource> sorted = new ArrayList<>(resources);
+            sorted.sort(Comparator.comparing(EventTailer::getTimestamp));
+
+            List<EventResource> unseen = new ArrayList<>();
+            for (EventResource resource : sorted) {
+                Instant timestamp = getTimestamp(resource);
+
+                if (this.seen.putIfAbsent(ResourceUtils.getId(resource), timestamp) == null) {
+                    unseen.add(resource);
+
+                    if (timestamp.isAfter(this.high)) {
+                        this.high = timestamp;
+                    }
+                }
+            }
+
+            Instant cutoff = this.high.minus(EventTailer.this.overlap);
+            this.seen.values().removeIf(timestamp -> timestamp.isBefore(cutoff));
+
+            if (unseen.isEmpty()) {
+                Duration doubled = this.interval.multipliedBy(2);
+                this.interval = doubled.compareTo(EventTailer.this.maximumInterval) > 0 ? EventTailer.this.maximumInterval : doubled;
+            } else {
+                this.interval = EventTailer.this.minimumInterval;
+            }
+
+            if (this.start != null) {
+                Instant start = this.start;
+                this.start = null;
+                unseen.removeIf(resource -> !getTimestamp(resource).isAfter(start));
+            }
+
+            return unseen;
+        }
+
+        private String getQueryTimestamp() {
+            return DateUtils.formatToIso8601(this.high.minus(EventTailer.this.overlap));
+        }
+
+    }
+
+}
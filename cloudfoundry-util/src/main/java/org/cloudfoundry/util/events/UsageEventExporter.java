@@ -0,0 +1,277 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.events;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cloudfoundry.client.CloudFoundryClient;
+import org.cloudfoundry.client.v2.PaginatedResponse;
+import org.cloudfoundry.client.v2.Resource;
+import org.cloudfoundry.client.v2.applicationusageevents.ListApplicationUsageEventsRequest;
+import org.cloudfoundry.client.v2.applicationusageevents.ListApplicationUsageEventsResponse;
+import org.cloudfoundry.client.v2.serviceusageevents.ListServiceUsageEventsRequest;
+import org.cloudfoundry.client.v2.serviceusageevents.ListServiceUsageEventsResponse;
+import org.cloudfoundry.util.ResourceUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports application and service usage events to gzip-compressed JSON-lines segment files.  Events are paged with {@code after_guid} at the maximum page size, rather than by page number, so
+ * events recorded during an export cannot shift the pages still to be read.  The request for the next page is issued as soon as a page is received, so it is in flight while the current page is
+ * serialized and written.
+ * <p>
+ * Each segment holds a fixed number of events and is written to a temporary file, forced to storage, and then moved into place.  After each segment, a checkpoint recording the id of its last
+ * event and the number of the next segment is written and forced in the same way, and later exports resume from it.  An export interrupted between writing a segment and its checkpoint rewrites
+ * that segment when resumed.  Segments and checkpoints are written on a {@link Scheduler} suitable for blocking work, so the thread delivering responses is never blocked on storage.  The
+ * scheduler is supplied by the caller, which may share it between exporters and is responsible for shutting it down.
+ */
+public final class UsageEventExporter {
+
+    static final int RESULTS_PER_PAGE = 100;
+
+    private static final String APPLICATION_USAGE_EVENTS = "application-usage-events";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private static final String SERVICE_USAGE_EVENTS = "service-usage-events";
+
+    private final Function<String, Mono<ListApplicationUsageEventsResponse>> applicationUsageEventsRequester;
+
+    private final Path directory;
+
+    private final Scheduler scheduler;
+
+    private final int segmentSize;
+
+    private final Function<String, Mono<ListServiceUsageEventsResponse>> serviceUsageEventsRequester;
+
+    /**
+     * Creates an exporter
+     *
+     * @param cloudFoundryClient the client to request usage events with
+     * @param directory          the directory segments and checkpoints are written to
+     * @param segmentSize        the number of events in each segment
+     * @param scheduler          the scheduler segments and checkpoints are written on.  It must allow blocking work, and it remains owned by the caller, which shuts it down.
+     */
+    public UsageEventExporter(CloudFoundryClient cloudFoundryClient, Path directory, int segmentSize, Scheduler scheduler) {
+        this(afterId -> cloudFoundryClient.applicationUsageEvents()
+                .list(ListApplicationUsageEventsRequest.builder()
+                    .afterApplicationUsageEventId(afterId)
+                    .page(1)
+                    .resultsPerPage(RESULTS_PER_PAGE)
+                    .build()),
+            afterId -> cloudFoundryClient.serviceUsageEvents()
+                .list(ListServiceUsageEventsRequest.builder()
+                    .afterServiceUsageEventId(afterId)
+                    .page(1)
+                    .resultsPerPage(RESULTS_PER_PAGE)
+                    .build()),
+            directory, segmentSize, scheduler);
+    }
+
+    UsageEventExporter(Function<String, Mono<ListApplicationUsageEventsResponse>> applicationUsageEventsRequester,
+                       Function<String, Mono<ListServiceUsageEventsResponse>> serviceUsageEventsRequester, Path directory, int segmentSize, Scheduler scheduler) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException(String.format("Segment size must be positive: %d", segmentSize));
+        }
+
+        this.applicationUsageEventsRequester = applicationUsageEventsRequester;
+        this.directory = directory;
+        this.scheduler = scheduler;
+        this.segmentSize = segmentSize;
+        this.serviceUsageEventsRequester = serviceUsageEventsRequester;
+    }
+
+    /**
+     * Exports the application usage events recorded since the previous export
+     *
+     * @return the number of events exported
+     */
+    public Mono<Long> exportApplicationUsageEvents() {
+        return export(APPLICATION_USAGE_EVENTS, this.applicationUsageEventsRequester);
+    }
+
+    /**
+     * Exports the service usage events recorded since the previous export
+     *
+     * @return the number of events exported
+     */
+    public Mono<Long> exportServiceUsageEvents() {
+        return export(SERVICE_USAGE_EVENTS, this.serviceUsageEventsRequester);
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private static Checkpoint readCheckpoint(Path checkpointFile) {
+        if (!Files.exists(checkpointFile)) {
+            return new Checkpoint(null, 1);
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(checkpointFile, StandardCharsets.UTF_8);
+            return new Checkpoint(lines.get(0).isEmpty() ? null : lines.get(0), Long.parseLong(lines.get(1)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to read checkpoint %s", checkpointFile), e);
+        }
+    }
+
+    private static <R extends Resource<?>, U extends PaginatedResponse<R>> Flux<R> requestResources(Function<String, Mono<U>> requester, String afterId) {
+        return Flux
+            .using(() -> new Pages<>(requester, afterId),
+                pages -> Flux
+                    .range(0, Integer.MAX_VALUE)
+                    .concatMap(round -> pages.next())
+                    .takeWhile(Optional::isPresent)
+                    .map(Optional::get)
+                    .flatMapIterable(PaginatedResponse::getResources),
+                Pages::cancel);
+    }
+
+    private static void writeCheckpoint(Path checkpointFile, Checkpoint checkpoint) throws IOException {
+        Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        Files.write(temporary, Arrays.asList(Optional.ofNullable(checkpoint.lastId).orElse(""), String.valueOf(checkpoint.nextSegment)), StandardCharsets.UTF_8);
+        force(temporary);
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static <R extends Resource<?>> void writeSegment(Path segment, List<R> resources) throws IOException {
+        Path temporary = segment.resolveSibling(segment.getFileName() + ".tmp");
+
+        try (OutputStream out = new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE), BUFFER_SIZE)) {
+            for (R resource : resources) {
+                out.write(OBJECT_MAPPER.writeValueAsBytes(resource));
+                out.write('\n');
+            }
+        }
+
+        force(temporary);
+        Files.move(temporary, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private <R extends Resource<?>, U extends PaginatedResponse<R>> Mono<Long> export(String name, Function<String, Mono<U>> requester) {
+        Path checkpointFile = this.directory.resolve(String.format("%s.checkpoint", name));
+
+        return Mono
+            .defer(() -> Mono.just(readCheckpoint(checkpointFile)))
+            .flatMap(checkpoint -> requestResources(requester, checkpoint.lastId)
+                .buffer(this.segmentSize)
+                .flatMap(resources -> Mono
+                    .fromCallable(() -> {
+                        long segment = checkpoint.nextSegment;
+
+                        try {
+                            writeSegment(this.directory.resolve(String.format("%s-%06d.jsonl.gz", name, segment)), resources);
+
+                            checkpoint.lastId = ResourceUtils.getId(resources.get(resources.size() - 1));
+                            checkpoint.nextSegment++;
+                            writeCheckpoint(checkpointFile, checkpoint);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(String.format("Unable to write segment %d of %s", segment, name), e);
+                        }
+
+                        return resources.size();
+                    })
+                    .subscribeOn(this.scheduler), 1, 1))
+            .collect(AtomicLong::new, AtomicLong::addAndGet)
+            .map(AtomicLong::get);
+    }
+
+    private static final class Checkpoint {
+
+        private String lastId;
+
+        private long nextSegment;
+
+        private Checkpoint(String lastId, long nextSegment) {
+            this.lastId = lastId;
+            this.nextSegment = nextSegment;
+        }
+
+    }
+
+    private static final class Pages<U extends PaginatedResponse<?>> {
+
+        private final Function<String, Mono<U>> requester;
+
+        private MonoProcessor<U> inFlight;
+
+        private Pages(Function<String, Mono<U>> requester, String afterId) {
+            this.requester = requester;
+            prefetch(afterId);
+        }
+
+        private synchronized void cancel() {
+            Optional.ofNullable(this.inFlight)
+                .ifPresent(MonoProcessor::cancel);
+        }
+
+        private synchronized Mono<Optional<U>> next() {
+            if (this.inFlight == null) {
+                return Mono.just(Optional.empty());
+            }
+
+            return this.inFlight
+                .map(response -> {
+                    List<? extends Resource<?>> resources = response.getResources();
+
+                    if (resources.size() < RESULTS_PER_PAGE) {
+                        clear();
+                    } else {
+                        prefetch(ResourceUtils.getId(resources.get(resources.size() - 1)));
+                    }
+
+                    return Optional.of(response);
+                });
+        }
+
+        private synchronized void clear() {
+            this.inFlight = null;
+        }
+
+        private synchronized void prefetch(String afterId) {
+            this.inFlight = this.requester.apply(afterId).subscribe();
+        }
+
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util;
+
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public final class RelationCacheTest {
+
+    @Test
+    public void getMissingIds() {
+        RelationCache<String> cache = new RelationCache<>();
+        cache.put("test-id-1", "test-value-1");
+
+        assertEquals(Collections.singletonList("test-id-2"), cache.getMissingIds(Stream.of("test-id-1", "test-id-2", null, "test-id-2")));
+    }
+
+    @Test
+    public void resolve() {
+        RelationCache<String> cache = new RelationCache<>();
+        List<String> requested = Collections.synchronizedList(new ArrayList<>());
+
+        Map<String, String> first = cache.resolve(Stream.of("test-id-1", "test-id-2", "test-id-1"), id -> {
+            requested.add(id);
+            return Mono.just(id.replace("id", "value"));
+        }).block();
+        assertEquals(2, first.size());
+
+        Map<String, String> second = cache.resolve(Stream.of("test-id-2", "test-id-3"), id -> {
+            requested.add(id);
+            return Mono.just(id.replace("id", "value"));
+        }).block();
+
+        assertEquals("test-value-3", second.get("test-id-3"));
+        Collections.sort(requested);
+        assertEquals(Arrays.asList("test-id-1", "test-id-2", "test-id-3"), requested);
+    }
+
+    @Test
+    public void resolveSingle() {
+        RelationCache<String> cache = new RelationCache<>();
+        List<String> requested = Collections.synchronizedList(new ArrayList<>());
+
+        Mono<String> first = cache.resolve("test-id-1", id -> Mono.fromCallable(() -> {
+            requested.add(id);
+            return "test-value-1";
+        }));
+        Mono<String> second = cache.resolve("test-id-1", id -> Mono.fromCallable(() -> {
+            requested.add(id);
+            return "test-value-1";
+        }));
+
+        assertEquals("test-value-1", first.block());
+        assertEquals("test-value-1", second.block());
+        assertEquals("test-value-1", cache.resolve("test-id-1", id -> Mono.error(new IllegalStateException())).block());
+        assertEquals(Collections.singletonList("test-id-1"), requested);
+    }
+
+}
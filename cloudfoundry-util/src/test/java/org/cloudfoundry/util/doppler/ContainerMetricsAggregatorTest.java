@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import org.cloudfoundry.doppler.ContainerMetric;
+import org.cloudfoundry.doppler.LogMessage;
+import org.cloudfoundry.doppler.MessageType;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.cloudfoundry.util.doppler.ContainerMetricsAggregator.Resource.CPU;
+import static org.cloudfoundry.util.doppler.ContainerMetricsAggregator.Resource.MEMORY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class ContainerMetricsAggregatorTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final ContainerMetricsAggregator aggregator = new ContainerMetricsAggregator(4, this.clock::get);
+
+    @Test
+    public void acceptIgnoresOtherEvents() {
+        this.aggregator.accept(LogMessage.builder()
+            .applicationId("test-application-id")
+            .message("test-message")
+            .messageType(MessageType.OUT)
+            .timestamp(0L)
+            .build());
+
+        assertEquals(0, this.aggregator.summarize("test-application-id", CPU, Duration.ofMinutes(1)).getCount());
+    }
+
+    @Test
+    public void evictIdle() {
+        record("test-application-id-1", 0, 1.0, 100L);
+        this.clock.set(Duration.ofMinutes(10).toNanos());
+        record("test-application-id-2", 0, 2.0, 200L);
+
+        this.aggregator.evictIdle(Duration.ofMinutes(5));
+
+        assertEquals(0, this.aggregator.summarize("test-application-id-1", CPU, Duration.ofHours(1)).getCount());
+        assertEquals(1, this.aggregator.summarize("test-application-id-2", CPU, Duration.ofHours(1)).getCount());
+    }
+
+    @Test
+    public void retain() {
+        record("test-application-id-1", 0, 1.0, 100L);
+        record("test-application-id-2", 0, 2.0, 200L);
+
+        this.aggregator.retain(Collections.singleton("test-application-id-2"));
+
+        assertEquals(0, this.aggregator.summarize("test-application-id-1", CPU, Duration.ofMinutes(1)).getCount());
+        assertEquals(1, this.aggregator.summarize("test-application-id-2", CPU, Duration.ofMinutes(1)).getCount());
+    }
+
+    @Test
+    public void summarizeAllInstances() {
+        record("test-application-id", 0, 10.0, 100L);
+        record("test-application-id", 3, 30.0, 300L);
+
+        WindowSummary summary = this.aggregator.summarize("test-application-id", MEMORY, Duration.ofMinutes(1));
+
+        assertEquals(2, summary.getCount());
+        assertEquals(200.0, summary.getAverage(), 0.0);
+        assertEquals(300.0, summary.getMaximum(), 0.0);
+    }
+
+    @Test
+    public void summarizeInstance() {
+        for (int i = 1; i <= 4; i++) {
+            record("test-application-id", 1, i * 10.0, i * 100L);
+        }
+        record("test-application-id", 0, 99.0, 900L);
+
+        WindowSummary summary = this.aggregator.summarize("test-application-id", 1, CPU, Duration.ofMinutes(1));
+
+        assertEquals(4, summary.getCount());
+        assertEquals(25.0, summary.getAverage(), 0.0);
+        assertEquals(40.0, summary.getMaximum(), 0.0);
+        assertEquals(20.0, summary.getPercentile(50), 0.0);
+        assertEquals(40.0, summary.getPercentile(99), 0.0);
+    }
+
+    @Test
+    public void summarizeOverwritesOldest() {
+        for (int i = 1; i <= 6; i++) {
+            record("test-application-id", 0, i, 0L);
+        }
+
+        WindowSummary summary = this.aggregator.summarize("test-application-id", 0, CPU, Duration.ofMinutes(1));
+
+        assertEquals(4, summary.getCount());
+        assertEquals(3.0, summary.getPercentile(0), 0.0);
+        assertEquals(6.0, summary.getMaximum(), 0.0);
+    }
+
+    @Test
+    public void summarizeUnknown() {
+        WindowSummary summary = this.aggregator.summarize("test-application-id", 0, CPU, Duration.ofMinutes(1));
+
+        assertEquals(0, summary.getCount());
+        assertTrue(Double.isNaN(summary.getAverage()));
+    }
+
+    @Test
+    public void summarizeWindow() {
+        record("test-application-id", 0, 10.0, 100L);
+        this.clock.set(Duration.ofSeconds(60).toNanos());
+        record("test-application-id", 0, 20.0, 200L);
+        this.clock.set(Duration.ofSeconds(90).toNanos());
+
+        assertEquals(1, this.aggregator.summarize("test-application-id", 0, CPU, Duration.ofSeconds(45)).getCount());
+        assertEquals(2, this.aggregator.summarize("test-application-id", 0, CPU, Duration.ofSeconds(90)).getCount());
+    }
+
+    private void record(String applicationId, int instanceIndex, double cpu, long memory) {
+        this.aggregator.accept(ContainerMetric.builder()
+            .applicationId(applicationId)
+            .cpuPercentage(cpu)
+            .diskBytes(memory * 2)
+            .instanceIndex(instanceIndex)
+            .memoryBytes(memory)
+            .build());
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import org.cloudfoundry.doppler.HttpStartStop;
+import org.cloudfoundry.doppler.Method;
+import org.cloudfoundry.doppler.PeerType;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public final class HttpLatencyAnalyticsTest {
+
+    private static final UUID APPLICATION_ID = UUID.fromString("0a1b2c3d-4e5f-6789-abcd-ef0123456789");
+
+    private final HttpLatencyAnalytics analytics = new HttpLatencyAnalytics(PeerType.CLIENT, 2);
+
+    @Test
+    public void maximumRoutes() {
+        this.analytics.accept(httpStartStop("http://test.example.com/a", PeerType.CLIENT, 200, 1_000_000));
+        this.analytics.accept(httpStartStop("http://test.example.com/b", PeerType.CLIENT, 200, 1_000_000));
+        this.analytics.accept(httpStartStop("http://test.example.com/c", PeerType.CLIENT, 200, 1_000_000));
+        this.analytics.accept(httpStartStop("http://test.example.com/d", PeerType.CLIENT, 200, 1_000_000));
+
+        HttpLatencySnapshot snapshot = this.analytics.snapshot();
+
+        assertEquals(3, snapshot.getRoutes(APPLICATION_ID).size());
+        assertEquals(2, snapshot.getRoutes(APPLICATION_ID).get(HttpLatencyAnalytics.OTHER_ROUTE).getLatencies().getCount());
+    }
+
+    @Test
+    public void peerType() {
+        this.analytics.accept(httpStartStop("http://test.example.com/a", PeerType.SERVER, 200, 1_000_000));
+
+        assertEquals(Collections.emptySet(), this.analytics.snapshot().getApplicationIds());
+    }
+
+    @Test
+    public void snapshot() {
+        this.analytics.accept(httpStartStop("http://test.example.com/orders/1", PeerType.CLIENT, 200, 2_000_000));
+        this.analytics.accept(httpStartStop("http://test.example.com/orders/2", PeerType.CLIENT, 503, 4_000_000));
+        this.analytics.accept(httpStartStop("http://test.example.com/health", PeerType.CLIENT, 200, 60_000));
+
+        HttpLatencySnapshot snapshot = this.analytics.snapshot();
+
+        RouteStatistics orders = snapshot.getRoutes(APPLICATION_ID).get("test.example.com/orders/{id}");
+        assertEquals(2, orders.getLatencies().getCount());
+        assertEquals(4_000, orders.getLatencies().getMaximum());
+        assertEquals(1, orders.getStatusCount(2));
+        assertEquals(1, orders.getStatusCount(5));
+
+        RouteStatistics application = snapshot.getApplication(APPLICATION_ID);
+        assertEquals(3, application.getLatencies().getCount());
+        assertEquals(2, application.getStatusCount(2));
+
+        assertEquals(Collections.emptySet(), this.analytics.snapshot().getApplicationIds());
+    }
+
+    private static HttpStartStop httpStartStop(String uri, PeerType peerType, int statusCode, long duration) {
+        return HttpStartStop.builder()
+            .applicationId(APPLICATION_ID)
+            .contentLength(0L)
+            .method(Method.GET)
+            .peerType(peerType)
+            .remoteAddress("test-remote-address")
+            .requestId(UUID.fromString("1a1b2c3d-4e5f-6789-abcd-ef0123456789"))
+            .startTimestamp(1_000_000_000L)
+            .statusCode(statusCode)
+            .stopTimestamp(1_000_000_000L + duration)
+            .uri(uri)
+            .userAgent("test-user-agent")
+            .build();
+    }
+
+}
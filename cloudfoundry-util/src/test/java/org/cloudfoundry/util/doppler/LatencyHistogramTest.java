@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class LatencyHistogramTest {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void empty() {
+        assertEquals(0, this.histogram.getCount());
+        assertEquals(0, this.histogram.getValueAtPercentile(99));
+        assertTrue(Double.isNaN(this.histogram.getMean()));
+    }
+
+    @Test
+    public void index() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            long bucketValue = LatencyHistogram.getValue(LatencyHistogram.getIndex(value));
+            assertTrue(String.format("value %d reported as %d", value, bucketValue), Math.abs(bucketValue - value) <= Math.max(1, value / LatencyHistogram.HALF_SUB_BUCKETS));
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        for (int i = 1; i <= 1_000; i++) {
+            this.histogram.record(i * 1_000L);
+        }
+
+        assertEquals(1_000, this.histogram.getCount());
+        assertEquals(1_000_000, this.histogram.getMaximum());
+        assertEquals(500_500.0, this.histogram.getMean(), 0.0);
+        assertEquals(500_000, this.histogram.getValueAtPercentile(50), 500_000 / LatencyHistogram.HALF_SUB_BUCKETS);
+        assertEquals(990_000, this.histogram.getValueAtPercentile(99), 990_000 / LatencyHistogram.HALF_SUB_BUCKETS);
+        assertEquals(1_000_000, this.histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void reset() {
+        this.histogram.record(100);
+        this.histogram.reset();
+
+        assertEquals(0, this.histogram.getCount());
+        assertEquals(0, this.histogram.getMaximum());
+    }
+
+    @Test
+    public void small() {
+        this.histogram.record(3);
+        this.histogram.record(5);
+
+        assertEquals(3, this.histogram.getValueAtPercentile(50));
+        assertEquals(5, this.histogram.getValueAtPercentile(100));
+    }
+
+}
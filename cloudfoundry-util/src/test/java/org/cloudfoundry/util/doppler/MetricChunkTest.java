@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class MetricChunkTest {
+
+    private final MetricChunk chunk = new MetricChunk();
+
+    @Test
+    public void compression() {
+        for (int i = 0; i < MetricChunk.CAPACITY; i++) {
+            this.chunk.append(1_000_000L + i * 10_000L, 10, 42.5, 42.5, 425.0, 42.5);
+        }
+
+        assertTrue(this.chunk.isFull());
+        assertTrue(String.format("%d bytes", this.chunk.getBytes()), this.chunk.getBytes() < MetricChunk.CAPACITY * 7);
+    }
+
+    @Test
+    public void range() {
+        for (int i = 0; i < 10; i++) {
+            this.chunk.append(i * 1_000L, 1, i, i, i, i);
+        }
+
+        List<DataPoint> points = new ArrayList<>();
+        this.chunk.decode(3_000, 5_000, points);
+
+        assertEquals(2, points.size());
+        assertEquals(3_000, points.get(0).getTimestampMillis());
+        assertEquals(4_000, points.get(1).getTimestampMillis());
+    }
+
+    @Test
+    public void roundTrip() {
+        this.chunk.append(1_000, 3, -1.5, 7.25, 9.0, 2.0);
+        this.chunk.append(2_000, 1, 0.1, 0.1, 0.1, 0.1);
+        this.chunk.append(3_007, 5, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NaN, -0.0);
+        this.chunk.seal();
+
+        List<DataPoint> points = new ArrayList<>();
+        this.chunk.decode(Long.MIN_VALUE, Long.MAX_VALUE, points);
+
+        assertEquals(3, points.size());
+        assertPoint(points.get(0), 1_000, 3, -1.5, 7.25, 9.0, 2.0);
+        assertPoint(points.get(1), 2_000, 1, 0.1, 0.1, 0.1, 0.1);
+        assertPoint(points.get(2), 3_007, 5, Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NaN, -0.0);
+    }
+
+    private static void assertPoint(DataPoint point, long timestamp, long count, double minimum, double maximum, double sum, double last) {
+        assertEquals(timestamp, point.getTimestampMillis());
+        assertEquals(count, point.getCount());
+        assertEquals(minimum, point.getMinimum(), 0.0);
+        assertEquals(maximum, point.getMaximum(), 0.0);
+        assertEquals(sum, point.getSum(), 0.0);
+        assertEquals(last, point.getLast(), 0.0);
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import org.cloudfoundry.doppler.CounterEvent;
+import org.cloudfoundry.doppler.ValueMetric;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public final class MetricStoreTest {
+
+    private static final SeriesKey KEY = SeriesKey.of("test-origin", "test-deployment", "test-name");
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final MetricStore store = new MetricStore(Arrays.asList(Rollup.of(Duration.ofSeconds(10), Duration.ofMinutes(10)), Rollup.of(Duration.ofMinutes(1), Duration.ofHours(1))),
+        this.clock::get);
+
+    @Test
+    public void downsample() {
+        for (int i = 0; i < 120; i++) {
+            this.store.record(KEY, i * 1_000L, i);
+        }
+
+        List<DataPoint> fine = this.store.query(KEY, Duration.ofSeconds(10), Instant.EPOCH, Instant.ofEpochSecond(120));
+        assertEquals(12, fine.size());
+        assertEquals(10, fine.get(1).getCount());
+        assertEquals(10.0, fine.get(1).getMinimum(), 0.0);
+        assertEquals(19.0, fine.get(1).getMaximum(), 0.0);
+        assertEquals(14.5, fine.get(1).getAverage(), 0.0);
+
+        List<DataPoint> coarse = this.store.query(KEY, Duration.ofMinutes(1), Instant.EPOCH, Instant.ofEpochSecond(120));
+        assertEquals(2, coarse.size());
+        assertEquals(Instant.ofEpochSecond(60), coarse.get(1).getTimestamp());
+        assertEquals(119.0, coarse.get(1).getLast(), 0.0);
+    }
+
+    @Test
+    public void late() {
+        this.store.record(KEY, 120_000, 1);
+        this.store.record(KEY, 1_000, 2);
+
+        assertEquals(1, this.store.getLate());
+    }
+
+    @Test
+    public void recordCounterEvent() {
+        this.store.record(KEY, 1_000, CounterEvent.builder().delta(3L).name("test-counter").build());
+        this.store.record(KEY, 2_000, CounterEvent.builder().delta(4L).name("test-counter").build());
+
+        List<DataPoint> points = this.store.query(KEY, Duration.ofSeconds(10), Instant.EPOCH, Instant.ofEpochSecond(10));
+
+        assertEquals(1, points.size());
+        assertEquals(7.0, points.get(0).getSum(), 0.0);
+    }
+
+    @Test
+    public void recordValueMetric() {
+        this.store.record(KEY, 1_000, ValueMetric.builder().name("test-value").unit("test-unit").value(1.5).build());
+
+        assertEquals(1, this.store.query(KEY, Duration.ofMinutes(1), Instant.EPOCH, Instant.ofEpochSecond(60)).size());
+    }
+
+    @Test
+    public void retention() {
+        for (int i = 0; i < 3_600; i++) {
+            this.store.record(KEY, i * 1_000L, i);
+        }
+
+        List<DataPoint> fine = this.store.query(KEY, Duration.ofSeconds(10), Instant.EPOCH, Instant.ofEpochSecond(3_600));
+        assertEquals(Instant.ofEpochSecond(3_590), fine.get(fine.size() - 1).getTimestamp());
+        assertEquals(true, fine.size() < 360);
+
+        assertEquals(60, this.store.query(KEY, Duration.ofMinutes(1), Instant.EPOCH, Instant.ofEpochSecond(3_600)).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownRollup() {
+        this.store.query(KEY, Duration.ofSeconds(30), Instant.EPOCH, Instant.ofEpochSecond(60));
+    }
+
+}
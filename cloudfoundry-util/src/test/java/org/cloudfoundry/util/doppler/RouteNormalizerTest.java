@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.doppler;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public final class RouteNormalizerTest {
+
+    @Test
+    public void hostOnly() {
+        assertEquals("test.example.com", RouteNormalizer.normalize("http://Test.Example.com"));
+    }
+
+    @Test
+    public void identifiers() {
+        assertEquals("test.example.com/orders/{id}/items/{id}", RouteNormalizer.normalize("https://test.example.com/orders/12345/items/0a1b2c3d-4e5f-6789-abcd-ef0123456789"));
+    }
+
+    @Test
+    public void noScheme() {
+        assertEquals("/v2/apps/{id}", RouteNormalizer.normalize("/v2/apps/42"));
+    }
+
+    @Test
+    public void query() {
+        assertEquals("test.example.com/search", RouteNormalizer.normalize("http://test.example.com/search?q=12345#top"));
+    }
+
+    @Test
+    public void words() {
+        assertEquals("test.example.com/cafe/deadbeef", RouteNormalizer.normalize("http://test.example.com/cafe/deadbeef"));
+    }
+
+}
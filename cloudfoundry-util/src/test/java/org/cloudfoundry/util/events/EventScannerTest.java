@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.events;
+
+import org.cloudfoundry.client.v2.Metadata;
+import org.cloudfoundry.client.v2.events.EventEntity;
+import org.cloudfoundry.client.v2.events.EventResource;
+import org.cloudfoundry.client.v2.events.ListEventsRequest;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
+import org.cloudfoundry.util.DateUtils;
+import org.cloudfoundry.util.ResourceUtils;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class EventScannerTest {
+
+    private static final Instant START = Instant.parse("2016-06-01T00:00:00Z");
+
+    private final List<EventResource> events = new ArrayList<>();
+
+    private final AtomicInteger shardRequests = new AtomicInteger();
+
+    public EventScannerTest() {
+        for (int i = 0; i < 40; i++) {
+            this.events.add(event(String.format("test-id-%02d", i), START.plusSeconds(i / 4)));
+        }
+
+        for (int i = 40; i < 50; i++) {
+            this.events.add(event(String.format("test-id-%02d", i), START.plusSeconds(10 + (i - 40) * 9)));
+        }
+
+        Collections.shuffle(this.events);
+    }
+
+    @Test
+    public void scan() {
+        List<String> ids = new EventScanner(this::list, 4, 5)
+            .scan(START, START.plusSeconds(100), Collections.emptyList())
+            .map(ResourceUtils::getId)
+            .collectList()
+            .block();
+
+        List<String> expected = new ArrayList<>(ids);
+        Collections.sort(expected);
+
+        assertEquals(50, ids.size());
+        assertEquals(expected.stream().map(this::getTimestamp).collect(Collectors.toList()), ids.stream().map(this::getTimestamp).collect(Collectors.toList()));
+        assertTrue(this.shardRequests.get() >= 10);
+    }
+
+    @Test
+    public void scanBoundsShardsAhead() {
+        AtomicInteger requested = new AtomicInteger();
+
+        MonoProcessor<List<EventResource>> scan = new EventScanner(request -> {
+            if (request.getResultsPerPage() == 1) {
+                return list(request);
+            }
+
+            requested.incrementAndGet();
+            return START.equals(DateUtils.parseInstantFromIso8601(request.getTimestamps().get(0))) ? Mono.<ListEventsResponse>never() : list(request);
+        }, 2, 5)
+            .scan(START, START.plusSeconds(100), Collections.emptyList())
+            .collectList()
+            .subscribe();
+
+        assertEquals(2, requested.get());
+        scan.cancel();
+    }
+
+    @Test
+    public void scanPartialSeconds() {
+        List<String> ids = new EventScanner(this::list, 4, 5)
+            .scan(START.plusMillis(500), START.plusSeconds(9).plusMillis(500), Collections.emptyList())
+            .map(ResourceUtils::getId)
+            .collectList()
+            .block();
+
+        List<String> expected = IntStream.range(4, 40)
+            .mapToObj(i -> String.format("test-id-%02d", i))
+            .collect(Collectors.toList());
+
+        assertEquals(new HashSet<>(expected), new HashSet<>(ids));
+        assertEquals(expected.size(), ids.size());
+    }
+
+    @Test
+    public void scanUnordered() {
+        List<String> ids = new EventScanner(this::list, 4, 5)
+            .scanUnordered(START, START.plusSeconds(100), Collections.emptyList())
+            .map(ResourceUtils::getId)
+            .collectList()
+            .block();
+
+        assertEquals(50, ids.size());
+        assertEquals(50, new HashSet<>(ids).size());
+    }
+
+    private static EventResource event(String id, Instant timestamp) {
+        return EventResource.builder()
+            .metadata(Metadata.builder()
+                .id(id)
+                .build())
+            .entity(EventEntity.builder()
+                .timestamp(DateUtils.formatToIso8601(timestamp))
+                .build())
+            .build();
+    }
+
+    private Instant getTimestamp(String id) {
+        return this.events.stream()
+            .filter(resource -> ResourceUtils.getId(resource).equals(id))
+            .map(resource -> DateUtils.parseInstantFromIso8601(ResourceUtils.getEntity(resource).getTimestamp()))
+            .findFirst()
+            .get();
+    }
+
+    private Mono<ListEventsResponse> list(ListEventsRequest request) {
+        Instant from = DateUtils.parseInstantFromIso8601(request.getTimestamps().get(0));
+        Instant to = DateUtils.parseInstantFromIso8601(request.getBeforeTimestamps().get(0));
+
+        List<EventResource> matches = this.events.stream()
+            .filter(resource -> {
+                Instant timestamp = DateUtils.parseInstantFromIso8601(ResourceUtils.getEntity(resource).getTimestamp());
+                return !timestamp.isBefore(from) && timestamp.isBefore(to);
+            })
+            .collect(Collectors.toList());
+
+        int resultsPerPage = request.getResultsPerPage();
+        if (resultsPerPage > 1) {
+            this.shardRequests.incrementAndGet();
+        }
+
+        int first = (request.getPage() - 1) * resultsPerPage;
+
+        return Mono.just(ListEventsResponse.builder()
+            .resources(matches.subList(Math.min(first, matches.size()), Math.min(first + resultsPerPage, matches.size())))
+            .totalPages(Math.max(1, (matches.size() + resultsPerPage - 1) / resultsPerPage))
+            .totalResults(matches.size())
+            .build());
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.events;
+
+import org.cloudfoundry.client.v2.Metadata;
+import org.cloudfoundry.client.v2.OrderDirection;
+import org.cloudfoundry.client.v2.events.EventEntity;
+import org.cloudfoundry.client.v2.events.EventResource;
+import org.cloudfoundry.client.v2.events.ListEventsRequest;
+import org.cloudfoundry.client.v2.events.ListEventsResponse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public final class EventTailerTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void tailDeliversEventsAfterLatestEvent() {
+        Path checkpoint = this.folder.getRoot().toPath().resolve("checkpoint");
+
+        EventTailer tailer = new EventTailer(request -> {
+            if (request.getOrderDirection() == OrderDirection.DESCENDING) {
+                return events(event("test-id-2", "2016-06-08T16:41:21Z"));
+            }
+
+            return events(event("test-id-1", "2016-06-08T16:41:20Z"), event("test-id-2", "2016-06-08T16:41:21Z"), event("test-id-3", "2016-06-08T16:41:23Z"));
+        }, checkpoint, Duration.ofMillis(10), Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        List<String> ids = tailer.tail(Collections.emptyList())
+            .take(1)
+            .map(resource -> resource.getMetadata().getId())
+            .collectList()
+            .block();
+
+        assertEquals(Collections.singletonList("test-id-3"), ids);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tailFailsOnNonTransientError() throws IOException {
+        Path checkpoint = this.folder.getRoot().toPath().resolve("checkpoint");
+        Files.write(checkpoint, Collections.singletonList("2016-06-08T16:41:20Z"), StandardCharsets.UTF_8);
+
+        EventTailer tailer = new EventTailer(request -> Mono.error(new IllegalArgumentException("test-message")),
+            checkpoint, Duration.ofMillis(10), Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        tailer.tail(Collections.emptyList())
+            .take(1)
+            .collectList()
+            .block();
+    }
+
+    @Test
+    public void tailResumesFromCheckpoint() throws IOException {
+        Path checkpoint = this.folder.getRoot().toPath().resolve("checkpoint");
+        Files.write(checkpoint, Arrays.asList("2016-06-08T16:41:20Z", "test-id-1 2016-06-08T16:41:20Z"), StandardCharsets.UTF_8);
+
+        List<ListEventsRequest> requests = new ArrayList<>();
+        AtomicInteger rounds = new AtomicInteger();
+
+        EventTailer tailer = new EventTailer(request -> {
+            requests.add(request);
+
+            return rounds.getAndIncrement() == 0 ?
+                events(event("test-id-1", "2016-06-08T16:41:20Z"), event("test-id-3", "2016-06-08T16:41:22Z"), event("test-id-2", "2016-06-08T16:41:21Z")) :
+                events(event("test-id-2", "2016-06-08T16:41:21Z"), event("test-id-3", "2016-06-08T16:41:22Z"), event("test-id-4", "2016-06-08T16:41:22Z"));
+        }, checkpoint, Duration.ofMillis(10), Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        List<String> ids = tailer.tail(Collections.emptyList())
+            .take(3)
+            .map(resource -> resource.getMetadata().getId())
+            .collectList()
+            .block();
+
+        assertEquals(Arrays.asList("test-id-2", "test-id-3", "test-id-4"), ids);
+        assertEquals("2016-06-08T16:41:15Z", requests.get(0).getTimestamps().get(0));
+        assertEquals("2016-06-08T16:41:17Z", requests.get(1).getTimestamps().get(0));
+        assertEquals("2016-06-08T16:41:22Z", Files.readAllLines(checkpoint, StandardCharsets.UTF_8).get(0));
+    }
+
+    @Test
+    public void tailRetriesTransientError() throws IOException {
+        Path checkpoint = this.folder.getRoot().toPath().resolve("checkpoint");
+        Files.write(checkpoint, Collections.singletonList("2016-06-08T16:41:20Z"), StandardCharsets.UTF_8);
+
+        AtomicInteger attempts = new AtomicInteger();
+
+        EventTailer tailer = new EventTailer(request -> attempts.getAndIncrement() < 2 ?
+            Mono.<ListEventsResponse>error(new RuntimeException("test-message")) :
+            events(event("test-id-1", "2016-06-08T16:41:21Z")), checkpoint, Duration.ofMillis(10), Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        List<String> ids = tailer.tail(Collections.emptyList())
+            .take(1)
+            .map(resource -> resource.getMetadata().getId())
+            .collectList()
+            .block();
+
+        assertEquals(Collections.singletonList("test-id-1"), ids);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void tailStartsAtLatestEvent() {
+        Path checkpoint = this.folder.getRoot().toPath().resolve("checkpoint");
+        AtomicInteger rounds = new AtomicInteger();
+
+        EventTailer tailer = new EventTailer(request -> {
+            if (request.getOrderDirection() == OrderDirection.DESCENDING) {
+                return events(event("test-id-2", "2016-06-08T16:41:21Z"));
+            }
+
+            return rounds.getAndIncrement() == 0 ?
+                events(event("test-id-1", "2016-06-08T16:41:20Z"), event("test-id-2", "2016-06-08T16:41:21Z")) :
+                events(event("test-id-1", "2016-06-08T16:41:20Z"), event("test-id-2", "2016-06-08T16:41:21Z"), event("test-id-3", "2016-06-08T16:41:25Z"));
+        }, checkpoint, Duration.ofMillis(10), Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        List<String> ids = tailer.tail(Collections.singletonList("audit.app.update"))
+            .take(1)
+            .map(resource -> resource.getMetadata().getId())
+            .collectList()
+            .block();
+
+        assertEquals(Collections.singletonList("test-id-3"), ids);
+    }
+
+    private static EventResource event(String id, String timestamp) {
+        return EventResource.builder()
+            .metadata(Metadata.builder()
+                .id(id)
+                .build())
+            .entity(EventEntity.builder()
+                .timestamp(timestamp)
+                .build())
+            .build();
+    }
+
+    private static Mono<ListEventsResponse> events(EventResource... resources) {
+        return Mono.just(ListEventsResponse.builder()
+            .totalPages(1)
+            .totalResults(resources.length)
+            .resources(Arrays.stream(resources).collect(Collectors.toList()))
+            .build());
+    }
+
+}
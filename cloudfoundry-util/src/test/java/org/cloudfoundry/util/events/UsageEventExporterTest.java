@@ -0,0 +1,152 @@
+/*
+ * Copyright 2013-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cloudfoundry.util.events;
+
+import org.cloudfoundry.client.v2.Metadata;
+import org.cloudfoundry.client.v2.applicationusageevents.ApplicationUsageEventEntity;
+import org.cloudfoundry.client.v2.applicationusageevents.ApplicationUsageEventResource;
+import org.cloudfoundry.client.v2.applicationusageevents.ListApplicationUsageEventsResponse;
+import org.junit.AfterClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.scheduler.Computations;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class UsageEventExporterTest {
+
+    private static final Scheduler SCHEDULER = Computations.concurrent("test-usage-event-exporter");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @AfterClass
+    public static void shutdown() {
+        SCHEDULER.shutdown();
+    }
+
+    @Test
+    public void exportApplicationUsageEvents() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        List<String> afterIds = new ArrayList<>();
+
+        UsageEventExporter exporter = new UsageEventExporter(afterId -> {
+            afterIds.add(afterId);
+
+            if (afterId == null) {
+                return applicationUsageEvents(0, UsageEventExporter.RESULTS_PER_PAGE);
+            } else if ("test-id-99".equals(afterId)) {
+                return applicationUsageEvents(100, 5);
+            } else {
+                return applicationUsageEvents(0, 0);
+            }
+        }, afterId -> Mono.error(new IllegalStateException()), directory, 50, SCHEDULER);
+
+        assertEquals(Long.valueOf(105), exporter.exportApplicationUsageEvents().block());
+        assertEquals(Arrays.asList(null, "test-id-99"), afterIds);
+        assertEquals(50, readSegment(directory.resolve("application-usage-events-000001.jsonl.gz")).size());
+        assertEquals(50, readSegment(directory.resolve("application-usage-events-000002.jsonl.gz")).size());
+
+        List<String> lines = readSegment(directory.resolve("application-usage-events-000003.jsonl.gz"));
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(4).contains("\"test-id-104\""));
+        assertTrue(lines.get(4).contains("\"app_name\":\"test-application-name\""));
+
+        assertEquals(Arrays.asList("test-id-104", "4"), Files.readAllLines(directory.resolve("application-usage-events.checkpoint"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void exportApplicationUsageEventsCancelsPrefetch() throws InterruptedException {
+        Path directory = this.folder.getRoot().toPath();
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+
+        UsageEventExporter exporter = new UsageEventExporter(afterId -> {
+            if (afterId == null) {
+                return applicationUsageEvents(0, UsageEventExporter.RESULTS_PER_PAGE);
+            }
+
+            return Mono.<ListApplicationUsageEventsResponse>never()
+                .doOnSubscribe(subscription -> requested.countDown())
+                .doOnCancel(cancelled::countDown);
+        }, afterId -> Mono.error(new IllegalStateException()), directory, 50, SCHEDULER);
+
+        MonoProcessor<Long> export = exporter.exportApplicationUsageEvents().subscribe();
+        assertTrue(requested.await(5, TimeUnit.SECONDS));
+
+        export.cancel();
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void exportApplicationUsageEventsResumes() throws IOException {
+        Path directory = this.folder.getRoot().toPath();
+        Files.write(directory.resolve("application-usage-events.checkpoint"), Arrays.asList("test-id-104", "4"), StandardCharsets.UTF_8);
+        List<String> afterIds = new ArrayList<>();
+
+        UsageEventExporter exporter = new UsageEventExporter(afterId -> {
+            afterIds.add(afterId);
+            return applicationUsageEvents(0, 0);
+        }, afterId -> Mono.error(new IllegalStateException()), directory, 50, SCHEDULER);
+
+        assertEquals(Long.valueOf(0), exporter.exportApplicationUsageEvents().block());
+        assertEquals(Collections.singletonList("test-id-104"), afterIds);
+    }
+
+    private static Mono<ListApplicationUsageEventsResponse> applicationUsageEvents(int start, int count) {
+        return Mono.just(ListApplicationUsageEventsResponse.builder()
+            .resources(IntStream.range(start, start + count)
+                .mapToObj(i -> ApplicationUsageEventResource.builder()
+                    .metadata(Metadata.builder()
+                        .id(String.format("test-id-%d", i))
+                        .build())
+                    .entity(ApplicationUsageEventEntity.builder()
+                        .applicationName("test-application-name")
+                        .build())
+                    .build())
+                .collect(Collectors.toList()))
+            .build());
+    }
+
+    private static List<String> readSegment(Path segment) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(segment)), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+}